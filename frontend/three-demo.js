@@ -2,13 +2,19 @@
  * ### three-demo.js
  *
  * Browser-side helper registered globally so Flow views can trigger Three.js rendering
- * with `getElement().executeJs("window.renderThree($0, $1)", containerId, jsonPayload)`.
+ * with `getElement().executeJs("window.renderThree($0, $1)", containerId, bounds)`.
  *
  * Data flow reference:
- * 1. Java view injects a Spring service, serialises DTOs (e.g., via Jackson), and calls
- *    this function with both the target element id and the JSON payload.
- * 2. This module parses the data (if provided) and builds the Three.js scene.
- * 3. Any charts/maps library can follow the same pattern—replace the Three.js code and
+ * 1. `renderThree(elementId, bounds)` sets up the scene and reports the viewport size
+ *    and camera bounds to the view via `$server.requestDetail(...)`.
+ * 2. The Java view decimates the dataset to that viewport and registers the result as a
+ *    binary `StreamResource` (packed little-endian float32/int32 values).
+ * 3. Only the metadata travels through `executeJs`: `refineThree(elementId, { url, type,
+ *    components, length })`. The first reply is the overview; zooming or panning
+ *    requests a refined detail layer for the visible region.
+ * 4. This module fetches the URL, copies each network chunk straight into a
+ *    preallocated typed array and re-renders as chunks arrive (progressive rendering).
+ * 5. Any charts/maps library can follow the same pattern—replace the Three.js code and
  *    expose the function under `window` so Flow can call it.
  *
  * Ensure the module is imported via `@JsModule("./three-demo.js")` and the dependency
@@ -16,8 +22,82 @@
  * the bundle includes the new assets.
  */
 import * as THREE from 'three';
+import { OrbitControls } from 'three/examples/jsm/controls/OrbitControls.js';
 
-window.renderThree = (elementId) => {
+const TYPED_ARRAYS = {
+  float32: Float32Array,
+  int32: Int32Array,
+};
+
+/**
+ * Streams a packed binary resource into a typed array.
+ * `onProgress(filledValues)` is called after every chunk.
+ * Chunks may split a value, so bytes are copied through a Uint8Array view of the target.
+ */
+const streamInto = async (meta, onProgress) => {
+  const ArrayType = TYPED_ARRAYS[meta.type];
+  const target = new ArrayType(meta.length);
+  const bytes = new Uint8Array(target.buffer);
+  const response = await fetch(meta.url);
+  if (!response.ok || !response.body) {
+    throw new Error(`Failed to load ${meta.url}: ${response.status}`);
+  }
+  const reader = response.body.getReader();
+  let offset = 0;
+  for (;;) {
+    const { done, value } = await reader.read();
+    if (done) {
+      break;
+    }
+    bytes.set(value, offset);
+    offset += value.length;
+    onProgress(target, Math.floor(offset / ArrayType.BYTES_PER_ELEMENT));
+  }
+  return target;
+};
+
+const DETAIL_DEBOUNCE_MS = 200;
+
+/** Creates a points layer and streams the resource described by `meta` into it. */
+const loadLayer = (meta, color) => {
+  const geometry = new THREE.BufferGeometry();
+  const layer = new THREE.Points(geometry, new THREE.PointsMaterial({ size: 0.005, color }));
+  let attribute = null;
+  let uploaded = 0;
+  streamInto(meta, (array, filled) => {
+    if (!attribute) {
+      attribute = new THREE.BufferAttribute(array, meta.components);
+      geometry.setAttribute('position', attribute);
+    }
+    // Only upload the newly filled region and draw what has arrived so far
+    attribute.addUpdateRange(uploaded, filled - uploaded);
+    attribute.needsUpdate = true;
+    uploaded = filled;
+    geometry.setDrawRange(0, Math.floor(filled / meta.components));
+  }).catch((error) => console.error(error));
+  return layer;
+};
+
+/** Asks the server for a level of detail matching the viewport and camera view. */
+const requestDetail = (container, state) => {
+  const { camera, controls, renderer } = state;
+  const distance = camera.position.distanceTo(controls.target);
+  const halfHeight = distance * Math.tan(THREE.MathUtils.degToRad(camera.fov / 2));
+  const half = Math.max(halfHeight, halfHeight * camera.aspect);
+  const t = controls.target;
+  const size = renderer.getSize(new THREE.Vector2());
+  container.$server.requestDetail(
+    Math.round(size.x), Math.round(size.y),
+    t.x - half, t.y - half, t.z - half,
+    t.x + half, t.y + half, t.z + half
+  );
+};
+
+/**
+ * Sets up the scene and camera for the data bounds `{ min: [x,y,z], max: [x,y,z] }`,
+ * then requests the overview level of detail from the server.
+ */
+window.renderThree = (elementId, bounds) => {
   const container = document.getElementById(elementId);
   if (!container) {
     console.warn('Three.js container not found for id', elementId);
@@ -28,26 +108,130 @@ window.renderThree = (elementId) => {
   const height = 400;
 
   const scene = new THREE.Scene();
-  const camera = new THREE.PerspectiveCamera(75, width / height, 0.1, 1000);
+  const camera = new THREE.PerspectiveCamera(75, width / height, 0.01, 1000);
   const renderer = new THREE.WebGLRenderer({ antialias: true });
   renderer.setSize(width, height);
 
   container.innerHTML = '';
   container.appendChild(renderer.domElement);
 
-  const geometry = new THREE.BoxGeometry();
-  const material = new THREE.MeshNormalMaterial();
-  const cube = new THREE.Mesh(geometry, material);
-  scene.add(cube);
+  if (!bounds || !container.$server) {
+    camera.position.z = 3;
+    const cube = new THREE.Mesh(new THREE.BoxGeometry(), new THREE.MeshNormalMaterial());
+    scene.add(cube);
+    const animate = () => {
+      cube.rotation.x += 0.01;
+      cube.rotation.y += 0.01;
+      renderer.render(scene, camera);
+      requestAnimationFrame(animate);
+    };
+    animate();
+    return;
+  }
 
-  camera.position.z = 3;
+  const center = new THREE.Vector3().fromArray(bounds.min).add(new THREE.Vector3().fromArray(bounds.max)).multiplyScalar(0.5);
+  const radius = new THREE.Vector3().fromArray(bounds.max).distanceTo(center);
+  camera.position.set(center.x, center.y + radius * 0.6, center.z + radius * 1.2);
+
+  const controls = new OrbitControls(camera, renderer.domElement);
+  controls.target.copy(center);
+  controls.update();
+
+  const state = { scene, camera, controls, renderer, overview: null, detail: null };
+  container.__three = state;
+  (container.__pendingFrames || []).forEach((frame) => window.applyThreeFrame(container, frame));
+  container.__pendingFrames = [];
+
+  // Refine after the user stops zooming or panning
+  let pending = null;
+  controls.addEventListener('end', () => {
+    clearTimeout(pending);
+    pending = setTimeout(() => requestDetail(container, state), DETAIL_DEBOUNCE_MS);
+  });
 
   const animate = () => {
-    cube.rotation.x += 0.01;
-    cube.rotation.y += 0.01;
     renderer.render(scene, camera);
     requestAnimationFrame(animate);
   };
-
   animate();
+
+  requestDetail(container, state);
+};
+
+/**
+ * Receives a level of detail `{ url, type, components, length }` from the server.
+ * The first one becomes the overview; later ones replace the refined detail layer
+ * drawn on top of it.
+ */
+window.refineThree = (elementId, meta) => {
+  const container = document.getElementById(elementId);
+  const state = container && container.__three;
+  if (!state) {
+    return;
+  }
+  if (!state.overview) {
+    state.overview = loadLayer(meta, 0x88bbff);
+    state.scene.add(state.overview);
+    return;
+  }
+  if (state.detail) {
+    state.scene.remove(state.detail);
+    state.detail.geometry.dispose();
+    state.detail.material.dispose();
+  }
+  state.detail = loadLayer(meta, 0xffffff);
+  state.scene.add(state.detail);
+};
+
+const STOCK_COLORS = [0xff5555, 0xffbb33, 0x55dd77];
+
+/**
+ * Applies one live frame `{ upsert: [id, x, z, height, status, ...], remove: [id, ...] }`.
+ * Frames carry only changed objects; bars are created on first sight and updated in place.
+ * Called through push by `LiveSceneService` at a capped frame rate.
+ */
+window.applyThreeFrame = (container, frame) => {
+  // Acknowledge receipt so the server paces its frames by what this client keeps up with
+  if (frame.seq !== undefined) {
+    container.dispatchEvent(new CustomEvent('three-frame-ack', { detail: frame.seq }));
+  }
+  const state = container.__three;
+  if (!state) {
+    // Scene not set up yet: keep the frames (they are deltas) and replay them later
+    (container.__pendingFrames ||= []).push(frame);
+    return;
+  }
+  if (!state.bars) {
+    state.bars = new Map();
+    state.barGroup = new THREE.Group();
+    state.barGroup.position.set(-1.5, -1.2, -1.5);
+    state.scene.add(state.barGroup);
+  }
+  const { bars, barGroup } = state;
+  const { upsert, remove } = frame;
+  for (let i = 0; i < upsert.length; i += 5) {
+    const [id, x, z, height, status] = upsert.slice(i, i + 5);
+    let bar = bars.get(id);
+    if (!bar) {
+      bar = new THREE.Mesh(
+        new THREE.BoxGeometry(0.2, 1, 0.2),
+        new THREE.MeshBasicMaterial()
+      );
+      bars.set(id, bar);
+      barGroup.add(bar);
+    }
+    const h = Math.max(height, 0.01);
+    bar.scale.y = h;
+    bar.position.set(x, h / 2, z);
+    bar.material.color.setHex(STOCK_COLORS[status]);
+  }
+  for (const id of remove) {
+    const bar = bars.get(id);
+    if (bar) {
+      barGroup.remove(bar);
+      bar.geometry.dispose();
+      bar.material.dispose();
+      bars.delete(id);
+    }
+  }
 };
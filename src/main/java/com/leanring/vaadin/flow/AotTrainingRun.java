@@ -0,0 +1,79 @@
+package com.leanring.vaadin.flow;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.List;
+
+/// Training workload for the JDK AOT cache, enabled with `aot.training.enabled=true`.
+///
+/// Once the application is ready, it requests `aot.training.paths` from its own server,
+/// `aot.training.rounds` times, so the cache also records the classes and profiles of
+/// the request path (routing, Vaadin bootstrap, JSON streaming). Then it exits, which
+/// makes the JVM write the cache.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "aot.training.enabled", havingValue = "true")
+class AotTrainingRun {
+
+  private final List<String> paths;
+  private final int rounds;
+
+  /// Constructor with dependency injection
+  /// @param paths Paths to request, relative to the server root
+  /// @param rounds Number of times every path is requested
+  AotTrainingRun(
+    @Value("${aot.training.paths:/,/products,/grid,/api/products?limit=100,/api/products/1,/actuator/health}")
+    List<String> paths,
+    @Value("${aot.training.rounds:20}") int rounds
+  ) {
+    this.paths = paths;
+    this.rounds = rounds;
+  }
+
+  /// Runs the workload off the main thread, then shuts the application down
+  /// @param event Ready event carrying the application context
+  @EventListener
+  void onReady(ApplicationReadyEvent event) {
+    var context = event.getApplicationContext();
+    var port = context.getEnvironment().getProperty("local.server.port", "8080");
+    Thread.ofPlatform().name("aot-training").start(() -> {
+      var exitCode = 0;
+      try {
+        train("http://localhost:" + port);
+      } catch (IOException | RuntimeException e) {
+        log.error("AOT training run failed", e);
+        exitCode = 1;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        exitCode = 1;
+      }
+      var code = exitCode;
+      System.exit(SpringApplication.exit(context, () -> code));
+    });
+  }
+
+  private void train(String base) throws IOException, InterruptedException {
+    try (var client = HttpClient.newHttpClient()) {
+      for (int round = 0; round < rounds; round++) {
+        for (var path : paths) {
+          var response = client.send(HttpRequest.newBuilder(URI.create(base + path)).build(),
+            HttpResponse.BodyHandlers.discarding());
+          if (response.statusCode() >= 400) {
+            throw new IllegalStateException("Training request " + path + " answered " + response.statusCode());
+          }
+        }
+      }
+    }
+    log.info("AOT training run sent {} requests", rounds * paths.size());
+  }
+}
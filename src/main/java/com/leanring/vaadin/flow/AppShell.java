@@ -1,10 +1,13 @@
 package com.leanring.vaadin.flow;
 
 import com.vaadin.flow.component.page.AppShellConfigurator;
+import com.vaadin.flow.component.page.Push;
 import com.vaadin.flow.theme.Theme;
 
 /// Application shell configuration for Vaadin.
-/// Configures global application settings like theme.
+/// Configures global application settings like theme and server push
+/// (used by live views such as the Three.js inventory scene).
+@Push
 @Theme("guild")
 public class AppShell implements AppShellConfigurator {
 }
\ No newline at end of file
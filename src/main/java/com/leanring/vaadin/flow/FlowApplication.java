@@ -1,13 +1,39 @@
 package com.leanring.vaadin.flow;
 
+import java.util.Arrays;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.context.annotation.ImportRuntimeHints;
+import org.springframework.core.env.SimpleCommandLinePropertySource;
+import org.springframework.core.env.StandardEnvironment;
 
 @SpringBootApplication
+@ImportRuntimeHints(NativeHints.class)
 public class FlowApplication {
 
+	/// Spring profile enabling startup profiling (see application-startup.yaml)
+	static final String STARTUP_PROFILE = "startup";
+	private static final int STARTUP_STEP_CAPACITY = 8192;
+
 	public static void main(String[] args) {
-		SpringApplication.run(FlowApplication.class, args);
+		var app = new SpringApplication(FlowApplication.class);
+		if (isStartupProfileRequested(args)) {
+			// Records every startup step (bean creation, auto-config, Vaadin init)
+			// and serves them on /actuator/startup
+			app.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEP_CAPACITY));
+		}
+		app.run(args);
+	}
+
+	/// Checks the active profiles before the context exists, because the
+	/// ApplicationStartup must be installed before the run begins
+	/// @param args Command-line arguments
+	/// @return true if the startup profile is requested via args, system property or env
+	static boolean isStartupProfileRequested(String[] args) {
+		var environment = new StandardEnvironment();
+		environment.getPropertySources().addFirst(new SimpleCommandLinePropertySource(args));
+		return Arrays.asList(environment.getActiveProfiles()).contains(STARTUP_PROFILE);
 	}
 
 }
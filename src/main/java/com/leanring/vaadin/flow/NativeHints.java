@@ -0,0 +1,55 @@
+package com.leanring.vaadin.flow;
+
+import com.leanring.vaadin.flow.forms.Address;
+import com.leanring.vaadin.flow.forms.Person;
+import com.leanring.vaadin.flow.forms.PersonEntity;
+import com.leanring.vaadin.flow.services.catalog.entity.PositiveMoney;
+import com.leanring.vaadin.flow.services.catalog.entity.Product;
+import com.vaadin.flow.router.Route;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.TypeReference;
+import org.springframework.context.annotation.ClassPathScanningCandidateComponentProvider;
+import org.springframework.core.type.filter.AnnotationTypeFilter;
+
+/// Reachability metadata for native-image builds (`-Pproduction,native`).
+///
+/// Spring AOT covers beans and Vaadin covers its own internals; this adds what
+/// only reflection reaches at runtime:
+/// - Every `@Route` view, found by classpath scan at build time, so new views are
+///   picked up without editing this class
+/// - Bean Validation and Binder targets, whose fields, accessors and record
+///   components are introspected reflectively, and custom constraint validators,
+///   which Hibernate Validator instantiates reflectively
+///
+/// Lombok's `@Slf4j` needs nothing here: it generates a plain static logger field.
+class NativeHints implements RuntimeHintsRegistrar {
+
+  private static final Class<?>[] VALIDATED_TYPES = {
+    Product.class, Person.class, PersonEntity.class, Address.class, PositiveMoney.Validator.class
+  };
+
+  @Override
+  public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+    var scanner = new ClassPathScanningCandidateComponentProvider(false);
+    scanner.addIncludeFilter(new AnnotationTypeFilter(Route.class));
+    for (var candidate : scanner.findCandidateComponents(FlowApplication.class.getPackageName())) {
+      hints.reflection().registerType(
+        TypeReference.of(candidate.getBeanClassName()),
+        MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS,
+        MemberCategory.INVOKE_PUBLIC_METHODS
+      );
+    }
+
+    for (var type : VALIDATED_TYPES) {
+      hints.reflection().registerType(
+        type,
+        MemberCategory.DECLARED_FIELDS,
+        MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+        MemberCategory.INTROSPECT_DECLARED_METHODS,
+        MemberCategory.INVOKE_PUBLIC_METHODS
+      );
+    }
+  }
+}
@@ -1,19 +1,36 @@
 package com.leanring.vaadin.flow.forms;
 
+import jakarta.persistence.Embeddable;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Transient;
 import jakarta.validation.constraints.NotBlank;
+import java.io.Serializable;
 
 /// Address class - demonstrates a nested object for binding.
 /// Mutable class with getters/setters for full binder support.
-public class Address {
+///
+/// Embedded in the person row; city and postal code repeat across many persons, so they
+/// are stored once in the [Locality] lookup table. The form still binds plain
+/// `city`/`postalCode` properties: edited values are kept here until the repository
+/// resolves them to a locality, loaded values are read through the locality.
+@Embeddable
+public class Address implements Serializable {
 
   @NotBlank(message = "Street is required")
   private String street;
 
+  @Transient
   @NotBlank(message = "City is required")
   private String city;
 
+  @Transient
   private String postalCode;
 
+  @ManyToOne
+  @JoinColumn(name = "locality_id")
+  private Locality locality;
+
   public Address() {}
 
   public Address(String street, String city, String postalCode) {
@@ -26,9 +43,33 @@ public class Address {
   public String getStreet() { return street; }
   public void setStreet(String street) { this.street = street; }
 
-  public String getCity() { return city; }
-  public void setCity(String city) { this.city = city; }
+  public String getCity() {
+    return city != null || locality == null ? city : locality.getCity();
+  }
+
+  public void setCity(String city) {
+    detachLocality();
+    this.city = city;
+  }
+
+  public String getPostalCode() {
+    return postalCode != null || locality == null ? postalCode : locality.getPostalCode();
+  }
+
+  public void setPostalCode(String postalCode) {
+    detachLocality();
+    this.postalCode = postalCode;
+  }
+
+  public Locality getLocality() { return locality; }
+  public void setLocality(Locality locality) { this.locality = locality; }
 
-  public String getPostalCode() { return postalCode; }
-  public void setPostalCode(String postalCode) { this.postalCode = postalCode; }
+  /// Copies the locality values into the editable fields before one of them changes
+  private void detachLocality() {
+    if (locality != null) {
+      city = getCity();
+      postalCode = getPostalCode();
+      locality = null;
+    }
+  }
 }
@@ -0,0 +1,265 @@
+package com.leanring.vaadin.flow.forms;
+
+import com.vaadin.flow.data.binder.ValidationResult;
+import com.vaadin.flow.data.binder.Validator;
+import com.vaadin.flow.data.binder.ValueContext;
+import jakarta.validation.Constraint;
+import jakarta.validation.Validation;
+import jakarta.validation.constraints.DecimalMin;
+import jakarta.validation.constraints.Email;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
+import java.io.Serial;
+import java.io.Serializable;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+
+/// Field validators compiled once per bean or record type from its Jakarta constraints.
+///
+/// `BeanValidationBinder` introspects the bean type for every binder instance and runs
+/// each keystroke through Hibernate Validator (metadata lookup, violation objects,
+/// message interpolation). A plan reads the constraint annotations of a property path
+/// once per JVM and turns them into plain predicates, so forms bind with explicit
+/// getters/setters and validation is a few comparisons:
+/// - Supported: `@NotNull`, `@NotBlank`, `@Size`, `@Min`, `@Max`, `@DecimalMin`,
+///   `@Email`, `@Pattern`, each with a literal message
+/// - Anything else (custom constraints, message templates) makes that property fall back
+///   to Hibernate Validator, so the annotations remain the single source of truth
+///
+/// Validators are serializable as a reference to their type and path, so binders holding
+/// them can be stored with the session; deserialization resolves the shared compiled one.
+///
+/// ```java
+/// binder.forField(email)
+///   .withValidator(ConstraintPlan.of(Person.class).validator("email"))
+///   .bind(Person::email, null);
+/// ```
+public final class ConstraintPlan {
+
+  private static final ClassValue<ConstraintPlan> PLANS = new ClassValue<>() {
+    @Override
+    protected ConstraintPlan computeValue(Class<?> type) {
+      return new ConstraintPlan(type);
+    }
+  };
+
+  private static final String ATOM = "[a-z0-9!#$%&'*+/=?^_`{|}~\\u0080-\\uFFFF-]+";
+  private static final String LABEL = "[a-z0-9\\u0080-\\uFFFF](?:[a-z0-9\\u0080-\\uFFFF-]{0,61}[a-z0-9\\u0080-\\uFFFF])?";
+  private static final java.util.regex.Pattern EMAIL = java.util.regex.Pattern.compile(
+    ATOM + "(?:\\." + ATOM + ")*@" + LABEL + "(?:\\." + LABEL + ")*",
+    java.util.regex.Pattern.CASE_INSENSITIVE
+  );
+  private static final int MAX_LOCAL_PART = 64;
+  private static final int MAX_DOMAIN = 255;
+
+  private final Class<?> type;
+  private final Map<String, Validator<?>> validators = new ConcurrentHashMap<>();
+
+  private ConstraintPlan(Class<?> type) {
+    this.type = type;
+  }
+
+  /// Gets the plan of a type, compiling it on first use
+  /// @param type Bean or record class carrying Jakarta constraints
+  /// @return Shared plan
+  public static ConstraintPlan of(Class<?> type) {
+    return PLANS.get(type);
+  }
+
+  /// Gets the compiled validator of a property
+  /// @param path Property name, or dotted path into nested beans (e.g. `address.city`)
+  /// @param <V> Property value type
+  /// @return Validator enforcing the property's constraints
+  /// @throws IllegalArgumentException if the path does not name a field
+  @SuppressWarnings("unchecked")
+  public <V> Validator<V> validator(String path) {
+    return (Validator<V>) validators.computeIfAbsent(path, p -> new Compiled(type, p, compile(p)));
+  }
+
+  /// Resolves the path and translates its constraint annotations into rules
+  private Validator<?> compile(String path) {
+    var owner = type;
+    Field field = null;
+    for (var name : path.split("\\.")) {
+      if (field != null) {
+        owner = field.getType();
+      }
+      field = findField(owner, name);
+    }
+
+    var rules = new ArrayList<Rule>();
+    for (var annotation : field.getAnnotations()) {
+      if (!annotation.annotationType().isAnnotationPresent(Constraint.class)) {
+        continue;
+      }
+      var rule = toRule(annotation);
+      if (rule == null) {
+        return fallback(owner, field.getName());
+      }
+      rules.add(rule);
+    }
+    return rules.isEmpty() ? Validator.alwaysPass() : evaluate(List.copyOf(rules));
+  }
+
+  private static Validator<Object> evaluate(List<Rule> rules) {
+    return (value, context) -> {
+      for (var rule : rules) {
+        if (!rule.test().test(value)) {
+          return ValidationResult.error(rule.message());
+        }
+      }
+      return ValidationResult.ok();
+    };
+  }
+
+  /// Compiles one constraint, or returns null if it needs Hibernate Validator
+  private static Rule toRule(Annotation annotation) {
+    return switch (annotation) {
+      case NotNull a when literal(a.message()) ->
+        new Rule(value -> value != null, a.message());
+      case NotBlank a when literal(a.message()) ->
+        new Rule(value -> value != null && !value.toString().trim().isEmpty(), a.message());
+      case Size a when literal(a.message()) ->
+        new Rule(value -> value == null || within(size(value), a.min(), a.max()), a.message());
+      case Min a when literal(a.message()) ->
+        new Rule(value -> value == null || decimal(value).compareTo(BigDecimal.valueOf(a.value())) >= 0, a.message());
+      case Max a when literal(a.message()) ->
+        new Rule(value -> value == null || decimal(value).compareTo(BigDecimal.valueOf(a.value())) <= 0, a.message());
+      case DecimalMin a when literal(a.message()) -> {
+        var min = new BigDecimal(a.value());
+        yield new Rule(value -> {
+          if (value == null) {
+            return true;
+          }
+          var comparison = decimal(value).compareTo(min);
+          return a.inclusive() ? comparison >= 0 : comparison > 0;
+        }, a.message());
+      }
+      case Email a when literal(a.message()) && ".*".equals(a.regexp()) ->
+        new Rule(value -> value == null || isEmail(value.toString()), a.message());
+      case Pattern a when literal(a.message()) -> {
+        var flags = 0;
+        for (var flag : a.flags()) {
+          flags |= flag.getValue();
+        }
+        var compiled = java.util.regex.Pattern.compile(a.regexp(), flags);
+        yield new Rule(value -> value == null || compiled.matcher(value.toString()).matches(), a.message());
+      }
+      default -> null;
+    };
+  }
+
+  /// Validates the property with Hibernate Validator (unsupported constraints)
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private static Validator<Object> fallback(Class<?> owner, String property) {
+    return (value, context) -> {
+      var violations = BeanValidation.VALIDATOR.validateValue((Class) owner, property, value);
+      return violations.isEmpty()
+        ? ValidationResult.ok()
+        : ValidationResult.error(((jakarta.validation.ConstraintViolation<?>) violations.iterator().next()).getMessage());
+    };
+  }
+
+  /// Same acceptance as Hibernate Validator's `@Email` for dot-atom addresses
+  static boolean isEmail(String value) {
+    if (value.isEmpty()) {
+      return true;
+    }
+    var at = value.lastIndexOf('@');
+    return at > 0
+      && at <= MAX_LOCAL_PART
+      && value.length() - at - 1 <= MAX_DOMAIN
+      && EMAIL.matcher(value).matches();
+  }
+
+  private static boolean literal(String message) {
+    return !message.contains("{");
+  }
+
+  private static boolean within(int size, int min, int max) {
+    return size >= min && size <= max;
+  }
+
+  private static int size(Object value) {
+    return switch (value) {
+      case CharSequence text -> text.length();
+      case Collection<?> collection -> collection.size();
+      case Map<?, ?> map -> map.size();
+      default -> throw new IllegalArgumentException("@Size not supported on " + value.getClass());
+    };
+  }
+
+  private static BigDecimal decimal(Object value) {
+    return switch (value) {
+      case BigDecimal decimal -> decimal;
+      case Integer number -> BigDecimal.valueOf(number);
+      case Long number -> BigDecimal.valueOf(number);
+      case Number number -> new BigDecimal(number.toString());
+      default -> new BigDecimal(value.toString());
+    };
+  }
+
+  private static Field findField(Class<?> owner, String name) {
+    for (var current = owner; current != null; current = current.getSuperclass()) {
+      for (var field : current.getDeclaredFields()) {
+        if (field.getName().equals(name)) {
+          return field;
+        }
+      }
+    }
+    throw new IllegalArgumentException("No property '%s' on %s".formatted(name, owner.getName()));
+  }
+
+  /// Compiled validator of one property, serialized as its (type, path) key
+  private static final class Compiled implements Validator<Object> {
+    private final Class<?> type;
+    private final String path;
+    private final transient Validator<Object> delegate;
+
+    @SuppressWarnings("unchecked")
+    Compiled(Class<?> type, String path, Validator<?> delegate) {
+      this.type = type;
+      this.path = path;
+      this.delegate = (Validator<Object>) delegate;
+    }
+
+    @Override
+    public ValidationResult apply(Object value, ValueContext context) {
+      return delegate.apply(value, context);
+    }
+
+    @Serial
+    private Object writeReplace() {
+      return new Key(type, path);
+    }
+  }
+
+  /// Serialized form of a compiled validator
+  private record Key(Class<?> type, String path) implements Serializable {
+    @Serial
+    private Object readResolve() {
+      return of(type).validator(path);
+    }
+  }
+
+  /// Compiled constraint
+  private record Rule(Predicate<Object> test, String message) {
+  }
+
+  /// Lazily built Hibernate Validator for fallback properties
+  private static final class BeanValidation {
+    private static final jakarta.validation.Validator VALIDATOR =
+      Validation.buildDefaultValidatorFactory().getValidator();
+  }
+}
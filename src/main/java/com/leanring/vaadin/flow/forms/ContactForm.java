@@ -5,11 +5,10 @@ import com.vaadin.flow.component.button.ButtonVariant;
 import com.vaadin.flow.component.formlayout.FormLayout;
 import com.vaadin.flow.component.textfield.EmailField;
 import com.vaadin.flow.component.textfield.TextArea;
+import com.vaadin.flow.function.SerializableBiConsumer;
 
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.function.BiConsumer;
-
 /// Simple contact form WITHOUT Binder - demonstrates manual field handling.
 ///
 /// Key points:
@@ -28,7 +27,7 @@ public class ContactForm extends FormLayout {
   private final TextArea messageArea = new TextArea("Message");
   private final Button sendButton = new Button("Send Message");
 
-  private BiConsumer<String, String> submitHandler;
+  private SerializableBiConsumer<String, String> submitHandler;
 
   /// Constructor builds the simple contact form
   public ContactForm() {
@@ -58,7 +57,7 @@ public class ContactForm extends FormLayout {
   }
 
   /// Sets the handler called on form submission
-  public void setSubmitHandler(BiConsumer<String, String> handler) {
+  public void setSubmitHandler(SerializableBiConsumer<String, String> handler) {
     this.submitHandler = handler;
   }
 
@@ -0,0 +1,73 @@
+package com.leanring.vaadin.flow.forms;
+
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.component.textfield.EmailField;
+import com.vaadin.flow.data.binder.Binder;
+import com.vaadin.flow.data.binder.ValidationResult;
+import com.vaadin.flow.data.binder.Validator;
+import com.vaadin.flow.data.binder.ValueContext;
+import com.vaadin.flow.function.SerializableFunction;
+import java.util.concurrent.CompletableFuture;
+
+/// Asynchronous "email already registered" validation for an email field.
+///
+/// Binder validators are synchronous, so the lookup runs on every value change and its
+/// answer is remembered: once the lookup reports the current value as registered, this
+/// validator fails for it and the binding is re-validated inside `UI.access`, which shows
+/// the error like any other. Answers for values the user has since changed are ignored.
+final class DuplicateEmailCheck implements Validator<String> {
+
+  private final EmailField field;
+  private Binder.Binding<?, String> binding;
+  private SerializableFunction<String, CompletableFuture<Boolean>> lookup;
+  private String registeredEmail;
+
+  /// Creates the check and starts listening to the field
+  /// @param field Email field to observe
+  DuplicateEmailCheck(EmailField field) {
+    this.field = field;
+    field.addValueChangeListener(e -> check(e.getValue()));
+  }
+
+  /// Sets the binding re-validated when a lookup reports a duplicate
+  /// @param binding Binding of the email field
+  void setBinding(Binder.Binding<?, String> binding) {
+    this.binding = binding;
+  }
+
+  /// Sets the lookup answering whether an email is registered (null disables the check)
+  /// @param lookup Asynchronous lookup
+  void setLookup(SerializableFunction<String, CompletableFuture<Boolean>> lookup) {
+    this.lookup = lookup;
+  }
+
+  @Override
+  public ValidationResult apply(String value, ValueContext context) {
+    return value != null && !value.isBlank() && value.strip().equalsIgnoreCase(registeredEmail)
+      ? ValidationResult.error("Email is already registered")
+      : ValidationResult.ok();
+  }
+
+  /// Starts a lookup for a new field value
+  private void check(String value) {
+    var ui = UI.getCurrent();
+    if (lookup == null || ui == null || value == null || value.isBlank()) {
+      return;
+    }
+    lookup.apply(value).thenAccept(registered -> {
+      if (registered) {
+        ui.access(() -> showRegistered(value));
+      }
+    });
+  }
+
+  /// Marks the value as registered if the user is still looking at it
+  private void showRegistered(String value) {
+    if (value.equals(field.getValue())) {
+      registeredEmail = value.strip();
+      if (binding != null) {
+        binding.validate();
+      }
+    }
+  }
+}
@@ -1,6 +1,10 @@
 package com.leanring.vaadin.flow.forms;
 
+import com.leanring.vaadin.flow.services.address.control.PostalCodeService;
+import com.leanring.vaadin.flow.services.directory.control.EmailRegistry;
+import com.leanring.vaadin.flow.services.directory.control.PersonRepository;
 import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.UI;
 import com.vaadin.flow.component.html.H2;
 import com.vaadin.flow.component.html.H3;
 import com.vaadin.flow.component.html.Hr;
@@ -26,9 +30,21 @@ public class FormView extends VerticalLayout {
   private final PersonForm personForm = new PersonForm();
   private final PersonEntityForm entityForm = new PersonEntityForm();
   private final ContactForm contactForm = new ContactForm();
+  private final PersonRepository personRepository;
 
   /// Constructor builds the view with all form examples
-  public FormView() {
+  /// @param personRepository Repository storing submitted PersonEntity forms
+  /// @param emailRegistry Duplicate-email detection for both person forms
+  /// @param postalCodeService Postal code / city lookups for the address fields
+  public FormView(
+    PersonRepository personRepository,
+    EmailRegistry emailRegistry,
+    PostalCodeService postalCodeService
+  ) {
+    this.personRepository = personRepository;
+    personForm.setDuplicateEmailLookup(emailRegistry::isRegistered);
+    entityForm.setDuplicateEmailLookup(emailRegistry::isRegistered);
+    entityForm.setPostalCodeLookup(postalCodeService);
     configureFormHandlers();
     buildLayout();
   }
@@ -42,16 +58,23 @@ public class FormView extends VerticalLayout {
       );
     });
 
+    // Saves are queued and committed in groups; the result arrives via push
     entityForm.setSaveHandler(entity -> {
+      var ui = UI.getCurrent();
       var addr = entity.getAddress();
-      showNotification(
-        "✅ Entity saved: %s in %s, %s".formatted(
-          entity.getName(),
-          addr.getCity(),
-          addr.getStreet()
-        ),
-        NotificationVariant.LUMO_SUCCESS
+      var message = "✅ Entity saved: %s in %s, %s".formatted(
+        entity.getName(),
+        addr.getCity(),
+        addr.getStreet()
       );
+      personRepository.save(entity).whenCompleteAsync((saved, error) -> ui.access(() -> {
+        if (error != null) {
+          showNotification("❌ Could not save %s: %s".formatted(entity.getName(), error.getMessage()),
+            NotificationVariant.LUMO_ERROR);
+        } else {
+          showNotification(message, NotificationVariant.LUMO_SUCCESS);
+        }
+      }));
     });
 
     contactForm.setSubmitHandler((email, message) -> {
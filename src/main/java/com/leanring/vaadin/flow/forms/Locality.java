@@ -0,0 +1,40 @@
+package com.leanring.vaadin.flow.forms;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import java.io.Serializable;
+
+/// Lookup row for a city/postal code pair shared by many addresses.
+/// Immutable once stored; addresses reference it by ID.
+@Entity
+@Table(name = "locality", uniqueConstraints = @UniqueConstraint(columnNames = {"city", "postal_code"}))
+public class Locality implements Serializable {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE)
+  private Long id;
+
+  @Column(nullable = false)
+  private String city;
+
+  @Column(name = "postal_code")
+  private String postalCode;
+
+  protected Locality() {}
+
+  public Locality(String city, String postalCode) {
+    this.city = city;
+    this.postalCode = postalCode;
+  }
+
+  public Long getId() { return id; }
+
+  public String getCity() { return city; }
+
+  public String getPostalCode() { return postalCode; }
+}
@@ -3,6 +3,7 @@ package com.leanring.vaadin.flow.forms;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import java.io.Serializable;
 
 /// Person record demonstrating Java records with validation.
 /// Uses Jakarta validation annotations for form binding.
@@ -34,7 +35,7 @@ public record Person(
 
   @Size(min = 10, max = 15, message = "Phone must be 10-15 characters")
   String phone
-) {
+) implements Serializable {
   /// - Compact constructor for additional validation
   /// - The compact constructor is not a canonical constructor
   /// - This is an interceptor between object initialization and canonical constructor
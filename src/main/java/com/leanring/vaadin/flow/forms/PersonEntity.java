@@ -1,9 +1,17 @@
 package com.leanring.vaadin.flow.forms;
 
+import jakarta.persistence.Embedded;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import jakarta.validation.Valid;
 import jakarta.validation.constraints.Email;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
+import java.io.Serializable;
 
 /// PersonEntity - mutable class with nested Address.
 /// Demonstrates traditional Java bean pattern for form binding.
@@ -12,7 +20,16 @@ import jakarta.validation.constraints.Size;
 /// - Has setters binder can write directly to the object
 /// - Can have nested objects nested property binding works
 /// - Mutable same instance can be updated
-public class PersonEntity {
+///
+/// Persisted as a JPA entity. IDs come from a pooled sequence rather than an identity
+/// column, so inserts can be sent to the database in JDBC batches.
+@Entity
+@Table(name = "person", indexes = @Index(name = "person_email", columnList = "email", unique = true))
+public class PersonEntity implements Serializable {
+
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE)
+  private Long id;
 
   @NotBlank(message = "Name is required")
   @Size(min = 2, max = 50, message = "Name must be 2-50 characters")
@@ -26,6 +43,7 @@ public class PersonEntity {
   private String phone;
 
   @Valid  // Enables validation on nested object
+  @Embedded
   private Address address = new Address();
 
   public PersonEntity() {}
@@ -37,6 +55,9 @@ public class PersonEntity {
   }
 
   // Getters and setters
+  public Long getId() { return id; }
+  public void setId(Long id) { this.id = id; }
+
   public String getName() { return name; }
   public void setName(String name) { this.name = name; }
 
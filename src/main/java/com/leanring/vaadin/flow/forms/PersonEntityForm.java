@@ -1,54 +1,59 @@
 package com.leanring.vaadin.flow.forms;
 
+import com.leanring.vaadin.flow.services.address.control.PostalCodeService;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.button.ButtonVariant;
+import com.vaadin.flow.component.combobox.ComboBox;
 import com.vaadin.flow.component.formlayout.FormLayout;
 import com.vaadin.flow.component.html.H4;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.textfield.EmailField;
 import com.vaadin.flow.component.textfield.TextField;
-import com.vaadin.flow.data.binder.BeanValidationBinder;
 import com.vaadin.flow.data.binder.Binder;
-import com.vaadin.flow.data.binder.PropertyId;
+import com.vaadin.flow.function.SerializableConsumer;
+import com.vaadin.flow.function.SerializableFunction;
 
 import lombok.extern.slf4j.Slf4j;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-import java.util.function.Consumer;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
-/// Form for PersonEntity demonstrating class-based binding with bindInstanceFields().
+/// Form for PersonEntity demonstrating class-based binding with nested properties.
 ///
-/// Uses @PropertyId for nested properties:
-/// - Direct properties: field name matches property (name, email, phone)
-/// - Nested properties: @PropertyId("address.street") maps to getAddress().getStreet()
+/// Binds with getter/setter method references:
+/// - Direct properties: getName/setName, getEmail/setEmail, getPhone/setPhone
+/// - Nested properties: getAddress().getStreet() etc., creating the Address on demand
 ///
 /// Binder can both READ and WRITE because PersonEntity has setters.
+/// Constraints come from the entity's Jakarta annotations via [ConstraintPlan],
+/// including nested paths such as `address.city`.
 @Slf4j
 public class PersonEntityForm extends FormLayout {
 
-  private final Binder<PersonEntity> binder = new BeanValidationBinder<>(PersonEntity.class);
+  private static final ConstraintPlan PLAN = ConstraintPlan.of(PersonEntity.class);
 
-  // Direct properties - field names match PersonEntity properties
+  private final Binder<PersonEntity> binder = new Binder<>();
+
+  // Person properties
   private final TextField name = new TextField("Name");
   private final EmailField email = new EmailField("Email");
+  private final DuplicateEmailCheck duplicateEmailCheck = new DuplicateEmailCheck(email);
   private final TextField phone = new TextField("Phone");
 
-  // Nested Address properties - use @PropertyId for path mapping
-  @PropertyId("address.street")
+  // Nested Address properties; city and postal code autocomplete but accept any input
   private final TextField street = new TextField("Street");
-
-  @PropertyId("address.city")
-  private final TextField city = new TextField("City");
-
-  @PropertyId("address.postalCode")
-  private final TextField postalCode = new TextField("Postal Code");
+  private final ComboBox<String> city = new ComboBox<>("City");
+  private final ComboBox<String> postalCode = new ComboBox<>("Postal Code");
 
   private final Button saveButton = new Button("Save");
   private final Button clearButton = new Button("Clear");
 
   private PersonEntity currentEntity = new PersonEntity();
-  private Consumer<PersonEntity> saveHandler;
+  private SerializableConsumer<PersonEntity> saveHandler;
+  private PostalCodeService postalCodes;
+  private Binder.Binding<PersonEntity, String> cityBinding;
 
   /// Constructor initializes the form
   public PersonEntityForm() {
@@ -76,14 +81,32 @@ public class PersonEntityForm extends FormLayout {
     city.setRequiredIndicatorVisible(true);
 
     postalCode.setPlaceholder("8001");
+
+    for (var field : List.of(city, postalCode)) {
+      field.setAllowCustomValue(true);
+      field.addCustomValueSetListener(e -> field.setValue(e.getDetail()));
+    }
+    postalCode.addValueChangeListener(e -> postalCodeChanged(e.getValue()));
   }
 
-  /// Binds all fields automatically using bindInstanceFields()
+  /// Binds all fields with explicit accessors and precompiled validators
   /// - Direct fields: name→getName/setName, email→getEmail/setEmail, etc.
-  /// - @PropertyId fields: street→getAddress().getStreet()/setStreet(), etc.
+  /// - Nested fields: street→getAddress().getStreet()/setStreet(), etc.
   private void configureBinder() {
+    binder.forField(name)
+      .withValidator(PLAN.validator("name"))
+      .bind(PersonEntity::getName, PersonEntity::setName);
+    duplicateEmailCheck.setBinding(binder.forField(email)
+      .withValidator(PLAN.validator("email"))
+      .withValidator(duplicateEmailCheck)
+      .bind(PersonEntity::getEmail, PersonEntity::setEmail));
+    binder.forField(phone)
+      .withValidator(PLAN.validator("phone"))
+      .bind(PersonEntity::getPhone, PersonEntity::setPhone);
+
     binder
       .forField(street)
+      .withValidator(PLAN.validator("address.street"))
       .bind(
         entity -> {
           var address = entity.getAddress();
@@ -92,8 +115,13 @@ public class PersonEntityForm extends FormLayout {
         (entity, value) -> ensureAddress(entity).setStreet(value)
       );
 
-    binder
+    cityBinding = binder
       .forField(city)
+      .withValidator(PLAN.validator("address.city"))
+      .withValidator(
+        value -> postalCodes == null || postalCodes.isConsistent(postalCode.getValue(), value),
+        "City does not match the postal code"
+      )
       .bind(
         entity -> {
           var address = entity.getAddress();
@@ -104,6 +132,7 @@ public class PersonEntityForm extends FormLayout {
 
     binder
       .forField(postalCode)
+      .withValidator(PLAN.validator("address.postalCode"))
       .bind(
         entity -> {
           var address = entity.getAddress();
@@ -111,9 +140,6 @@ public class PersonEntityForm extends FormLayout {
         },
         (entity, value) -> ensureAddress(entity).setPostalCode(value)
       );
-
-    // Remaining direct properties (name, email, phone) match field names
-    binder.bindInstanceFields(this);
   }
 
   /// Configures button behavior
@@ -149,8 +175,38 @@ public class PersonEntityForm extends FormLayout {
     setColspan(buttons, 2);
   }
 
+  /// Enables asynchronous duplicate detection on the email field
+  /// @param lookup Answers whether an email is already registered
+  public void setDuplicateEmailLookup(SerializableFunction<String, CompletableFuture<Boolean>> lookup) {
+    duplicateEmailCheck.setLookup(lookup);
+  }
+
+  /// Enables postal code / city autocomplete and the cross-field check
+  /// @param service Postal code lookups
+  public void setPostalCodeLookup(PostalCodeService service) {
+    this.postalCodes = service;
+    // Lazy: the combo boxes fetch one page of matches for the typed text at a time
+    postalCode.setItems(query ->
+      service.suggestPostalCodes(query.getFilter().orElse(""), query.getOffset(), query.getLimit()).stream());
+    city.setItems(query ->
+      service.suggestCities(query.getFilter().orElse(""), query.getOffset(), query.getLimit()).stream());
+  }
+
+  /// Fills in an unambiguous city and re-checks the city against the new postal code
+  private void postalCodeChanged(String value) {
+    if (postalCodes == null) {
+      return;
+    }
+    var areas = postalCodes.findByPostalCode(value);
+    if ((city.getValue() == null || city.getValue().isBlank()) && areas.size() == 1) {
+      city.setValue(areas.getFirst().city());
+    } else if (city.getValue() != null && cityBinding != null) {
+      cityBinding.validate();
+    }
+  }
+
   /// Sets the handler called when form is saved
-  public void setSaveHandler(Consumer<PersonEntity> handler) {
+  public void setSaveHandler(SerializableConsumer<PersonEntity> handler) {
     this.saveHandler = handler;
   }
 
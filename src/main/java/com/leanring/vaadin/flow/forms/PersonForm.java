@@ -6,39 +6,44 @@ import com.vaadin.flow.component.formlayout.FormLayout;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.textfield.EmailField;
 import com.vaadin.flow.component.textfield.TextField;
-import com.vaadin.flow.data.binder.BeanValidationBinder;
 import com.vaadin.flow.data.binder.Binder;
-import com.vaadin.flow.data.binder.ValidationException;
+import com.vaadin.flow.function.SerializableConsumer;
+import com.vaadin.flow.function.SerializableFunction;
 
 import lombok.extern.slf4j.Slf4j;
 
-import java.util.function.Consumer;
+import java.util.concurrent.CompletableFuture;
 
 /// Form for Person RECORD demonstrating record-specific binding.
 ///
 /// Key points for RECORDS:
 /// - Immutable: no setters, can't use setBean() (throws exception)
 /// - Use readBean() or readRecord() to load data into fields
-/// - Use writeRecord() to create NEW record from field values
-/// - Field names must match record component names for bindInstanceFields()
+/// - Validate, then create a NEW record from the field values
+/// - Accessor method references replace reflective bindInstanceFields()
 ///
 /// Binding mode: BUFFERED (manual read/write)
 /// - Changes stay in fields until explicit save
-/// - On save: writeRecord() creates new Person instance
+/// - On save: a new Person instance is created
+///
+/// Validation comes from the record's Jakarta annotations via [ConstraintPlan],
+/// compiled once per JVM instead of introspected by every form instance.
 @Slf4j
 public class PersonForm extends FormLayout {
 
-  private final Binder<Person> binder = new BeanValidationBinder<>(Person.class);
+  private static final ConstraintPlan PLAN = ConstraintPlan.of(Person.class);
+
+  private final Binder<Person> binder = new Binder<>();
 
-  // Field names MUST match Person record components: name, email, phone
   private final TextField name = new TextField("Name");
   private final EmailField email = new EmailField("Email");
+  private final DuplicateEmailCheck duplicateEmailCheck = new DuplicateEmailCheck(email);
   private final TextField phone = new TextField("Phone");
 
   private final Button saveButton = new Button("Save");
   private final Button clearButton = new Button("Clear");
 
-  private Consumer<Person> saveHandler;
+  private SerializableConsumer<Person> saveHandler;
 
   /// Constructor initializes the form
   public PersonForm() {
@@ -60,10 +65,14 @@ public class PersonForm extends FormLayout {
     phone.setPlaceholder("+27 XX XXX XXXX");
   }
 
-  /// Binds fields by matching names to record components
+  /// Binds fields to record components (read-only: records have no setters)
   private void configureBinder() {
-    // Auto-binds: name→name(), email→email(), phone→phone()
-    binder.bindInstanceFields(this);
+    binder.forField(name).withValidator(PLAN.validator("name")).bind(Person::name, null);
+    duplicateEmailCheck.setBinding(binder.forField(email)
+      .withValidator(PLAN.validator("email"))
+      .withValidator(duplicateEmailCheck)
+      .bind(Person::email, null));
+    binder.forField(phone).withValidator(PLAN.validator("phone")).bind(Person::phone, null);
     log.debug("PersonForm binder configured with {} fields", binder.getFields().count());
   }
 
@@ -90,26 +99,32 @@ public class PersonForm extends FormLayout {
     setColspan(buttons, 2);
   }
 
+  /// Enables asynchronous duplicate detection on the email field
+  /// @param lookup Answers whether an email is already registered
+  public void setDuplicateEmailLookup(SerializableFunction<String, CompletableFuture<Boolean>> lookup) {
+    duplicateEmailCheck.setLookup(lookup);
+  }
+
   /// Sets the handler called on successful save
-  public void setSaveHandler(Consumer<Person> handler) {
+  public void setSaveHandler(SerializableConsumer<Person> handler) {
     this.saveHandler = handler;
   }
 
-  /// Handles save - uses writeRecord() to create new Person
+  /// Handles save - validates and creates a new Person from the field values
   private void handleSave() {
-    try {
-      // writeRecord() validates and creates NEW record from field values
-      Person person = binder.writeRecord();
-      
-      log.info("Person record saved: {} ({})", person.name(), person.email());
-      
-      if (saveHandler != null) {
-        saveHandler.accept(person);
-      }
-      clear();
-    } catch (ValidationException e) {
-      log.warn("Validation failed: {}", e.getValidationErrors());
+    var status = binder.validate();
+    if (!status.isOk()) {
+      log.warn("Validation failed: {}", status.getValidationErrors());
+      return;
+    }
+    var person = new Person(name.getValue(), email.getValue(), phone.getValue());
+
+    log.info("Person record saved: {} ({})", person.name(), person.email());
+
+    if (saveHandler != null) {
+      saveHandler.accept(person);
     }
+    clear();
   }
 
   /// Clears form with empty record
@@ -1,11 +1,14 @@
 package com.leanring.vaadin.flow.grid;
 
 import com.leanring.vaadin.flow.forms.Person;
+import com.leanring.vaadin.flow.services.directory.control.PersonDirectoryService;
+import com.leanring.vaadin.flow.services.directory.control.PersonDirectoryService.SortField;
 import com.vaadin.flow.component.grid.Grid;
 import com.vaadin.flow.component.html.H2;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
 import com.vaadin.flow.component.textfield.TextField;
-import com.vaadin.flow.data.provider.ListDataProvider;
+import com.vaadin.flow.data.provider.Query;
+import com.vaadin.flow.data.provider.SortDirection;
 import com.vaadin.flow.data.value.ValueChangeMode;
 import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
@@ -15,46 +18,44 @@ import java.util.List;
 /// Grid view demonstrating Vaadin Grid component capabilities.
 /// Showcases filtering, sorting, and custom column configuration.
 ///
+/// Rows come from [PersonDirectoryService] through lazy callbacks: the grid only
+/// asks for the page it is showing, so the directory can hold millions of persons.
+///
 /// @see Grid
-/// @see ListDataProvider
+/// @see PersonDirectoryService
 @Route(value = "grid", layout = MainLayout.class)
 @PageTitle("Grid | Vaadin Guild")
 public class GridView extends VerticalLayout {
 
   private final Grid<Person> grid = new Grid<>(Person.class, false);
-  private final ListDataProvider<Person> dataProvider;
+  private final PersonDirectoryService directory;
+  private String filterText = "";
 
-  /// Constructor initializes grid with sample data and filtering
-  public GridView() {
-    dataProvider = new ListDataProvider<>(createSampleData());
+  /// Constructor with dependency injection
+  /// @param directory Person directory backing the grid
+  public GridView(PersonDirectoryService directory) {
+    this.directory = directory;
     configureGrid();
     buildLayout();
   }
 
-  /// Creates sample person data for the grid
-  /// @return List of sample Person records
-  private List<Person> createSampleData() {
-    return List.of(
-      new Person("Tebogo Nkwane", "tebogo@example.co.za", "+27123456789"),
-      new Person("Ayanda Zulu", "ayanda@example.com", "+27987654321"),
-      new Person("Sipho Mthembu", "sipho@example.co.za", "+27555123456"),
-      new Person("Nomvula Dlamini", "nomvula@example.co.za", "+27444987654"),
-      new Person("Thabo Mokoena", "thabo@example.com", "+27333678901")
-    );
-  }
-
-  /// Configures grid columns and data provider
+  /// Configures grid columns and the lazy data callbacks
   private void configureGrid() {
-    grid.setDataProvider(dataProvider);
+    grid.setItems(
+      query -> fetch(query).stream(),
+      query -> directory.count(filterText)
+    );
 
     grid.addColumn(Person::name)
       .setHeader("Name")
       .setSortable(true)
+      .setSortProperty(SortField.NAME.name())
       .setAutoWidth(true);
 
     grid.addColumn(Person::email)
       .setHeader("Email")
       .setSortable(true)
+      .setSortProperty(SortField.EMAIL.name())
       .setAutoWidth(true);
 
     grid.addColumn(Person::phone)
@@ -64,6 +65,20 @@ public class GridView extends VerticalLayout {
     grid.setHeight("400px");
   }
 
+  /// Fetches the page requested by the grid, sorted by the first sort order (name by default)
+  /// @param query Grid query with offset, limit and sort orders
+  /// @return Page of persons
+  private List<Person> fetch(Query<Person, Void> query) {
+    var sort = SortField.NAME;
+    var descending = false;
+    if (!query.getSortOrders().isEmpty()) {
+      var order = query.getSortOrders().getFirst();
+      sort = SortField.valueOf(order.getSorted());
+      descending = order.getDirection() == SortDirection.DESCENDING;
+    }
+    return directory.fetch(filterText, sort, descending, query.getOffset(), query.getLimit());
+  }
+
   /// Builds and configures the layout
   private void buildLayout() {
     add(
@@ -75,21 +90,17 @@ public class GridView extends VerticalLayout {
     setMaxWidth("1000px");
   }
 
-  /// Creates a filter text field with real-time filtering
+  /// Creates a filter text field with real-time "starts with" filtering
   /// @return Configured TextField for filtering grid data
   private TextField createFilterField() {
     var filterField = new TextField();
-    filterField.setPlaceholder("🔍 Filter by name or email...");
+    filterField.setPlaceholder("🔍 Name or email starts with...");
     filterField.setWidth("100%");
     filterField.setValueChangeMode(ValueChangeMode.LAZY);
 
     filterField.addValueChangeListener(e -> {
-      var filterText = e.getValue().toLowerCase().trim();
-      dataProvider.setFilter(person ->
-        filterText.isEmpty() ||
-        person.name().toLowerCase().contains(filterText) ||
-        person.email().toLowerCase().contains(filterText)
-      );
+      filterText = e.getValue().trim();
+      grid.getDataProvider().refreshAll();
     });
 
     return filterField;
@@ -0,0 +1,237 @@
+package com.leanring.vaadin.flow.js;
+
+import java.util.Arrays;
+
+/// Server-side level-of-detail reduction for visualisations.
+///
+/// Both algorithms size their output from what the client can display, so payload
+/// and browser memory scale with screen pixels rather than dataset size:
+/// - [#lttb] keeps the visually significant samples of a time series
+///   (Largest-Triangle-Three-Buckets)
+/// - [#voxelGrid] keeps one point per occupied voxel of a point cloud, restricted
+///   to the camera bounds, so zooming in yields finer voxels over a smaller region
+public final class Decimation {
+
+  /// Screen pixels per rendered point; one point per 2x2 pixel block is visually dense
+  static final int PIXELS_PER_POINT = 4;
+  static final int MIN_BUDGET = 1_000;
+  static final int MAX_BUDGET = 1_000_000;
+
+  private static final int MAX_CELLS_PER_AXIS = 1 << 21;
+  private static final double CELL_GROWTH = 1.5;
+  private static final long EMPTY = -1L;
+
+  private Decimation() {
+  }
+
+  /// Axis-aligned region of interest, usually derived from the camera frustum
+  public record Bounds(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+
+    /// @return true if the point lies inside (inclusive)
+    public boolean contains(float x, float y, float z) {
+      return x >= minX && x <= maxX && y >= minY && y <= maxY && z >= minZ && z <= maxZ;
+    }
+
+    /// @return Largest extent over all three axes
+    public float maxExtent() {
+      return Math.max(maxX - minX, Math.max(maxY - minY, maxZ - minZ));
+    }
+  }
+
+  /// Computes how many points a viewport can meaningfully show
+  /// @param width Viewport width in CSS pixels
+  /// @param height Viewport height in CSS pixels
+  /// @return Point budget clamped to [MIN_BUDGET, MAX_BUDGET]
+  public static int pointBudget(int width, int height) {
+    var pixels = (long) Math.max(width, 1) * Math.max(height, 1);
+    return (int) Math.clamp(pixels / PIXELS_PER_POINT, MIN_BUDGET, MAX_BUDGET);
+  }
+
+  /// Reduces a time series with Largest-Triangle-Three-Buckets.
+  /// Always keeps the first and last sample; picks from every bucket the sample forming
+  /// the largest triangle with the previously kept sample and the next bucket's average.
+  /// @param xy Interleaved x/y samples, x ascending
+  /// @param threshold Number of samples to keep (typically the viewport width)
+  /// @return Interleaved x/y samples, at most `threshold` of them
+  public static PackedBuffer.Floats lttb(float[] xy, int threshold) {
+    var samples = xy.length / 2;
+    if (threshold >= samples || threshold < 3) {
+      return new PackedBuffer.Floats(xy.clone(), 2);
+    }
+
+    var out = new float[threshold * 2];
+    out[0] = xy[0];
+    out[1] = xy[1];
+    var kept = 1;
+
+    var bucketSize = (double) (samples - 2) / (threshold - 2);
+    var previous = 0;
+    for (int bucket = 0; bucket < threshold - 2; bucket++) {
+      // Average of the next bucket (or the last sample for the final bucket)
+      var nextStart = (int) Math.floor((bucket + 1) * bucketSize) + 1;
+      var nextEnd = Math.min((int) Math.floor((bucket + 2) * bucketSize) + 1, samples);
+      double avgX = 0;
+      double avgY = 0;
+      for (int i = nextStart; i < nextEnd; i++) {
+        avgX += xy[i * 2];
+        avgY += xy[i * 2 + 1];
+      }
+      var nextCount = Math.max(nextEnd - nextStart, 1);
+      avgX /= nextCount;
+      avgY /= nextCount;
+
+      var start = (int) Math.floor(bucket * bucketSize) + 1;
+      var end = (int) Math.floor((bucket + 1) * bucketSize) + 1;
+      var ax = xy[previous * 2];
+      var ay = xy[previous * 2 + 1];
+      var maxArea = -1.0;
+      var chosen = start;
+      for (int i = start; i < end; i++) {
+        var area = Math.abs((ax - avgX) * (xy[i * 2 + 1] - ay) - (ax - xy[i * 2]) * (avgY - ay));
+        if (area > maxArea) {
+          maxArea = area;
+          chosen = i;
+        }
+      }
+      out[kept * 2] = xy[chosen * 2];
+      out[kept * 2 + 1] = xy[chosen * 2 + 1];
+      kept++;
+      previous = chosen;
+    }
+
+    out[kept * 2] = xy[(samples - 1) * 2];
+    out[kept * 2 + 1] = xy[(samples - 1) * 2 + 1];
+    return new PackedBuffer.Floats(out, 2);
+  }
+
+  /// Samples a point cloud on a voxel grid inside the given bounds.
+  /// Starts from the voxel size that would spread the budget evenly over the bounds'
+  /// volume and coarsens it until the number of occupied voxels fits the budget, then
+  /// keeps the first point seen in each voxel.
+  /// @param xyz Interleaved x/y/z positions
+  /// @param bounds Region to keep (points outside are dropped)
+  /// @param budget Maximum number of points to return
+  /// @return Interleaved x/y/z positions, at most `budget` points
+  public static PackedBuffer.Floats voxelGrid(float[] xyz, Bounds bounds, int budget) {
+    var extent = bounds.maxExtent();
+    if (extent <= 0 || budget <= 0) {
+      return new PackedBuffer.Floats(new float[0], 3);
+    }
+
+    // Flat data (e.g. a galaxy disc) gets a minimum thickness so the volume is non-zero
+    var minSide = extent / 1_000f;
+    var volume = (double) Math.max(bounds.maxX() - bounds.minX(), minSide)
+      * Math.max(bounds.maxY() - bounds.minY(), minSide)
+      * Math.max(bounds.maxZ() - bounds.minZ(), minSide);
+    var cell = Math.max(Math.cbrt(volume / budget), extent / MAX_CELLS_PER_AXIS);
+
+    var table = new long[tableSize(budget)];
+    if (countOccupied(xyz, bounds, cell, table, budget) > budget) {
+      do {
+        cell *= CELL_GROWTH;
+      } while (countOccupied(xyz, bounds, cell, table, budget) > budget);
+    } else if (countInside(xyz, bounds) > budget) {
+      // Sparse bounds (mostly empty space): refine while the finer grid still fits
+      var minCell = extent / MAX_CELLS_PER_AXIS;
+      while (cell / CELL_GROWTH > minCell
+        && countOccupied(xyz, bounds, cell / CELL_GROWTH, table, budget) <= budget) {
+        cell /= CELL_GROWTH;
+      }
+    } else {
+      return new PackedBuffer.Floats(inside(xyz, bounds), 3);
+    }
+
+    Arrays.fill(table, EMPTY);
+    var out = new float[budget * 3];
+    var kept = 0;
+    for (int i = 0; i + 2 < xyz.length && kept < budget; i += 3) {
+      var x = xyz[i];
+      var y = xyz[i + 1];
+      var z = xyz[i + 2];
+      if (bounds.contains(x, y, z) && insert(table, voxelKey(bounds, cell, x, y, z))) {
+        out[kept * 3] = x;
+        out[kept * 3 + 1] = y;
+        out[kept * 3 + 2] = z;
+        kept++;
+      }
+    }
+    return new PackedBuffer.Floats(Arrays.copyOf(out, kept * 3), 3);
+  }
+
+  /// Counts points inside the bounds
+  private static int countInside(float[] xyz, Bounds bounds) {
+    var count = 0;
+    for (int i = 0; i + 2 < xyz.length; i += 3) {
+      if (bounds.contains(xyz[i], xyz[i + 1], xyz[i + 2])) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /// Copies all points inside the bounds
+  private static float[] inside(float[] xyz, Bounds bounds) {
+    var out = new float[countInside(xyz, bounds) * 3];
+    var kept = 0;
+    for (int i = 0; i + 2 < xyz.length; i += 3) {
+      if (bounds.contains(xyz[i], xyz[i + 1], xyz[i + 2])) {
+        System.arraycopy(xyz, i, out, kept * 3, 3);
+        kept++;
+      }
+    }
+    return out;
+  }
+
+  /// Counts occupied voxels, stopping as soon as the budget is exceeded
+  private static int countOccupied(float[] xyz, Bounds bounds, double cell, long[] table, int budget) {
+    Arrays.fill(table, EMPTY);
+    var occupied = 0;
+    for (int i = 0; i + 2 < xyz.length; i += 3) {
+      var x = xyz[i];
+      var y = xyz[i + 1];
+      var z = xyz[i + 2];
+      if (bounds.contains(x, y, z) && insert(table, voxelKey(bounds, cell, x, y, z))) {
+        if (++occupied > budget) {
+          return occupied;
+        }
+      }
+    }
+    return occupied;
+  }
+
+  /// Packs the voxel coordinates (21 bits per axis) into a non-negative long
+  private static long voxelKey(Bounds bounds, double cell, float x, float y, float z) {
+    long ix = Math.min((long) ((x - bounds.minX()) / cell), MAX_CELLS_PER_AXIS - 1);
+    long iy = Math.min((long) ((y - bounds.minY()) / cell), MAX_CELLS_PER_AXIS - 1);
+    long iz = Math.min((long) ((z - bounds.minZ()) / cell), MAX_CELLS_PER_AXIS - 1);
+    return (ix << 42) | (iy << 21) | iz;
+  }
+
+  /// Open-addressing set insert without boxing
+  /// @return true if the key was not present yet
+  private static boolean insert(long[] table, long key) {
+    var mask = table.length - 1;
+    var slot = (int) (mix(key) & mask);
+    while (table[slot] != EMPTY) {
+      if (table[slot] == key) {
+        return false;
+      }
+      slot = (slot + 1) & mask;
+    }
+    table[slot] = key;
+    return true;
+  }
+
+  /// Power-of-two table size keeping the load factor at or below 50%
+  private static int tableSize(int budget) {
+    return Integer.highestOneBit((Math.max(budget, 1) + 1) * 2) << 1;
+  }
+
+  /// Murmur3 finalizer spreading neighbouring voxel keys across the table
+  private static long mix(long key) {
+    key ^= key >>> 33;
+    key *= 0xff51afd7ed558ccdL;
+    key ^= key >>> 33;
+    return key;
+  }
+}
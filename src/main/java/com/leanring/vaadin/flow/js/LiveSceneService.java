@@ -0,0 +1,205 @@
+package com.leanring.vaadin.flow.js;
+
+import com.leanring.vaadin.flow.services.catalog.control.ProductChange;
+import com.leanring.vaadin.flow.services.catalog.control.ProductService;
+import com.leanring.vaadin.flow.services.catalog.entity.Product;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.dom.Element;
+import com.vaadin.flow.shared.Registration;
+import elemental.json.Json;
+import elemental.json.JsonObject;
+import jakarta.annotation.PreDestroy;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+/// Streams live inventory movement to Three.js scenes as frame-paced deltas.
+///
+/// Each subscribed view gets its own [Scene]: catalog changes only mark products dirty
+/// (later changes overwrite earlier ones, so bursts coalesce), and a ticker capped at
+/// [#MAX_FPS] pushes just the changed objects. Every frame carries a sequence number the
+/// browser acknowledges with a `three-frame-ack` event once it has received it; while the
+/// latest frame is unacknowledged the tick is dropped and the coalesced state catches up
+/// later. Pacing thus follows the client, not merely the server-side push queue.
+/// The session lock is taken at most once per frame, however fast the data changes.
+@Slf4j
+@Service
+public class LiveSceneService {
+
+  /// Upper bound on frames pushed per second to each client
+  public static final int MAX_FPS = 20;
+
+  /// Time after which an unacknowledged frame no longer blocks the next one (lost ack)
+  static final long ACK_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(2);
+
+  private final ProductService productService;
+  private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(
+    Thread.ofPlatform().name("live-scene-ticker").daemon().factory()
+  );
+
+  /// Constructor with dependency injection
+  /// @param productService Catalog whose stock movements are visualised
+  public LiveSceneService(ProductService productService) {
+    this.productService = productService;
+  }
+
+  /// Starts pushing frames to a browser element.
+  /// The first frame contains every product; later frames only what changed.
+  /// Must be called while holding the session lock (e.g. from an attach listener).
+  /// @param ui UI owning the element (push must be enabled)
+  /// @param target Element passed to `window.applyThreeFrame`
+  /// @return Registration stopping the stream (call on detach)
+  public Registration subscribe(UI ui, Element target) {
+    var scene = new Scene();
+    productService.streamAfter(null, null, null).forEach(scene::put);
+
+    var flow = new FrameFlow();
+    var ack = target.addEventListener("three-frame-ack",
+        event -> flow.acknowledge((long) event.getEventData().getNumber("event.detail")))
+      .addEventData("event.detail");
+    var listener = productService.addChangeListener(scene::apply);
+    var period = TimeUnit.SECONDS.toMillis(1) / MAX_FPS;
+    var tick = ticker.scheduleAtFixedRate(
+      () -> pushFrame(ui, target, scene, flow), 0, period, TimeUnit.MILLISECONDS);
+
+    return () -> {
+      tick.cancel(false);
+      listener.remove();
+      ack.remove();
+    };
+  }
+
+  /// Pushes the accumulated delta unless the client has not acknowledged the last one
+  private void pushFrame(UI ui, Element target, Scene scene, FrameFlow flow) {
+    try {
+      var now = System.nanoTime();
+      if (!flow.canSend(now)) {
+        return;
+      }
+      var frame = scene.drain();
+      if (frame == null) {
+        return;
+      }
+      frame.put("seq", flow.next(now));
+      ui.access(() -> target.executeJs("window.applyThreeFrame && window.applyThreeFrame(this, $0)", frame));
+    } catch (RuntimeException e) {
+      // Never let one failing UI cancel the periodic task silently
+      log.debug("Skipping live scene frame: {}", e.getMessage());
+    }
+  }
+
+  @PreDestroy
+  void shutdown() {
+    ticker.shutdownNow();
+  }
+
+  /// Acknowledgement window of one subscriber: at most one frame is unacknowledged
+  static final class FrameFlow {
+
+    private final AtomicLong sent = new AtomicLong();
+    private final AtomicLong acknowledged = new AtomicLong();
+    private volatile long sentAt;
+
+    /// @param now Current [System#nanoTime()]
+    /// @return Whether the client has caught up, or its acknowledgement is overdue
+    boolean canSend(long now) {
+      return acknowledged.get() >= sent.get() || now - sentAt > ACK_TIMEOUT_NANOS;
+    }
+
+    /// Claims the sequence number of the next frame
+    /// @param now Current [System#nanoTime()]
+    /// @return Sequence number to send with the frame
+    long next(long now) {
+      sentAt = now;
+      return sent.incrementAndGet();
+    }
+
+    /// Records a client acknowledgement; stale or duplicate ones are ignored
+    /// @param seq Sequence number echoed by the client
+    void acknowledge(long seq) {
+      acknowledged.accumulateAndGet(Math.min(seq, sent.get()), Math::max);
+    }
+  }
+
+  /// Server-side scene model for one subscriber: products laid out as bars,
+  /// one row per category, bar height following stock.
+  static final class Scene {
+
+    private static final float SPACING = 0.4f;
+    private static final float HEIGHT_PER_UNIT = 0.02f;
+
+    private final Map<Long, Product> dirty = new ConcurrentHashMap<>();
+    private final Map<Long, Integer> slots = new ConcurrentHashMap<>();
+    private final Queue<Integer> freeSlots = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger nextSlot = new AtomicInteger();
+    private final Set<Long> removed = ConcurrentHashMap.newKeySet();
+
+    /// Records a catalog change; repeated changes to one product coalesce, and the
+    /// latest one decides whether the frame upserts or removes it
+    void apply(ProductChange change) {
+      if (change.isDeletion()) {
+        var id = change.id();
+        dirty.remove(id);
+        removed.add(id);
+        var slot = slots.remove(id);
+        if (slot != null) {
+          freeSlots.add(slot);
+        }
+      } else {
+        put(change.current());
+      }
+    }
+
+    /// Marks a product dirty with its latest state
+    void put(Product product) {
+      slots.computeIfAbsent(product.id(), id -> {
+        var free = freeSlots.poll();
+        return free != null ? free : nextSlot.getAndIncrement();
+      });
+      removed.remove(product.id());
+      dirty.put(product.id(), product);
+    }
+
+    /// Takes all pending changes as one frame
+    /// @return Frame `{ upsert: [id, x, z, height, status, ...], remove: [id, ...] }` (the caller adds `seq`), or null if idle
+    JsonObject drain() {
+      if (dirty.isEmpty() && removed.isEmpty()) {
+        return null;
+      }
+      var upsert = Json.createArray();
+      var index = 0;
+      for (var id : dirty.keySet()) {
+        // remove() returns the latest value; a put racing with this drain lands in the next frame
+        var product = dirty.remove(id);
+        if (product == null) {
+          continue;
+        }
+        upsert.set(index++, id);
+        upsert.set(index++, product.category().ordinal() * SPACING * 2);
+        upsert.set(index++, slots.getOrDefault(id, 0) * SPACING);
+        upsert.set(index++, Math.max(product.stock(), 0) * HEIGHT_PER_UNIT);
+        upsert.set(index++, product.stock() == 0 ? 0 : product.stock() < 10 ? 1 : 2);
+      }
+      var remove = Json.createArray();
+      var removedCount = 0;
+      for (var id : removed) {
+        if (removed.remove(id)) {
+          remove.set(removedCount++, id);
+        }
+      }
+      var frame = Json.createObject();
+      frame.put("upsert", upsert);
+      frame.put("remove", remove);
+      return frame;
+    }
+  }
+}
@@ -0,0 +1,99 @@
+package com.leanring.vaadin.flow.js;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/// Numeric column shipped to the browser as raw little-endian bytes.
+///
+/// The browser copies the bytes straight into the matching typed array
+/// (`Float32Array` / `Int32Array`), so no JSON is produced or parsed.
+/// Values are written in fixed-size chunks, flushing after each one, which
+/// lets the client render progressively while the rest is still in flight.
+public sealed interface PackedBuffer permits PackedBuffer.Floats, PackedBuffer.Ints {
+
+  /// Values per chunk written to the wire (256 KB for 4-byte values)
+  int CHUNK_VALUES = 64 * 1024;
+
+  /// @return Number of values (not elements)
+  int length();
+
+  /// @return Values per element, e.g. 3 for xyz positions
+  int components();
+
+  /// @return JavaScript typed array name: `float32` or `int32`
+  String type();
+
+  /// Writes all values as little-endian bytes in flushed chunks
+  /// @param out Target stream (the HTTP response)
+  /// @throws IOException if the client disconnects
+  void writeTo(OutputStream out) throws IOException;
+
+  /// @return Number of elements (length / components)
+  default int elements() {
+    return length() / components();
+  }
+
+  /// Creates a reusable little-endian chunk buffer
+  /// @return Heap buffer sized for one chunk of 4-byte values
+  private static ByteBuffer chunkBuffer() {
+    return ByteBuffer.allocate(CHUNK_VALUES * Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  /// Packed 32-bit floats
+  /// @param values Backing values
+  /// @param components Values per element
+  record Floats(float[] values, int components) implements PackedBuffer {
+
+    @Override
+    public int length() {
+      return values.length;
+    }
+
+    @Override
+    public String type() {
+      return "float32";
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+      var chunk = chunkBuffer();
+      for (int offset = 0; offset < values.length; offset += CHUNK_VALUES) {
+        var count = Math.min(CHUNK_VALUES, values.length - offset);
+        chunk.clear();
+        chunk.asFloatBuffer().put(values, offset, count);
+        out.write(chunk.array(), 0, count * Float.BYTES);
+        out.flush();
+      }
+    }
+  }
+
+  /// Packed 32-bit signed integers
+  /// @param values Backing values
+  /// @param components Values per element
+  record Ints(int[] values, int components) implements PackedBuffer {
+
+    @Override
+    public int length() {
+      return values.length;
+    }
+
+    @Override
+    public String type() {
+      return "int32";
+    }
+
+    @Override
+    public void writeTo(OutputStream out) throws IOException {
+      var chunk = chunkBuffer();
+      for (int offset = 0; offset < values.length; offset += CHUNK_VALUES) {
+        var count = Math.min(CHUNK_VALUES, values.length - offset);
+        chunk.clear();
+        chunk.asIntBuffer().put(values, offset, count);
+        out.write(chunk.array(), 0, count * Integer.BYTES);
+        out.flush();
+      }
+    }
+  }
+}
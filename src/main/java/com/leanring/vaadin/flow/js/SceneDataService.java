@@ -0,0 +1,122 @@
+package com.leanring.vaadin.flow.js;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.stereotype.Service;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/// Supplies datasets for the Three.js demo.
+/// Generates a deterministic spiral-galaxy point cloud once and shares it
+/// across all views, standing in for a large analytics or sensor dataset.
+/// Views receive decimated levels of detail sized to their viewport, never the full cloud.
+/// Decimation runs on a small pool of its own, never on a request thread holding a session lock.
+@Service
+public class SceneDataService {
+
+  /// Default number of points in the demo cloud
+  public static final int DEFAULT_POINTS = 500_000;
+
+  private static final int ARMS = 4;
+
+  private final ExecutorService decimations = Executors.newFixedThreadPool(
+    Math.max(1, Runtime.getRuntime().availableProcessors() / 2),
+    Thread.ofPlatform().name("scene-decimation-", 0).daemon().factory()
+  );
+  private volatile PackedBuffer.Floats pointCloud;
+  private volatile Decimation.Bounds pointCloudBounds;
+
+  /// Gets the demo point cloud as packed xyz positions, generating it on first use
+  /// @return Packed float buffer with 3 components per point
+  public PackedBuffer.Floats getPointCloud() {
+    var cloud = pointCloud;
+    if (cloud == null) {
+      synchronized (this) {
+        cloud = pointCloud;
+        if (cloud == null) {
+          cloud = generateGalaxy(DEFAULT_POINTS);
+          pointCloudBounds = boundsOf(cloud.values());
+          pointCloud = cloud;
+        }
+      }
+    }
+    return cloud;
+  }
+
+  /// Gets the axis-aligned bounds of the demo point cloud
+  /// @return Bounds enclosing every point
+  public Decimation.Bounds getPointCloudBounds() {
+    getPointCloud();
+    return pointCloudBounds;
+  }
+
+  /// Decimates the point cloud to what a viewport can show inside the camera bounds
+  /// @param width Viewport width in pixels
+  /// @param height Viewport height in pixels
+  /// @param cameraBounds Region visible to the camera
+  /// @return Packed xyz positions sized to the viewport
+  public PackedBuffer.Floats getPointCloudDetail(int width, int height, Decimation.Bounds cameraBounds) {
+    var cloud = getPointCloud();
+    var bounds = intersect(cameraBounds, pointCloudBounds);
+    return Decimation.voxelGrid(cloud.values(), bounds, Decimation.pointBudget(width, height));
+  }
+
+  /// Decimates the point cloud in the background, see [#getPointCloudDetail]
+  /// @param width Viewport width in pixels
+  /// @param height Viewport height in pixels
+  /// @param cameraBounds Region visible to the camera
+  /// @return Future completing with packed xyz positions sized to the viewport
+  public CompletableFuture<PackedBuffer.Floats> getPointCloudDetailAsync(int width, int height,
+                                                                       Decimation.Bounds cameraBounds) {
+    return CompletableFuture.supplyAsync(() -> getPointCloudDetail(width, height, cameraBounds), decimations);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    decimations.shutdownNow();
+  }
+
+  /// Computes the bounding box of interleaved xyz positions
+  private static Decimation.Bounds boundsOf(float[] xyz) {
+    float minX = Float.MAX_VALUE, minY = Float.MAX_VALUE, minZ = Float.MAX_VALUE;
+    float maxX = -Float.MAX_VALUE, maxY = -Float.MAX_VALUE, maxZ = -Float.MAX_VALUE;
+    for (int i = 0; i + 2 < xyz.length; i += 3) {
+      minX = Math.min(minX, xyz[i]);
+      maxX = Math.max(maxX, xyz[i]);
+      minY = Math.min(minY, xyz[i + 1]);
+      maxY = Math.max(maxY, xyz[i + 1]);
+      minZ = Math.min(minZ, xyz[i + 2]);
+      maxZ = Math.max(maxZ, xyz[i + 2]);
+    }
+    return new Decimation.Bounds(minX, minY, minZ, maxX, maxY, maxZ);
+  }
+
+  /// Intersects two boxes (an empty intersection yields a zero-extent box)
+  private static Decimation.Bounds intersect(Decimation.Bounds a, Decimation.Bounds b) {
+    var minX = Math.max(a.minX(), b.minX());
+    var minY = Math.max(a.minY(), b.minY());
+    var minZ = Math.max(a.minZ(), b.minZ());
+    return new Decimation.Bounds(minX, minY, minZ,
+      Math.max(minX, Math.min(a.maxX(), b.maxX())),
+      Math.max(minY, Math.min(a.maxY(), b.maxY())),
+      Math.max(minZ, Math.min(a.maxZ(), b.maxZ())));
+  }
+
+  /// Generates a spiral galaxy with a fixed seed
+  /// @param points Number of points
+  /// @return Packed xyz positions
+  private static PackedBuffer.Floats generateGalaxy(int points) {
+    var random = new SplittableRandom(42);
+    var xyz = new float[points * 3];
+    for (int i = 0; i < points; i++) {
+      var radius = Math.pow(random.nextDouble(), 1.5) * 2.0;
+      var angle = (i % ARMS) * (2 * Math.PI / ARMS) + radius * 2.5;
+      var spread = 0.15 * (1.0 - radius / 2.0) + 0.02;
+      xyz[i * 3] = (float) (Math.cos(angle) * radius + random.nextGaussian() * spread);
+      xyz[i * 3 + 1] = (float) (random.nextGaussian() * spread * 0.5);
+      xyz[i * 3 + 2] = (float) (Math.sin(angle) * radius + random.nextGaussian() * spread);
+    }
+    return new PackedBuffer.Floats(xyz, 3);
+  }
+}
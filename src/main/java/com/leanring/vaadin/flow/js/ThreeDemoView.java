@@ -1,11 +1,19 @@
 package com.leanring.vaadin.flow.js;
 
 import com.leanring.vaadin.flow.shell.MainLayout;
+import com.vaadin.flow.component.AttachEvent;
+import com.vaadin.flow.component.ClientCallable;
+import com.vaadin.flow.component.DetachEvent;
 import com.vaadin.flow.component.dependency.JsModule;
 import com.vaadin.flow.component.dependency.NpmPackage;
 import com.vaadin.flow.component.html.Div;
 import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
+import com.vaadin.flow.server.StreamRegistration;
+import com.vaadin.flow.server.StreamResource;
+import com.vaadin.flow.shared.Registration;
+import elemental.json.Json;
+import elemental.json.JsonObject;
 
 /// ### ThreeDemoView
 ///
@@ -14,15 +22,26 @@ import com.vaadin.flow.router.Route;
 /// (e.g., statistics or chart points) inside the constructor, then hand the response
 /// to the browser through `executeJs` or `callJsFunction`.
 ///
+/// Large numeric data does not travel through `executeJs`: JSON in the UIDL response
+/// breaks down at millions of values. Instead the data is registered as a
+/// `StreamResource` serving packed little-endian bytes ([PackedBuffer]), and the UIDL
+/// channel only carries the resource URL and a few metadata fields:
+///
 /// ```java
-/// public ThreeDemoView(AnalyticsService service, ObjectMapper mapper) {
-///   var payload = mapper.writeValueAsString(service.fetchLatestMetrics());
-///   getElement().executeJs("window.renderThree($0, $1)", CONTAINER_ID, payload);
-/// }
+/// var registration = session.getResourceRegistry().registerResource(resource);
+/// getElement().executeJs("window.renderThree($0, $1)", CONTAINER_ID,
+///   metadata(registration.getResourceUri().toString(), buffer));
 /// ```
 ///
-/// The JavaScript module declared with `@JsModule` handles rendering and can be
-/// swapped for any other library (Chart.js, Mapbox, etc.).
+/// The browser never receives the full dataset: it reports its viewport size and camera
+/// bounds through `requestDetail`, and the server answers with a [Decimation] level of
+/// detail sized to the screen, refining the visible region when the user zooms.
+///
+/// Live data animates the scene without re-sending it: [LiveSceneService] pushes only
+/// the objects that changed, at a capped frame rate, to `window.applyThreeFrame`.
+///
+/// The JavaScript module declared with `@JsModule` streams the bytes into a typed array
+/// and renders progressively; it can be swapped for any other library (Chart.js, Mapbox, etc.).
 @Route(value = "three-demo", layout = MainLayout.class)
 @PageTitle("Three.js Demo")
 @NpmPackage(value = "three", version = "0.170.0")
@@ -31,20 +50,139 @@ public class ThreeDemoView extends Div {
 
   private static final String CONTAINER_ID = "three-container";
 
-  public ThreeDemoView() {
+  private final SceneDataService dataService;
+  private final LiveSceneService liveSceneService;
+  private StreamRegistration pointsRegistration;
+  private Registration liveScene;
+  private long detailRequests;
+
+  public ThreeDemoView(SceneDataService dataService, LiveSceneService liveSceneService) {
+    this.dataService = dataService;
+    this.liveSceneService = liveSceneService;
     setId(CONTAINER_ID);
     setHeight("400px");
     setWidth("100%");
+  }
+
+  @Override
+  protected void onAttach(AttachEvent event) {
+    super.onAttach(event);
+    var ui = event.getUI();
+    var bounds = dataService.getPointCloudBounds();
+
+    /// UI.access guarantees the Vaadin session lock while invoking the
+    /// browser helper. Replace `renderThree` with any exported function that
+    /// accepts the server data you want to plot or animate.
+    ui.access(() -> getElement().executeJs(
+      "window.renderThree && window.renderThree($0, $1)",
+      CONTAINER_ID,
+      boundsJson(bounds)
+    ));
+
+    // Live inventory bars: frame-paced deltas over push (see LiveSceneService)
+    liveScene = liveSceneService.subscribe(ui, getElement());
+  }
+
+  @Override
+  protected void onDetach(DetachEvent event) {
+    if (liveScene != null) {
+      liveScene.remove();
+      liveScene = null;
+    }
+    unregisterPoints();
+    super.onDetach(event);
+  }
+
+  /// Called by the browser with its viewport size and the region the camera sees.
+  /// Replies with a level of detail sized to the viewport: the first call yields the
+  /// overview, later calls (after zooming) refine the visible region. The decimation
+  /// runs off the request thread, so the session lock is not held while it computes;
+  /// the result is applied with `UI.access` and dropped if a newer request was made.
+  /// @param width Viewport width in pixels
+  /// @param height Viewport height in pixels
+  /// @param minX Camera bounds minimum x
+  /// @param minY Camera bounds minimum y
+  /// @param minZ Camera bounds minimum z
+  /// @param maxX Camera bounds maximum x
+  /// @param maxY Camera bounds maximum y
+  /// @param maxZ Camera bounds maximum z
+  @ClientCallable
+  public void requestDetail(int width, int height,
+                            double minX, double minY, double minZ,
+                            double maxX, double maxY, double maxZ) {
+    var cameraBounds = new Decimation.Bounds(
+      (float) minX, (float) minY, (float) minZ, (float) maxX, (float) maxY, (float) maxZ);
+    var ui = getUI().orElseThrow();
+    var request = ++detailRequests;
+    dataService.getPointCloudDetailAsync(width, height, cameraBounds)
+      .thenAccept(detail -> ui.access(() -> {
+        if (request == detailRequests && isAttached()) {
+          showDetail(detail);
+        }
+      }));
+  }
+
+  /// Serves a level of detail and tells the browser where to fetch it; runs under the session lock
+  /// @param detail Packed xyz positions
+  private void showDetail(PackedBuffer detail) {
+    unregisterPoints();
+    pointsRegistration = getUI().orElseThrow().getSession().getResourceRegistry()
+      .registerResource(createResource("points.bin", detail));
+    getElement().executeJs(
+      "window.refineThree && window.refineThree($0, $1)",
+      CONTAINER_ID,
+      metadata(pointsRegistration.getResourceUri().toString(), detail)
+    );
+  }
+
+  /// Releases the previously served level of detail
+  private void unregisterPoints() {
+    if (pointsRegistration != null) {
+      pointsRegistration.unregister();
+      pointsRegistration = null;
+    }
+  }
+
+  /// Creates a stream resource writing the buffer as raw bytes.
+  /// The writer runs outside the session lock, so streaming never blocks the UI.
+  /// @param name Resource file name
+  /// @param buffer Packed data to serve
+  /// @return StreamResource with binary content
+  static StreamResource createResource(String name, PackedBuffer buffer) {
+    var resource = new StreamResource(name, (out, session) -> buffer.writeTo(out));
+    resource.setContentType("application/octet-stream");
+    resource.setCacheTime(0);
+    return resource;
+  }
+
+  /// Serialises data bounds so the browser can frame the camera before data arrives
+  /// @param bounds Data bounds
+  /// @return JSON object with min/max arrays
+  static JsonObject boundsJson(Decimation.Bounds bounds) {
+    var min = Json.createArray();
+    min.set(0, bounds.minX());
+    min.set(1, bounds.minY());
+    min.set(2, bounds.minZ());
+    var max = Json.createArray();
+    max.set(0, bounds.maxX());
+    max.set(1, bounds.maxY());
+    max.set(2, bounds.maxZ());
+    var json = Json.createObject();
+    json.put("min", min);
+    json.put("max", max);
+    return json;
+  }
 
-    addAttachListener(event -> {
-      var ui = event.getUI();
-      /// UI.access guarantees the Vaadin session lock while invoking the
-      /// browser helper. Replace `renderThree` with any exported function that
-      /// accepts the server data you want to plot or animate.
-      ui.access(() -> getElement().executeJs(
-        "window.renderThree && window.renderThree($0)",
-        CONTAINER_ID
-      ));
-    });
+  /// Builds the small metadata object sent through the UIDL channel
+  /// @param url Resource URL to fetch the bytes from
+  /// @param buffer Packed buffer being served
+  /// @return JSON metadata: url, type, components, length
+  static JsonObject metadata(String url, PackedBuffer buffer) {
+    var json = Json.createObject();
+    json.put("url", url);
+    json.put("type", buffer.type());
+    json.put("components", buffer.components());
+    json.put("length", buffer.length());
+    return json;
   }
 }
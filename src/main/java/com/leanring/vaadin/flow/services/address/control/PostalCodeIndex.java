@@ -0,0 +1,244 @@
+package com.leanring.vaadin.flow.services.address.control;
+
+import com.leanring.vaadin.flow.services.address.entity.PostalArea;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.stream.IntStream;
+
+/// Memory-mapped, sorted postal code index.
+///
+/// The CSV dataset is compiled once into a binary file that is mapped read-only, so
+/// the entries live in the page cache instead of the heap and opening costs a header
+/// read. Layout (little endian):
+///
+/// | Offset | Content                                                       |
+/// |--------|---------------------------------------------------------------|
+/// | 0      | magic, entry count, offsets of both tables and the string pool |
+/// | tables | by postal code: `(postalRef, cityRef)` pairs, sorted by code then city |
+/// |        | by city: entry numbers sorted case-insensitively by city then code     |
+/// | pool   | de-duplicated strings, each a u16 length followed by UTF-8 bytes       |
+///
+/// Prefix searches are binary searches over a table, decoding only the probed strings.
+final class PostalCodeIndex implements AutoCloseable {
+
+  private static final int MAGIC = 0x50434958; // "PCIX"
+  private static final int HEADER_BYTES = 20;
+  private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+  private static final ValueLayout.OfShort SHORT = ValueLayout.JAVA_SHORT_UNALIGNED.withOrder(ByteOrder.LITTLE_ENDIAN);
+  private static final Comparator<String> CITY_ORDER = String.CASE_INSENSITIVE_ORDER;
+
+  private final Arena arena;
+  private final MemorySegment segment;
+  private final int count;
+  private final long byPostal;
+  private final long byCity;
+  private final long pool;
+
+  private PostalCodeIndex(Arena arena, MemorySegment segment) {
+    if (segment.byteSize() < HEADER_BYTES || segment.get(INT, 0) != MAGIC) {
+      throw new IllegalArgumentException("Not a postal code index");
+    }
+    this.arena = arena;
+    this.segment = segment;
+    this.count = segment.get(INT, 4);
+    this.byPostal = segment.get(INT, 8);
+    this.byCity = segment.get(INT, 12);
+    this.pool = segment.get(INT, 16);
+  }
+
+  /// Maps an index file
+  /// @param file File written by [#build]
+  /// @return Open index; close it to unmap
+  /// @throws UncheckedIOException if the file cannot be mapped
+  static PostalCodeIndex open(Path file) {
+    var arena = Arena.ofShared();
+    try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      return new PostalCodeIndex(arena, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size(), arena));
+    } catch (IOException e) {
+      arena.close();
+      throw new UncheckedIOException("Cannot map postal code index " + file, e);
+    } catch (RuntimeException e) {
+      arena.close();
+      throw e;
+    }
+  }
+
+  /// Compiles a `postal_code,city` CSV (with header line) into an index file.
+  /// Written to a temporary file and moved into place, so readers never see a partial index.
+  /// @param csv Source dataset
+  /// @param target Index file to create or replace
+  /// @throws IOException if reading or writing fails
+  static void build(BufferedReader csv, Path target) throws IOException {
+    var areas = new ArrayList<PostalArea>();
+    csv.readLine(); // header
+    for (var line = csv.readLine(); line != null; line = csv.readLine()) {
+      var comma = line.indexOf(',');
+      if (comma <= 0) {
+        continue;
+      }
+      var postalCode = line.substring(0, comma).strip();
+      var city = line.substring(comma + 1).strip();
+      if (!postalCode.isEmpty() && !city.isEmpty()) {
+        areas.add(new PostalArea(postalCode, city));
+      }
+    }
+    areas.sort(Comparator.comparing(PostalArea::postalCode).thenComparing(PostalArea::city, CITY_ORDER));
+    var byCityOrder = IntStream.range(0, areas.size()).boxed()
+      .sorted(Comparator.<Integer, String>comparing(i -> areas.get(i).city(), CITY_ORDER)
+        .thenComparing(i -> areas.get(i).postalCode()))
+      .mapToInt(Integer::intValue)
+      .toArray();
+
+    // String pool with de-duplication (cities repeat across many codes)
+    var refs = new HashMap<String, Integer>();
+    var strings = new ByteArrayOutputStream();
+    var pairs = new int[areas.size() * 2];
+    for (int i = 0; i < areas.size(); i++) {
+      pairs[i * 2] = intern(areas.get(i).postalCode(), refs, strings);
+      pairs[i * 2 + 1] = intern(areas.get(i).city(), refs, strings);
+    }
+
+    var byPostal = HEADER_BYTES;
+    var byCity = byPostal + pairs.length * Integer.BYTES;
+    var pool = byCity + byCityOrder.length * Integer.BYTES;
+    var buffer = ByteBuffer.allocate(pool + strings.size()).order(ByteOrder.LITTLE_ENDIAN);
+    buffer.putInt(MAGIC).putInt(areas.size()).putInt(byPostal).putInt(byCity).putInt(pool);
+    for (var value : pairs) {
+      buffer.putInt(value);
+    }
+    for (var value : byCityOrder) {
+      buffer.putInt(value);
+    }
+    buffer.put(strings.toByteArray());
+
+    Files.createDirectories(target.toAbsolutePath().getParent());
+    var temporary = Files.createTempFile(target.toAbsolutePath().getParent(), "postal-codes", ".tmp");
+    Files.write(temporary, buffer.array());
+    Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  /// @return Number of postal code / city pairs
+  int size() {
+    return count;
+  }
+
+  /// Entry at a position of the postal code order
+  /// @param entry Entry number
+  /// @return Postal area
+  PostalArea area(int entry) {
+    return new PostalArea(postalCode(entry), city(entry));
+  }
+
+  /// Entry number at a position of the city order
+  /// @param position Position in city order
+  /// @return Entry number
+  int entryByCity(int position) {
+    return segment.get(INT, byCity + (long) position * Integer.BYTES);
+  }
+
+  /// Range of entries whose postal code starts with the prefix
+  /// @param prefix Postal code prefix
+  /// @return `{from, to}` in postal code order, `to` exclusive
+  int[] postalCodeRange(String prefix) {
+    return new int[] {
+      bound(prefix, false, true),
+      bound(prefix, true, true)
+    };
+  }
+
+  /// Range of city-order positions whose city starts with the prefix (case-insensitive)
+  /// @param prefix City prefix
+  /// @return `{from, to}` in city order, `to` exclusive
+  int[] cityRange(String prefix) {
+    return new int[] {
+      bound(prefix, false, false),
+      bound(prefix, true, false)
+    };
+  }
+
+  @Override
+  public void close() {
+    arena.close();
+  }
+
+  /// Binary search for the first position whose key is >= (or, for upper, >) the prefix
+  private int bound(String prefix, boolean upper, boolean postal) {
+    var from = 0;
+    var to = count;
+    while (from < to) {
+      var mid = (from + to) >>> 1;
+      var key = postal ? postalCode(mid) : city(entryByCity(mid));
+      var comparison = comparePrefix(key, prefix, !postal);
+      if (upper ? comparison <= 0 : comparison < 0) {
+        from = mid + 1;
+      } else {
+        to = mid;
+      }
+    }
+    return from;
+  }
+
+  /// Postal code of an entry
+  /// @param entry Entry number (postal code order)
+  /// @return Postal code
+  String postalCode(int entry) {
+    return string(segment.get(INT, byPostal + (long) entry * 2 * Integer.BYTES));
+  }
+
+  /// City of an entry
+  /// @param entry Entry number (postal code order)
+  /// @return City
+  String city(int entry) {
+    return string(segment.get(INT, byPostal + ((long) entry * 2 + 1) * Integer.BYTES));
+  }
+
+  /// Decodes a pooled string
+  private String string(int ref) {
+    var offset = pool + ref;
+    var length = Short.toUnsignedInt(segment.get(SHORT, offset));
+    var bytes = segment.asSlice(offset + Short.BYTES, length).toArray(ValueLayout.JAVA_BYTE);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /// Compares the key's leading characters with the prefix; 0 means the key starts with it
+  private static int comparePrefix(String key, String prefix, boolean ignoreCase) {
+    var length = Math.min(key.length(), prefix.length());
+    var comparison = ignoreCase
+      ? CITY_ORDER.compare(key.substring(0, length), prefix.substring(0, length))
+      : key.substring(0, length).compareTo(prefix.substring(0, length));
+    if (comparison != 0) {
+      return comparison;
+    }
+    return key.length() < prefix.length() ? -1 : 0;
+  }
+
+  private static int intern(String value, HashMap<String, Integer> refs, ByteArrayOutputStream strings) {
+    return refs.computeIfAbsent(value, v -> {
+      var bytes = v.getBytes(StandardCharsets.UTF_8);
+      if (bytes.length > 0xFFFF) {
+        throw new IllegalArgumentException("Value too long: " + v.substring(0, 20));
+      }
+      var ref = strings.size();
+      strings.write(bytes.length & 0xFF);
+      strings.write(bytes.length >>> 8);
+      strings.writeBytes(bytes);
+      return ref;
+    });
+  }
+}
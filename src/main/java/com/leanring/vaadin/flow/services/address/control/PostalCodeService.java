@@ -0,0 +1,169 @@
+package com.leanring.vaadin.flow.services.address.control;
+
+import com.leanring.vaadin.flow.services.address.entity.PostalArea;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.IntFunction;
+
+/// Postal code and city lookups for address autocomplete and validation.
+///
+/// Backed by a memory-mapped [PostalCodeIndex]: nothing is read at startup. The first
+/// lookup compiles the CSV dataset into the index file if it is missing or older than
+/// the dataset, then maps it; later lookups are binary searches over the mapping.
+/// If the dataset is unavailable, lookups return nothing and validation accepts any input.
+@Slf4j
+@Service
+public class PostalCodeService {
+
+  private final Resource dataset;
+  private final Path indexFile;
+  private volatile PostalCodeIndex index;
+  private volatile boolean unavailable;
+
+  /// Constructor with dependency injection
+  /// @param dataset CSV with `postal_code,city` rows (header line first)
+  /// @param indexFile Location of the compiled index
+  public PostalCodeService(
+    @Value("${address.postal-codes.source:classpath:postal-codes.csv}") Resource dataset,
+    @Value("${address.postal-codes.index:${java.io.tmpdir}/flow-postal-codes.idx}") Path indexFile
+  ) {
+    this.dataset = dataset;
+    this.indexFile = indexFile;
+  }
+
+  /// Suggests distinct postal codes starting with the typed prefix
+  /// @param prefix Typed postal code prefix
+  /// @param offset Number of distinct codes to skip
+  /// @param limit Maximum number of suggestions
+  /// @return Postal codes in ascending order
+  public List<String> suggestPostalCodes(String prefix, int offset, int limit) {
+    var idx = index();
+    if (idx == null) {
+      return List.of();
+    }
+    var range = idx.postalCodeRange(normalize(prefix));
+    return distinct(range, offset, limit, idx::postalCode);
+  }
+
+  /// Suggests distinct city names starting with the typed prefix (case-insensitive)
+  /// @param prefix Typed city prefix
+  /// @param offset Number of distinct cities to skip
+  /// @param limit Maximum number of suggestions
+  /// @return City names in alphabetical order
+  public List<String> suggestCities(String prefix, int offset, int limit) {
+    var idx = index();
+    if (idx == null) {
+      return List.of();
+    }
+    var range = idx.cityRange(normalize(prefix));
+    return distinct(range, offset, limit, position -> idx.city(idx.entryByCity(position)));
+  }
+
+  /// Finds the areas served by a postal code
+  /// @param postalCode Exact postal code
+  /// @return Areas of the code (empty if unknown or the dataset is unavailable)
+  public List<PostalArea> findByPostalCode(String postalCode) {
+    var idx = index();
+    var code = normalize(postalCode);
+    if (idx == null || code.isEmpty()) {
+      return List.of();
+    }
+    var range = idx.postalCodeRange(code);
+    var result = new ArrayList<PostalArea>();
+    // The prefix range also holds longer codes; exact matches sort first
+    for (int entry = range[0]; entry < range[1] && idx.postalCode(entry).equals(code); entry++) {
+      result.add(idx.area(entry));
+    }
+    return result;
+  }
+
+  /// Cross-field check: does the city belong to the postal code?
+  /// @param postalCode Postal code as entered
+  /// @param city City as entered
+  /// @return false only if the postal code is known and none of its cities match
+  public boolean isConsistent(String postalCode, String city) {
+    if (city == null || city.isBlank()) {
+      return true;
+    }
+    var areas = findByPostalCode(postalCode);
+    return areas.isEmpty() || areas.stream().anyMatch(area -> area.city().equalsIgnoreCase(city.strip()));
+  }
+
+  @PreDestroy
+  void close() {
+    var idx = index;
+    if (idx != null) {
+      index = null;
+      idx.close();
+    }
+  }
+
+  /// Gets the mapped index, compiling the dataset on first use
+  /// @return Index, or null if the dataset cannot be loaded
+  private PostalCodeIndex index() {
+    var idx = index;
+    if (idx != null || unavailable) {
+      return idx;
+    }
+    synchronized (this) {
+      if (index == null && !unavailable) {
+        try {
+          if (isStale()) {
+            var started = System.nanoTime();
+            try (var reader = new BufferedReader(new InputStreamReader(dataset.getInputStream(), StandardCharsets.UTF_8))) {
+              PostalCodeIndex.build(reader, indexFile);
+            }
+            log.info("Compiled postal code index {} in {} ms", indexFile, (System.nanoTime() - started) / 1_000_000);
+          }
+          index = PostalCodeIndex.open(indexFile);
+        } catch (IOException | RuntimeException e) {
+          log.warn("Postal code lookups disabled: {}", e.getMessage());
+          unavailable = true;
+        }
+      }
+      return index;
+    }
+  }
+
+  /// Collects distinct values of adjacent equal keys within a range
+  private static List<String> distinct(int[] range, int offset, int limit, IntFunction<String> valueAt) {
+    var result = new ArrayList<String>(Math.max(0, Math.min(limit, range[1] - range[0])));
+    String previous = null;
+    var skipped = 0;
+    for (int position = range[0]; position < range[1] && result.size() < limit; position++) {
+      var value = valueAt.apply(position);
+      if (value.equalsIgnoreCase(previous)) {
+        continue;
+      }
+      previous = value;
+      if (skipped++ >= offset) {
+        result.add(value);
+      }
+    }
+    return result;
+  }
+
+  private static String normalize(String input) {
+    return input == null ? "" : input.strip();
+  }
+
+  /// @return true if the index file is missing or older than the dataset
+  private boolean isStale() throws IOException {
+    if (!Files.exists(indexFile)) {
+      return true;
+    }
+    var datasetModified = dataset.lastModified();
+    return datasetModified > Files.getLastModifiedTime(indexFile).toMillis();
+  }
+}
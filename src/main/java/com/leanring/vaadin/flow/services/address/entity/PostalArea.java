@@ -0,0 +1,8 @@
+package com.leanring.vaadin.flow.services.address.entity;
+
+/// One postal code / city pair of the national postal-code dataset.
+///
+/// @param postalCode Postal code as published (leading zeros kept)
+/// @param city City or suburb served by the code
+public record PostalArea(String postalCode, String city) {
+}
@@ -0,0 +1,186 @@
+package com.leanring.vaadin.flow.services.catalog.boundary;
+
+import com.leanring.vaadin.flow.forms.ConstraintPlan;
+import com.leanring.vaadin.flow.services.catalog.entity.Category;
+import com.leanring.vaadin.flow.services.catalog.entity.Money;
+import com.leanring.vaadin.flow.services.catalog.entity.Product;
+import com.vaadin.flow.component.button.Button;
+import com.vaadin.flow.component.button.ButtonVariant;
+import com.vaadin.flow.component.combobox.ComboBox;
+import com.vaadin.flow.component.datepicker.DatePicker;
+import com.vaadin.flow.component.dialog.Dialog;
+import com.vaadin.flow.component.formlayout.FormLayout;
+import com.vaadin.flow.component.orderedlayout.FlexComponent;
+import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
+import com.vaadin.flow.component.textfield.BigDecimalField;
+import com.vaadin.flow.component.textfield.IntegerField;
+import com.vaadin.flow.component.textfield.TextArea;
+import com.vaadin.flow.component.textfield.TextField;
+import com.vaadin.flow.data.binder.Binder;
+import com.vaadin.flow.function.SerializableBiConsumer;
+import com.vaadin.flow.function.SerializableRunnable;
+
+/// Reusable add/edit dialog for products.
+///
+/// Built once per view and re-bound on every use:
+/// - Fields, layout and binder are created a single time
+/// - Constraints of [Product] are checked through its shared [ConstraintPlan]
+/// - The price is edited as a decimal and converted to [Money] exactly, never via `double`
+/// - `edit()` only reads new values into the existing fields
+/// - The owning view keeps the dialog attached, so reopening it sends
+///   value changes to the client instead of a whole new component tree
+public class ProductEditorDialog extends Dialog {
+
+  private static final ConstraintPlan PLAN = ConstraintPlan.of(Product.class);
+
+  private final TextField nameField = new TextField("Product Name");
+  private final ComboBox<Category> categoryCombo = new ComboBox<>("Category");
+  private final BigDecimalField priceField = new BigDecimalField("Price (ZAR)");
+  private final IntegerField stockField = new IntegerField("Stock Quantity");
+  private final DatePicker launchDatePicker = new DatePicker("Launch Date");
+  private final TextArea descriptionArea = new TextArea("Description");
+
+  private final Binder<Product> binder = new Binder<>();
+
+  private Product original;
+  private SerializableBiConsumer<Product, Product> saveHandler;
+  private SerializableRunnable invalidHandler;
+
+  /// Constructor builds fields, binder and footer once
+  public ProductEditorDialog() {
+    setWidth("600px");
+    configureFields();
+    configureBinder();
+    add(createFormLayout());
+    getFooter().add(createFooter());
+  }
+
+  /// Configures field properties
+  private void configureFields() {
+    nameField.setRequiredIndicatorVisible(true);
+    nameField.setWidthFull();
+
+    categoryCombo.setItems(Category.values());
+    categoryCombo.setItemLabelGenerator(Category::getDisplayName);
+    categoryCombo.setRequiredIndicatorVisible(true);
+    categoryCombo.setWidthFull();
+
+    priceField.setRequiredIndicatorVisible(true);
+    priceField.setWidthFull();
+
+    stockField.setMin(0);
+    stockField.setWidthFull();
+
+    launchDatePicker.setWidthFull();
+
+    descriptionArea.setMaxLength(500);
+    descriptionArea.setWidthFull();
+  }
+
+  /// Binds fields to product components (read-only bindings, records have no setters)
+  private void configureBinder() {
+    binder.forField(nameField).asRequired("Name is required")
+      .withValidator(PLAN.validator("name"))
+      .bind(Product::name, null);
+    binder.forField(categoryCombo).asRequired("Category is required")
+      .bind(Product::category, null);
+    binder.forField(priceField)
+      .asRequired("Price is required")
+      .withConverter(
+        value -> value != null ? Money.of(value, Money.ZAR) : null,
+        money -> money != null ? money.toBigDecimal() : null,
+        "Enter a valid price with at most 2 decimals"
+      )
+      .withValidator(PLAN.validator("price"))
+      .bind(Product::price, null);
+    binder.forField(stockField)
+      .asRequired("Stock quantity is required")
+      .withValidator(value -> value != null && value >= 0, "Stock must be zero or greater")
+      .bind(Product::stock, null);
+    binder.forField(launchDatePicker).bind(Product::launchDate, null);
+    binder.forField(descriptionArea)
+      .withValidator(PLAN.validator("description"))
+      .bind(Product::description, null);
+  }
+
+  /// Creates the responsive form layout
+  /// @return FormLayout with all fields
+  private FormLayout createFormLayout() {
+    var formLayout = new FormLayout(
+      nameField,
+      categoryCombo,
+      priceField,
+      stockField,
+      launchDatePicker,
+      descriptionArea
+    );
+    formLayout.setResponsiveSteps(
+      new FormLayout.ResponsiveStep("0", 1),
+      new FormLayout.ResponsiveStep("500px", 2)
+    );
+    formLayout.setColspan(descriptionArea, 2);
+    return formLayout;
+  }
+
+  /// Creates footer with cancel and save buttons
+  /// @return HorizontalLayout footer
+  private HorizontalLayout createFooter() {
+    var cancelBtn = new Button("Cancel", e -> close());
+    var saveBtn = new Button("Save", e -> handleSave());
+    saveBtn.addThemeVariants(ButtonVariant.LUMO_PRIMARY);
+
+    var footer = new HorizontalLayout(cancelBtn, saveBtn);
+    footer.setJustifyContentMode(FlexComponent.JustifyContentMode.END);
+    footer.setWidthFull();
+    return footer;
+  }
+
+  /// Sets the handler called with (original, updated) on a valid save
+  /// @param handler Save handler; original is null for new products
+  public void setSaveHandler(SerializableBiConsumer<Product, Product> handler) {
+    this.saveHandler = handler;
+  }
+
+  /// Sets the handler called when save is attempted with invalid input
+  /// @param handler Invalid-input handler
+  public void setInvalidHandler(SerializableRunnable handler) {
+    this.invalidHandler = handler;
+  }
+
+  /// Re-binds the dialog to a product and opens it
+  /// @param product Product to edit, or null for a new product
+  public void edit(Product product) {
+    this.original = product;
+    setHeaderTitle(product == null ? "➕ Add Product" : "✏️ Edit Product");
+    // readBean resets values and validation state left over from the previous use
+    binder.readBean(product);
+    if (product == null) {
+      stockField.setValue(0);
+    }
+    open();
+  }
+
+  /// Validates and hands the edited product to the save handler
+  private void handleSave() {
+    if (!binder.validate().isOk()) {
+      if (invalidHandler != null) {
+        invalidHandler.run();
+      }
+      return;
+    }
+    var updated = new Product(
+      original != null ? original.id() : null,
+      nameField.getValue(),
+      categoryCombo.getValue(),
+      Money.of(priceField.getValue(), Money.ZAR),
+      stockField.getValue() != null ? stockField.getValue() : 0,
+      launchDatePicker.getValue(),
+      descriptionArea.getValue(),
+      original != null ? original.version() : 0L
+    );
+    close();
+    if (saveHandler != null) {
+      saveHandler.accept(original, updated);
+    }
+  }
+}
@@ -0,0 +1,149 @@
+package com.leanring.vaadin.flow.services.catalog.boundary;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.leanring.vaadin.flow.services.catalog.control.ProductCache;
+import com.leanring.vaadin.flow.services.catalog.control.ProductService;
+import com.leanring.vaadin.flow.services.catalog.entity.Category;
+import com.leanring.vaadin.flow.services.catalog.entity.Product;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import java.io.IOException;
+import java.util.UUID;
+
+/// REST boundary exposing the product catalog to integrations.
+///
+/// - Streams results as NDJSON (one product per line) straight from the service,
+///   so large result sets are never buffered in memory
+/// - Keyset pagination: pass the last `id` received as `after` to fetch the next page
+/// - ETag derived from the catalog version; `If-None-Match` answers 304 with no body
+///   while nothing has changed, which keeps frequent polling cheap. Versions restart
+///   with the process and differ between instances, so every ETag is prefixed with an
+///   epoch drawn at startup: a tag from another boot or instance never matches
+/// - Single products, category listings and searches are read through the [ProductCache]
+///   near-cache
+@RestController
+@RequestMapping("/api/products")
+public class ProductResource {
+
+  static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+  static final int DEFAULT_LIMIT = 1_000;
+  static final int MAX_LIMIT = 100_000;
+  private static final int FLUSH_EVERY = 256;
+
+  private final ProductService service;
+  private final ProductCache cache;
+  private final ObjectMapper mapper;
+  private final String epoch = UUID.randomUUID().toString().substring(0, 8);
+
+  /// Constructor with dependency injection
+  /// @param service Product service for catalog access
+  /// @param cache Near-cache for lookups by ID, listings and searches
+  /// @param mapper Jackson mapper configured by Spring Boot
+  public ProductResource(ProductService service, ProductCache cache, ObjectMapper mapper) {
+    this.service = service;
+    this.cache = cache;
+    this.mapper = mapper;
+  }
+
+  /// Streams a page of products in ascending ID order
+  /// @param after Keyset cursor: last product ID already received (optional)
+  /// @param limit Maximum number of products to return (capped at MAX_LIMIT)
+  /// @param category Category filter (optional)
+  /// @param q Search term matched against name and description (optional)
+  /// @param request Web request used for conditional (If-None-Match) handling
+  /// @return 200 with NDJSON body, or 304 when the client's ETag is current
+  @GetMapping(produces = "application/x-ndjson")
+  public ResponseEntity<StreamingResponseBody> list(
+    @RequestParam(required = false) Long after,
+    @RequestParam(defaultValue = "" + DEFAULT_LIMIT) int limit,
+    @RequestParam(required = false) Category category,
+    @RequestParam(required = false) String q,
+    WebRequest request
+  ) {
+    // Read the version before streaming: a concurrent change yields a new ETag next poll
+    var eTag = eTag(service.getCatalogVersion());
+    if (request.checkNotModified(eTag)) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+    }
+
+    var pageSize = Math.clamp(limit, 1, MAX_LIMIT);
+    StreamingResponseBody body = out -> {
+      try (var generator = mapper.getFactory().createGenerator(out);
+           var page = cache.streamAfter(after, category, q).limit(pageSize)) {
+        var written = 0;
+        for (var it = page.iterator(); it.hasNext(); ) {
+          writeProduct(generator, it.next());
+          generator.writeRaw('\n');
+          if (++written % FLUSH_EVERY == 0) {
+            generator.flush();
+          }
+        }
+      }
+    };
+
+    return ResponseEntity.ok()
+      .contentType(NDJSON)
+      .eTag(eTag)
+      .body(body);
+  }
+
+  /// Gets one product
+  /// @param id Product ID
+  /// @param request Web request used for conditional (If-None-Match) handling
+  /// @return 200 with JSON body, 304 when the client's ETag is current, or 404
+  @GetMapping(path = "/{id}", produces = MediaType.APPLICATION_JSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> get(@PathVariable long id, WebRequest request) {
+    var product = cache.findById(id).orElse(null);
+    if (product == null) {
+      return ResponseEntity.notFound().build();
+    }
+    var eTag = eTag(product.version());
+    if (request.checkNotModified(eTag)) {
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+    }
+    StreamingResponseBody body = out -> {
+      try (var generator = mapper.getFactory().createGenerator(out)) {
+        writeProduct(generator, product);
+      }
+    };
+    return ResponseEntity.ok()
+      .contentType(MediaType.APPLICATION_JSON)
+      .eTag(eTag)
+      .body(body);
+  }
+
+  /// Builds a weak ETag valid only for this instance and boot
+  /// @param version Catalog or product version
+  /// @return ETag such as `W/"1a2b3c4d-42"`
+  private String eTag(long version) {
+    return "W/\"" + epoch + "-" + version + "\"";
+  }
+
+  /// Writes a single product as a JSON object without reflection
+  /// @param generator Target JSON generator
+  /// @param product Product to write
+  /// @throws IOException if the client connection fails
+  private static void writeProduct(JsonGenerator generator, Product product) throws IOException {
+    generator.writeStartObject();
+    generator.writeNumberField("id", product.id());
+    generator.writeStringField("name", product.name());
+    generator.writeStringField("category", product.category().name());
+    generator.writeFieldName("price");
+    generator.writeNumber(product.price().toPlainString());
+    generator.writeNumberField("stock", product.stock());
+    generator.writeStringField("launchDate",
+      product.launchDate() != null ? product.launchDate().toString() : null);
+    generator.writeStringField("description", product.description());
+    generator.writeNumberField("version", product.version());
+    generator.writeEndObject();
+  }
+}
@@ -1,14 +1,15 @@
 package com.leanring.vaadin.flow.services.catalog.boundary;
 
+import com.leanring.vaadin.flow.services.catalog.control.ProductCache;
+import com.leanring.vaadin.flow.services.catalog.control.ProductExporter;
 import com.leanring.vaadin.flow.services.catalog.control.ProductService;
+import com.leanring.vaadin.flow.services.catalog.control.StaleProductException;
 import com.leanring.vaadin.flow.services.catalog.entity.Category;
 import com.leanring.vaadin.flow.services.catalog.entity.Product;
 import com.vaadin.flow.component.button.Button;
 import com.vaadin.flow.component.button.ButtonVariant;
 import com.vaadin.flow.component.combobox.ComboBox;
-import com.vaadin.flow.component.datepicker.DatePicker;
 import com.vaadin.flow.component.dialog.Dialog;
-import com.vaadin.flow.component.formlayout.FormLayout;
 import com.vaadin.flow.component.grid.Grid;
 import com.vaadin.flow.component.html.*;
 import com.vaadin.flow.component.notification.Notification;
@@ -16,15 +17,22 @@ import com.vaadin.flow.component.notification.NotificationVariant;
 import com.vaadin.flow.component.orderedlayout.*;
 import com.vaadin.flow.component.textfield.IntegerField;
 import com.vaadin.flow.component.textfield.NumberField;
-import com.vaadin.flow.component.textfield.TextArea;
 import com.vaadin.flow.component.textfield.TextField;
-import com.vaadin.flow.data.binder.BeanValidationBinder;
+import java.io.Serializable;
 import java.math.BigDecimal;
-import com.vaadin.flow.data.provider.ListDataProvider;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Stream;
 import com.vaadin.flow.data.renderer.ComponentRenderer;
 import com.vaadin.flow.data.value.ValueChangeMode;
+import com.vaadin.flow.function.SerializableComparator;
+import com.vaadin.flow.function.SerializableRunnable;
 import com.vaadin.flow.router.PageTitle;
 import com.vaadin.flow.router.Route;
+import com.vaadin.flow.server.streams.DownloadHandler;
 import com.leanring.vaadin.flow.shell.MainLayout;
 
 /// Product view demonstrating BCE pattern with CRUD operations.
@@ -33,14 +41,30 @@ import com.leanring.vaadin.flow.shell.MainLayout;
 public class ProductView extends VerticalLayout {
 
   private final ProductService service;
+  private final ProductCache cache;
+  private final ProductExporter exporter;
   private final Grid<Product> grid = new Grid<>(Product.class, false);
-  private final ListDataProvider<Product> dataProvider;
+  private final Span selectionInfo = new Span();
+  private HorizontalLayout bulkBar;
+  private final Paragraph confirmMessage = new Paragraph();
+  private ProductEditorDialog editor;
+  private Dialog confirmDialog;
+  private SerializableRunnable pendingConfirm;
+  // Read by downloads, which run outside the session lock
+  private volatile ExportQuery exportQuery = new ExportQuery(null, null, null);
+  // Keyset cursors of the grid: offset where a fetched page ends -> last product on it,
+  // valid for one filter and order (pageEndsQuery) until the data is refreshed
+  private final NavigableMap<Integer, Product> pageEnds = new TreeMap<>();
+  private ExportQuery pageEndsQuery;
 
   /// Constructor initializes the catalog view with dependency injection
   /// @param service Product service for business operations
-  public ProductView(ProductService service) {
+  /// @param cache Near-cache the filtered grid reads through
+  /// @param exporter Exporter streaming the filtered grid as CSV or XLSX
+  public ProductView(ProductService service, ProductCache cache, ProductExporter exporter) {
     this.service = service;
-    this.dataProvider = new ListDataProvider<>(service.findAll());
+    this.cache = cache;
+    this.exporter = exporter;
 
     setSizeFull();
     setPadding(false);
@@ -48,6 +72,7 @@ public class ProductView extends VerticalLayout {
     add(
       createHeader(),
       createToolbar(),
+      createBulkBar(),
       createGridLayout()
     );
   }
@@ -58,7 +83,7 @@ public class ProductView extends VerticalLayout {
     var title = new H2("🛒 Product Catalog (BCE Demo)");
     title.addClassName("page-title");
 
-    var stats = new Span("Total Products: " + service.findAll().size());
+    var stats = new Span("Total Products: " + service.size());
     stats.addClassName("stats-text");
 
     var header = new HorizontalLayout(title, stats);
@@ -77,19 +102,26 @@ public class ProductView extends VerticalLayout {
     searchField.setPlaceholder("🔍 Search products...");
     searchField.setWidth("300px");
     searchField.setValueChangeMode(ValueChangeMode.LAZY);
-    searchField.addValueChangeListener(e -> applyFilters(e.getValue(), null));
 
     var categoryFilter = new ComboBox<Category>("Category");
     categoryFilter.setItems(Category.values());
     categoryFilter.setItemLabelGenerator(Category::getDisplayName);
     categoryFilter.setPlaceholder("All categories");
     categoryFilter.setClearButtonVisible(true);
+
+    searchField.addValueChangeListener(e -> applyFilters(e.getValue(), categoryFilter.getValue()));
     categoryFilter.addValueChangeListener(e -> applyFilters(searchField.getValue(), e.getValue()));
 
     var addButton = new Button("+ Add Product", e -> openProductDialog(null));
     addButton.addThemeVariants(ButtonVariant.LUMO_PRIMARY);
 
-    var toolbar = new HorizontalLayout(searchField, categoryFilter, addButton);
+    var actions = new HorizontalLayout(
+      createExportLink(ProductExporter.Format.CSV, "⬇ CSV"),
+      createExportLink(ProductExporter.Format.XLSX, "⬇ Excel"),
+      addButton
+    );
+
+    var toolbar = new HorizontalLayout(searchField, categoryFilter, actions);
     toolbar.setWidthFull();
     toolbar.setPadding(true);
     toolbar.setAlignItems(FlexComponent.Alignment.END);
@@ -98,11 +130,96 @@ public class ProductView extends VerticalLayout {
     return toolbar;
   }
 
+  /// Creates a download link exporting what the grid currently shows: the live catalog
+  /// with the current search, category filter and sort order, streamed page by page
+  /// @param format Export file format
+  /// @param text Button text
+  /// @return Anchor wrapping a button
+  private Anchor createExportLink(ProductExporter.Format format, String text) {
+    var link = new Anchor((DownloadHandler) event -> {
+      var query = exportQuery;
+      event.setFileName("products." + format.getExtension());
+      event.setContentType(format.getContentType());
+      try (var out = event.getOutputStream()) {
+        exporter.export(format, query.category(), query.searchTerm(), query.order(), out);
+      }
+    }, "");
+    link.getElement().setAttribute("download", true);
+    link.add(new Button(text));
+    return link;
+  }
+
+  /// Creates the bulk action bar shown while rows are selected.
+  /// Every action is one batched service call followed by one grid refresh.
+  /// @return HorizontalLayout with bulk action components
+  private HorizontalLayout createBulkBar() {
+    var deleteBtn = new Button("Delete selected", e -> confirmBulkDelete(grid.getSelectedItems()));
+    deleteBtn.addThemeVariants(ButtonVariant.LUMO_ERROR);
+
+    var bulkCategory = new ComboBox<Category>("New category");
+    bulkCategory.setItems(Category.values());
+    bulkCategory.setItemLabelGenerator(Category::getDisplayName);
+    var categoryBtn = new Button("Set category", e -> {
+      if (bulkCategory.isEmpty()) {
+        showNotification("❌ Choose a category first", NotificationVariant.LUMO_ERROR);
+        return;
+      }
+      runBulk("Category changed", ids -> service.changeCategory(ids, bulkCategory.getValue()));
+    });
+
+    var percentField = new NumberField("Price change (%)");
+    percentField.setStep(0.5);
+    percentField.setWidth("140px");
+    var priceBtn = new Button("Reprice", e -> {
+      if (percentField.isEmpty()) {
+        showNotification("❌ Enter a percentage first", NotificationVariant.LUMO_ERROR);
+        return;
+      }
+      var percent = BigDecimal.valueOf(percentField.getValue());
+      runBulk("Prices updated", ids -> service.adjustPrices(ids, percent));
+    });
+
+    var stockField = new IntegerField("Stock change");
+    stockField.setStepButtonsVisible(true);
+    stockField.setWidth("140px");
+    var stockBtn = new Button("Adjust stock", e -> {
+      if (stockField.isEmpty()) {
+        showNotification("❌ Enter a stock change first", NotificationVariant.LUMO_ERROR);
+        return;
+      }
+      var adjustment = stockField.getValue();
+      runBulk("Stock adjusted", ids -> service.adjustStockAll(ids, adjustment));
+    });
+
+    bulkBar = new HorizontalLayout(
+      selectionInfo,
+      deleteBtn,
+      bulkCategory, categoryBtn,
+      percentField, priceBtn,
+      stockField, stockBtn
+    );
+    bulkBar.setWidthFull();
+    bulkBar.setPadding(true);
+    bulkBar.setAlignItems(FlexComponent.Alignment.BASELINE);
+    bulkBar.setVisible(false);
+
+    return bulkBar;
+  }
+
   /// Creates grid layout with product data
   /// @return VerticalLayout containing the grid
   private VerticalLayout createGridLayout() {
-    grid.setDataProvider(dataProvider);
+    // Pages are fetched as the grid scrolls, never the whole catalog; filtered
+    // listings are read through the near-cache
+    grid.setItems(query -> fetchPage(query.getOffset(), query.getLimit()));
     grid.setSizeFull();
+    grid.setSelectionMode(Grid.SelectionMode.MULTI);
+    grid.addSelectionListener(e -> {
+      var count = e.getAllSelectedItems().size();
+      selectionInfo.setText(count + " selected");
+      bulkBar.setVisible(count > 0);
+    });
+    grid.addSortListener(e -> updateExportQuery());
 
     // Configure columns with custom renderers
     grid.addColumn(Product::id)
@@ -123,6 +240,7 @@ public class ProductView extends VerticalLayout {
     grid.addColumn(Product::getFormattedPrice)
       .setHeader("Price")
       .setSortable(true)
+      .setComparator(Product::price)
       .setAutoWidth(true);
 
     // Custom renderer for stock status with colored badges
@@ -158,114 +276,18 @@ public class ProductView extends VerticalLayout {
     return layout;
   }
 
-  /// Creates action buttons for grid rows
+  /// Opens the shared product editor, creating it on first use
   /// @param product Product to edit, or null for new product
   private void openProductDialog(Product product) {
-    var dialog = new Dialog();
-    dialog.setHeaderTitle(product == null ? "➕ Add Product" : "✏️ Edit Product");
-    dialog.setWidth("600px");
-
-    var nameField = new TextField("Product Name");
-    nameField.setRequiredIndicatorVisible(true);
-    nameField.setWidthFull();
-
-    var categoryCombo = new ComboBox<Category>("Category");
-    categoryCombo.setItems(Category.values());
-    categoryCombo.setItemLabelGenerator(Category::getDisplayName);
-    categoryCombo.setRequiredIndicatorVisible(true);
-    categoryCombo.setWidthFull();
-
-    var priceField = new NumberField("Price (ZAR)");
-    priceField.setRequiredIndicatorVisible(true);
-    priceField.setMin(0.01);
-    priceField.setStep(0.01);
-    priceField.setWidthFull();
-
-    var stockField = new IntegerField("Stock Quantity");
-    stockField.setMin(0);
-    stockField.setValue(0);
-    stockField.setWidthFull();
-
-    var launchDatePicker = new DatePicker("Launch Date");
-    launchDatePicker.setWidthFull();
-
-    var descriptionArea = new TextArea("Description");
-    descriptionArea.setMaxLength(500);
-    descriptionArea.setWidthFull();
-
-    var formLayout = new FormLayout(
-      nameField,
-      categoryCombo,
-      priceField,
-      stockField,
-      launchDatePicker,
-      descriptionArea
-    );
-    formLayout.setResponsiveSteps(
-      new FormLayout.ResponsiveStep("0", 1),
-      new FormLayout.ResponsiveStep("500px", 2)
-    );
-    formLayout.setColspan(descriptionArea, 2);
-
-    var binder = new BeanValidationBinder<>(Product.class);
-    binder.forField(nameField).asRequired("Name is required")
-      .bind(Product::name, null);
-    binder.forField(categoryCombo).asRequired("Category is required")
-      .bind(Product::category, null);
-    binder.forField(priceField)
-      .asRequired("Price is required")
-      .withConverter(
-        value -> value != null ? BigDecimal.valueOf(value) : BigDecimal.ZERO,
-        BigDecimal::doubleValue,
-        "Enter a valid price"
-      )
-      .bind(Product::price, null);
-    binder.forField(stockField)
-      .asRequired("Stock quantity is required")
-      .withValidator(value -> value != null && value >= 0, "Stock must be zero or greater")
-      .bind(Product::stock, null);
-    binder.forField(launchDatePicker).bind(Product::launchDate, null);
-    binder.forField(descriptionArea).bind(Product::description, null);
-
-    if (product != null) {
-      binder.readBean(product);
-    } else {
-      nameField.clear();
-      categoryCombo.clear();
-      priceField.clear();
-      stockField.setValue(0);
-      launchDatePicker.clear();
-      descriptionArea.clear();
+    if (editor == null) {
+      editor = new ProductEditorDialog();
+      editor.setSaveHandler(this::saveProduct);
+      editor.setInvalidHandler(() ->
+        showNotification("❌ Please fix validation errors", NotificationVariant.LUMO_ERROR));
+      // Kept attached so reopening only syncs changed values to the client
+      add(editor);
     }
-
-    dialog.add(formLayout);
-
-    var cancelBtn = new Button("Cancel", e -> dialog.close());
-    var saveBtn = new Button("Save", e -> {
-      if (binder.validate().isOk()) {
-        var updated = new Product(
-          product != null ? product.id() : null,
-          nameField.getValue(),
-          categoryCombo.getValue(),
-          BigDecimal.valueOf(priceField.getValue() != null ? priceField.getValue() : 0d),
-          stockField.getValue() != null ? stockField.getValue() : 0,
-          launchDatePicker.getValue(),
-          descriptionArea.getValue()
-        );
-        saveProduct(product, updated);
-        dialog.close();
-      } else {
-        showNotification("❌ Please fix validation errors", NotificationVariant.LUMO_ERROR);
-      }
-    });
-    saveBtn.addThemeVariants(ButtonVariant.LUMO_PRIMARY);
-
-    var footer = new HorizontalLayout(cancelBtn, saveBtn);
-    footer.setJustifyContentMode(FlexComponent.JustifyContentMode.END);
-    footer.setWidthFull();
-
-    dialog.getFooter().add(footer);
-    dialog.open();
+    editor.edit(product);
   }
 
   /// Saves product (create or update)
@@ -281,6 +303,12 @@ public class ProductView extends VerticalLayout {
         showNotification("✅ Product updated successfully", NotificationVariant.LUMO_SUCCESS);
       }
       refreshGrid();
+    } catch (StaleProductException e) {
+      // Someone else saved first: show their version instead of overwriting it
+      refreshGrid();
+      showNotification("⚠️ Product was changed by someone else - showing latest values",
+        NotificationVariant.LUMO_WARNING);
+      openProductDialog(e.getCurrent());
     } catch (Exception e) {
       showNotification("❌ Error: " + e.getMessage(), NotificationVariant.LUMO_ERROR);
     }
@@ -289,50 +317,136 @@ public class ProductView extends VerticalLayout {
   /// Shows delete confirmation dialog
   /// @param product Product to delete
   private void confirmDelete(Product product) {
-    var dialog = new Dialog();
-    dialog.setHeaderTitle("⚠️ Confirm Delete");
-
-    dialog.add(new Paragraph(
-      "Are you sure you want to delete '%s'?".formatted(product.name())
-    ));
-
-    var cancelBtn = new Button("Cancel", e -> dialog.close());
-    var deleteBtn = new Button("Delete", e -> {
+    confirm("Are you sure you want to delete '%s'?".formatted(product.name()), () -> {
       service.delete(product.id());
       refreshGrid();
       showNotification("✅ Product deleted", NotificationVariant.LUMO_SUCCESS);
-      dialog.close();
     });
-    deleteBtn.addThemeVariants(ButtonVariant.LUMO_PRIMARY, ButtonVariant.LUMO_ERROR);
+  }
+
+  /// Shows confirmation before deleting all selected products
+  /// @param selected Products to delete
+  private void confirmBulkDelete(Set<Product> selected) {
+    confirm("Are you sure you want to delete %d products?".formatted(selected.size()), () -> {
+      var ids = selected.stream().map(Product::id).toList();
+      var deleted = service.deleteAll(ids);
+      applyBulkResult();
+      showNotification("✅ %d products deleted".formatted(deleted), NotificationVariant.LUMO_SUCCESS);
+    });
+  }
+
+  /// Opens the shared delete confirmation, creating it on first use
+  /// @param message Confirmation question
+  /// @param onConfirm Action run when the user confirms
+  private void confirm(String message, SerializableRunnable onConfirm) {
+    if (confirmDialog == null) {
+      confirmDialog = new Dialog();
+      confirmDialog.setHeaderTitle("⚠️ Confirm Delete");
+      confirmDialog.add(confirmMessage);
+
+      var cancelBtn = new Button("Cancel", e -> confirmDialog.close());
+      var deleteBtn = new Button("Delete", e -> {
+        confirmDialog.close();
+        if (pendingConfirm != null) {
+          pendingConfirm.run();
+          pendingConfirm = null;
+        }
+      });
+      deleteBtn.addThemeVariants(ButtonVariant.LUMO_PRIMARY, ButtonVariant.LUMO_ERROR);
+
+      var footer = new HorizontalLayout(cancelBtn, deleteBtn);
+      footer.setJustifyContentMode(FlexComponent.JustifyContentMode.END);
+      footer.setWidthFull();
+
+      confirmDialog.getFooter().add(footer);
+      add(confirmDialog);
+    }
+    confirmMessage.setText(message);
+    pendingConfirm = onConfirm;
+    confirmDialog.open();
+  }
+
+  /// Runs a batched service update for the selected products
+  /// @param message Success message prefix
+  /// @param action Batched service call receiving the selected IDs
+  private void runBulk(String message, Function<List<Long>, List<Product>> action) {
+    var ids = grid.getSelectedItems().stream().map(Product::id).toList();
+    try {
+      var updated = action.apply(ids);
+      applyBulkResult();
+      showNotification("✅ %s for %d products".formatted(message, updated.size()),
+        NotificationVariant.LUMO_SUCCESS);
+    } catch (Exception e) {
+      showNotification("❌ Error: " + e.getMessage(), NotificationVariant.LUMO_ERROR);
+    }
+  }
 
-    var footer = new HorizontalLayout(cancelBtn, deleteBtn);
-    footer.setJustifyContentMode(FlexComponent.JustifyContentMode.END);
-    footer.setWidthFull();
+  /// Fetches the grid rows at an offset with keyset cursors instead of skipping rows.
+  /// A page that follows one already fetched resumes after its last product; a jump
+  /// ahead walks page by page from the nearest cursor, keeping the cursors it passes.
+  /// @param offset Index of the first row
+  /// @param limit Maximum number of rows
+  /// @return Rows in the current filter and sort order
+  private Stream<Product> fetchPage(int offset, int limit) {
+    var filter = exportQuery;
+    if (filter != pageEndsQuery) {
+      pageEnds.clear();
+      pageEndsQuery = filter;
+    }
+    var start = pageEnds.floorEntry(offset);
+    var position = start == null ? 0 : start.getKey();
+    var after = start == null ? null : start.getValue();
+    while (position < offset) {
+      var passed = cache.pageAfter(after, filter.category(), filter.searchTerm(), filter.order(),
+        Math.min(limit, offset - position));
+      if (passed.isEmpty()) {
+        return Stream.empty();
+      }
+      position += passed.size();
+      after = passed.getLast();
+      pageEnds.put(position, after);
+    }
+    var page = cache.pageAfter(after, filter.category(), filter.searchTerm(), filter.order(), limit);
+    if (!page.isEmpty()) {
+      pageEnds.put(offset + page.size(), page.getLast());
+    }
+    return page.stream();
+  }
 
-    dialog.getFooter().add(footer);
-    dialog.open();
+  /// Clears the selection and reloads the visible page after a bulk action
+  private void applyBulkResult() {
+    grid.deselectAll();
+    refreshGrid();
   }
 
   /// Applies search and category filters
   /// @param searchTerm Search text (nullable)
   /// @param category Category filter (nullable)
   private void applyFilters(String searchTerm, Category category) {
-    dataProvider.setFilter(product -> {
-      boolean matchesSearch = searchTerm == null || searchTerm.isBlank() ||
-        product.name().toLowerCase().contains(searchTerm.toLowerCase()) ||
-        (product.description() != null && product.description().toLowerCase().contains(searchTerm.toLowerCase()));
-
-      boolean matchesCategory = category == null || product.category() == category;
+    exportQuery = new ExportQuery(category, searchTerm, exportQuery.order());
+    refreshGrid();
+  }
 
-      return matchesSearch && matchesCategory;
-    });
+  /// Captures the grid's sort order, combining its sorted columns like the grid does
+  private void updateExportQuery() {
+    SerializableComparator<Product> order = null;
+    for (var sortOrder : grid.getSortOrder()) {
+      var column = sortOrder.getSorted().getComparator(sortOrder.getDirection());
+      var previous = order;
+      order = previous == null ? column : (a, b) -> {
+        var result = previous.compare(a, b);
+        return result != 0 ? result : column.compare(a, b);
+      };
+    }
+    var query = exportQuery;
+    exportQuery = new ExportQuery(query.category(), query.searchTerm(), order);
   }
 
   /// Refreshes grid data from service
   private void refreshGrid() {
-    dataProvider.getItems().clear();
-    dataProvider.getItems().addAll(service.findAll());
-    dataProvider.refreshAll();
+    // Rows may have moved, so offsets no longer match the cursors
+    pageEnds.clear();
+    grid.getDataProvider().refreshAll();
   }
 
   /// Creates action buttons for a grid row
@@ -355,4 +469,12 @@ public class ProductView extends VerticalLayout {
     var notification = Notification.show(message, 3000, Notification.Position.TOP_CENTER);
     notification.addThemeVariants(variant);
   }
+
+  /// Filters and sort order an export reproduces
+  /// @param category Category filter (nullable)
+  /// @param searchTerm Search text (nullable)
+  /// @param order Grid sort order (null for ascending ID)
+  private record ExportQuery(Category category, String searchTerm, SerializableComparator<Product> order)
+    implements Serializable {
+  }
 }
\ No newline at end of file
@@ -0,0 +1,333 @@
+package com.leanring.vaadin.flow.services.catalog.control;
+
+import com.leanring.vaadin.flow.services.catalog.entity.Product;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.ReentrantLock;
+
+/// Write-behind mode for the catalog, enabled with `catalog.write-behind.enabled=true`.
+///
+/// Every catalog change is appended to a local [ProductJournal] from the catalog's
+/// journal hook ([ProductService#addJournal]), which runs inside `save`, `update`,
+/// `adjustStock` and the bulk operations. The call returns once the change is on disk.
+/// Writers that commit at the same time share one `fsync` (group commit). If the journal
+/// write fails, the call fails with an [UncheckedIOException] and the write-behind turns
+/// unhealthy ([#isHealthy]) until a journal write succeeds again. The change is already
+/// applied in memory by then and still reaches the store with the next batch, but it was
+/// never acknowledged, as it would not survive a crash before that batch.
+///
+/// Changes are coalesced per product into a [ProductWrite]: the latest fields win, stock
+/// deltas are summed. The coalesced writes go to the [ProductStore] in one batch every
+/// `catalog.write-behind.flush-millis`, or sooner once `catalog.write-behind.batch-size`
+/// products are pending. A journal segment
+/// is deleted only after its batch is stored. A failed batch is merged back and retried
+/// with the next one. On startup, segments left by a crash are replayed into the store,
+/// and then the catalog is restored from the store ([ProductService#restore]), so every
+/// change made before the restart survives it. Only an empty store is seeded from the
+/// catalog, with the first batch; changes racing with that snapshot are skipped if it
+/// already holds them.
+///
+/// Reported as `catalog.write-behind.flush` (duration, tagged with the outcome),
+/// `catalog.write-behind.batch` (products per flush), `catalog.write-behind.pending`
+/// (products waiting for the store), `catalog.write-behind.commit` (time until a change
+/// is durable), `catalog.write-behind.healthy` (0 while the journal fails) and
+/// `catalog.write-behind.journal.syncs` / `.records` (records per sync is the group size).
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "catalog.write-behind.enabled", havingValue = "true")
+public class CatalogWriteBehind {
+
+  private final ProductStore store;
+  private final ProductJournal journal;
+  private final int batchSize;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final List<Path> sealed = new ArrayList<>();
+  private final AtomicBoolean flushRequested = new AtomicBoolean();
+  private final ScheduledExecutorService flusher;
+  private final ListenerRegistration changeListener;
+  private final Timer commitTimer;
+  private final Timer flushTimer;
+  private final Timer failedFlushTimer;
+  private final DistributionSummary batchSummary;
+  private Map<Long, ProductWrite> pending = new HashMap<>();
+  /// Product versions of the snapshot seeding an empty store, until the first batch takes it
+  private Snapshot snapshot;
+  private long sequence;
+  private volatile boolean healthy = true;
+
+  /// Constructor with dependency injection; replays the journal, restores the catalog from
+  /// the store and starts flushing
+  /// @param service Catalog whose changes are written behind
+  /// @param store Store receiving the batches
+  /// @param meters Registry receiving the write-behind meters
+  /// @param directory Directory of the journal segments
+  /// @param batchSize Pending products that trigger a flush before the interval
+  /// @param flushMillis Interval between flushes
+  /// @throws UncheckedIOException if the journal can't be opened or replayed
+  public CatalogWriteBehind(
+    ProductService service,
+    ProductStore store,
+    MeterRegistry meters,
+    @Value("${catalog.write-behind.journal-dir:data/catalog-journal}") String directory,
+    @Value("${catalog.write-behind.batch-size:500}") int batchSize,
+    @Value("${catalog.write-behind.flush-millis:1000}") long flushMillis
+  ) {
+    this(service, store, meters, Path.of(directory), batchSize);
+    flusher.scheduleWithFixedDelay(this::flush, flushMillis, flushMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /// Creates the write-behind without scheduled flushes; call [#flush] to write a batch
+  CatalogWriteBehind(ProductService service, ProductStore store, MeterRegistry meters, Path directory,
+                     int batchSize) {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("Batch size must be positive: " + batchSize);
+    }
+    this.store = store;
+    this.batchSize = batchSize;
+    try {
+      this.journal = new ProductJournal(directory);
+      sequence = Math.max(store.lastSequence(), replay(journal.getRecoveredSegments()));
+    } catch (IOException e) {
+      throw new UncheckedIOException("Catalog journal unavailable: " + directory, e);
+    }
+    this.commitTimer = Timer.builder("catalog.write-behind.commit")
+      .description("Time until a catalog change is durable in the journal").register(meters);
+    this.flushTimer = Timer.builder("catalog.write-behind.flush")
+      .description("Batch write to the product store").tag("outcome", "success").register(meters);
+    this.failedFlushTimer = Timer.builder("catalog.write-behind.flush")
+      .description("Batch write to the product store").tag("outcome", "failed").register(meters);
+    this.batchSummary = DistributionSummary.builder("catalog.write-behind.batch")
+      .description("Products written per flush").baseUnit("products").register(meters);
+    Gauge.builder("catalog.write-behind.pending", this, CatalogWriteBehind::getPendingCount)
+      .description("Products with changes not yet in the store").register(meters);
+    Gauge.builder("catalog.write-behind.healthy", this, writeBehind -> writeBehind.isHealthy() ? 1 : 0)
+      .description("1 while catalog changes reach the journal, 0 after a journal failure").register(meters);
+    FunctionCounter.builder("catalog.write-behind.journal.syncs", journal, ProductJournal::getSyncCount)
+      .description("Forced journal writes").register(meters);
+    FunctionCounter.builder("catalog.write-behind.journal.records", journal, ProductJournal::getSyncedRecords)
+      .description("Catalog changes made durable").register(meters);
+    this.flusher = Executors.newSingleThreadScheduledExecutor(
+      Thread.ofPlatform().name("catalog-write-behind").daemon().factory()
+    );
+    var stored = store.loadAll();
+    if (!stored.isEmpty()) {
+      service.restore(stored);
+    }
+    lock.lock();
+    try {
+      // Registered first so no change is missed; a change racing with the snapshot waits
+      // for the lock and is then skipped if the snapshot already holds its version
+      this.changeListener = service.addJournal(this::journal);
+      if (stored.isEmpty()) {
+        // First start: the first flush seeds the store with the catalog
+        snapshot = Snapshot.of(service.findAll());
+        for (var product : snapshot.products) {
+          pending.put(product.id(), ProductWrite.of(++sequence, new ProductChange(null, product)));
+        }
+        snapshot = snapshot.withoutProducts();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /// Writes the pending products to the store in one batch
+  /// @return Number of products written (0 if none were pending or the store failed)
+  synchronized int flush() {
+    flushRequested.set(false);
+    Map<Long, ProductWrite> batch;
+    lock.lock();
+    try {
+      if (pending.isEmpty()) {
+        return 0;
+      }
+      try {
+        sealed.add(journal.roll());
+        healthy = true;
+      } catch (IOException e) {
+        // The batch is stored anyway; its records stay in the open segment until a later roll
+        journalFailed(e);
+      }
+      batch = pending;
+      pending = new HashMap<>();
+      snapshot = null;
+    } finally {
+      lock.unlock();
+    }
+    var start = System.nanoTime();
+    try {
+      store.write(List.copyOf(batch.values()));
+    } catch (RuntimeException e) {
+      record(failedFlushTimer, start);
+      log.warn("Catalog flush of {} products failed, retrying with the next batch: {}", batch.size(), e.getMessage());
+      lock.lock();
+      try {
+        pending.forEach((id, write) -> batch.merge(id, write, ProductWrite::then));
+        pending = batch;
+      } finally {
+        lock.unlock();
+      }
+      return 0;
+    }
+    record(flushTimer, start);
+    batchSummary.record(batch.size());
+    deleteSealed();
+    return batch.size();
+  }
+
+  /// @return Number of products with changes not yet in the store
+  public int getPendingCount() {
+    lock.lock();
+    try {
+      return pending.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /// @return false after a journal write failed, until one succeeds again; the writes that
+  ///   failed still reach the store but would be lost in a crash before that
+  public boolean isHealthy() {
+    return healthy;
+  }
+
+  /// Stops flushing, writes what is pending and closes the journal
+  @PreDestroy
+  void shutdown() {
+    changeListener.remove();
+    flusher.shutdownNow();
+    flush();
+    try {
+      journal.close();
+    } catch (IOException e) {
+      log.warn("Catalog journal close failed: {}", e.getMessage());
+    }
+  }
+
+  /// Journals one change and waits until it is durable. The change stays pending either way.
+  /// @throws UncheckedIOException if the change could not be made durable
+  private void journal(ProductChange change) {
+    var start = System.nanoTime();
+    long position;
+    int size;
+    lock.lock();
+    try {
+      if (snapshot != null && snapshot.holds(change)) {
+        return;
+      }
+      var write = ProductWrite.of(++sequence, change);
+      position = journal.append(write);
+      pending.merge(write.productId(), write, ProductWrite::then);
+      size = pending.size();
+    } finally {
+      lock.unlock();
+    }
+    if (size >= batchSize && flushRequested.compareAndSet(false, true)) {
+      flusher.execute(this::flush);
+    }
+    try {
+      journal.sync(position);
+      healthy = true;
+    } catch (IOException e) {
+      journalFailed(e);
+      throw new UncheckedIOException("Catalog change not journaled: product " + change.id(), e);
+    }
+    record(commitTimer, start);
+  }
+
+  /// Logs the first of a run of journal failures and marks the write-behind unhealthy
+  private void journalFailed(IOException e) {
+    if (healthy) {
+      log.error("Catalog journal failed; unhealthy until a journal write succeeds", e);
+    } else {
+      log.debug("Catalog journal still failing: {}", e.getMessage());
+    }
+    healthy = false;
+  }
+
+  /// Applies segments left by a previous run, one batch per segment in journal order
+  /// @return Highest sequence found
+  private long replay(List<Path> segments) throws IOException {
+    var last = 0L;
+    for (var segment : segments) {
+      var batch = new HashMap<Long, ProductWrite>();
+      for (var write : ProductJournal.read(segment)) {
+        batch.merge(write.productId(), write, ProductWrite::then);
+        last = Math.max(last, write.lastSequence());
+      }
+      if (!batch.isEmpty()) {
+        store.write(List.copyOf(batch.values()));
+      }
+      Files.delete(segment);
+      log.info("Replayed catalog journal {}: {} products", segment.getFileName(), batch.size());
+    }
+    return last;
+  }
+
+  private void deleteSealed() {
+    for (var segment : sealed) {
+      try {
+        Files.deleteIfExists(segment);
+      } catch (IOException e) {
+        log.warn("Could not delete catalog journal {}: {}", segment, e.getMessage());
+      }
+    }
+    sealed.clear();
+  }
+
+  private static void record(Timer timer, long start) {
+    timer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+  }
+
+  /// Versions of the products seeding an empty store, sorted by ID
+  private record Snapshot(List<Product> products, long[] ids, long[] versions) {
+
+    static Snapshot of(List<Product> products) {
+      var sorted = new ArrayList<>(products);
+      sorted.sort(Comparator.comparingLong(Product::id));
+      var ids = new long[sorted.size()];
+      var versions = new long[sorted.size()];
+      for (int i = 0; i < ids.length; i++) {
+        ids[i] = sorted.get(i).id();
+        versions[i] = sorted.get(i).version();
+      }
+      return new Snapshot(sorted, ids, versions);
+    }
+
+    /// @return Snapshot keeping only IDs and versions
+    Snapshot withoutProducts() {
+      return new Snapshot(List.of(), ids, versions);
+    }
+
+    /// @return true if the change was applied before the snapshot read its product
+    boolean holds(ProductChange change) {
+      if (change.current() == null) {
+        return false;
+      }
+      var index = Arrays.binarySearch(ids, change.id());
+      return index >= 0 && versions[index] >= change.current().version();
+    }
+  }
+}
@@ -0,0 +1,96 @@
+package com.leanring.vaadin.flow.services.catalog.control;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/// RFC 4180 CSV: comma separated, CRLF line endings, fields quoted only when needed.
+///
+/// Starts with a UTF-8 byte order mark so spreadsheet applications do not guess a legacy
+/// charset. Text cells starting with a formula character are prefixed with `'`, so a
+/// product name cannot turn into a formula when the file is opened (CSV injection).
+final class CsvTableWriter implements TableWriter {
+
+  private static final int BUFFER_CHARS = 64 * 1024;
+
+  private final BufferedWriter writer;
+  private boolean firstCell;
+
+  /// Creates a writer and writes the byte order mark and header row
+  /// @param out Target stream
+  /// @param header Column titles
+  /// @throws IOException if the client connection fails
+  CsvTableWriter(OutputStream out, List<String> header) throws IOException {
+    this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_CHARS);
+    writer.write('\uFEFF');
+    startRow();
+    for (var title : header) {
+      text(title);
+    }
+    endRow();
+  }
+
+  @Override
+  public void startRow() {
+    firstCell = true;
+  }
+
+  @Override
+  public void text(String value) throws IOException {
+    separator();
+    if (value == null || value.isEmpty()) {
+      return;
+    }
+    var guarded = switch (value.charAt(0)) {
+      case '=', '+', '-', '@', '\t', '\r' -> "'" + value;
+      default -> value;
+    };
+    if (needsQuotes(guarded)) {
+      writer.write('"');
+      writer.write(guarded.replace("\"", "\"\""));
+      writer.write('"');
+    } else {
+      writer.write(guarded);
+    }
+  }
+
+  @Override
+  public void number(String value) throws IOException {
+    separator();
+    writer.write(value);
+  }
+
+  @Override
+  public void endRow() throws IOException {
+    writer.write("\r\n");
+  }
+
+  @Override
+  public void finish() throws IOException {
+    writer.flush();
+  }
+
+  private void separator() throws IOException {
+    if (firstCell) {
+      firstCell = false;
+    } else {
+      writer.write(',');
+    }
+  }
+
+  private static boolean needsQuotes(String value) {
+    for (int i = 0; i < value.length(); i++) {
+      switch (value.charAt(i)) {
+        case ',', '"', '\r', '\n' -> {
+          return true;
+        }
+        default -> {
+        }
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,95 @@
+package com.leanring.vaadin.flow.services.catalog.control;
+
+/// Approximate access frequency of keys, as used by TinyLFU admission.
+///
+/// A count-min sketch of 4-bit counters, sixteen to a `long`. Each key maps to four
+/// counters in different words; its frequency is the smallest of them. Once as many
+/// increments as ten times the expected number of keys have been recorded, every counter
+/// is halved, so the sketch forgets old popularity and the counters never saturate for
+/// long. Memory is one `long` per expected key, capped at 512 KB.
+///
+/// Not thread-safe: the owning cache calls it under its policy lock.
+final class FrequencySketch {
+
+  private static final long[] SEEDS = {
+    0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+  };
+  private static final long RESET_MASK = 0x7777777777777777L;
+  private static final long ONE_MASK = 0x1111111111111111L;
+  private static final int MAX_WORDS = 1 << 16;
+
+  private final long[] table;
+  private final int tableMask;
+  private final int sampleSize;
+  private int size;
+
+  /// Creates a sketch
+  /// @param expectedKeys Number of distinct keys the cache is expected to hold
+  FrequencySketch(long expectedKeys) {
+    var words = (int) Math.clamp(expectedKeys, 8, MAX_WORDS);
+    this.table = new long[Integer.highestOneBit(words - 1) << 1];
+    this.tableMask = table.length - 1;
+    this.sampleSize = 10 * table.length;
+  }
+
+  /// Records one access
+  /// @param key Key (its hash code is used)
+  void increment(Object key) {
+    var hash = spread(key.hashCode());
+    var start = (hash & 3) << 2;
+    var added = false;
+    for (int i = 0; i < 4; i++) {
+      added |= incrementAt(indexOf(hash, i), start + i);
+    }
+    if (added && ++size == sampleSize) {
+      reset();
+    }
+  }
+
+  /// Estimates how often a key was accessed recently
+  /// @param key Key (its hash code is used)
+  /// @return Estimated frequency, 0 to 15
+  int frequency(Object key) {
+    var hash = spread(key.hashCode());
+    var start = (hash & 3) << 2;
+    var frequency = 15;
+    for (int i = 0; i < 4; i++) {
+      var count = (int) ((table[indexOf(hash, i)] >>> ((start + i) << 2)) & 0xfL);
+      frequency = Math.min(frequency, count);
+    }
+    return frequency;
+  }
+
+  /// Increments counter `j` (0 to 15) of word `i` unless it is saturated
+  private boolean incrementAt(int i, int j) {
+    var offset = j << 2;
+    var mask = 0xfL << offset;
+    if ((table[i] & mask) != mask) {
+      table[i] += 1L << offset;
+      return true;
+    }
+    return false;
+  }
+
+  /// Halves every counter; odd counters lose their remainder
+  private void reset() {
+    var odd = 0;
+    for (int i = 0; i < table.length; i++) {
+      odd += Long.bitCount(table[i] & ONE_MASK);
+      table[i] = (table[i] >>> 1) & RESET_MASK;
+    }
+    size = (size - (odd >>> 2)) >>> 1;
+  }
+
+  private int indexOf(int hash, int i) {
+    var h = (hash + SEEDS[i]) * SEEDS[i];
+    h += h >>> 32;
+    return (int) h & tableMask;
+  }
+
+  private static int spread(int hash) {
+    hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+    hash = ((hash >>> 16) ^ hash) * 0x45d9f3b;
+    return (hash >>> 16) ^ hash;
+  }
+}
@@ -0,0 +1,139 @@
+package com.leanring.vaadin.flow.services.catalog.control;
+
+import com.leanring.vaadin.flow.services.catalog.entity.Category;
+import com.leanring.vaadin.flow.services.catalog.entity.Money;
+import com.leanring.vaadin.flow.services.catalog.entity.Product;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Currency;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/// [ProductStore] writing the catalog to the `catalog_product` table of the application
+/// data source.
+///
+/// A batch is one transaction: the applied sequences of its products are read with one
+/// query per 1,000 IDs, writes already applied are skipped, and the rest go out as one
+/// JDBC batch per statement kind. Created products are inserted, or replace a stale row
+/// left under the same ID. Field updates only replace older versions; stock is
+/// incremented in place, so the row's stock is never read back.
+@Repository
+@ConditionalOnProperty(name = "catalog.write-behind.enabled", havingValue = "true")
+public class JdbcProductStore implements ProductStore {
+
+  private static final int IDS_PER_QUERY = 1_000;
+
+  private final JdbcTemplate jdbc;
+  private final TransactionTemplate transactions;
+
+  /// Constructor with dependency injection; creates the table if missing
+  /// @param jdbc JDBC template of the application data source
+  /// @param transactionManager Transaction manager for the batches
+  public JdbcProductStore(JdbcTemplate jdbc, PlatformTransactionManager transactionManager) {
+    this.jdbc = jdbc;
+    this.transactions = new TransactionTemplate(transactionManager);
+    jdbc.execute("""
+      CREATE TABLE IF NOT EXISTS catalog_product (
+        id BIGINT PRIMARY KEY,
+        name VARCHAR(255) NOT NULL,
+        category VARCHAR(32) NOT NULL,
+        price_minor BIGINT NOT NULL,
+        currency CHAR(3) NOT NULL,
+        stock INT NOT NULL,
+        launch_date DATE,
+        description VARCHAR(1000),
+        version BIGINT NOT NULL,
+        journal_seq BIGINT NOT NULL
+      )""");
+  }
+
+  @Override
+  public void write(List<ProductWrite> batch) {
+    transactions.executeWithoutResult(status -> {
+      var applied = appliedSequences(batch);
+      var inserts = new ArrayList<Object[]>();
+      var replacements = new ArrayList<Object[]>();
+      var updates = new ArrayList<Object[]>();
+      var increments = new ArrayList<Object[]>();
+      var deletes = new ArrayList<Object[]>();
+      for (var write : batch) {
+        var stored = applied.get(write.productId());
+        if (stored != null && stored >= write.firstSequence()) {
+          continue;
+        }
+        var product = write.product();
+        if (write.deleted()) {
+          deletes.add(new Object[]{write.productId()});
+        } else if (write.created()) {
+          (stored == null ? inserts : replacements).add(new Object[]{product.name(), product.category().name(),
+            product.price().minorUnits(), product.price().currency().getCurrencyCode(), write.stockDelta(),
+            product.launchDate(), product.description(), product.version(), write.lastSequence(), product.id()});
+        } else {
+          if (product != null) {
+            updates.add(new Object[]{product.name(), product.category().name(), product.price().minorUnits(),
+              product.price().currency().getCurrencyCode(), product.launchDate(), product.description(),
+              product.version(), product.id(), product.version()});
+          }
+          increments.add(new Object[]{write.stockDelta(), write.lastSequence(), write.productId()});
+        }
+      }
+      batchUpdate("""
+        INSERT INTO catalog_product (name, category, price_minor, currency, stock, launch_date, description,
+          version, journal_seq, id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)""", inserts);
+      batchUpdate("""
+        UPDATE catalog_product SET name = ?, category = ?, price_minor = ?, currency = ?, stock = ?, launch_date = ?,
+          description = ?, version = ?, journal_seq = ? WHERE id = ?""", replacements);
+      batchUpdate("""
+        UPDATE catalog_product SET name = ?, category = ?, price_minor = ?, currency = ?, launch_date = ?,
+          description = ?, version = ? WHERE id = ? AND version < ?""", updates);
+      batchUpdate("UPDATE catalog_product SET stock = stock + ?, journal_seq = ? WHERE id = ?", increments);
+      batchUpdate("DELETE FROM catalog_product WHERE id = ?", deletes);
+    });
+  }
+
+  @Override
+  public long lastSequence() {
+    var last = jdbc.queryForObject("SELECT MAX(journal_seq) FROM catalog_product", Long.class);
+    return last != null ? last : 0;
+  }
+
+  @Override
+  public List<Product> loadAll() {
+    return jdbc.query("""
+      SELECT id, name, category, price_minor, currency, stock, launch_date, description, version
+        FROM catalog_product ORDER BY id""", (row, n) -> {
+      var launchDate = row.getDate(7);
+      return new Product(row.getLong(1), row.getString(2), Category.valueOf(row.getString(3)),
+        new Money(row.getLong(4), Currency.getInstance(row.getString(5))), row.getInt(6),
+        launchDate != null ? launchDate.toLocalDate() : null, row.getString(8), row.getLong(9));
+    });
+  }
+
+  /// Reads the sequence last applied to each stored product of a batch
+  private Map<Long, Long> appliedSequences(List<ProductWrite> batch) {
+    var applied = new HashMap<Long, Long>();
+    for (int from = 0; from < batch.size(); from += IDS_PER_QUERY) {
+      var ids = batch.subList(from, Math.min(batch.size(), from + IDS_PER_QUERY)).stream()
+        .map(ProductWrite::productId)
+        .toArray();
+      var placeholders = String.join(", ", Collections.nCopies(ids.length, "?"));
+      jdbc.query("SELECT id, journal_seq FROM catalog_product WHERE id IN (" + placeholders + ")",
+        row -> {
+          applied.put(row.getLong(1), row.getLong(2));
+        }, ids);
+    }
+    return applied;
+  }
+
+  private void batchUpdate(String sql, List<Object[]> rows) {
+    if (!rows.isEmpty()) {
+      jdbc.batchUpdate(sql, rows);
+    }
+  }
+}
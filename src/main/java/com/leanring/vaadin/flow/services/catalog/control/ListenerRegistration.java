@@ -0,0 +1,10 @@
+package com.leanring.vaadin.flow.services.catalog.control;
+
+/// Handle returned when a listener is added to a service; removes it again.
+/// Keeps the service layer free of UI framework types.
+@FunctionalInterface
+public interface ListenerRegistration {
+
+  /// Removes the listener; calling it again does nothing
+  void remove();
+}
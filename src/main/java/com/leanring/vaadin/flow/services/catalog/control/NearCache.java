@@ -0,0 +1,461 @@
+package com.leanring.vaadin.flow.services.catalog.control;
+
+import lombok.extern.slf4j.Slf4j;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/// Bounded read-through cache with W-TinyLFU eviction.
+///
+/// - Lookups are a [ConcurrentHashMap] read. The access is recorded in a small lossy ring
+///   buffer that is replayed into the policy under a lock, so hits never block
+/// - A miss loads the value inside `computeIfAbsent`: concurrent misses of one key load
+///   once, and an [#invalidate] of a key that is being loaded waits for the load and then
+///   removes its result, so a write can't be overtaken by a stale read
+/// - New entries enter a small LRU window (1% of the weight). Entries leaving the window
+///   are admitted to the main segmented LRU only if a [FrequencySketch] has seen them
+///   more often than the entry they would evict, so a burst of one-off lookups can't
+///   flush the hot set. Main entries hit again move from probation to protected (80%)
+/// - Entries are weighed by a weigher, so large values count for what they hold
+/// - Refresh-ahead: an entry older than the refresh interval whose key is hot is reloaded
+///   in the background while readers keep getting the current value
+///
+/// @param <K> Key
+/// @param <V> Value
+@Slf4j
+final class NearCache<K, V> {
+
+  /// Sketch frequency from which an aged entry is reloaded ahead of time
+  static final int HOT_FREQUENCY = 3;
+  private static final int READ_BUFFER_SIZE = 128;
+  private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+  private static final int DRAIN_THRESHOLD = 32;
+
+  private final ConcurrentHashMap<K, Node<K, V>> map = new ConcurrentHashMap<>();
+  private final Function<K, V> loader;
+  private final ToIntFunction<V> weigher;
+  private final long maximum;
+  private final long windowMaximum;
+  private final long protectedMaximum;
+  private final long refreshAfterNanos;
+  private final Executor refresher;
+  private final LongSupplier nanoClock;
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private final FrequencySketch sketch;
+  private final AccessOrder<K, V> window = new AccessOrder<>();
+  private final AccessOrder<K, V> probation = new AccessOrder<>();
+  private final AccessOrder<K, V> protectedOrder = new AccessOrder<>();
+  private long windowWeight;
+  private long protectedWeight;
+  private volatile long weight;
+
+  private final AtomicReferenceArray<Node<K, V>> reads = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+  private final AtomicLong readsWritten = new AtomicLong();
+  private volatile long readsDrained;
+
+  private final AtomicLong predicateInvalidations = new AtomicLong();
+  private final Set<K> refreshing = ConcurrentHashMap.newKeySet();
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+  private final LongAdder refreshes = new LongAdder();
+
+  /// Creates a cache
+  /// @param maximum Maximum total weight
+  /// @param expectedEntries Number of entries the cache is expected to hold, sizes the sketch
+  /// @param weigher Weight of a value, at least 1
+  /// @param refreshAfter Age after which hot entries are reloaded (zero to disable)
+  /// @param refresher Runs background reloads
+  /// @param nanoClock Monotonic time in nanoseconds
+  /// @param loader Loads a missing value; null means absent and is not cached
+  /// @throws IllegalArgumentException if the maximum is not positive
+  NearCache(long maximum, long expectedEntries, ToIntFunction<V> weigher, Duration refreshAfter,
+            Executor refresher, LongSupplier nanoClock, Function<K, V> loader) {
+    if (maximum < 1) {
+      throw new IllegalArgumentException("Cache maximum must be positive: " + maximum);
+    }
+    this.maximum = maximum;
+    this.windowMaximum = Math.max(1, maximum / 100);
+    this.protectedMaximum = (maximum - windowMaximum) * 80 / 100;
+    this.sketch = new FrequencySketch(expectedEntries);
+    this.weigher = weigher;
+    this.refreshAfterNanos = refreshAfter.toNanos();
+    this.refresher = refresher;
+    this.nanoClock = nanoClock;
+    this.loader = loader;
+  }
+
+  /// Gets a value, loading it on a miss
+  /// @param key Key
+  /// @return Value, or null if the loader found none
+  V get(K key) {
+    var node = map.get(key);
+    if (node != null) {
+      hits.increment();
+      recordRead(node);
+      return node.value;
+    }
+    misses.increment();
+    var stamp = predicateInvalidations.get();
+    var created = new boolean[1];
+    node = map.computeIfAbsent(key, k -> {
+      var value = loader.apply(k);
+      if (value == null) {
+        return null;
+      }
+      created[0] = true;
+      return new Node<>(k, value, nanoClock.getAsLong());
+    });
+    if (node == null) {
+      return null;
+    }
+    if (!created[0]) {
+      recordRead(node);
+    } else if (stamp != predicateInvalidations.get()) {
+      // An invalidateIf may have scanned the keys before this one was visible
+      map.remove(key, node);
+    } else {
+      afterWrite(node);
+    }
+    return node.value;
+  }
+
+  /// Discards a key; waits for a load of the same key in progress
+  /// @param key Key
+  void invalidate(K key) {
+    var node = map.remove(key);
+    if (node != null) {
+      lock.lock();
+      try {
+        retire(node);
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  /// Discards every key matching a predicate, including keys being loaded right now
+  /// @param predicate Keys to discard
+  void invalidateIf(Predicate<K> predicate) {
+    predicateInvalidations.incrementAndGet();
+    for (var key : map.keySet()) {
+      if (predicate.test(key)) {
+        invalidate(key);
+      }
+    }
+  }
+
+  /// @return Number of cached entries
+  long size() {
+    return map.mappingCount();
+  }
+
+  /// @return Total weight of the cached entries
+  long weight() {
+    return weight;
+  }
+
+  /// @return Lookups answered from the cache
+  long hitCount() {
+    return hits.sum();
+  }
+
+  /// @return Lookups that had to load
+  long missCount() {
+    return misses.sum();
+  }
+
+  /// @return Entries discarded to stay within the maximum weight
+  long evictionCount() {
+    return evictions.sum();
+  }
+
+  /// @return Background reloads of hot entries
+  long refreshCount() {
+    return refreshes.sum();
+  }
+
+  /// Queues a hit for the policy, dropping it if the buffer is full or contended
+  private void recordRead(Node<K, V> node) {
+    var tail = readsWritten.get();
+    var pending = tail - readsDrained;
+    if (pending < READ_BUFFER_SIZE && readsWritten.compareAndSet(tail, tail + 1)) {
+      reads.lazySet((int) (tail & READ_BUFFER_MASK), node);
+      pending++;
+    }
+    if (pending >= DRAIN_THRESHOLD && lock.tryLock()) {
+      try {
+        drainReads();
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  /// Links a freshly loaded entry into the policy and evicts down to the maximum
+  private void afterWrite(Node<K, V> node) {
+    var nodeWeight = Math.max(1, weigher.applyAsInt(node.value));
+    lock.lock();
+    try {
+      drainReads();
+      sketch.increment(node.key);
+      if (node.retired || map.get(node.key) != node) {
+        return;
+      }
+      if (nodeWeight > maximum) {
+        map.remove(node.key, node);
+        node.retired = true;
+        return;
+      }
+      node.weight = nodeWeight;
+      node.queue = Queue.WINDOW;
+      window.addLast(node);
+      windowWeight += nodeWeight;
+      weight += nodeWeight;
+      evict();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /// Replays buffered hits into the policy; caller holds the lock
+  private void drainReads() {
+    var tail = readsWritten.get();
+    for (var i = readsDrained; i < tail; i++) {
+      var node = reads.getAndSet((int) (i & READ_BUFFER_MASK), null);
+      if (node != null) {
+        onAccess(node);
+      }
+    }
+    readsDrained = tail;
+  }
+
+  /// Applies one hit: counts it, promotes the entry and schedules a refresh if due
+  private void onAccess(Node<K, V> node) {
+    sketch.increment(node.key);
+    if (node.retired || node.queue == null) {
+      return;
+    }
+    switch (node.queue) {
+      case WINDOW -> window.moveToBack(node);
+      case PROTECTED -> protectedOrder.moveToBack(node);
+      case PROBATION -> {
+        probation.remove(node);
+        node.queue = Queue.PROTECTED;
+        protectedOrder.addLast(node);
+        protectedWeight += node.weight;
+        while (protectedWeight > protectedMaximum) {
+          var demoted = protectedOrder.pollFirst();
+          protectedWeight -= demoted.weight;
+          demoted.queue = Queue.PROBATION;
+          probation.addLast(demoted);
+        }
+      }
+    }
+    if (refreshAfterNanos > 0 && nanoClock.getAsLong() - node.loadedAt >= refreshAfterNanos &&
+      sketch.frequency(node.key) >= HOT_FREQUENCY && refreshing.add(node.key)) {
+      try {
+        refresher.execute(() -> refresh(node));
+      } catch (RejectedExecutionException e) {
+        refreshing.remove(node.key);
+      }
+    }
+  }
+
+  /// Moves window overflow to probation, then evicts until within the maximum weight.
+  /// Each newcomer from the window competes with the oldest probation entry; the one
+  /// the sketch has seen less often is evicted. Caller holds the lock.
+  private void evict() {
+    Node<K, V> candidate = null;
+    while (windowWeight > windowMaximum) {
+      var node = window.pollFirst();
+      windowWeight -= node.weight;
+      node.queue = Queue.PROBATION;
+      probation.addLast(node);
+      if (candidate == null) {
+        candidate = node;
+      }
+    }
+    while (weight > maximum) {
+      var victim = probation.first;
+      if (victim == null) {
+        victim = protectedOrder.first != null ? protectedOrder.first : window.first;
+      }
+      if (candidate == null || candidate == victim) {
+        if (candidate == victim) {
+          candidate = candidate.next;
+        }
+        evict(victim);
+      } else if (sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+        candidate = candidate.next;
+        evict(victim);
+      } else {
+        var next = candidate.next;
+        evict(candidate);
+        candidate = next;
+      }
+    }
+  }
+
+  private void evict(Node<K, V> node) {
+    map.remove(node.key, node);
+    retire(node);
+    evictions.increment();
+  }
+
+  /// Unlinks an entry that left the map; caller holds the lock
+  private void retire(Node<K, V> node) {
+    node.retired = true;
+    if (node.queue == null) {
+      return;
+    }
+    switch (node.queue) {
+      case WINDOW -> {
+        window.remove(node);
+        windowWeight -= node.weight;
+      }
+      case PROBATION -> probation.remove(node);
+      case PROTECTED -> {
+        protectedOrder.remove(node);
+        protectedWeight -= node.weight;
+      }
+    }
+    node.queue = null;
+    weight -= node.weight;
+  }
+
+  /// Reloads a hot entry in the background; an entry invalidated meanwhile is left alone
+  private void refresh(Node<K, V> node) {
+    try {
+      var value = loader.apply(node.key);
+      if (value == null) {
+        map.computeIfPresent(node.key, (k, current) -> current == node ? null : current);
+        if (map.get(node.key) != node) {
+          lock.lock();
+          try {
+            retire(node);
+          } finally {
+            lock.unlock();
+          }
+        }
+        return;
+      }
+      var replaced = new boolean[1];
+      map.computeIfPresent(node.key, (k, current) -> {
+        if (current == node) {
+          node.value = value;
+          node.loadedAt = nanoClock.getAsLong();
+          replaced[0] = true;
+        }
+        return current;
+      });
+      if (replaced[0]) {
+        refreshes.increment();
+        reweigh(node, Math.max(1, weigher.applyAsInt(value)));
+      }
+    } catch (RuntimeException e) {
+      log.debug("Refresh of {} failed: {}", node.key, e.getMessage());
+    } finally {
+      refreshing.remove(node.key);
+    }
+  }
+
+  /// Applies a changed weight after a refresh
+  private void reweigh(Node<K, V> node, int newWeight) {
+    lock.lock();
+    try {
+      if (node.retired || node.queue == null) {
+        return;
+      }
+      var delta = newWeight - node.weight;
+      node.weight = newWeight;
+      weight += delta;
+      switch (node.queue) {
+        case WINDOW -> windowWeight += delta;
+        case PROTECTED -> protectedWeight += delta;
+        case PROBATION -> {
+        }
+      }
+      evict();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /// Policy segment an entry is linked into
+  private enum Queue { WINDOW, PROBATION, PROTECTED }
+
+  /// Cache entry; policy fields are guarded by the lock
+  private static final class Node<K, V> {
+    final K key;
+    volatile V value;
+    volatile long loadedAt;
+    int weight;
+    Queue queue;
+    boolean retired;
+    Node<K, V> prev;
+    Node<K, V> next;
+
+    Node(K key, V value, long loadedAt) {
+      this.key = key;
+      this.value = value;
+      this.loadedAt = loadedAt;
+    }
+  }
+
+  /// Intrusive doubly linked list, least recently used first
+  private static final class AccessOrder<K, V> {
+    Node<K, V> first;
+    Node<K, V> last;
+
+    void addLast(Node<K, V> node) {
+      node.prev = last;
+      node.next = null;
+      if (last == null) {
+        first = node;
+      } else {
+        last.next = node;
+      }
+      last = node;
+    }
+
+    void remove(Node<K, V> node) {
+      if (node.prev == null) {
+        first = node.next;
+      } else {
+        node.prev.next = node.next;
+      }
+      if (node.next == null) {
+        last = node.prev;
+      } else {
+        node.next.prev = node.prev;
+      }
+      node.prev = null;
+      node.next = null;
+    }
+
+    Node<K, V> pollFirst() {
+      var node = first;
+      remove(node);
+      return node;
+    }
+
+    void moveToBack(Node<K, V> node) {
+      if (node != last) {
+        remove(node);
+        addLast(node);
+      }
+    }
+  }
+}
@@ -0,0 +1,713 @@
+package com.leanring.vaadin.flow.services.catalog.control;
+
+import com.leanring.vaadin.flow.services.catalog.entity.Category;
+import com.leanring.vaadin.flow.services.catalog.entity.Money;
+import com.leanring.vaadin.flow.services.catalog.entity.Product;
+import java.lang.foreign.Arena;
+import java.lang.foreign.MemorySegment;
+import java.lang.foreign.ValueLayout;
+import java.lang.invoke.VarHandle;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Currency;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntPredicate;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/// Off-heap product table backing [ProductService].
+///
+/// Products are kept in native memory, so the heap holds a handful of objects however
+/// large the catalog grows, and GC work doesn't grow with it. A [Product] record is
+/// materialized only when it is read. The memory is allocated in chunks and released when
+/// the table becomes unreachable. It counts against `-XX:MaxDirectMemorySize`.
+///
+/// | Structure  | Layout                                                                    |
+/// |------------|---------------------------------------------------------------------------|
+/// | rows       | fixed 64-byte rows in chunks of 16,384, appended in ascending ID order     |
+/// | strings    | names and descriptions, each a u16 length followed by UTF-8 bytes; equal strings are stored once (dictionary) |
+/// | index      | open-addressing table of `(id, row)` pairs                                 |
+///
+/// Row (native byte order):
+///
+/// | Offset | Content                                                         |
+/// |--------|-----------------------------------------------------------------|
+/// | 0      | stamp, odd while the row is being written                        |
+/// | 8      | ID, version, price in minor units                                |
+/// | 32     | name and description string references (0 for null)              |
+/// | 48     | launch date as epoch day (`Long.MIN_VALUE` for null)             |
+/// | 56     | stock (int), category and currency (bytes, 0 for null), flags    |
+///
+/// Updates take no lock. A writer reads the row, computes the new product, and claims the
+/// row with a compare-and-set of the stamp it read to the next odd value. If another
+/// writer got there first the CAS fails, and the update is recomputed from the new row,
+/// so a version check in the update can't miss a concurrent change. Appends, deletes and
+/// the index share a structure lock, and the string arena has its own lock, taken only
+/// when a name or description actually changes. Readers take no lock either: they copy
+/// a row between two reads of its stamp and retry if a writer was in between.
+/// Filters on category, search term and stock are checked on that copy, so rows that
+/// don't match are never materialized. Because rows are sorted by ID, a keyset cursor is
+/// a binary search. Space is only ever appended: deleted rows, and strings no row refers
+/// to any more, are not reused.
+final class OffHeapProductTable {
+
+  private static final int ROW_BYTES = 64;
+  private static final int ROW_CHUNK_SHIFT = 14;
+  private static final int STRING_CHUNK_SHIFT = 20;
+  private static final int STRING_CHUNK_BYTES = 1 << STRING_CHUNK_SHIFT;
+  private static final int MAX_STRING_BYTES = 0xFFFF;
+  private static final int SLOT_BYTES = 16;
+  private static final int MIN_SLOTS = 1_024;
+  private static final long CACHE_LINE = 64;
+
+  private static final long STAMP = 0;
+  private static final long ID = 8;
+  private static final long VERSION = 16;
+  private static final long PRICE = 24;
+  private static final long NAME = 32;
+  private static final long DESCRIPTION = 40;
+  private static final long LAUNCH_DATE = 48;
+  private static final long STOCK = 56;
+  private static final long CATEGORY = 60;
+  private static final long CURRENCY = 61;
+  private static final long FLAGS = 62;
+  private static final byte DELETED = 1;
+
+  private static final ValueLayout.OfLong LONG = ValueLayout.JAVA_LONG;
+  private static final ValueLayout.OfInt INT = ValueLayout.JAVA_INT;
+  private static final ValueLayout.OfByte BYTE = ValueLayout.JAVA_BYTE;
+  private static final ValueLayout.OfShort SHORT = ValueLayout.JAVA_SHORT_UNALIGNED;
+  // Coordinates (segment, byte offset); used for the row stamps
+  private static final VarHandle LONG_ACCESS = LONG.varHandle();
+  private static final Category[] CATEGORIES = Category.values();
+
+  private final Arena arena = Arena.ofAuto();
+  private final ReentrantLock structureLock = new ReentrantLock();
+  private final ReentrantLock stringLock = new ReentrantLock();
+  private final List<Currency> currencies = new CopyOnWriteArrayList<>();
+  private volatile MemorySegment[] rowChunks = new MemorySegment[0];
+  private volatile MemorySegment[] stringChunks = new MemorySegment[0];
+  private volatile MemorySegment index = arena.allocate((long) MIN_SLOTS * SLOT_BYTES, CACHE_LINE);
+  private volatile long rowCount;
+  private volatile long live;
+  private long indexUsed;
+  // Guarded by stringLock
+  private MemorySegment dictionary = arena.allocate((long) MIN_SLOTS * SLOT_BYTES, CACHE_LINE);
+  private long dictionaryUsed;
+  private int stringChunkUsed;
+  // Guarded by structureLock
+  private long lastId;
+
+  /// @return Number of products
+  long size() {
+    return live;
+  }
+
+  /// @return Bytes of native memory held by rows, strings, index and dictionary
+  long byteSize() {
+    return (long) rowChunks.length * (ROW_BYTES << ROW_CHUNK_SHIFT)
+      + (long) stringChunks.length * STRING_CHUNK_BYTES
+      + index.byteSize() + dictionary.byteSize();
+  }
+
+  /// @return Bytes of the string arena in use, including what is left at the end of full chunks
+  long stringBytes() {
+    stringLock.lock();
+    try {
+      return stringChunks.length == 0 ? 0 : ((long) (stringChunks.length - 1) << STRING_CHUNK_SHIFT) + stringChunkUsed;
+    } finally {
+      stringLock.unlock();
+    }
+  }
+
+  /// Reads a product
+  /// @param id Product ID
+  /// @return Product, or null if there is none with this ID
+  Product get(long id) {
+    var row = find(index, id);
+    return row < 0 ? null : read(row, null);
+  }
+
+  /// Adds a product after all existing ones
+  /// @param factory Creates the product; called under the structure lock, so IDs drawn
+  ///   from a sequence inside it arrive in order
+  /// @return Product added
+  /// @throws IllegalArgumentException if its ID is not greater than every stored ID,
+  ///   or a name or description is longer than 65,535 UTF-8 bytes
+  Product append(Supplier<Product> factory) {
+    structureLock.lock();
+    try {
+      var product = factory.get();
+      long id = product.id();
+      if (id <= lastId) {
+        throw new IllegalArgumentException("Product IDs must ascend: " + id + " after " + lastId);
+      }
+      var row = rowCount;
+      if (row == (long) rowChunks.length << ROW_CHUNK_SHIFT) {
+        var chunks = Arrays.copyOf(rowChunks, rowChunks.length + 1);
+        chunks[chunks.length - 1] = arena.allocate((long) ROW_BYTES << ROW_CHUNK_SHIFT, CACHE_LINE);
+        rowChunks = chunks;
+      }
+      // A new row has stamp 0 and isn't visible to other writers yet
+      claim(row, 0);
+      write(row, 0, null, product, (byte) 0);
+      lastId = id;
+      rowCount = row + 1;
+      addToIndex(id, row);
+      live++;
+      return product;
+    } finally {
+      structureLock.unlock();
+    }
+  }
+
+  /// Replaces a product with a function of its current value. The row is claimed with a
+  /// CAS of the stamp it was read at; if another writer changed it meanwhile, the function
+  /// runs again on the new value, so it must have no side effects beyond its result.
+  /// @param id Product ID
+  /// @param remapping Computes the new product; exceptions leave the row unchanged
+  /// @return New product, or null if there is none with this ID
+  /// @throws IllegalArgumentException if the new product has a different ID
+  Product computeIfPresent(long id, UnaryOperator<Product> remapping) {
+    // An ID keeps its row for good, so the row can be found once
+    var row = find(index, id);
+    if (row < 0) {
+      return null;
+    }
+    while (true) {
+      var stamp = awaitStamp(row);
+      var current = read(row, null);
+      if (current == null) {
+        return null;
+      }
+      var updated = remapping.apply(current);
+      if (updated.id() != id) {
+        throw new IllegalArgumentException("Product ID can't change: " + id + " to " + updated.id());
+      }
+      if (claim(row, stamp)) {
+        write(row, stamp, current, updated, (byte) 0);
+        return updated;
+      }
+      Thread.onSpinWait();
+    }
+  }
+
+  /// Replaces several products as one batch. Every new product is computed before any
+  /// row is claimed, so an exception leaves all of them unchanged. The rows are then
+  /// claimed by CAS in row order; if one of them changed since it was read, the claimed
+  /// ones are handed back untouched and the batch is recomputed. No other write can slip
+  /// in between, and the function must have no side effects beyond its result.
+  /// @param ids Product IDs; unknown IDs are skipped, repeated IDs are changed once
+  /// @param remapping Computes each new product from its current value
+  /// @return Changes of the products found, in the order of the IDs
+  /// @throws IllegalArgumentException if a new product has a different ID
+  List<ProductChange> computeAllPresent(Collection<Long> ids, UnaryOperator<Product> remapping) {
+    var found = new ArrayList<Long>(ids.size());
+    for (long id : new LinkedHashSet<>(ids)) {
+      var row = find(index, id);
+      if (row >= 0) {
+        found.add(row);
+      }
+    }
+    while (true) {
+      var rows = new ArrayList<Long>(found.size());
+      var stamps = new ArrayList<Long>(found.size());
+      var changes = new ArrayList<ProductChange>(found.size());
+      for (long row : found) {
+        var stamp = awaitStamp(row);
+        var current = read(row, null);
+        if (current != null) {
+          var updated = remapping.apply(current);
+          if (!updated.id().equals(current.id())) {
+            throw new IllegalArgumentException("Product ID can't change: " + current.id() + " to " + updated.id());
+          }
+          rows.add(row);
+          stamps.add(stamp);
+          changes.add(new ProductChange(current, updated));
+        }
+      }
+      var claimed = 0;
+      while (claimed < rows.size() && claim(rows.get(claimed), stamps.get(claimed))) {
+        claimed++;
+      }
+      if (claimed == rows.size()) {
+        for (int i = 0; i < rows.size(); i++) {
+          write(rows.get(i), stamps.get(i), changes.get(i).previous(), changes.get(i).current(), (byte) 0);
+        }
+        return changes;
+      }
+      for (int i = 0; i < claimed; i++) {
+        unclaim(rows.get(i), stamps.get(i));
+      }
+      Thread.onSpinWait();
+    }
+  }
+
+  /// Deletes a product
+  /// @param id Product ID
+  /// @return Deleted product, or null if there was none with this ID
+  Product remove(long id) {
+    structureLock.lock();
+    try {
+      var slots = index;
+      var slot = slotOf(slots, id);
+      var row = slot < 0 ? -1 : slots.get(LONG, slot + Long.BYTES);
+      if (row < 0) {
+        return null;
+      }
+      while (true) {
+        var stamp = awaitStamp(row);
+        var removed = read(row, null);
+        if (claim(row, stamp)) {
+          write(row, stamp, removed, removed, DELETED);
+          slots.set(LONG, slot + Long.BYTES, -1);
+          live--;
+          return removed;
+        }
+        Thread.onSpinWait();
+      }
+    } finally {
+      structureLock.unlock();
+    }
+  }
+
+  /// Streams products in ascending ID order, starting after a keyset cursor.
+  /// Category is checked on the row, so other products are never materialized.
+  /// Products appended after the call are not included.
+  /// @param afterId Cursor: last ID already seen (null to start from the beginning)
+  /// @param category Category to filter by (nullable)
+  /// @return Lazy stream of products
+  Stream<Product> streamAfter(Long afterId, Category category) {
+    return streamAfter(afterId, category, null);
+  }
+
+  /// Streams products in ascending ID order, starting after a keyset cursor, like
+  /// [#streamAfter(Long, Category)]. The search term is matched against the stored name and
+  /// description bytes, so only matching products are materialized.
+  /// @param afterId Cursor: last ID already seen (null to start from the beginning)
+  /// @param category Category to filter by (nullable)
+  /// @param term Lower-cased term the name or description must contain (null or empty for any)
+  /// @return Lazy stream of products
+  Stream<Product> streamAfter(Long afterId, Category category, String term) {
+    var end = rowCount;
+    var from = afterId == null ? 0 : firstRowAfter(afterId, end);
+    var categoryRef = category == null ? 0 : category.ordinal() + 1;
+    var matcher = term == null || term.isEmpty() ? null : new TermMatcher(term);
+    RowFilter filter = category == null && matcher == null ? null
+      : (rowCategory, nameRef, descriptionRef, stock) -> (categoryRef == 0 || rowCategory == categoryRef)
+        && (matcher == null || matcher.test(nameRef) || matcher.test(descriptionRef));
+    return LongStream.range(from, end)
+      .mapToObj(row -> read(row, filter))
+      .filter(Objects::nonNull);
+  }
+
+  /// Streams the products whose stock matches, in ascending ID order. Stock is checked on
+  /// the row, so other products are never materialized.
+  /// @param stock Condition on the stock
+  /// @return Lazy stream of products
+  Stream<Product> streamByStock(IntPredicate stock) {
+    RowFilter filter = (rowCategory, nameRef, descriptionRef, rowStock) -> stock.test(rowStock);
+    return LongStream.range(0, rowCount)
+      .mapToObj(row -> read(row, filter))
+      .filter(Objects::nonNull);
+  }
+
+  /// Sums price × stock over all products, reading only those columns
+  /// @param currency Currency every product must be priced in
+  /// @return Total in minor units
+  /// @throws IllegalStateException if a product is priced in another currency
+  /// @throws ArithmeticException if the total overflows
+  long inventoryValue(Currency currency) {
+    var total = 0L;
+    var end = rowCount;
+    for (long row = 0; row < end; row++) {
+      var chunk = rowChunks[(int) (row >>> ROW_CHUNK_SHIFT)];
+      var base = rowOffset(row);
+      long stamp;
+      long minorUnits;
+      int stock;
+      byte currencyRef;
+      byte flags;
+      do {
+        stamp = awaitStamp(chunk, base);
+        minorUnits = chunk.get(LONG, base + PRICE);
+        stock = chunk.get(INT, base + STOCK);
+        currencyRef = chunk.get(BYTE, base + CURRENCY);
+        flags = chunk.get(BYTE, base + FLAGS);
+      } while (!unchanged(chunk, base, stamp));
+      if ((flags & DELETED) != 0) {
+        continue;
+      }
+      var priced = currencyRef == 0 ? null : currencies.get(Byte.toUnsignedInt(currencyRef) - 1);
+      if (!currency.equals(priced)) {
+        throw new IllegalStateException("Product %d is priced in %s".formatted(chunk.get(LONG, base + ID), priced));
+      }
+      total = Math.addExact(total, Math.multiplyExact(minorUnits, stock));
+    }
+    return total;
+  }
+
+  /// Copies a row into a product
+  /// @param row Row number
+  /// @param filter Condition the row must meet (null for any)
+  /// @return Product, or null if the row is deleted or filtered out
+  private Product read(long row, RowFilter filter) {
+    var chunk = rowChunks[(int) (row >>> ROW_CHUNK_SHIFT)];
+    var base = rowOffset(row);
+    long stamp;
+    long id;
+    long version;
+    long minorUnits;
+    long nameRef;
+    long descriptionRef;
+    long epochDay;
+    int stock;
+    byte categoryRef;
+    byte currencyRef;
+    byte flags;
+    do {
+      stamp = awaitStamp(chunk, base);
+      id = chunk.get(LONG, base + ID);
+      version = chunk.get(LONG, base + VERSION);
+      minorUnits = chunk.get(LONG, base + PRICE);
+      nameRef = chunk.get(LONG, base + NAME);
+      descriptionRef = chunk.get(LONG, base + DESCRIPTION);
+      epochDay = chunk.get(LONG, base + LAUNCH_DATE);
+      stock = chunk.get(INT, base + STOCK);
+      categoryRef = chunk.get(BYTE, base + CATEGORY);
+      currencyRef = chunk.get(BYTE, base + CURRENCY);
+      flags = chunk.get(BYTE, base + FLAGS);
+    } while (!unchanged(chunk, base, stamp));
+    if ((flags & DELETED) != 0 || (filter != null && !filter.test(categoryRef, nameRef, descriptionRef, stock))) {
+      return null;
+    }
+    return new Product(id, string(nameRef),
+      categoryRef == 0 ? null : CATEGORIES[categoryRef - 1],
+      currencyRef == 0 ? null : new Money(minorUnits, currencies.get(Byte.toUnsignedInt(currencyRef) - 1)),
+      stock,
+      epochDay == Long.MIN_VALUE ? null : LocalDate.ofEpochDay(epochDay),
+      string(descriptionRef), version);
+  }
+
+  /// Claims a row for writing: moves its stamp from the even value it was read at to the
+  /// next odd one, which keeps readers and other writers out
+  /// @return false if the row changed since the stamp was read, or is being written
+  private boolean claim(long row, long stamp) {
+    return LONG_ACCESS.compareAndSet(rowChunks[(int) (row >>> ROW_CHUNK_SHIFT)], rowOffset(row) + STAMP,
+      stamp, stamp + 1);
+  }
+
+  /// Hands back a claimed row without writing it; readers that waited see it unchanged
+  private void unclaim(long row, long stamp) {
+    LONG_ACCESS.setRelease(rowChunks[(int) (row >>> ROW_CHUNK_SHIFT)], rowOffset(row) + STAMP, stamp);
+  }
+
+  /// Writes a claimed row and releases it. Strings equal to the previous ones keep their
+  /// references.
+  /// @param stamp Stamp the row was claimed at
+  /// @param previous Product the row holds now (null for a new row)
+  private void write(long row, long stamp, Product previous, Product product, byte flags) {
+    var chunk = rowChunks[(int) (row >>> ROW_CHUNK_SHIFT)];
+    var base = rowOffset(row);
+    var nameRef = previous != null && Objects.equals(previous.name(), product.name())
+      ? chunk.get(LONG, base + NAME) : intern(product.name());
+    var descriptionRef = previous != null && Objects.equals(previous.description(), product.description())
+      ? chunk.get(LONG, base + DESCRIPTION) : intern(product.description());
+    var currencyRef = product.price() == null ? 0 : currencyRef(product.price().currency());
+    chunk.set(LONG, base + ID, product.id());
+    chunk.set(LONG, base + VERSION, product.version());
+    chunk.set(LONG, base + PRICE, product.price() == null ? 0 : product.price().minorUnits());
+    chunk.set(LONG, base + NAME, nameRef);
+    chunk.set(LONG, base + DESCRIPTION, descriptionRef);
+    chunk.set(LONG, base + LAUNCH_DATE,
+      product.launchDate() == null ? Long.MIN_VALUE : product.launchDate().toEpochDay());
+    chunk.set(INT, base + STOCK, product.stock());
+    chunk.set(BYTE, base + CATEGORY, (byte) (product.category() == null ? 0 : product.category().ordinal() + 1));
+    chunk.set(BYTE, base + CURRENCY, (byte) currencyRef);
+    chunk.set(BYTE, base + FLAGS, flags);
+    LONG_ACCESS.setRelease(chunk, base + STAMP, stamp + 2);
+  }
+
+  /// Waits until no writer is inside a row
+  /// @return Even stamp of the row
+  private long awaitStamp(long row) {
+    return awaitStamp(rowChunks[(int) (row >>> ROW_CHUNK_SHIFT)], rowOffset(row));
+  }
+
+  /// Waits until no writer is inside a row; reads of the row after it see at least the
+  /// fields of the returned stamp
+  /// @return Even stamp of the row
+  private static long awaitStamp(MemorySegment chunk, long base) {
+    var stamp = (long) LONG_ACCESS.getAcquire(chunk, base + STAMP);
+    while ((stamp & 1) != 0) {
+      Thread.onSpinWait();
+      stamp = (long) LONG_ACCESS.getAcquire(chunk, base + STAMP);
+    }
+    return stamp;
+  }
+
+  /// Closes a read of a row's fields started at [#awaitStamp]
+  /// @return true if no writer was in the row since the stamp was read
+  private static boolean unchanged(MemorySegment chunk, long base, long stamp) {
+    // Keeps the field reads before the stamp is read again
+    VarHandle.acquireFence();
+    return (long) LONG_ACCESS.getAcquire(chunk, base + STAMP) == stamp;
+  }
+
+  /// Binary search over the rows, which are sorted by ID
+  private long firstRowAfter(long afterId, long end) {
+    var from = 0L;
+    var to = end;
+    while (from < to) {
+      var mid = (from + to) >>> 1;
+      if (rowChunks[(int) (mid >>> ROW_CHUNK_SHIFT)].get(LONG, rowOffset(mid) + ID) <= afterId) {
+        from = mid + 1;
+      } else {
+        to = mid;
+      }
+    }
+    return from;
+  }
+
+  /// Looks up a row in the index
+  /// @return Row number, or -1 if absent
+  private static long find(MemorySegment slots, long id) {
+    var slot = slotOf(slots, id);
+    return slot < 0 ? -1 : slots.get(LONG, slot + Long.BYTES);
+  }
+
+  /// @return Byte offset of the ID's slot, or -1 if absent
+  private static long slotOf(MemorySegment slots, long id) {
+    var mask = slots.byteSize() / SLOT_BYTES - 1;
+    for (var slot = mix(id) & mask; ; slot = (slot + 1) & mask) {
+      var key = slots.get(LONG, slot * SLOT_BYTES);
+      if (key == id) {
+        VarHandle.acquireFence();
+        return slot * SLOT_BYTES;
+      }
+      if (key == 0) {
+        return -1;
+      }
+    }
+  }
+
+  /// Adds an ID to the index, rebuilding it without deleted entries once half full
+  private void addToIndex(long id, long row) {
+    var slots = index;
+    if ((indexUsed + 1) * 2 > slots.byteSize() / SLOT_BYTES) {
+      var capacity = (long) MIN_SLOTS;
+      while (capacity < (live + 1) * 4) {
+        capacity <<= 1;
+      }
+      var rebuilt = arena.allocate(capacity * SLOT_BYTES, CACHE_LINE);
+      for (long offset = 0; offset < slots.byteSize(); offset += SLOT_BYTES) {
+        var key = slots.get(LONG, offset);
+        var value = slots.get(LONG, offset + Long.BYTES);
+        if (key != 0 && value >= 0) {
+          insert(rebuilt, key, value);
+        }
+      }
+      index = rebuilt;
+      slots = rebuilt;
+      indexUsed = live;
+    }
+    insert(slots, id, row);
+    indexUsed++;
+  }
+
+  /// Stores a pair in a free slot; the row is visible before the key
+  private static void insert(MemorySegment slots, long id, long row) {
+    var mask = slots.byteSize() / SLOT_BYTES - 1;
+    var slot = mix(id) & mask;
+    while (slots.get(LONG, slot * SLOT_BYTES) != 0) {
+      slot = (slot + 1) & mask;
+    }
+    slots.set(LONG, slot * SLOT_BYTES + Long.BYTES, row);
+    VarHandle.releaseFence();
+    slots.set(LONG, slot * SLOT_BYTES, id);
+  }
+
+  /// Stores a string once
+  /// @return Reference to the string, 0 for null
+  private long intern(String value) {
+    if (value == null) {
+      return 0;
+    }
+    var bytes = value.getBytes(StandardCharsets.UTF_8);
+    if (bytes.length > MAX_STRING_BYTES) {
+      throw new IllegalArgumentException("Value too long: " + value.substring(0, 20));
+    }
+    stringLock.lock();
+    try {
+      return intern(bytes);
+    } finally {
+      stringLock.unlock();
+    }
+  }
+
+  /// Looks a string up in the dictionary, storing it if new; caller holds the string lock
+  private long intern(byte[] bytes) {
+    var hash = Arrays.hashCode(bytes);
+    var mask = dictionary.byteSize() / SLOT_BYTES - 1;
+    var slot = mix(hash) & mask;
+    for (var ref = dictionary.get(LONG, slot * SLOT_BYTES); ref != 0; ref = dictionary.get(LONG, slot * SLOT_BYTES)) {
+      if (dictionary.get(INT, slot * SLOT_BYTES + Long.BYTES) == hash && stored(ref, bytes)) {
+        return ref;
+      }
+      slot = (slot + 1) & mask;
+    }
+    var ref = store(bytes);
+    dictionary.set(LONG, slot * SLOT_BYTES, ref);
+    dictionary.set(INT, slot * SLOT_BYTES + Long.BYTES, hash);
+    if (++dictionaryUsed * 2 > dictionary.byteSize() / SLOT_BYTES) {
+      var grown = arena.allocate(dictionary.byteSize() * 2, CACHE_LINE);
+      var grownMask = grown.byteSize() / SLOT_BYTES - 1;
+      for (long offset = 0; offset < dictionary.byteSize(); offset += SLOT_BYTES) {
+        var stored = dictionary.get(LONG, offset);
+        if (stored != 0) {
+          var storedHash = dictionary.get(INT, offset + Long.BYTES);
+          var target = mix(storedHash) & grownMask;
+          while (grown.get(LONG, target * SLOT_BYTES) != 0) {
+            target = (target + 1) & grownMask;
+          }
+          grown.set(LONG, target * SLOT_BYTES, stored);
+          grown.set(INT, target * SLOT_BYTES + Long.BYTES, storedHash);
+        }
+      }
+      dictionary = grown;
+    }
+    return ref;
+  }
+
+  /// Appends a string to the last chunk, starting a new one if it doesn't fit
+  private long store(byte[] bytes) {
+    var needed = Short.BYTES + bytes.length;
+    if (stringChunks.length == 0 || stringChunkUsed + needed > STRING_CHUNK_BYTES) {
+      var chunks = Arrays.copyOf(stringChunks, stringChunks.length + 1);
+      chunks[chunks.length - 1] = arena.allocate(STRING_CHUNK_BYTES, CACHE_LINE);
+      stringChunks = chunks;
+      stringChunkUsed = chunks.length == 1 ? 1 : 0; // reference 0 means null
+    }
+    var chunk = stringChunks[stringChunks.length - 1];
+    chunk.set(SHORT, stringChunkUsed, (short) bytes.length);
+    MemorySegment.copy(bytes, 0, chunk, BYTE, stringChunkUsed + Short.BYTES, bytes.length);
+    var ref = ((long) (stringChunks.length - 1) << STRING_CHUNK_SHIFT) + stringChunkUsed;
+    stringChunkUsed += needed;
+    return ref;
+  }
+
+  /// @return true if the referenced string has exactly these bytes
+  private boolean stored(long ref, byte[] bytes) {
+    var chunk = stringChunks[(int) (ref >>> STRING_CHUNK_SHIFT)];
+    var offset = ref & (STRING_CHUNK_BYTES - 1);
+    return Short.toUnsignedInt(chunk.get(SHORT, offset)) == bytes.length
+      && MemorySegment.mismatch(chunk, offset + Short.BYTES, offset + Short.BYTES + bytes.length,
+        MemorySegment.ofArray(bytes), 0, bytes.length) == -1;
+  }
+
+  /// Decodes a stored string
+  private String string(long ref) {
+    if (ref == 0) {
+      return null;
+    }
+    var chunk = stringChunks[(int) (ref >>> STRING_CHUNK_SHIFT)];
+    var offset = ref & (STRING_CHUNK_BYTES - 1);
+    var length = Short.toUnsignedInt(chunk.get(SHORT, offset));
+    return new String(chunk.asSlice(offset + Short.BYTES, length).toArray(BYTE), StandardCharsets.UTF_8);
+  }
+
+  /// @return 1-based number of a currency, registered on first use
+  private int currencyRef(Currency currency) {
+    var ref = currencies.indexOf(currency) + 1;
+    if (ref != 0) {
+      return ref;
+    }
+    stringLock.lock();
+    try {
+      ref = currencies.indexOf(currency) + 1;
+      if (ref == 0) {
+        if (currencies.size() == 255) {
+          throw new IllegalArgumentException("Too many currencies: " + currency);
+        }
+        currencies.add(currency);
+        ref = currencies.size();
+      }
+      return ref;
+    } finally {
+      stringLock.unlock();
+    }
+  }
+
+  private static long rowOffset(long row) {
+    return (row & ((1 << ROW_CHUNK_SHIFT) - 1)) * ROW_BYTES;
+  }
+
+  private static long mix(long key) {
+    var h = key * 0x9E3779B97F4A7C15L;
+    return h ^ (h >>> 32);
+  }
+
+  /// Condition checked on a consistent copy of a row, before the product is materialized
+  @FunctionalInterface
+  private interface RowFilter {
+    boolean test(byte categoryRef, long nameRef, long descriptionRef, int stock);
+  }
+
+  /// Case-insensitive substring test on stored strings. An ASCII term is compared with the
+  /// UTF-8 bytes in place; a string with other characters, or any other term, is decoded
+  /// and lower-cased like [ProductService] does.
+  private final class TermMatcher {
+    private final String term;
+    private final byte[] ascii;
+
+    TermMatcher(String term) {
+      this.term = term;
+      var bytes = term.getBytes(StandardCharsets.UTF_8);
+      this.ascii = bytes.length == term.length() ? bytes : null;
+    }
+
+    /// @param ref String reference (0 for null, which never matches)
+    boolean test(long ref) {
+      if (ref == 0) {
+        return false;
+      }
+      if (ascii == null) {
+        return string(ref).toLowerCase().contains(term);
+      }
+      var chunk = stringChunks[(int) (ref >>> STRING_CHUNK_SHIFT)];
+      var start = (ref & (STRING_CHUNK_BYTES - 1)) + Short.BYTES;
+      var length = Short.toUnsignedInt(chunk.get(SHORT, start - Short.BYTES));
+      for (int i = 0; i < length; i++) {
+        if (chunk.get(BYTE, start + i) < 0) {
+          return string(ref).toLowerCase().contains(term);
+        }
+        if (i <= length - ascii.length && matchesAt(chunk, start + i)) {
+          return true;
+        }
+      }
+      return false;
+    }
+
+    private boolean matchesAt(MemorySegment chunk, long offset) {
+      for (int j = 0; j < ascii.length; j++) {
+        var b = chunk.get(BYTE, offset + j);
+        if (b >= 'A' && b <= 'Z') {
+          b += 'a' - 'A';
+        }
+        if (b != ascii[j]) {
+          return false;
+        }
+      }
+      return true;
+    }
+  }
+}
@@ -0,0 +1,190 @@
+package com.leanring.vaadin.flow.services.catalog.control;
+
+import com.leanring.vaadin.flow.services.catalog.entity.Category;
+import com.leanring.vaadin.flow.services.catalog.entity.Product;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+/// Near-cache in front of the [ProductService] reads that would hit storage once the
+/// catalog is persistent: lookups by ID, category listings and searches. The REST API and
+/// the product grid read filtered listings through it ([#streamAfter]).
+///
+/// Each read kind has its own [NearCache] with W-TinyLFU eviction, bounded by weight:
+/// products count one each, listings one per product they hold. Writes invalidate what
+/// they affect through the catalog change listener, on the writer's thread, before the
+/// write returns: the product's ID, its old and new category, and every cached search
+/// term that matches the product before or after the change. Hot entries are reloaded in
+/// the background once they are older than `catalog.cache.refresh-after-seconds`, which
+/// picks up changes made behind the service's back.
+///
+/// Hits, misses, evictions and refreshes are published per cache (tag `cache`) as
+/// `catalog.cache.gets` (tag `result`), `catalog.cache.evictions`,
+/// `catalog.cache.refreshes`, `catalog.cache.size` and `catalog.cache.weight`.
+@Service
+public class ProductCache {
+
+  private final ProductService service;
+  private final NearCache<Long, Product> byId;
+  private final NearCache<Category, List<Product>> byCategory;
+  private final NearCache<String, List<Product>> bySearch;
+  private final ListenerRegistration changeListener;
+  private final Executor refresher;
+
+  /// Constructor with dependency injection
+  /// @param service Product service the cache reads through
+  /// @param meters Registry receiving the cache meters
+  /// @param maximumProducts Maximum number of products cached by ID
+  /// @param maximumQueryRows Maximum number of products held by cached listings, per kind
+  /// @param refreshAfterSeconds Age after which hot entries are reloaded (0 to disable)
+  /// @throws IllegalArgumentException if a maximum is not positive
+  public ProductCache(ProductService service, MeterRegistry meters,
+                      @Value("${catalog.cache.maximum-products:10000}") long maximumProducts,
+                      @Value("${catalog.cache.maximum-query-rows:100000}") long maximumQueryRows,
+                      @Value("${catalog.cache.refresh-after-seconds:60}") long refreshAfterSeconds) {
+    this(service, System::nanoTime, maximumProducts, maximumQueryRows, Duration.ofSeconds(refreshAfterSeconds),
+      Executors.newSingleThreadExecutor(Thread.ofPlatform().name("catalog-cache-refresh").daemon().factory()));
+    bind(meters, "products", byId);
+    bind(meters, "categories", byCategory);
+    bind(meters, "searches", bySearch);
+  }
+
+  /// Creates the cache with an explicit clock and refresh executor
+  ProductCache(ProductService service, LongSupplier nanoClock, long maximumProducts, long maximumQueryRows,
+               Duration refreshAfter, Executor refresher) {
+    this.service = service;
+    this.refresher = refresher;
+    this.byId = new NearCache<>(maximumProducts, maximumProducts, p -> 1, refreshAfter, refresher, nanoClock,
+      id -> service.findById(id).orElse(null));
+    this.byCategory = new NearCache<>(maximumQueryRows, Category.values().length, ProductCache::rows,
+      refreshAfter, refresher, nanoClock, category -> List.copyOf(service.findByCategory(category)));
+    this.bySearch = new NearCache<>(maximumQueryRows, maximumQueryRows / 10, ProductCache::rows,
+      refreshAfter, refresher, nanoClock, term -> List.copyOf(service.search(term)));
+    this.changeListener = service.addChangeListener(this::invalidate);
+  }
+
+  /// Finds a product by ID
+  /// @param id Product ID
+  /// @return Optional containing the product if found
+  public Optional<Product> findById(long id) {
+    return Optional.ofNullable(byId.get(id));
+  }
+
+  /// Finds products by category
+  /// @param category Category to filter by
+  /// @return Unmodifiable list of products in the category
+  public List<Product> findByCategory(Category category) {
+    return byCategory.get(category);
+  }
+
+  /// Searches products by name and description
+  /// @param searchTerm Search term (case-insensitive)
+  /// @return Unmodifiable list of matching products
+  public List<Product> search(String searchTerm) {
+    return bySearch.get(searchTerm.toLowerCase().trim());
+  }
+
+  /// Streams products in ascending ID order after a keyset cursor, like
+  /// [ProductService#streamAfter]. A search term is served from the search cache and a
+  /// category alone from the category cache; an unfiltered listing is not cached.
+  /// @param afterId Cursor: last ID already seen (null to start from the beginning)
+  /// @param category Category to filter by (nullable)
+  /// @param searchTerm Search term matched against name and description (nullable)
+  /// @return Stream of matching products
+  public Stream<Product> streamAfter(Long afterId, Category category, String searchTerm) {
+    List<Product> cached;
+    if (searchTerm != null && !searchTerm.isBlank()) {
+      cached = search(searchTerm);
+    } else if (category != null) {
+      cached = findByCategory(category);
+    } else {
+      return service.streamAfter(afterId, null, null);
+    }
+    // Cached listings are in ID order, so the cursor is a binary search
+    var from = afterId == null ? 0 : firstAfter(cached, afterId);
+    return cached.subList(from, cached.size()).stream()
+      .filter(p -> category == null || p.category() == category);
+  }
+
+  /// Fetches one page of products in any order after a keyset cursor, like
+  /// [ProductService#pageAfter], reading filtered listings through [#streamAfter].
+  /// @param after Cursor: last product of the previous page (null for the first page)
+  /// @param category Category to filter by (nullable)
+  /// @param searchTerm Search term matched against name and description (nullable)
+  /// @param order Sort order (null for ascending ID); ties are broken by ID
+  /// @param limit Maximum number of products to return
+  /// @return Products following the cursor, in order
+  /// @throws IllegalArgumentException if limit is not positive
+  public List<Product> pageAfter(Product after, Category category, String searchTerm,
+                                 Comparator<Product> order, int limit) {
+    return ProductService.page(afterId -> streamAfter(afterId, category, searchTerm), after, order, limit);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    changeListener.remove();
+    if (refresher instanceof ExecutorService executor) {
+      executor.shutdownNow();
+    }
+  }
+
+  /// Discards everything a catalog change may have made stale
+  private void invalidate(ProductChange change) {
+    var previous = change.previous();
+    var current = change.current();
+    byId.invalidate(change.id());
+    if (previous != null) {
+      byCategory.invalidate(previous.category());
+    }
+    if (current != null && (previous == null || current.category() != previous.category())) {
+      byCategory.invalidate(current.category());
+    }
+    bySearch.invalidateIf(term -> (previous != null && ProductService.matches(previous, term)) ||
+      (current != null && ProductService.matches(current, term)));
+  }
+
+  private static int firstAfter(List<Product> products, long afterId) {
+    var from = 0;
+    var to = products.size();
+    while (from < to) {
+      var mid = (from + to) >>> 1;
+      if (products.get(mid).id() <= afterId) {
+        from = mid + 1;
+      } else {
+        to = mid;
+      }
+    }
+    return from;
+  }
+
+  private static int rows(List<Product> products) {
+    return products.size() + 1;
+  }
+
+  private static void bind(MeterRegistry meters, String name, NearCache<?, ?> cache) {
+    FunctionCounter.builder("catalog.cache.gets", cache, NearCache::hitCount)
+      .description("Cache lookups").tag("cache", name).tag("result", "hit").register(meters);
+    FunctionCounter.builder("catalog.cache.gets", cache, NearCache::missCount)
+      .description("Cache lookups").tag("cache", name).tag("result", "miss").register(meters);
+    FunctionCounter.builder("catalog.cache.evictions", cache, NearCache::evictionCount)
+      .description("Entries evicted to stay within the maximum").tag("cache", name).register(meters);
+    FunctionCounter.builder("catalog.cache.refreshes", cache, NearCache::refreshCount)
+      .description("Hot entries reloaded ahead of time").tag("cache", name).register(meters);
+    Gauge.builder("catalog.cache.size", cache, NearCache::size)
+      .description("Cached entries").tag("cache", name).register(meters);
+    Gauge.builder("catalog.cache.weight", cache, NearCache::weight)
+      .description("Products held by cached entries").tag("cache", name).register(meters);
+  }
+}
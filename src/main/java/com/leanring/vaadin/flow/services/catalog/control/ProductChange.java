@@ -0,0 +1,20 @@
+package com.leanring.vaadin.flow.services.catalog.control;
+
+import com.leanring.vaadin.flow.services.catalog.entity.Product;
+
+/// A single catalog change published by ProductService.
+///
+/// @param previous Product before the change (null when created)
+/// @param current Product after the change (null when deleted)
+public record ProductChange(Product previous, Product current) {
+
+  /// @return true if the product was removed
+  public boolean isDeletion() {
+    return current == null;
+  }
+
+  /// @return ID of the changed product
+  public Long id() {
+    return current != null ? current.id() : previous.id();
+  }
+}
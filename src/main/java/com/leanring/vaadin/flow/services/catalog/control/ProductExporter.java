@@ -0,0 +1,189 @@
+package com.leanring.vaadin.flow.services.catalog.control;
+
+import com.leanring.vaadin.flow.services.catalog.entity.Category;
+import com.leanring.vaadin.flow.services.catalog.entity.Product;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.io.BufferedOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/// Streams filtered, sorted product listings as CSV or XLSX.
+///
+/// Rows are pulled from [ProductService#pageAfter] one page at a time and written
+/// straight to the target stream, so an export of millions of rows needs memory for a
+/// single page only. Sorted exports cost one catalog scan per page, so they use larger
+/// pages; a page only references products the catalog already holds. Each export is reported per format as Micrometer meters:
+/// `catalog.export.duration` (tagged with the outcome), `catalog.export.rows`,
+/// `catalog.export.bytes` and `catalog.export.throughput` (rows per second).
+@Service
+public class ProductExporter {
+
+  /// Column titles, in the order of the product grid
+  static final List<String> HEADER = List.of("ID", "Product Name", "Category", "Price (ZAR)", "Stock", "Launch Date");
+  private static final int BUFFER_BYTES = 64 * 1024;
+
+  /// Supported file formats
+  public enum Format {
+    CSV("text/csv;charset=UTF-8", "csv"),
+    XLSX("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet", "xlsx");
+
+    private final String contentType;
+    private final String extension;
+
+    Format(String contentType, String extension) {
+      this.contentType = contentType;
+      this.extension = extension;
+    }
+
+    /// @return MIME type of the file
+    public String getContentType() {
+      return contentType;
+    }
+
+    /// @return File name extension without dot
+    public String getExtension() {
+      return extension;
+    }
+  }
+
+  private final ProductService service;
+  private final MeterRegistry meters;
+  private final int pageSize;
+  private final int sortedPageSize;
+  private final Map<Format, ExportMeters> formatMeters = new EnumMap<>(Format.class);
+
+  /// Constructor with dependency injection
+  /// @param service Product service the rows are read from
+  /// @param meters Registry receiving the export meters
+  /// @param pageSize Products fetched per service call in ID order
+  /// @param sortedPageSize Products fetched per service call in any other order
+  /// @throws IllegalArgumentException if a page size is not positive
+  public ProductExporter(ProductService service, MeterRegistry meters,
+                         @Value("${catalog.export.page-size:1000}") int pageSize,
+                         @Value("${catalog.export.sorted-page-size:50000}") int sortedPageSize) {
+    if (pageSize < 1 || sortedPageSize < 1) {
+      throw new IllegalArgumentException("Export page sizes must be positive: " + pageSize + ", " + sortedPageSize);
+    }
+    this.service = service;
+    this.meters = meters;
+    this.pageSize = pageSize;
+    this.sortedPageSize = sortedPageSize;
+    for (var format : Format.values()) {
+      formatMeters.put(format, registerMeters(format));
+    }
+  }
+
+  /// Writes all matching products; the stream is flushed but not closed
+  /// @param format File format
+  /// @param category Category to filter by (nullable)
+  /// @param searchTerm Search term matched against name and description (nullable)
+  /// @param order Sort order (null for ascending ID)
+  /// @param out Target stream, e.g. the download response
+  /// @return Number of products written
+  /// @throws IOException if the client connection fails
+  public long export(Format format, Category category, String searchTerm,
+                     Comparator<Product> order, OutputStream out) throws IOException {
+    var meter = formatMeters.get(format);
+    var counting = new CountingOutputStream(out);
+    var buffered = new BufferedOutputStream(counting, BUFFER_BYTES);
+    var start = System.nanoTime();
+    var rows = 0L;
+    var completed = false;
+    var limit = order == null ? pageSize : sortedPageSize;
+    try {
+      var writer = switch (format) {
+        case CSV -> new CsvTableWriter(buffered, HEADER);
+        case XLSX -> new XlsxTableWriter(buffered, HEADER);
+      };
+      Product cursor = null;
+      List<Product> page;
+      do {
+        page = service.pageAfter(cursor, category, searchTerm, order, limit);
+        for (var product : page) {
+          writeRow(writer, product);
+        }
+        rows += page.size();
+        if (!page.isEmpty()) {
+          cursor = page.getLast();
+        }
+      } while (page.size() == limit);
+      writer.finish();
+      buffered.flush();
+      completed = true;
+    } finally {
+      // Aborted downloads still count: their bytes were sent
+      var nanos = System.nanoTime() - start;
+      (completed ? meter.succeeded() : meter.failed()).record(nanos, TimeUnit.NANOSECONDS);
+      meter.rows().increment(rows);
+      meter.bytes().increment(counting.count);
+      if (completed) {
+        meter.throughput().record(rows * 1e9 / Math.max(nanos, 1));
+      }
+    }
+    return rows;
+  }
+
+  /// Writes one product in grid column order
+  private static void writeRow(TableWriter writer, Product product) throws IOException {
+    writer.startRow();
+    writer.number(Long.toString(product.id()));
+    writer.text(product.name());
+    writer.text(product.category().getDisplayName());
+    writer.number(product.price().toPlainString());
+    writer.number(Integer.toString(product.stock()));
+    writer.text(product.launchDate() != null ? product.launchDate().toString() : null);
+    writer.endRow();
+  }
+
+  private ExportMeters registerMeters(Format format) {
+    var tag = format.getExtension();
+    return new ExportMeters(
+      Timer.builder("catalog.export.duration")
+        .description("Product export duration").tag("format", tag).tag("outcome", "success").register(meters),
+      Timer.builder("catalog.export.duration")
+        .description("Product export duration").tag("format", tag).tag("outcome", "failed").register(meters),
+      Counter.builder("catalog.export.rows")
+        .description("Products exported").tag("format", tag).register(meters),
+      Counter.builder("catalog.export.bytes")
+        .description("Export bytes sent").baseUnit("bytes").tag("format", tag).register(meters),
+      DistributionSummary.builder("catalog.export.throughput")
+        .description("Export speed of completed exports").baseUnit("rows/s").tag("format", tag).register(meters));
+  }
+
+  /// Meters of one export format
+  private record ExportMeters(Timer succeeded, Timer failed, Counter rows, Counter bytes,
+                              DistributionSummary throughput) {
+  }
+
+  /// Counts the bytes passed on to the response
+  private static final class CountingOutputStream extends FilterOutputStream {
+    private long count;
+
+    CountingOutputStream(OutputStream out) {
+      super(out);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      out.write(b);
+      count++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      out.write(b, off, len);
+      count += len;
+    }
+  }
+}
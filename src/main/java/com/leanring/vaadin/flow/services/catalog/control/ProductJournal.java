@@ -0,0 +1,321 @@
+package com.leanring.vaadin.flow.services.catalog.control;
+
+import com.leanring.vaadin.flow.services.catalog.entity.Category;
+import com.leanring.vaadin.flow.services.catalog.entity.Money;
+import com.leanring.vaadin.flow.services.catalog.entity.Product;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Currency;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/// Append-only journal of product writes with group commit.
+///
+/// [#append] only copies the encoded record into a memory buffer. [#sync] makes records
+/// durable: the first caller to get the sync lock writes everything buffered so far and
+/// forces it to disk once, and the callers that queued behind it while it did find their
+/// records already covered. Under load one `fsync` acknowledges many writers.
+///
+/// The journal is split into segment files, `journal-<n>.log`. [#roll] seals the current
+/// segment once its writes are batched for the store, so a segment can be deleted as soon
+/// as its batch is stored. Each record carries a CRC, so a record torn by a crash ends the
+/// replay of its segment instead of producing garbage.
+///
+/// A failed write or force keeps its records buffered and cuts the segment back to its
+/// last durable length, so the next sync retries them. If the segment can't be cut back,
+/// the journal is failed for good and every later sync or roll throws.
+final class ProductJournal implements Closeable {
+
+  private static final String PREFIX = "journal-";
+  private static final String SUFFIX = ".log";
+  private static final int HEADER_BYTES = 8;
+  private static final int CREATED = 1;
+  private static final int DELETED = 2;
+  private static final int FIELDS = 4;
+
+  private final Path directory;
+  private final List<Path> recovered;
+  private final ReentrantLock syncLock = new ReentrantLock();
+  private final Object appendLock = new Object();
+  private ByteArrayOutputStream buffer = new ByteArrayOutputStream(64 * 1024);
+  /// Records taken from the buffer whose write failed; guarded by the sync lock
+  private byte[] unwritten;
+  /// Set once a failed write could not be undone; guarded by the sync lock
+  private IOException failure;
+  private long appended;
+  private volatile long durable;
+  private long segment;
+  private FileChannel channel;
+  private final LongAdder syncs = new LongAdder();
+  private final LongAdder records = new LongAdder();
+
+  /// Opens the journal and starts a new segment after the existing ones
+  /// @param directory Directory of the segment files; created if missing
+  /// @throws IOException if the directory can't be read or the segment created
+  ProductJournal(Path directory) throws IOException {
+    this.directory = Files.createDirectories(directory);
+    try (var files = Files.list(directory)) {
+      this.recovered = files
+        .filter(file -> segmentNumber(file) >= 0)
+        .sorted(Comparator.comparingLong(ProductJournal::segmentNumber))
+        .toList();
+    }
+    this.segment = recovered.isEmpty() ? 1 : segmentNumber(recovered.getLast()) + 1;
+    this.channel = open(segment);
+  }
+
+  /// @return Segments left by a previous run, oldest first; replay and delete them
+  List<Path> getRecoveredSegments() {
+    return recovered;
+  }
+
+  /// Buffers a record; it is durable once [#sync] returns for its position
+  /// @param write Write to journal
+  /// @return Position of the record
+  long append(ProductWrite write) {
+    var record = encode(write);
+    synchronized (appendLock) {
+      buffer.write(record, 0, record.length);
+      return ++appended;
+    }
+  }
+
+  /// Waits until a record is on disk, writing and forcing the buffer if no other
+  /// caller is already doing so
+  /// @param position Position returned by [#append]
+  /// @throws IOException if the segment can't be written
+  void sync(long position) throws IOException {
+    if (durable >= position) {
+      return;
+    }
+    syncLock.lock();
+    try {
+      if (durable < position) {
+        writeBuffered();
+      }
+    } finally {
+      syncLock.unlock();
+    }
+  }
+
+  /// Makes the buffered records durable and starts a new segment
+  /// @return Sealed segment holding every record appended so far (since the last roll)
+  /// @throws IOException if the segment can't be written or the next one created
+  Path roll() throws IOException {
+    syncLock.lock();
+    try {
+      writeBuffered();
+      // Opened first so a failure leaves the journal appending to the current segment
+      var next = open(segment + 1);
+      var sealed = path(segment++);
+      var previous = channel;
+      channel = next;
+      previous.close();
+      return sealed;
+    } finally {
+      syncLock.unlock();
+    }
+  }
+
+  /// @return Number of forced writes
+  long getSyncCount() {
+    return syncs.sum();
+  }
+
+  /// @return Number of records made durable
+  long getSyncedRecords() {
+    return records.sum();
+  }
+
+  /// @return Number of records appended but not yet durable
+  long getBufferedRecords() {
+    synchronized (appendLock) {
+      return appended - durable;
+    }
+  }
+
+  /// Makes the buffered records durable and closes the current segment
+  @Override
+  public void close() throws IOException {
+    syncLock.lock();
+    try (var closing = channel) {
+      if (closing.isOpen()) {
+        writeBuffered();
+      }
+    } finally {
+      syncLock.unlock();
+    }
+  }
+
+  /// Reads a segment up to its first incomplete or corrupt record
+  /// @param segment Segment file
+  /// @return Records in journal order
+  /// @throws IOException if the file can't be read
+  static List<ProductWrite> read(Path segment) throws IOException {
+    var bytes = ByteBuffer.wrap(Files.readAllBytes(segment));
+    var writes = new ArrayList<ProductWrite>();
+    while (bytes.remaining() >= HEADER_BYTES) {
+      var length = bytes.getInt();
+      var checksum = bytes.getInt();
+      if (length < 0 || length > bytes.remaining() || crc(bytes.array(), bytes.position(), length) != checksum) {
+        break;
+      }
+      writes.add(decode(new DataInputStream(new ByteArrayInputStream(bytes.array(), bytes.position(), length))));
+      bytes.position(bytes.position() + length);
+    }
+    return writes;
+  }
+
+  /// Writes and forces everything buffered; caller holds the sync lock
+  /// @throws IOException if the write fails (its records stay buffered) or the journal has failed
+  private void writeBuffered() throws IOException {
+    if (failure != null) {
+      throw new IOException("Catalog journal failed earlier", failure);
+    }
+    byte[] pending;
+    long position;
+    synchronized (appendLock) {
+      position = appended;
+      if (durable == position) {
+        return;
+      }
+      pending = buffer.toByteArray();
+      buffer = new ByteArrayOutputStream(Math.max(64 * 1024, pending.length));
+    }
+    if (unwritten != null) {
+      pending = concat(unwritten, pending);
+      unwritten = null;
+    }
+    var start = channel.position();
+    try {
+      var bytes = ByteBuffer.wrap(pending);
+      while (bytes.hasRemaining()) {
+        channel.write(bytes);
+      }
+      channel.force(false);
+    } catch (IOException e) {
+      unwritten = pending;
+      discardPartialWrite(start, e);
+      throw e;
+    }
+    syncs.increment();
+    records.add(position - durable);
+    durable = position;
+  }
+
+  /// Cuts a torn write off the segment so a retry appends whole records only;
+  /// fails the journal if that is not possible
+  private void discardPartialWrite(long length, IOException cause) {
+    try {
+      channel.truncate(length);
+      channel.position(length);
+    } catch (IOException e) {
+      cause.addSuppressed(e);
+      failure = cause;
+    }
+  }
+
+  private static byte[] concat(byte[] first, byte[] second) {
+    var joined = Arrays.copyOf(first, first.length + second.length);
+    System.arraycopy(second, 0, joined, first.length, second.length);
+    return joined;
+  }
+
+  private FileChannel open(long number) throws IOException {
+    return FileChannel.open(path(number), StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+  }
+
+  private Path path(long number) {
+    return directory.resolve(PREFIX + number + SUFFIX);
+  }
+
+  private static long segmentNumber(Path file) {
+    var name = file.getFileName().toString();
+    if (!name.startsWith(PREFIX) || !name.endsWith(SUFFIX)) {
+      return -1;
+    }
+    try {
+      return Long.parseLong(name, PREFIX.length(), name.length() - SUFFIX.length(), 10);
+    } catch (NumberFormatException e) {
+      return -1;
+    }
+  }
+
+  private static byte[] encode(ProductWrite write) {
+    var bytes = new ByteArrayOutputStream(128);
+    var out = new DataOutputStream(bytes);
+    try {
+      out.writeLong(0);
+      out.writeLong(write.productId());
+      out.writeLong(write.firstSequence());
+      out.writeLong(write.lastSequence());
+      var product = write.product();
+      out.writeByte((write.created() ? CREATED : 0) | (write.deleted() ? DELETED : 0) | (product != null ? FIELDS : 0));
+      out.writeInt(write.stockDelta());
+      if (product != null) {
+        out.writeUTF(product.name());
+        out.writeUTF(product.category().name());
+        out.writeLong(product.price().minorUnits());
+        out.writeUTF(product.price().currency().getCurrencyCode());
+        out.writeInt(product.stock());
+        out.writeLong(product.launchDate() != null ? product.launchDate().toEpochDay() : Long.MIN_VALUE);
+        out.writeBoolean(product.description() != null);
+        out.writeUTF(product.description() != null ? product.description() : "");
+        out.writeLong(product.version());
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    var record = ByteBuffer.wrap(bytes.toByteArray());
+    var length = record.capacity() - HEADER_BYTES;
+    record.putInt(0, length);
+    record.putInt(4, crc(record.array(), HEADER_BYTES, length));
+    return record.array();
+  }
+
+  private static ProductWrite decode(DataInputStream in) throws IOException {
+    var productId = in.readLong();
+    var firstSequence = in.readLong();
+    var lastSequence = in.readLong();
+    var flags = in.readByte();
+    var stockDelta = in.readInt();
+    Product product = null;
+    if ((flags & FIELDS) != 0) {
+      var name = in.readUTF();
+      var category = Category.valueOf(in.readUTF());
+      var minorUnits = in.readLong();
+      var price = new Money(minorUnits, Currency.getInstance(in.readUTF()));
+      var stock = in.readInt();
+      var epochDay = in.readLong();
+      var hasDescription = in.readBoolean();
+      var description = in.readUTF();
+      product = new Product(productId, name, category, price, stock,
+        epochDay == Long.MIN_VALUE ? null : LocalDate.ofEpochDay(epochDay),
+        hasDescription ? description : null, in.readLong());
+    }
+    return new ProductWrite(productId, firstSequence, lastSequence, product,
+      (flags & CREATED) != 0, stockDelta, (flags & DELETED) != 0);
+  }
+
+  private static int crc(byte[] bytes, int offset, int length) {
+    var crc = new CRC32C();
+    crc.update(bytes, offset, length);
+    return (int) crc.getValue();
+  }
+}
@@ -1,21 +1,36 @@
 package com.leanring.vaadin.flow.services.catalog.control;
 
 import com.leanring.vaadin.flow.services.catalog.entity.Category;
+import com.leanring.vaadin.flow.services.catalog.entity.Money;
 import com.leanring.vaadin.flow.services.catalog.entity.Product;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /// Product service managing catalog operations.
 /// Implements CRUD operations and business logic for products.
-/// Uses ConcurrentHashMap for thread-safe in-memory storage.
+/// Products are stored off-heap in an [OffHeapProductTable] ordered by ID, which gives
+/// keyset (cursor) pagination without offsets and keeps the catalog out of the GC's way.
+@Slf4j
 @Service
 public class ProductService {
 
-  private final Map<Long, Product> products = new ConcurrentHashMap<>();
+  // Replaced as a whole only by restore(), before the catalog is served
+  private volatile OffHeapProductTable products = new OffHeapProductTable();
+  private final AtomicLong catalogVersion = new AtomicLong();
+  private final List<Consumer<ProductChange>> journals = new CopyOnWriteArrayList<>();
+  private final List<Consumer<ProductChange>> changeListeners = new CopyOnWriteArrayList<>();
 
   /// Constructor initializes service with sample data
   public ProductService() {
@@ -25,29 +40,150 @@ public class ProductService {
   /// Retrieves all products
   /// @return List of all products
   public List<Product> findAll() {
-    return new ArrayList<>(products.values());
+    return products.streamAfter(null, null).collect(Collectors.toList());
   }
 
   /// Finds products by category
   /// @param category Category to filter by
   /// @return List of products in specified category
   public List<Product> findByCategory(Category category) {
-    return products.values().stream()
-      .filter(p -> p.category() == category)
-      .collect(Collectors.toList());
+    return products.streamAfter(null, category).collect(Collectors.toList());
   }
 
   /// Searches products by name
   /// @param searchTerm Search term (case-insensitive)
   /// @return List of matching products
   public List<Product> search(String searchTerm) {
-    var term = searchTerm.toLowerCase().trim();
-    return products.values().stream()
-      .filter(p -> p.name().toLowerCase().contains(term) ||
-                   (p.description() != null && p.description().toLowerCase().contains(term)))
+    return products.streamAfter(null, null, searchTerm.toLowerCase().trim())
       .collect(Collectors.toList());
   }
 
+  /// Streams products in ascending ID order, starting after a keyset cursor.
+  /// The stream is lazy and reads the live catalog, so large result sets are
+  /// never copied into an intermediate list. Products added after the call are not included.
+  /// @param afterId Cursor: last ID already seen (null to start from the beginning)
+  /// @param category Category to filter by (nullable)
+  /// @param searchTerm Search term matched against name and description (nullable)
+  /// @return Lazy stream of matching products
+  public Stream<Product> streamAfter(Long afterId, Category category, String searchTerm) {
+    return products.streamAfter(afterId, category, searchTerm == null ? null : searchTerm.toLowerCase().trim());
+  }
+
+  /// Streams the products whose stock matches, in ascending ID order. The stock is
+  /// checked before a product is materialized, so a sparse match never copies the catalog.
+  /// @param stock Condition on the stock
+  /// @return Lazy stream of matching products
+  public Stream<Product> streamByStock(IntPredicate stock) {
+    return products.streamByStock(stock);
+  }
+
+  /// @return Number of products, without reading any of them
+  public long size() {
+    return products.size();
+  }
+
+  /// Fetches one page of products in any order, starting after a keyset cursor.
+  /// ID order is served from the ordered table like [#streamAfter]. Any other order scans
+  /// the catalog once per page and keeps only the next `limit` products in a bounded
+  /// heap, so memory stays proportional to the page, never to the result set.
+  /// @param after Cursor: last product of the previous page (null for the first page)
+  /// @param category Category to filter by (nullable)
+  /// @param searchTerm Search term matched against name and description (nullable)
+  /// @param order Sort order (null for ascending ID); ties are broken by ID
+  /// @param limit Maximum number of products to return
+  /// @return Products following the cursor, in order
+  /// @throws IllegalArgumentException if limit is not positive
+  public List<Product> pageAfter(Product after, Category category, String searchTerm,
+                                 Comparator<Product> order, int limit) {
+    return page(afterId -> streamAfter(afterId, category, searchTerm), after, order, limit);
+  }
+
+  /// Pages a source of products in ID order, as described on [#pageAfter].
+  /// @param source Products in ascending ID order after the given ID (null for all)
+  static List<Product> page(Function<Long, Stream<Product>> source, Product after,
+                            Comparator<Product> order, int limit) {
+    if (limit < 1) {
+      throw new IllegalArgumentException("Page limit must be positive: " + limit);
+    }
+    if (order == null) {
+      return source.apply(after == null ? null : after.id()).limit(limit).toList();
+    }
+    var total = order.thenComparing(Product::id);
+    var page = new PriorityQueue<Product>(Math.min(limit, 1_024), total.reversed());
+    source.apply(null)
+      .filter(p -> after == null || total.compare(p, after) > 0)
+      .forEach(p -> {
+        if (page.size() < limit) {
+          page.add(p);
+        } else if (total.compare(p, page.peek()) < 0) {
+          page.poll();
+          page.add(p);
+        }
+      });
+    var result = new ArrayList<>(page);
+    result.sort(total);
+    return result;
+  }
+
+  /// Gets the catalog version, incremented on every mutation.
+  /// Suitable for deriving ETags: equal versions mean an unchanged catalog.
+  /// @return Current catalog version
+  public long getCatalogVersion() {
+    return catalogVersion.get();
+  }
+
+  /// Registers a listener notified synchronously after every catalog change.
+  /// Listeners run on the writer's thread and must return quickly.
+  /// @param listener Listener receiving each change
+  /// @return registration removing the listener
+  public ListenerRegistration addChangeListener(Consumer<ProductChange> listener) {
+    changeListeners.add(listener);
+    return () -> changeListeners.remove(listener);
+  }
+
+  /// Registers a journal that makes every change durable before the writing call returns.
+  /// Journals run before the change listeners. If one throws, the change stays applied and
+  /// the listeners still see it, but the exception is thrown to the caller, so the write
+  /// is never acknowledged without its journal.
+  /// @param journal Journal receiving each change
+  /// @return registration removing the journal
+  public ListenerRegistration addJournal(Consumer<ProductChange> journal) {
+    journals.add(journal);
+    return () -> journals.remove(journal);
+  }
+
+  /// Replaces the whole catalog with products restored from durable storage, e.g. on
+  /// startup. Products keep their IDs and versions, and new products get IDs after the
+  /// highest. Change listeners see the difference to the replaced catalog as ordinary
+  /// changes; journals are not notified, as the products come from durable storage.
+  /// Must run before the catalog is served: writes racing with it are lost.
+  /// @param restored Products to hold from now on
+  public void restore(List<Product> restored) {
+    var sorted = new ArrayList<>(restored);
+    sorted.sort(Comparator.comparingLong(Product::id));
+    var table = new OffHeapProductTable();
+    for (var product : sorted) {
+      table.append(() -> product);
+    }
+    if (!sorted.isEmpty()) {
+      Product.continueIdsAfter(sorted.getLast().id());
+    }
+    var replaced = products;
+    products = table;
+    catalogVersion.incrementAndGet();
+    var restoredIds = new HashSet<Long>();
+    for (var product : sorted) {
+      restoredIds.add(product.id());
+      var previous = replaced.get(product.id());
+      if (!product.equals(previous)) {
+        notifyListeners(new ProductChange(previous, product));
+      }
+    }
+    replaced.streamAfter(null, null)
+      .filter(p -> !restoredIds.contains(p.id()))
+      .forEach(p -> notifyListeners(new ProductChange(p, null)));
+  }
+
   /// Finds product by ID
   /// @param id Product ID
   /// @return Optional containing product if found
@@ -59,122 +195,276 @@ public class ProductService {
   /// @param product Product to save (without ID)
   /// @return Saved product with generated ID
   public Product save(Product product) {
-    var newProduct = Product.create(
+    var newProduct = products.append(() -> Product.create(
       product.name(),
       product.category(),
       product.price(),
       product.stock(),
       product.launchDate(),
       product.description()
-    );
-    products.put(newProduct.id(), newProduct);
+    ));
+    catalogVersion.incrementAndGet();
+    publish(null, newProduct);
     return newProduct;
   }
 
-  /// Updates an existing product
-  /// @param product Product with updated values
-  /// @return Updated product
+  /// Updates an existing product with an optimistic version check.
+  /// The version is checked against the row the table then claims by CAS; if the row
+  /// changed in between, the check runs again, so a conflicting edit fails fast instead
+  /// of overwriting.
+  /// @param product Product with updated values, carrying the version it was read at
+  /// @return Updated product with its new version
   /// @throws IllegalArgumentException if product ID not found
+  /// @throws StaleProductException if the product was changed since it was read
   public Product update(Product product) {
-    if (!products.containsKey(product.id())) {
+    var previous = new Product[1];
+    var updated = products.computeIfPresent(product.id(), current -> {
+      if (current.version() != product.version()) {
+        throw new StaleProductException(product.version(), current);
+      }
+      previous[0] = current;
+      return product.nextVersion();
+    });
+    if (updated == null) {
       throw new IllegalArgumentException("Product not found: " + product.id());
     }
-    products.put(product.id(), product);
-    return product;
+    catalogVersion.incrementAndGet();
+    publish(previous[0], updated);
+    return updated;
   }
 
   /// Deletes a product by ID
   /// @param id Product ID to delete
   /// @return true if deleted, false if not found
   public boolean delete(Long id) {
-    return products.remove(id) != null;
+    var removed = products.remove(id);
+    if (removed == null) {
+      return false;
+    }
+    catalogVersion.incrementAndGet();
+    publish(removed, null);
+    return true;
   }
 
   /// Adjusts product stock
   /// @param id Product ID
   /// @param adjustment Stock adjustment (positive to add, negative to subtract)
   /// @return Updated product
-  /// @throws IllegalArgumentException if product not found or invalid adjustment
+  /// @throws IllegalArgumentException if product not found
+  /// @throws StockUnderflowException if stock would go below zero; nothing is changed
   public Product adjustStock(Long id, int adjustment) {
-    var product = findById(id)
-      .orElseThrow(() -> new IllegalArgumentException("Product not found: " + id));
+    var previous = new Product[1];
+    var updated = products.computeIfPresent(id, product -> {
+      previous[0] = product;
+      var newStock = product.stock() + adjustment;
+      if (newStock < 0) {
+        throw new StockUnderflowException(id, product.stock(), adjustment);
+      }
+      return product.withStock(newStock).nextVersion();
+    });
+    if (updated == null) {
+      throw new IllegalArgumentException("Product not found: " + id);
+    }
+    catalogVersion.incrementAndGet();
+    publish(previous[0], updated);
+    return updated;
+  }
 
-    var newStock = product.stock() + adjustment;
-    if (newStock < 0) {
-      throw new IllegalArgumentException("Insufficient stock");
+  /// Deletes several products in one call
+  /// @param ids Product IDs to delete
+  /// @return Number of products actually deleted
+  public int deleteAll(Collection<Long> ids) {
+    var deleted = new ArrayList<ProductChange>(ids.size());
+    for (var id : ids) {
+      var removed = products.remove(id);
+      if (removed != null) {
+        deleted.add(new ProductChange(removed, null));
+      }
     }
+    if (deleted.isEmpty()) {
+      return 0;
+    }
+    // Bumped before listeners run, so they see the version that includes the deletes
+    catalogVersion.incrementAndGet();
+    publish(deleted);
+    return deleted.size();
+  }
 
-    var updated = new Product(
-      product.id(),
-      product.name(),
-      product.category(),
-      product.price(),
-      newStock,
-      product.launchDate(),
-      product.description()
-    );
+  /// Moves several products to a category in one call
+  /// @param ids Product IDs to update
+  /// @param category Target category
+  /// @return Updated products (unknown IDs are skipped)
+  public List<Product> changeCategory(Collection<Long> ids, Category category) {
+    Objects.requireNonNull(category, "Category is required");
+    return bulkUpdate(ids, p -> p.withCategory(category));
+  }
+
+  /// Reprices several products by a percentage in one call.
+  /// The percentage is converted to basis points once; each price is then scaled
+  /// in exact long arithmetic and rounded half up to whole cents.
+  /// @param ids Product IDs to update
+  /// @param percent Price change in percent (e.g. 10 for +10%, -15 for -15%), rounded to 0.01%
+  /// @return Updated products (unknown IDs are skipped)
+  /// @throws IllegalArgumentException if any resulting price would not be positive
+  public List<Product> adjustPrices(Collection<Long> ids, BigDecimal percent) {
+    var basisPoints = percent.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValueExact();
+    return bulkUpdate(ids, p -> {
+      var newPrice = p.price().adjustedBy(basisPoints);
+      if (!newPrice.isPositive()) {
+        throw new IllegalArgumentException("Price must stay positive: " + p.name());
+      }
+      return p.withPrice(newPrice);
+    });
+  }
 
-    return update(updated);
+  /// Adjusts stock of several products by the same amount in one call
+  /// @param ids Product IDs to update
+  /// @param adjustment Stock adjustment (positive to add, negative to subtract)
+  /// @return Updated products (unknown IDs are skipped)
+  /// @throws StockUnderflowException if any product would go below zero stock; nothing is changed
+  public List<Product> adjustStockAll(Collection<Long> ids, int adjustment) {
+    return bulkUpdate(ids, p -> {
+      var newStock = p.stock() + adjustment;
+      if (newStock < 0) {
+        throw new StockUnderflowException(p.id(), p.stock(), adjustment);
+      }
+      return p.withStock(newStock);
+    });
   }
 
-  /// Gets total inventory value
+  /// Gets total inventory value, summed in minor units from the price and stock columns
+  /// without materializing products
   /// @return Total value of all products in stock
-  public BigDecimal getTotalInventoryValue() {
-    return products.values().stream()
-      .map(p -> p.price().multiply(BigDecimal.valueOf(p.stock())))
-      .reduce(BigDecimal.ZERO, BigDecimal::add);
+  /// @throws IllegalStateException if a product is not priced in the catalog currency
+  /// @throws ArithmeticException if the total overflows
+  public Money getTotalInventoryValue() {
+    return Money.zar(products.inventoryValue(Money.ZAR));
   }
 
   /// Gets products with low stock
   /// @param threshold Stock threshold (default 10)
   /// @return List of products with stock below threshold
   public List<Product> getLowStockProducts(int threshold) {
-    return products.values().stream()
-      .filter(p -> p.stock() < threshold && p.stock() > 0)
+    return products.streamByStock(stock -> stock < threshold && stock > 0)
       .sorted(Comparator.comparingInt(Product::stock))
       .collect(Collectors.toList());
   }
 
+  /// Applies a change to several products as one batch.
+  /// The change is computed for every product before the table claims their rows, so no
+  /// other write can slip in between, and a failing product leaves the catalog
+  /// untouched. The catalog version is bumped once for the whole batch.
+  /// @param ids Product IDs to update
+  /// @param change Function producing the updated product
+  /// @return Updated products (unknown IDs are skipped)
+  private List<Product> bulkUpdate(Collection<Long> ids, UnaryOperator<Product> change) {
+    var changes = products.computeAllPresent(ids, p -> change.apply(p).nextVersion());
+    var updated = new ArrayList<Product>(changes.size());
+    if (changes.isEmpty()) {
+      return updated;
+    }
+    catalogVersion.incrementAndGet();
+    for (var productChange : changes) {
+      updated.add(productChange.current());
+    }
+    publish(changes);
+    return updated;
+  }
+
+  /// Notifies journals and change listeners
+  /// @param previous Product before the change (null when created)
+  /// @param current Product after the change (null when deleted)
+  private void publish(Product previous, Product current) {
+    if (journals.isEmpty() && changeListeners.isEmpty()) {
+      return;
+    }
+    publish(List.of(new ProductChange(previous, current)));
+  }
+
+  /// Notifies journals and change listeners of every change, then throws the first
+  /// journal failure
+  /// @param changes Applied changes, in order
+  private void publish(List<ProductChange> changes) {
+    RuntimeException journalFailure = null;
+    for (var change : changes) {
+      for (var journal : journals) {
+        try {
+          journal.accept(change);
+        } catch (RuntimeException e) {
+          if (journalFailure == null) {
+            journalFailure = e;
+          }
+        }
+      }
+      notifyListeners(change);
+    }
+    if (journalFailure != null) {
+      throw journalFailure;
+    }
+  }
+
+  /// Notifies change listeners of one applied change
+  private void notifyListeners(ProductChange change) {
+    for (var listener : changeListeners) {
+      // The change is already applied: a failing listener must neither undo it for the
+      // caller nor keep the remaining listeners from seeing it
+      try {
+        listener.accept(change);
+      } catch (RuntimeException e) {
+        log.warn("Change listener failed for product {}", change.id(), e);
+      }
+    }
+  }
+
+  /// Checks whether a product matches a lower-cased search term
+  /// @param product Product to test
+  /// @param term Lower-cased, trimmed search term
+  /// @return true if name or description contains the term
+  static boolean matches(Product product, String term) {
+    return product.name().toLowerCase().contains(term) ||
+      (product.description() != null && product.description().toLowerCase().contains(term));
+  }
+
   /// Initializes sample product data
   private void initializeSampleData() {
     save(new Product(null, "Dell XPS 15 Laptop", Category.ELECTRONICS,
-      new BigDecimal("25999.99"), 15, LocalDate.of(2024, 1, 15),
+      Money.zar("25999.99"), 15, LocalDate.of(2024, 1, 15),
       "High-performance laptop with 16GB RAM and 512GB SSD"));
 
     save(new Product(null, "Samsung Galaxy S24", Category.ELECTRONICS,
-      new BigDecimal("18999.00"), 8, LocalDate.of(2024, 2, 1),
+      Money.zar("18999.00"), 8, LocalDate.of(2024, 2, 1),
       "Latest smartphone with 5G connectivity"));
 
     save(new Product(null, "Levi's Jeans - Classic Fit", Category.CLOTHING,
-      new BigDecimal("899.99"), 45, LocalDate.of(2023, 9, 10),
+      Money.zar("899.99"), 45, LocalDate.of(2023, 9, 10),
       "Comfortable denim jeans in classic blue"));
 
     save(new Product(null, "Nike Air Max Sneakers", Category.CLOTHING,
-      new BigDecimal("1899.00"), 20, LocalDate.of(2024, 3, 5),
+      Money.zar("1899.00"), 20, LocalDate.of(2024, 3, 5),
       "Stylish and comfortable running shoes"));
 
     save(new Product(null, "Arabica Coffee Beans 1kg", Category.FOOD,
-      new BigDecimal("299.99"), 0, LocalDate.of(2024, 1, 1),
+      Money.zar("299.99"), 0, LocalDate.of(2024, 1, 1),
       "Premium roasted coffee beans from Ethiopia"));
 
     save(new Product(null, "The Pragmatic Programmer", Category.BOOKS,
-      new BigDecimal("599.00"), 30, LocalDate.of(2023, 6, 20),
+      Money.zar("599.00"), 30, LocalDate.of(2023, 6, 20),
       "Essential reading for software developers"));
 
     save(new Product(null, "Clean Code by Robert Martin", Category.BOOKS,
-      new BigDecimal("549.00"), 25, LocalDate.of(2023, 8, 12),
+      Money.zar("549.00"), 25, LocalDate.of(2023, 8, 12),
       "Guide to writing maintainable code"));
 
     save(new Product(null, "Wilson Tennis Racket", Category.SPORTS,
-      new BigDecimal("1299.00"), 12, LocalDate.of(2024, 2, 14),
+      Money.zar("1299.00"), 12, LocalDate.of(2024, 2, 14),
       "Professional-grade tennis racket"));
 
     save(new Product(null, "Garden Tool Set", Category.HOME,
-      new BigDecimal("799.99"), 18, LocalDate.of(2024, 3, 1),
+      Money.zar("799.99"), 18, LocalDate.of(2024, 3, 1),
       "Complete 10-piece gardening tool set"));
 
     save(new Product(null, "Smart LED Bulb Pack", Category.HOME,
-      new BigDecimal("449.00"), 5, LocalDate.of(2024, 1, 20),
+      Money.zar("449.00"), 5, LocalDate.of(2024, 1, 20),
       "WiFi-enabled color-changing LED bulbs (4-pack)"));
   }
 }
\ No newline at end of file
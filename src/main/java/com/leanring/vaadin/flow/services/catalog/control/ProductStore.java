@@ -0,0 +1,20 @@
+package com.leanring.vaadin.flow.services.catalog.control;
+
+import com.leanring.vaadin.flow.services.catalog.entity.Product;
+import java.util.List;
+
+/// Durable store the catalog is written behind to by [CatalogWriteBehind].
+public interface ProductStore {
+
+  /// Applies a batch of writes atomically: all of them or none.
+  /// Must be idempotent for replays: a write whose `firstSequence` is not greater than the
+  /// sequence last applied to its product is skipped.
+  /// @param batch Writes of distinct products
+  void write(List<ProductWrite> batch);
+
+  /// @return Highest journal sequence applied to any stored product, 0 if none
+  long lastSequence();
+
+  /// @return All stored products, which the catalog is restored from on startup
+  List<Product> loadAll();
+}
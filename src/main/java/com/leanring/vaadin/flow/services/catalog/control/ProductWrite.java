@@ -0,0 +1,65 @@
+package com.leanring.vaadin.flow.services.catalog.control;
+
+import com.leanring.vaadin.flow.services.catalog.entity.Product;
+import java.util.Objects;
+
+/// Pending write of one product to the [ProductStore], coalesced from one or more
+/// journaled catalog changes.
+///
+/// Stock travels as a delta so concurrent adjustments add up in any order; every other
+/// field is last-writer-wins by product version. A created product's delta counts from
+/// zero, so it is the absolute stock. Journal sequence numbers make replays idempotent:
+/// a store skips a write whose `firstSequence` it has already applied.
+///
+/// @param productId Product ID
+/// @param firstSequence Journal sequence of the oldest change included
+/// @param lastSequence Journal sequence of the newest change included
+/// @param product Latest product fields (null if only the stock changed or deleted)
+/// @param created true if the product was created by one of the changes
+/// @param stockDelta Sum of stock changes
+/// @param deleted true if the product was deleted
+public record ProductWrite(long productId, long firstSequence, long lastSequence, Product product,
+                           boolean created, int stockDelta, boolean deleted) {
+
+  /// Describes a single catalog change
+  /// @param sequence Journal sequence of the change
+  /// @param change Change published by [ProductService]
+  /// @return Write applying the change
+  static ProductWrite of(long sequence, ProductChange change) {
+    var previous = change.previous();
+    var current = change.current();
+    if (current == null) {
+      return new ProductWrite(previous.id(), sequence, sequence, null, false, 0, true);
+    }
+    if (previous == null) {
+      return new ProductWrite(current.id(), sequence, sequence, current, true, current.stock(), false);
+    }
+    var delta = current.stock() - previous.stock();
+    var fields = isStockOnly(previous, current) ? null : current;
+    return new ProductWrite(current.id(), sequence, sequence, fields, false, delta, false);
+  }
+
+  /// Combines this write with a later one of the same product
+  /// @param later Write journaled after this one
+  /// @return Write with the effect of both
+  ProductWrite then(ProductWrite later) {
+    var first = Math.min(firstSequence, later.firstSequence);
+    var last = Math.max(lastSequence, later.lastSequence);
+    if (deleted || later.deleted) {
+      return new ProductWrite(productId, first, last, null, false, 0, true);
+    }
+    var fields = product == null ? later.product
+      : later.product == null ? product
+      : later.product.version() >= product.version() ? later.product : product;
+    return new ProductWrite(productId, first, last, fields, created || later.created,
+      Math.addExact(stockDelta, later.stockDelta), false);
+  }
+
+  private static boolean isStockOnly(Product previous, Product current) {
+    return Objects.equals(previous.name(), current.name()) &&
+      previous.category() == current.category() &&
+      Objects.equals(previous.price(), current.price()) &&
+      Objects.equals(previous.launchDate(), current.launchDate()) &&
+      Objects.equals(previous.description(), current.description());
+  }
+}
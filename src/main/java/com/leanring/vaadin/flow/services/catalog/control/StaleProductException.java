@@ -0,0 +1,26 @@
+package com.leanring.vaadin.flow.services.catalog.control;
+
+import com.leanring.vaadin.flow.services.catalog.entity.Product;
+
+/// Thrown when an update carries an outdated version stamp.
+/// Holds the currently stored product so callers can show or merge it
+/// without another read.
+public class StaleProductException extends RuntimeException {
+
+  private final transient Product current;
+
+  /// Creates the exception for a conflicting update
+  /// @param attemptedVersion Version the caller based its change on
+  /// @param current Product as currently stored
+  public StaleProductException(long attemptedVersion, Product current) {
+    super("Product %d was changed by someone else (version %d, expected %d)"
+      .formatted(current.id(), current.version(), attemptedVersion));
+    this.current = current;
+  }
+
+  /// Gets the currently stored product
+  /// @return Latest product state
+  public Product getCurrent() {
+    return current;
+  }
+}
@@ -0,0 +1,24 @@
+package com.leanring.vaadin.flow.services.catalog.control;
+
+/// Thrown when a stock adjustment would take a product below zero units.
+/// Raised while the product is locked, before anything is written or published,
+/// so callers can rely on the stock being unchanged.
+public class StockUnderflowException extends IllegalArgumentException {
+
+  private final long productId;
+
+  /// Creates the exception for a rejected adjustment
+  /// @param productId Product whose stock is too low
+  /// @param stock Units in stock
+  /// @param adjustment Rejected adjustment
+  public StockUnderflowException(long productId, int stock, int adjustment) {
+    super("Insufficient stock for product %d: %d in stock, adjustment %d".formatted(productId, stock, adjustment));
+    this.productId = productId;
+  }
+
+  /// Gets the product whose stock is too low
+  /// @return Product ID
+  public long getProductId() {
+    return productId;
+  }
+}
@@ -0,0 +1,31 @@
+package com.leanring.vaadin.flow.services.catalog.control;
+
+import java.io.IOException;
+
+/// Row-by-row writer of a tabular export format.
+/// Cells are written in column order between [#startRow] and [#endRow]; nothing is
+/// buffered beyond the current row, so exports run in constant memory.
+interface TableWriter {
+
+  /// Starts a new row
+  /// @throws IOException if the client connection fails
+  void startRow() throws IOException;
+
+  /// Writes a text cell
+  /// @param value Cell text (null writes an empty cell)
+  /// @throws IOException if the client connection fails
+  void text(String value) throws IOException;
+
+  /// Writes a numeric cell
+  /// @param value Plain decimal literal, e.g. `1299.00`
+  /// @throws IOException if the client connection fails
+  void number(String value) throws IOException;
+
+  /// Ends the current row
+  /// @throws IOException if the client connection fails
+  void endRow() throws IOException;
+
+  /// Writes any trailer and flushes; the underlying stream is left open
+  /// @throws IOException if the client connection fails
+  void finish() throws IOException;
+}
@@ -0,0 +1,179 @@
+package com.leanring.vaadin.flow.services.catalog.control;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/// Streaming Office Open XML workbook (`.xlsx`) without a spreadsheet library.
+///
+/// Worksheets are written straight into the ZIP as rows arrive, with inline strings
+/// instead of a shared string table, so no part of the workbook is held in memory.
+/// The workbook, relationships and content types only list the sheets and are written
+/// last, once their number is known. A sheet holds at most [#MAX_ROWS] rows; larger
+/// exports continue on further sheets, each starting with the header row again.
+final class XlsxTableWriter implements TableWriter {
+
+  /// Row limit of an Excel worksheet
+  static final int MAX_ROWS = 1_048_576;
+
+  private static final String XML = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>\n";
+  private static final String MAIN_NS = "http://schemas.openxmlformats.org/spreadsheetml/2006/main";
+  private static final String REL_NS = "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+  private static final String PACKAGE_REL_NS = "http://schemas.openxmlformats.org/package/2006/relationships";
+  private static final int BUFFER_CHARS = 64 * 1024;
+
+  private final ZipOutputStream zip;
+  private final Writer writer;
+  private final List<String> header;
+  private final int maxRows;
+  private int sheets;
+  private int rows;
+
+  /// Creates a writer with Excel's sheet size
+  /// @param out Target stream
+  /// @param header Column titles repeated at the top of every sheet
+  XlsxTableWriter(OutputStream out, List<String> header) {
+    this(out, header, MAX_ROWS);
+  }
+
+  /// Creates a writer with a custom sheet size
+  /// @param out Target stream
+  /// @param header Column titles repeated at the top of every sheet
+  /// @param maxRows Rows per sheet including the header row
+  /// @throws IllegalArgumentException if maxRows is not between 2 and [#MAX_ROWS]
+  XlsxTableWriter(OutputStream out, List<String> header, int maxRows) {
+    if (maxRows < 2 || maxRows > MAX_ROWS) {
+      throw new IllegalArgumentException("Rows per sheet must be 2-" + MAX_ROWS + ": " + maxRows);
+    }
+    // Never closed, only finished: the caller owns the response stream
+    this.zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+    zip.setLevel(Deflater.BEST_SPEED);
+    this.writer = new BufferedWriter(new OutputStreamWriter(zip, StandardCharsets.UTF_8), BUFFER_CHARS);
+    this.header = List.copyOf(header);
+    this.maxRows = maxRows;
+  }
+
+  @Override
+  public void startRow() throws IOException {
+    if (sheets == 0 || rows == maxRows) {
+      nextSheet();
+    }
+    rows++;
+    writer.write("<row>");
+  }
+
+  @Override
+  public void text(String value) throws IOException {
+    if (value == null || value.isEmpty()) {
+      writer.write("<c/>");
+      return;
+    }
+    writer.write("<c t=\"inlineStr\"><is><t xml:space=\"preserve\">");
+    escape(value);
+    writer.write("</t></is></c>");
+  }
+
+  @Override
+  public void number(String value) throws IOException {
+    writer.write("<c><v>");
+    writer.write(value);
+    writer.write("</v></c>");
+  }
+
+  @Override
+  public void endRow() throws IOException {
+    writer.write("</row>");
+  }
+
+  @Override
+  public void finish() throws IOException {
+    if (sheets == 0) {
+      nextSheet();
+    }
+    endSheet();
+
+    var workbook = new StringBuilder(XML)
+      .append("<workbook xmlns=\"").append(MAIN_NS).append("\" xmlns:r=\"").append(REL_NS).append("\"><sheets>");
+    var workbookRels = new StringBuilder(XML)
+      .append("<Relationships xmlns=\"").append(PACKAGE_REL_NS).append("\">");
+    var contentTypes = new StringBuilder(XML)
+      .append("<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">")
+      .append("<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>")
+      .append("<Default Extension=\"xml\" ContentType=\"application/xml\"/>")
+      .append("<Override PartName=\"/xl/workbook.xml\" ")
+      .append("ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>");
+    for (int sheet = 1; sheet <= sheets; sheet++) {
+      workbook.append("<sheet name=\"Products").append(sheet == 1 ? "" : " " + sheet)
+        .append("\" sheetId=\"").append(sheet).append("\" r:id=\"rId").append(sheet).append("\"/>");
+      workbookRels.append("<Relationship Id=\"rId").append(sheet)
+        .append("\" Type=\"").append(REL_NS).append("/worksheet\" Target=\"worksheets/sheet")
+        .append(sheet).append(".xml\"/>");
+      contentTypes.append("<Override PartName=\"/xl/worksheets/sheet").append(sheet).append(".xml\" ")
+        .append("ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>");
+    }
+    entry("xl/workbook.xml", workbook.append("</sheets></workbook>"));
+    entry("xl/_rels/workbook.xml.rels", workbookRels.append("</Relationships>"));
+    entry("_rels/.rels", new StringBuilder(XML)
+      .append("<Relationships xmlns=\"").append(PACKAGE_REL_NS).append("\">")
+      .append("<Relationship Id=\"rId1\" Type=\"").append(REL_NS)
+      .append("/officeDocument\" Target=\"xl/workbook.xml\"/></Relationships>"));
+    entry("[Content_Types].xml", contentTypes.append("</Types>"));
+    zip.finish();
+    zip.flush();
+  }
+
+  /// Closes the current sheet and opens the next one with the header row
+  private void nextSheet() throws IOException {
+    if (sheets > 0) {
+      endSheet();
+    }
+    sheets++;
+    zip.putNextEntry(new ZipEntry("xl/worksheets/sheet" + sheets + ".xml"));
+    writer.write(XML);
+    writer.write("<worksheet xmlns=\"" + MAIN_NS + "\"><sheetData>");
+    rows = 1;
+    writer.write("<row>");
+    for (var title : header) {
+      text(title);
+    }
+    writer.write("</row>");
+  }
+
+  private void endSheet() throws IOException {
+    writer.write("</sheetData></worksheet>");
+    writer.flush();
+    zip.closeEntry();
+  }
+
+  private void entry(String name, CharSequence content) throws IOException {
+    zip.putNextEntry(new ZipEntry(name));
+    writer.append(content);
+    writer.flush();
+    zip.closeEntry();
+  }
+
+  /// Writes text as XML character data, dropping characters XML 1.0 cannot represent
+  private void escape(String value) throws IOException {
+    for (int i = 0; i < value.length(); i++) {
+      var c = value.charAt(i);
+      switch (c) {
+        case '<' -> writer.write("&lt;");
+        case '>' -> writer.write("&gt;");
+        case '&' -> writer.write("&amp;");
+        case '"' -> writer.write("&quot;");
+        default -> {
+          if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') {
+            writer.write(c);
+          }
+        }
+      }
+    }
+  }
+}
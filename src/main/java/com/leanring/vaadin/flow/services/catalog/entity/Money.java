@@ -0,0 +1,197 @@
+package com.leanring.vaadin.flow.services.catalog.entity;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.util.Currency;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/// Immutable fixed-point amount of money: a count of minor units (cents) in a currency.
+///
+/// Arithmetic is exact long arithmetic that fails on overflow instead of wrapping, so
+/// sums and products need no `BigDecimal` and allocate nothing beyond the result.
+/// The number of minor units per major unit is the currency's default fraction digits
+/// (2 for ZAR). Amounts of different currencies never mix: combining or comparing them
+/// throws [IllegalArgumentException].
+///
+/// @param minorUnits Amount in minor units, e.g. `2599999` for R 25999.99
+/// @param currency Currency with a fixed number of fraction digits
+public record Money(long minorUnits, Currency currency) implements Comparable<Money>, Serializable {
+
+  /// Currency of the catalog
+  public static final Currency ZAR = Currency.getInstance("ZAR");
+
+  private static final Locale FORMAT_LOCALE = Locale.of("en", "ZA");
+  private static final long[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000};
+  private static final ConcurrentMap<Currency, String> PREFIXES = new ConcurrentHashMap<>();
+
+  /// Validates the currency
+  /// @throws NullPointerException if currency is null
+  /// @throws IllegalArgumentException if the currency has no or too many fraction digits
+  public Money {
+    Objects.requireNonNull(currency, "Currency is required");
+    var digits = currency.getDefaultFractionDigits();
+    if (digits < 0 || digits >= POWERS_OF_TEN.length) {
+      throw new IllegalArgumentException("Unsupported currency: " + currency);
+    }
+  }
+
+  /// Creates an amount in rand from minor units
+  /// @param cents Amount in cents
+  /// @return Amount in ZAR
+  public static Money zar(long cents) {
+    return new Money(cents, ZAR);
+  }
+
+  /// Parses a rand amount
+  /// @param amount Decimal amount, e.g. `25999.99`
+  /// @return Amount in ZAR
+  /// @throws IllegalArgumentException if the amount is malformed or has more than 2 decimals
+  public static Money zar(String amount) {
+    return parse(amount, ZAR);
+  }
+
+  /// Parses a decimal amount without rounding
+  /// @param amount Decimal amount with an optional sign, e.g. `-12.5`
+  /// @param currency Currency of the amount
+  /// @return Exact amount
+  /// @throws IllegalArgumentException if the amount is malformed, too large, or has more
+  ///   decimals than the currency
+  public static Money parse(String amount, Currency currency) {
+    var digits = currency.getDefaultFractionDigits();
+    var text = amount.strip();
+    var start = text.startsWith("-") || text.startsWith("+") ? 1 : 0;
+    var point = text.indexOf('.');
+    var end = point < 0 ? text.length() : point;
+    var decimals = point < 0 ? 0 : text.length() - point - 1;
+    if (end == start && decimals == 0 || decimals > digits) {
+      throw new IllegalArgumentException("Invalid amount for " + currency + ": " + amount);
+    }
+    try {
+      var minor = 0L;
+      for (int i = start; i < text.length(); i++) {
+        if (i == point) {
+          continue;
+        }
+        var digit = text.charAt(i) - '0';
+        if (digit < 0 || digit > 9) {
+          throw new IllegalArgumentException("Invalid amount for " + currency + ": " + amount);
+        }
+        minor = Math.addExact(Math.multiplyExact(minor, 10), digit);
+      }
+      minor = Math.multiplyExact(minor, POWERS_OF_TEN[digits - decimals]);
+      return new Money(text.startsWith("-") ? -minor : minor, currency);
+    } catch (ArithmeticException e) {
+      throw new IllegalArgumentException("Amount too large: " + amount, e);
+    }
+  }
+
+  /// Converts a decimal without rounding, e.g. from a form field
+  /// @param amount Decimal amount
+  /// @param currency Currency of the amount
+  /// @return Exact amount
+  /// @throws IllegalArgumentException if the amount has more decimals than the currency or is too large
+  public static Money of(BigDecimal amount, Currency currency) {
+    try {
+      return new Money(amount.movePointRight(currency.getDefaultFractionDigits()).longValueExact(), currency);
+    } catch (ArithmeticException e) {
+      throw new IllegalArgumentException("Not a valid %s amount: %s".formatted(currency, amount), e);
+    }
+  }
+
+  /// @param other Amount in the same currency
+  /// @return Sum
+  /// @throws IllegalArgumentException if the currencies differ
+  /// @throws ArithmeticException on overflow
+  public Money plus(Money other) {
+    return new Money(Math.addExact(minorUnits, sameCurrency(other).minorUnits), currency);
+  }
+
+  /// @param other Amount in the same currency
+  /// @return Difference
+  /// @throws IllegalArgumentException if the currencies differ
+  /// @throws ArithmeticException on overflow
+  public Money minus(Money other) {
+    return new Money(Math.subtractExact(minorUnits, sameCurrency(other).minorUnits), currency);
+  }
+
+  /// @param factor Whole multiplier, e.g. a quantity
+  /// @return Product
+  /// @throws ArithmeticException on overflow
+  public Money times(long factor) {
+    return new Money(Math.multiplyExact(minorUnits, factor), currency);
+  }
+
+  /// Changes the amount by a percentage given in basis points, rounding half up
+  /// @param basisPoints Change in hundredths of a percent (1000 for +10%, -1500 for -15%)
+  /// @return Adjusted amount
+  /// @throws ArithmeticException on overflow
+  public Money adjustedBy(long basisPoints) {
+    var scaled = Math.multiplyExact(minorUnits, Math.addExact(10_000L, basisPoints));
+    var rounded = scaled >= 0 ? (scaled + 5_000) / 10_000 : -((-scaled + 5_000) / 10_000);
+    return new Money(rounded, currency);
+  }
+
+  /// @return true if the amount is greater than zero
+  public boolean isPositive() {
+    return minorUnits > 0;
+  }
+
+  /// @return Amount as an exact decimal, e.g. for JSON or spreadsheets
+  public BigDecimal toBigDecimal() {
+    return BigDecimal.valueOf(minorUnits, currency.getDefaultFractionDigits());
+  }
+
+  /// Formats the amount with its currency symbol, e.g. `R 25999.99`
+  /// @return Display string
+  public String format() {
+    var prefix = PREFIXES.computeIfAbsent(currency, c -> c.getSymbol(FORMAT_LOCALE) + " ");
+    return appendPlain(new StringBuilder(prefix.length() + 24).append(prefix)).toString();
+  }
+
+  /// Formats the amount as a plain decimal, e.g. `25999.99` or `-0.50`
+  /// @return Decimal string with the currency's fraction digits
+  public String toPlainString() {
+    return appendPlain(new StringBuilder(24)).toString();
+  }
+
+  /// @return Plain decimal string, as [#toPlainString]
+  @Override
+  public String toString() {
+    return toPlainString();
+  }
+
+  @Override
+  public int compareTo(Money other) {
+    return Long.compare(minorUnits, sameCurrency(other).minorUnits);
+  }
+
+  private StringBuilder appendPlain(StringBuilder text) {
+    var digits = currency.getDefaultFractionDigits();
+    if (minorUnits < 0) {
+      text.append('-');
+    }
+    // Long.MIN_VALUE has no positive counterpart; the unsigned helpers handle its magnitude
+    var magnitude = minorUnits < 0 ? -minorUnits : minorUnits;
+    var scale = POWERS_OF_TEN[digits];
+    text.append(Long.toUnsignedString(Long.divideUnsigned(magnitude, scale)));
+    if (digits > 0) {
+      var fraction = Long.remainderUnsigned(magnitude, scale);
+      text.append('.');
+      for (var pad = scale / 10; pad > fraction && pad > 1; pad /= 10) {
+        text.append('0');
+      }
+      text.append(fraction);
+    }
+    return text;
+  }
+
+  private Money sameCurrency(Money other) {
+    if (!currency.equals(other.currency)) {
+      throw new IllegalArgumentException("Currency mismatch: %s and %s".formatted(currency, other.currency));
+    }
+    return other;
+  }
+}
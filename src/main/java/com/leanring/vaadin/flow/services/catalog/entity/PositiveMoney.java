@@ -0,0 +1,34 @@
+package com.leanring.vaadin.flow.services.catalog.entity;
+
+import jakarta.validation.Constraint;
+import jakarta.validation.ConstraintValidator;
+import jakarta.validation.ConstraintValidatorContext;
+import jakarta.validation.Payload;
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/// The annotated [Money] must be greater than zero; null is valid (combine with `@NotNull`).
+/// Plays the role of `@DecimalMin("0.01")`, which Bean Validation only applies to numbers.
+@Documented
+@Constraint(validatedBy = PositiveMoney.Validator.class)
+@Target({ElementType.FIELD, ElementType.METHOD, ElementType.PARAMETER, ElementType.ANNOTATION_TYPE})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface PositiveMoney {
+
+  String message() default "Amount must be positive";
+
+  Class<?>[] groups() default {};
+
+  Class<? extends Payload>[] payload() default {};
+
+  /// Checks [Money#isPositive]
+  class Validator implements ConstraintValidator<PositiveMoney, Money> {
+    @Override
+    public boolean isValid(Money value, ConstraintValidatorContext context) {
+      return value == null || value.isPositive();
+    }
+  }
+}
@@ -1,7 +1,7 @@
 package com.leanring.vaadin.flow.services.catalog.entity;
 
 import jakarta.validation.constraints.*;
-import java.math.BigDecimal;
+import java.io.Serializable;
 import java.time.LocalDate;
 import java.util.concurrent.atomic.AtomicLong;
 
@@ -11,10 +11,11 @@ import java.util.concurrent.atomic.AtomicLong;
 /// @param id Unique product identifier
 /// @param name Product name (required, 3-100 chars)
 /// @param category Product category (required)
-/// @param price Product price (required, positive)
+/// @param price Product price (required, positive), in [Money#ZAR]
 /// @param stock Current stock quantity (non-negative)
 /// @param launchDate Product launch date
 /// @param description Product description
+/// @param version Optimistic concurrency stamp, incremented by the service on every write
 public record Product(
   Long id,
 
@@ -26,8 +27,8 @@ public record Product(
   Category category,
 
   @NotNull(message = "Price is required")
-  @DecimalMin(value = "0.01", message = "Price must be positive")
-  BigDecimal price,
+  @PositiveMoney(message = "Price must be positive")
+  Money price,
 
   @Min(value = 0, message = "Stock cannot be negative")
   int stock,
@@ -35,10 +36,25 @@ public record Product(
   LocalDate launchDate,
 
   @Size(max = 500, message = "Description max 500 characters")
-  String description
-) {
+  String description,
+
+  long version
+) implements Serializable {
   private static final AtomicLong ID_GENERATOR = new AtomicLong(1);
 
+  /// Creates an unversioned product (version 0), e.g. for new products
+  /// @param id Product ID (null for new products)
+  /// @param name Product name
+  /// @param category Product category
+  /// @param price Product price
+  /// @param stock Stock quantity
+  /// @param launchDate Launch date
+  /// @param description Product description
+  public Product(Long id, String name, Category category, Money price,
+                 int stock, LocalDate launchDate, String description) {
+    this(id, name, category, price, stock, launchDate, description, 0L);
+  }
+
   /// Creates a new product with auto-generated ID
   /// @param name Product name
   /// @param category Product category
@@ -47,10 +63,43 @@ public record Product(
   /// @param launchDate Launch date
   /// @param description Product description
   /// @return New Product with generated ID
-  public static Product create(String name, Category category, BigDecimal price,
+  public static Product create(String name, Category category, Money price,
                                 int stock, LocalDate launchDate, String description) {
     return new Product(ID_GENERATOR.getAndIncrement(), name, category,
-                       price, stock, launchDate, description);
+                       price, stock, launchDate, description, 0L);
+  }
+
+  /// Makes generated IDs continue after an ID restored from storage
+  /// @param id Highest ID in use
+  public static void continueIdsAfter(long id) {
+    ID_GENERATOR.accumulateAndGet(id + 1, Math::max);
+  }
+
+  /// Returns a copy with a different category
+  /// @param newCategory Category to assign
+  /// @return Product with the new category
+  public Product withCategory(Category newCategory) {
+    return new Product(id, name, newCategory, price, stock, launchDate, description, version);
+  }
+
+  /// Returns a copy with a different price
+  /// @param newPrice Price to assign
+  /// @return Product with the new price
+  public Product withPrice(Money newPrice) {
+    return new Product(id, name, category, newPrice, stock, launchDate, description, version);
+  }
+
+  /// Returns a copy with a different stock quantity
+  /// @param newStock Stock quantity to assign
+  /// @return Product with the new stock
+  public Product withStock(int newStock) {
+    return new Product(id, name, category, price, newStock, launchDate, description, version);
+  }
+
+  /// Returns a copy carrying the next version stamp
+  /// @return Product with version incremented by one
+  public Product nextVersion() {
+    return new Product(id, name, category, price, stock, launchDate, description, version + 1);
   }
 
   /// Checks if product is in stock
@@ -70,8 +119,8 @@ public record Product(
   }
 
   /// Gets formatted price with currency
-  /// @return Price string with ZAR currency
+  /// @return Price string with currency symbol, e.g. `R 25999.99`
   public String getFormattedPrice() {
-    return "R " + price.toString();
+    return price.format();
   }
 }
\ No newline at end of file
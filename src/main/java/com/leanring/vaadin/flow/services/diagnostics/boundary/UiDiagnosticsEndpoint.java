@@ -0,0 +1,39 @@
+package com.leanring.vaadin.flow.services.diagnostics.boundary;
+
+import com.leanring.vaadin.flow.services.diagnostics.control.UiRegistry;
+import com.leanring.vaadin.flow.services.diagnostics.entity.RouteDiagnostics;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.stereotype.Component;
+import java.util.List;
+
+/// Actuator endpoint `/actuator/vaadinui`: memory and UIDL traffic per route.
+///
+/// Every read measures a sample of the open UIs, so call it on demand rather than from
+/// a scraper; the per-round-trip meters are available under `/actuator/metrics`.
+@Component
+@Endpoint(id = "vaadinui")
+public class UiDiagnosticsEndpoint {
+
+  private final UiRegistry registry;
+
+  /// Constructor with dependency injection
+  /// @param registry UI registry providing the measurements
+  public UiDiagnosticsEndpoint(UiRegistry registry) {
+    this.registry = registry;
+  }
+
+  /// @return Diagnostics of all routes, most estimated heap first
+  @ReadOperation
+  public List<RouteDiagnostics> routes() {
+    return registry.snapshot();
+  }
+
+  /// @param route View class name, e.g. `ProductView`
+  /// @return Diagnostics of one route, or null (404) if it has not been seen
+  @ReadOperation
+  public RouteDiagnostics route(@Selector String route) {
+    return registry.snapshot(route).orElse(null);
+  }
+}
@@ -0,0 +1,144 @@
+package com.leanring.vaadin.flow.services.diagnostics.boundary;
+
+import com.leanring.vaadin.flow.services.diagnostics.control.UiRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.Writer;
+
+/// Measures every UIDL round-trip (`?v-r=uidl`) and reports it to [UiRegistry].
+///
+/// The request size is the declared content length; the response size counts the bytes
+/// the Vaadin servlet writes, before any HTTP compression. Handling time covers the
+/// whole filter chain. Messages pushed over the websocket do not pass through servlet
+/// filters and are not counted.
+@Component
+public class UidlTrafficFilter extends OncePerRequestFilter {
+
+  private final UiRegistry registry;
+
+  /// Constructor with dependency injection
+  /// @param registry UI registry receiving the measurements
+  public UidlTrafficFilter(UiRegistry registry) {
+    this.registry = registry;
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !"uidl".equals(request.getParameter("v-r"));
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+    throws ServletException, IOException {
+    var counting = new CountingResponse(response);
+    var start = System.nanoTime();
+    try {
+      chain.doFilter(request, counting);
+    } finally {
+      var session = request.getSession(false);
+      registry.recordRoundTrip(
+        session == null ? null : session.getId(),
+        request.getParameter("v-uiId"),
+        request.getContentLengthLong(),
+        counting.bytes,
+        System.nanoTime() - start);
+    }
+  }
+
+  /// Response counting the body bytes written through either the stream or the writer
+  private static final class CountingResponse extends HttpServletResponseWrapper {
+
+    private long bytes;
+    private ServletOutputStream stream;
+    private PrintWriter writer;
+
+    private CountingResponse(HttpServletResponse response) {
+      super(response);
+    }
+
+    @Override
+    public ServletOutputStream getOutputStream() throws IOException {
+      if (stream == null) {
+        var delegate = super.getOutputStream();
+        stream = new ServletOutputStream() {
+          @Override
+          public void write(int b) throws IOException {
+            delegate.write(b);
+            bytes++;
+          }
+
+          @Override
+          public void write(byte[] b, int off, int len) throws IOException {
+            delegate.write(b, off, len);
+            bytes += len;
+          }
+
+          @Override
+          public void flush() throws IOException {
+            delegate.flush();
+          }
+
+          @Override
+          public void close() throws IOException {
+            delegate.close();
+          }
+
+          @Override
+          public boolean isReady() {
+            return delegate.isReady();
+          }
+
+          @Override
+          public void setWriteListener(WriteListener listener) {
+            delegate.setWriteListener(listener);
+          }
+        };
+      }
+      return stream;
+    }
+
+    @Override
+    public PrintWriter getWriter() throws IOException {
+      if (writer == null) {
+        var delegate = super.getWriter();
+        writer = new PrintWriter(new Writer() {
+          @Override
+          public void write(char[] chars, int off, int len) {
+            delegate.write(chars, off, len);
+            for (int i = off; i < off + len; i++) {
+              bytes += utf8Length(chars[i]);
+            }
+          }
+
+          @Override
+          public void flush() {
+            delegate.flush();
+          }
+
+          @Override
+          public void close() {
+            delegate.close();
+          }
+        });
+      }
+      return writer;
+    }
+
+    /// UTF-8 bytes of one UTF-16 unit (a surrogate pair counts 2 + 2)
+    private static int utf8Length(char c) {
+      if (c < 0x80) {
+        return 1;
+      }
+      return c < 0x800 || Character.isSurrogate(c) ? 2 : 3;
+    }
+  }
+}
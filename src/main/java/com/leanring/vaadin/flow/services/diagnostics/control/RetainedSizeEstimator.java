@@ -0,0 +1,188 @@
+package com.leanring.vaadin.flow.services.diagnostics.control;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.InaccessibleObjectException;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/// Estimates the heap retained by an object graph, such as one UI with its components.
+///
+/// Walks references breadth-first and adds shallow sizes from a 64-bit JVM layout with
+/// compressed references (12-byte header, 4-byte references, 8-byte alignment). It is
+/// an estimate, not a heap dump:
+///
+/// - Objects shared with other UIs (session, service, Spring beans, classes) are excluded
+///   through the `shared` predicate and counted as nobody's
+/// - JDK types are not opened reflectively; strings, arrays, collections and maps are
+///   sized and traversed through their public API, other JDK objects count shallow only
+/// - The walk stops after `maxObjects`, so the result is a lower bound for huge graphs
+public final class RetainedSizeEstimator {
+
+  private static final int HEADER = 12;
+  private static final int ARRAY_HEADER = 16;
+  private static final int REFERENCE = 4;
+  private static final int ALIGNMENT = 8;
+
+  private static final ClassValue<Layout> LAYOUTS = new ClassValue<>() {
+    @Override
+    protected Layout computeValue(Class<?> type) {
+      return Layout.of(type);
+    }
+  };
+
+  private final Predicate<Object> shared;
+  private final int maxObjects;
+
+  /// Creates an estimator
+  /// @param shared Returns true for objects that must neither be counted nor traversed
+  /// @param maxObjects Maximum number of objects visited per estimate
+  public RetainedSizeEstimator(Predicate<Object> shared, int maxObjects) {
+    if (maxObjects <= 0) {
+      throw new IllegalArgumentException("maxObjects must be positive: " + maxObjects);
+    }
+    this.shared = shared;
+    this.maxObjects = maxObjects;
+  }
+
+  /// Estimates the bytes reachable from a root that are not shared
+  /// @param root Root object (counted even if the predicate would exclude it)
+  /// @return Estimated retained bytes
+  public long estimate(Object root) {
+    if (root == null) {
+      return 0;
+    }
+    Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+    var pending = new ArrayDeque<>();
+    visited.add(root);
+    pending.add(root);
+    long bytes = 0;
+    while (!pending.isEmpty() && visited.size() <= maxObjects) {
+      var object = pending.poll();
+      bytes += shallowSize(object);
+      for (var child : references(object)) {
+        if (child != null && !shared.test(child) && visited.add(child)) {
+          pending.add(child);
+        }
+      }
+    }
+    return bytes;
+  }
+
+  /// Shallow size of one object
+  static long shallowSize(Object object) {
+    var type = object.getClass();
+    if (type.isArray()) {
+      var component = type.getComponentType();
+      var element = component.isPrimitive() ? primitiveSize(component) : REFERENCE;
+      return align(ARRAY_HEADER + (long) Array.getLength(object) * element);
+    }
+    if (object instanceof String string) {
+      // String object plus its byte[] (Latin-1 unless it needs UTF-16)
+      var coder = string.chars().allMatch(c -> c < 256) ? 1 : 2;
+      return LAYOUTS.get(type).size() + align(ARRAY_HEADER + (long) string.length() * coder);
+    }
+    return LAYOUTS.get(type).size();
+  }
+
+  /// Outgoing references of one object
+  private static Iterable<?> references(Object object) {
+    return switch (object) {
+      case String ignored -> List.of();
+      case Object[] array -> Arrays.asList(array);
+      case Collection<?> collection when isJdk(collection.getClass()) -> snapshot(collection);
+      case Map<?, ?> map when isJdk(map.getClass()) -> {
+        var entries = new ArrayList<>();
+        for (var entry : snapshot(map.entrySet())) {
+          var mapEntry = (Map.Entry<?, ?>) entry;
+          entries.add(mapEntry.getKey());
+          entries.add(mapEntry.getValue());
+        }
+        yield entries;
+      }
+      default -> LAYOUTS.get(object.getClass()).references(object);
+    };
+  }
+
+  /// Copies a JDK collection, tolerating concurrent modification by the owning session
+  private static List<?> snapshot(Collection<?> collection) {
+    try {
+      return new ArrayList<>(collection);
+    } catch (RuntimeException e) {
+      return List.of();
+    }
+  }
+
+  private static boolean isJdk(Class<?> type) {
+    var module = type.getModule();
+    return module.isNamed() && module.getName().startsWith("java.");
+  }
+
+  private static int primitiveSize(Class<?> type) {
+    if (type == long.class || type == double.class) {
+      return 8;
+    }
+    if (type == int.class || type == float.class) {
+      return 4;
+    }
+    if (type == short.class || type == char.class) {
+      return 2;
+    }
+    return 1;
+  }
+
+  private static long align(long size) {
+    return (size + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+  }
+
+  /// Shallow size and readable reference fields of a class, computed once
+  private record Layout(long size, List<Field> referenceFields) {
+
+    static Layout of(Class<?> type) {
+      long size = HEADER;
+      var fields = new ArrayList<Field>();
+      for (var current = type; current != null; current = current.getSuperclass()) {
+        for (var field : current.getDeclaredFields()) {
+          if (Modifier.isStatic(field.getModifiers())) {
+            continue;
+          }
+          var fieldType = field.getType();
+          size += fieldType.isPrimitive() ? primitiveSize(fieldType) : REFERENCE;
+          if (!fieldType.isPrimitive() && !isJdk(current) && trySetAccessible(field)) {
+            fields.add(field);
+          }
+        }
+      }
+      return new Layout(align(size), List.copyOf(fields));
+    }
+
+    List<Object> references(Object object) {
+      var values = new ArrayList<>(referenceFields.size());
+      for (var field : referenceFields) {
+        try {
+          values.add(field.get(object));
+        } catch (IllegalAccessException e) {
+          // Skipped: counted as shallow only
+        }
+      }
+      return values;
+    }
+
+    private static boolean trySetAccessible(Field field) {
+      try {
+        return field.trySetAccessible();
+      } catch (InaccessibleObjectException | SecurityException e) {
+        return false;
+      }
+    }
+  }
+}
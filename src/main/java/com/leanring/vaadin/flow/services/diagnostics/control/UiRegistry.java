@@ -0,0 +1,299 @@
+package com.leanring.vaadin.flow.services.diagnostics.control;
+
+import com.leanring.vaadin.flow.services.diagnostics.entity.RouteDiagnostics;
+import com.vaadin.flow.component.Component;
+import com.vaadin.flow.component.UI;
+import com.vaadin.flow.di.Instantiator;
+import com.vaadin.flow.function.DeploymentConfiguration;
+import com.vaadin.flow.router.Router;
+import com.vaadin.flow.server.RouteRegistry;
+import com.vaadin.flow.server.ServiceInitEvent;
+import com.vaadin.flow.server.VaadinContext;
+import com.vaadin.flow.server.VaadinService;
+import com.vaadin.flow.server.VaadinServiceInitListener;
+import com.vaadin.flow.server.VaadinSession;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Service;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/// Tracks every open UI by route and measures what it costs.
+///
+/// - Each UI is registered on init, moved to the route of the view it navigates to, and
+///   dropped on detach; entries only hold weak references, so diagnostics never keep a UI alive
+/// - UIDL round-trips reported by the traffic filter are recorded per route as Micrometer
+///   meters: `vaadin.uidl.request.size`, `vaadin.uidl.response.size` (bytes) and
+///   `vaadin.uidl.duration`; `vaadin.ui.live` gauges the open UIs of each route
+/// - [#snapshot] measures up to [#SAMPLES_PER_ROUTE] UIs per route: attached components,
+///   state nodes and estimated retained heap. Each UI is measured under its session lock,
+///   and skipped if the session is busy, so measuring never blocks a user for long.
+///   The latest figures are also gauged as `vaadin.ui.components` and `vaadin.ui.retained`
+@Slf4j
+@Service
+public class UiRegistry implements VaadinServiceInitListener {
+
+  /// Maximum number of UIs measured per route and snapshot
+  static final int SAMPLES_PER_ROUTE = 20;
+  /// Route of UIs that have not finished navigating
+  static final String NO_ROUTE = "(none)";
+  /// Route of round-trips that cannot be matched to a tracked UI
+  static final String UNKNOWN_ROUTE = "(unknown)";
+  private static final long LOCK_TIMEOUT_MILLIS = 50;
+  private static final int MAX_OBJECTS_PER_UI = 200_000;
+
+  private static final ClassValue<Boolean> SHARED_TYPES = new ClassValue<>() {
+    @Override
+    protected Boolean computeValue(Class<?> type) {
+      return Class.class == type || ClassLoader.class.isAssignableFrom(type) || Thread.class.isAssignableFrom(type)
+        || type.isEnum() || Proxy.isProxyClass(type) || type.getName().contains("$$SpringCGLIB$$")
+        || type.getName().startsWith("org.springframework.") || type.getName().startsWith("org.hibernate.")
+        || type.getName().startsWith("org.slf4j.") || type.getName().startsWith("ch.qos.logback.")
+        || UI.class.isAssignableFrom(type)
+        || VaadinSession.class.isAssignableFrom(type) || VaadinService.class.isAssignableFrom(type)
+        || VaadinContext.class.isAssignableFrom(type) || DeploymentConfiguration.class.isAssignableFrom(type)
+        || Router.class.isAssignableFrom(type) || RouteRegistry.class.isAssignableFrom(type)
+        || Instantiator.class.isAssignableFrom(type) || BeanFactory.class.isAssignableFrom(type)
+        || AnnotatedElementUtils.hasAnnotation(type, org.springframework.stereotype.Component.class);
+    }
+  };
+
+  private final MeterRegistry meters;
+  private final RetainedSizeEstimator estimator =
+    new RetainedSizeEstimator(object -> SHARED_TYPES.get(object.getClass()), MAX_OBJECTS_PER_UI);
+  private final Map<String, TrackedUi> uis = new ConcurrentHashMap<>();
+  private final Map<String, RouteMeters> routes = new ConcurrentHashMap<>();
+
+  /// Constructor with dependency injection
+  /// @param meters Registry receiving the per-route meters
+  public UiRegistry(MeterRegistry meters) {
+    this.meters = meters;
+  }
+
+  @Override
+  public void serviceInit(ServiceInitEvent event) {
+    event.getSource().addUIInitListener(init -> track(init.getUI()));
+  }
+
+  /// Starts tracking a UI
+  /// @param ui New UI (called with its session locked)
+  void track(UI ui) {
+    var key = key(ui.getSession().getSession().getId(), ui.getUIId());
+    navigated(key, ui, NO_ROUTE);
+    // Listeners capture only the key and this singleton, so the UI stays serializable
+    ui.addAfterNavigationListener(navigation -> {
+      var chain = navigation.getActiveChain();
+      var route = chain.isEmpty() ? NO_ROUTE : chain.getFirst().getClass().getSimpleName();
+      navigated(key, navigation.getLocationChangeEvent().getUI(), route);
+    });
+    ui.addDetachListener(detach -> uis.remove(key));
+  }
+
+  /// Moves a UI to a route; UIs restored from a passivated session are tracked again here
+  private void navigated(String key, UI ui, String route) {
+    routeMeters(route);
+    var tracked = uis.get(key);
+    if (tracked == null || tracked.ui.get() != ui) {
+      tracked = new TrackedUi(new WeakReference<>(ui), route);
+      uis.put(key, tracked);
+    }
+    tracked.route = route;
+  }
+
+  /// Records one UIDL round-trip
+  /// @param sessionId HTTP session ID of the request
+  /// @param uiId Value of the `v-uiId` request parameter
+  /// @param requestBytes Request body size, negative if unknown
+  /// @param responseBytes Response body size
+  /// @param nanos Server handling time
+  public void recordRoundTrip(String sessionId, String uiId, long requestBytes, long responseBytes, long nanos) {
+    var tracked = sessionId == null || uiId == null ? null : uis.get(key(sessionId, uiId));
+    var route = routeMeters(tracked == null ? UNKNOWN_ROUTE : tracked.route);
+    if (requestBytes >= 0) {
+      route.requestSize.record(requestBytes);
+    }
+    route.responseSize.record(responseBytes);
+    route.duration.record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  /// Measures the open UIs and reports them per route, most retained heap first
+  /// @return Diagnostics for every route that has seen a UI or a round-trip
+  public List<RouteDiagnostics> snapshot() {
+    uis.values().removeIf(tracked -> tracked.ui.get() == null);
+    var result = new ArrayList<RouteDiagnostics>();
+    routes.forEach((route, meter) -> result.add(diagnose(route, meter)));
+    result.sort(Comparator.comparingLong(RouteDiagnostics::estimatedTotalBytes).reversed()
+      .thenComparing(RouteDiagnostics::route));
+    return result;
+  }
+
+  /// Measures the open UIs of one route
+  /// @param route View class name
+  /// @return Diagnostics, empty if the route has not been seen
+  public Optional<RouteDiagnostics> snapshot(String route) {
+    return Optional.ofNullable(routes.get(route)).map(meter -> diagnose(route, meter));
+  }
+
+  /// Measures a sample of a route's UIs and combines it with the route's meters
+  private RouteDiagnostics diagnose(String route, RouteMeters meter) {
+    var sampled = 0;
+    long components = 0;
+    long stateNodes = 0;
+    long retained = 0;
+    var maxComponents = 0;
+    long maxRetained = 0;
+    for (var tracked : uis.values()) {
+      var ui = tracked.ui.get();
+      if (sampled == SAMPLES_PER_ROUTE) {
+        break;
+      }
+      if (ui == null || !route.equals(tracked.route)) {
+        continue;
+      }
+      var measurement = measure(ui);
+      if (measurement != null) {
+        sampled++;
+        components += measurement.components();
+        stateNodes += measurement.stateNodes();
+        retained += measurement.retainedBytes();
+        maxComponents = Math.max(maxComponents, measurement.components());
+        maxRetained = Math.max(maxRetained, measurement.retainedBytes());
+      }
+    }
+    if (sampled > 0) {
+      meter.components.set((int) (components / sampled));
+      meter.retainedBytes = retained / sampled;
+    }
+    var live = liveCount(route);
+    var avgRetained = sampled == 0 ? 0 : retained / sampled;
+    return new RouteDiagnostics(
+      route,
+      live,
+      sampled,
+      sampled == 0 ? 0 : (double) components / sampled,
+      maxComponents,
+      sampled == 0 ? 0 : (double) stateNodes / sampled,
+      avgRetained,
+      maxRetained,
+      avgRetained * live,
+      meter.duration.count(),
+      meter.requestSize.mean(),
+      meter.responseSize.mean(),
+      meter.responseSize.max(),
+      meter.duration.mean(TimeUnit.MILLISECONDS),
+      meter.duration.max(TimeUnit.MILLISECONDS));
+  }
+
+  /// @param route Route name
+  /// @return Number of open UIs currently on the route
+  int liveCount(String route) {
+    var count = 0;
+    for (var tracked : uis.values()) {
+      if (route.equals(tracked.route) && tracked.ui.get() != null) {
+        count++;
+      }
+    }
+    return count;
+  }
+
+  /// Measures one UI with its session locked; null if the session stays busy or is closed
+  private Measurement measure(UI ui) {
+    var session = ui.getSession();
+    if (session == null) {
+      return null;
+    }
+    var lock = session.getLockInstance();
+    try {
+      if (!lock.tryLock(LOCK_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+        return null;
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return null;
+    }
+    try {
+      if (!ui.isAttached()) {
+        return null;
+      }
+      var stateNodes = new AtomicInteger();
+      ui.getInternals().getStateTree().getRootNode().visitNodeTree(node -> stateNodes.incrementAndGet());
+      return new Measurement(countComponents(ui), stateNodes.get(), estimator.estimate(ui));
+    } catch (RuntimeException e) {
+      log.debug("Cannot measure UI {}", ui.getUIId(), e);
+      return null;
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private static int countComponents(Component component) {
+    return 1 + component.getChildren().mapToInt(UiRegistry::countComponents).sum();
+  }
+
+  private RouteMeters routeMeters(String route) {
+    return routes.computeIfAbsent(route, this::registerMeters);
+  }
+
+  private RouteMeters registerMeters(String route) {
+    var routeMeters = new RouteMeters(
+      DistributionSummary.builder("vaadin.uidl.request.size")
+        .description("UIDL request body size").baseUnit("bytes").tag("route", route).register(meters),
+      DistributionSummary.builder("vaadin.uidl.response.size")
+        .description("UIDL response body size").baseUnit("bytes").tag("route", route).register(meters),
+      Timer.builder("vaadin.uidl.duration")
+        .description("UIDL request handling time").tag("route", route)
+        .publishPercentiles(0.5, 0.95, 0.99).register(meters));
+    Gauge.builder("vaadin.ui.live", this, registry -> registry.liveCount(route))
+      .description("Open UIs").tag("route", route).register(meters);
+    Gauge.builder("vaadin.ui.components", routeMeters.components, AtomicInteger::get)
+      .description("Attached components per UI at the last snapshot").tag("route", route).register(meters);
+    Gauge.builder("vaadin.ui.retained", routeMeters, m -> m.retainedBytes)
+      .description("Estimated retained heap per UI at the last snapshot").baseUnit("bytes").tag("route", route)
+      .register(meters);
+    return routeMeters;
+  }
+
+  private static String key(String sessionId, Object uiId) {
+    return sessionId + ":" + uiId;
+  }
+
+  private static final class TrackedUi {
+    private final WeakReference<UI> ui;
+    private volatile String route;
+
+    private TrackedUi(WeakReference<UI> ui, String route) {
+      this.ui = ui;
+      this.route = route;
+    }
+  }
+
+  private static final class RouteMeters {
+    private final DistributionSummary requestSize;
+    private final DistributionSummary responseSize;
+    private final Timer duration;
+    private final AtomicInteger components = new AtomicInteger();
+    private volatile long retainedBytes;
+
+    private RouteMeters(DistributionSummary requestSize, DistributionSummary responseSize, Timer duration) {
+      this.requestSize = requestSize;
+      this.responseSize = responseSize;
+      this.duration = duration;
+    }
+  }
+
+  private record Measurement(int components, int stateNodes, long retainedBytes) {
+  }
+}
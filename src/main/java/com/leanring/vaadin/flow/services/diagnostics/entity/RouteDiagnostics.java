@@ -0,0 +1,37 @@
+package com.leanring.vaadin.flow.services.diagnostics.entity;
+
+/// Memory and traffic figures for all open UIs showing one route.
+///
+/// @param route Route (view class) the UIs currently show
+/// @param liveUis Number of attached UIs on the route
+/// @param sampledUis Number of UIs measured for the component and heap figures
+/// @param avgComponents Average attached components per sampled UI
+/// @param maxComponents Largest attached component count among sampled UIs
+/// @param avgStateNodes Average state tree nodes per sampled UI
+/// @param avgRetainedBytes Average estimated retained heap per sampled UI
+/// @param maxRetainedBytes Largest estimated retained heap among sampled UIs
+/// @param estimatedTotalBytes Average retained heap times live UIs
+/// @param roundTrips UIDL requests handled for the route since startup
+/// @param avgRequestBytes Mean UIDL request body size
+/// @param avgResponseBytes Mean UIDL response body size
+/// @param maxResponseBytes Largest recent UIDL response body
+/// @param avgHandlingMillis Mean server handling time per round-trip
+/// @param maxHandlingMillis Longest recent handling time
+public record RouteDiagnostics(
+  String route,
+  int liveUis,
+  int sampledUis,
+  double avgComponents,
+  int maxComponents,
+  double avgStateNodes,
+  long avgRetainedBytes,
+  long maxRetainedBytes,
+  long estimatedTotalBytes,
+  long roundTrips,
+  double avgRequestBytes,
+  double avgResponseBytes,
+  double maxResponseBytes,
+  double avgHandlingMillis,
+  double maxHandlingMillis
+) {
+}
@@ -0,0 +1,80 @@
+package com.leanring.vaadin.flow.services.directory.control;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/// Thread-safe Bloom filter over strings.
+///
+/// Answers "definitely absent" or "possibly present" with a handful of bit reads and
+/// no allocation. Bits are only ever set, so concurrent adds need no lock: each word is
+/// updated with an atomic OR. The `k` probe positions come from one 64-bit hash split
+/// into two halves (Kirsch-Mitzenmacher double hashing).
+final class BloomFilter {
+
+  private final AtomicLongArray words;
+  private final long bitCount;
+  private final int hashCount;
+
+  /// Sizes the filter for an expected number of keys and false-positive rate
+  /// @param expectedKeys Number of keys the filter should hold at the target rate
+  /// @param falsePositiveRate Target rate, e.g. 0.01
+  BloomFilter(long expectedKeys, double falsePositiveRate) {
+    if (expectedKeys <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+      throw new IllegalArgumentException("Invalid Bloom filter sizing");
+    }
+    var bits = (long) Math.ceil(-expectedKeys * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+    this.words = new AtomicLongArray(Math.toIntExact((bits + 63) / 64));
+    this.bitCount = words.length() * 64L;
+    this.hashCount = Math.max(1, (int) Math.round((double) bitCount / expectedKeys * Math.log(2)));
+  }
+
+  /// Adds a key
+  /// @param key Key (already normalised by the caller)
+  void add(String key) {
+    var hash = hash64(key);
+    var h1 = (int) hash;
+    var h2 = (int) (hash >>> 32);
+    for (int i = 0; i < hashCount; i++) {
+      var bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+      var mask = 1L << bit;
+      var index = (int) (bit >>> 6);
+      if ((words.get(index) & mask) == 0) {
+        words.getAndAccumulate(index, mask, (word, m) -> word | m);
+      }
+    }
+  }
+
+  /// Tests a key
+  /// @param key Key (already normalised by the caller)
+  /// @return false if the key was never added; true if it probably was
+  boolean mightContain(String key) {
+    var hash = hash64(key);
+    var h1 = (int) hash;
+    var h2 = (int) (hash >>> 32);
+    for (int i = 0; i < hashCount; i++) {
+      var bit = Math.floorMod(h1 + (long) i * h2, bitCount);
+      if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /// @return Number of probes per key
+  int hashCount() {
+    return hashCount;
+  }
+
+  /// FNV-1a over the UTF-16 code units followed by the Murmur3 finalizer
+  private static long hash64(String key) {
+    var hash = 0xcbf29ce484222325L;
+    for (int i = 0; i < key.length(); i++) {
+      hash = (hash ^ key.charAt(i)) * 0x100000001b3L;
+    }
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash;
+  }
+}
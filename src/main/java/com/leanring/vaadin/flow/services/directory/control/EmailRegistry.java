@@ -0,0 +1,87 @@
+package com.leanring.vaadin.flow.services.directory.control;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.LongAdder;
+
+/// Duplicate-email detection for person forms.
+///
+/// - A [BloomFilter] of every stored email answers most checks in nanoseconds:
+///   "definitely not registered" completes immediately, without touching storage
+/// - Only possible hits are confirmed against the unique email index, on a virtual
+///   thread, so a keystroke never waits for the database
+/// - The filter is seeded from the stored persons at startup and extended by the
+///   repository's save listener as persons are committed
+@Slf4j
+@Service
+public class EmailRegistry {
+
+  private static final double FALSE_POSITIVE_RATE = 0.01;
+
+  private final PersonRepository repository;
+  private final BloomFilter filter;
+  private final ExecutorService confirmations = Executors.newVirtualThreadPerTaskExecutor();
+  private final LongAdder filtered = new LongAdder();
+  private final LongAdder confirmed = new LongAdder();
+
+  /// Constructor with dependency injection
+  /// @param repository Person store holding the unique email index
+  /// @param capacity Number of emails the filter is sized for at a 1% false-positive rate
+  public EmailRegistry(
+    PersonRepository repository,
+    @Value("${directory.email-filter.capacity:1000000}") long capacity
+  ) {
+    this.repository = repository;
+    this.filter = new BloomFilter(capacity, FALSE_POSITIVE_RATE);
+  }
+
+  @PostConstruct
+  void seed() {
+    // Listen first so persons committed while seeding are not missed
+    repository.addSaveListener(person -> register(person.getEmail()));
+    repository.forEachEmail(filter::add);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    confirmations.shutdownNow();
+  }
+
+  /// Checks whether an email belongs to a stored person
+  /// @param email Email as typed (any case, surrounding whitespace ignored)
+  /// @return Future with true if registered; already complete when the filter rules it out
+  public CompletableFuture<Boolean> isRegistered(String email) {
+    var key = PersonRepository.normalizeEmail(email);
+    if (key == null || key.isEmpty() || !filter.mightContain(key)) {
+      filtered.increment();
+      return CompletableFuture.completedFuture(false);
+    }
+    confirmed.increment();
+    return CompletableFuture.supplyAsync(() -> repository.existsByEmail(key), confirmations);
+  }
+
+  /// Adds an email to the filter
+  /// @param email Stored email
+  public void register(String email) {
+    var key = PersonRepository.normalizeEmail(email);
+    if (key != null && !key.isEmpty()) {
+      filter.add(key);
+    }
+  }
+
+  /// @return Number of checks answered by the filter alone
+  public long getFilteredCount() {
+    return filtered.sum();
+  }
+
+  /// @return Number of checks confirmed against the index
+  public long getConfirmedCount() {
+    return confirmed.sum();
+  }
+}
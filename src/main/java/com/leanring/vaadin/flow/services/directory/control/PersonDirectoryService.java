@@ -0,0 +1,181 @@
+package com.leanring.vaadin.flow.services.directory.control;
+
+import com.leanring.vaadin.flow.forms.Person;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/// Directory of persons sized for millions of rows.
+///
+/// - Sorted, case-insensitive [PrefixIndex]es on name and email
+/// - "Starts with" filtering on name or email resolves to index ranges; the union is
+///   collected in a bit set over sort ranks, so results come out sorted without a sort
+/// - Results are paged by offset/limit for lazy grids; the materialised rows of recent
+///   filters are kept in a small LRU so paging through them is O(page size)
+///
+/// The directory is generated on first use (size from `directory.size`) so it does not
+/// slow down application startup.
+@Slf4j
+@Service
+public class PersonDirectoryService {
+
+  /// Sortable columns
+  public enum SortField { NAME, EMAIL }
+
+  private static final int CACHED_RESULTS = 16;
+
+  private static final String[] FIRST_NAMES = {
+    "Tebogo", "Ayanda", "Sipho", "Nomvula", "Thabo", "Lerato", "Mandla", "Zanele",
+    "Kagiso", "Naledi", "Bongani", "Palesa", "Themba", "Refilwe", "Lwazi", "Nandi"
+  };
+  private static final String[] LAST_NAMES = {
+    "Nkwane", "Zulu", "Mthembu", "Dlamini", "Mokoena", "Ndlovu", "Khumalo", "Molefe",
+    "Nkosi", "Mahlangu", "Sithole", "Botha", "van der Merwe", "Naidoo", "Pillay", "Smith"
+  };
+  private static final String[] DOMAINS = {"example.co.za", "example.com", "mail.co.za"};
+  private static final List<Person> SAMPLES = List.of(
+    new Person("Tebogo Nkwane", "tebogo@example.co.za", "+27123456789"),
+    new Person("Ayanda Zulu", "ayanda@example.com", "+27987654321"),
+    new Person("Sipho Mthembu", "sipho@example.co.za", "+27555123456"),
+    new Person("Nomvula Dlamini", "nomvula@example.co.za", "+27444987654"),
+    new Person("Thabo Mokoena", "thabo@example.com", "+27333678901")
+  );
+
+  private final int size;
+  private volatile Directory directory;
+  private final Map<String, int[]> recentResults = new LinkedHashMap<>(CACHED_RESULTS, 0.75f, true) {
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, int[]> eldest) {
+      return size() > CACHED_RESULTS;
+    }
+  };
+
+  /// Constructor
+  /// @param size Number of persons to generate
+  public PersonDirectoryService(@Value("${directory.size:100000}") int size) {
+    this.size = size;
+  }
+
+  /// Counts persons whose name or email starts with the filter
+  /// @param filter Prefix (blank for all)
+  /// @return Number of matching persons
+  public int count(String filter) {
+    var dir = directory();
+    var prefix = normalize(filter);
+    return prefix.isEmpty() ? dir.people.length : matches(dir, prefix, SortField.NAME).length;
+  }
+
+  /// Fetches one page of matching persons in sort order
+  /// @param filter Prefix matched against name and email (blank for all)
+  /// @param sort Sort column
+  /// @param descending true for descending order
+  /// @param offset Index of the first result
+  /// @param limit Maximum number of results
+  /// @return Page of persons
+  public List<Person> fetch(String filter, SortField sort, boolean descending, int offset, int limit) {
+    var dir = directory();
+    var prefix = normalize(filter);
+    var index = sort == SortField.EMAIL ? dir.byEmail : dir.byName;
+    int[] rows = prefix.isEmpty() ? null : matches(dir, prefix, sort);
+    var total = rows == null ? dir.people.length : rows.length;
+
+    var end = Math.min(total, offset + limit);
+    var page = new ArrayList<Person>(Math.max(end - offset, 0));
+    for (int i = offset; i < end; i++) {
+      var position = descending ? total - 1 - i : i;
+      var row = rows == null ? index.rowAt(position) : rows[position];
+      page.add(dir.people[row]);
+    }
+    return page;
+  }
+
+  /// Rows matching the prefix on name or email, ordered by the sort column
+  private int[] matches(Directory dir, String prefix, SortField sort) {
+    var key = sort + ":" + prefix;
+    synchronized (recentResults) {
+      var cached = recentResults.get(key);
+      if (cached != null) {
+        return cached;
+      }
+    }
+
+    var target = sort == SortField.EMAIL ? dir.byEmail : dir.byName;
+    var byName = dir.byName.prefixRange(prefix);
+    var byEmail = dir.byEmail.prefixRange(prefix);
+
+    // Bits are positions in the target order: iterating them yields sorted, de-duplicated rows
+    var ranks = new BitSet(dir.people.length);
+    target.markRanks(dir.byName, byName[0], byName[1], ranks);
+    target.markRanks(dir.byEmail, byEmail[0], byEmail[1], ranks);
+    var rows = new int[ranks.cardinality()];
+    var i = 0;
+    for (int position = ranks.nextSetBit(0); position >= 0; position = ranks.nextSetBit(position + 1)) {
+      rows[i++] = target.rowAt(position);
+    }
+
+    synchronized (recentResults) {
+      recentResults.put(key, rows);
+    }
+    return rows;
+  }
+
+  /// Gets the directory, generating and indexing it on first use
+  private Directory directory() {
+    var dir = directory;
+    if (dir == null) {
+      synchronized (this) {
+        dir = directory;
+        if (dir == null) {
+          var started = System.nanoTime();
+          dir = new Directory(generate(size));
+          log.info("Person directory with {} rows indexed in {} ms",
+            size, (System.nanoTime() - started) / 1_000_000);
+          directory = dir;
+        }
+      }
+    }
+    return dir;
+  }
+
+  private static String normalize(String filter) {
+    return filter == null ? "" : filter.trim();
+  }
+
+  /// Generates deterministic sample persons, starting with the original demo records
+  private static Person[] generate(int size) {
+    var random = new SplittableRandom(7);
+    var people = new Person[size];
+    var samples = Math.min(size, SAMPLES.size());
+    for (int i = 0; i < samples; i++) {
+      people[i] = SAMPLES.get(i);
+    }
+    for (int i = samples; i < size; i++) {
+      var first = FIRST_NAMES[random.nextInt(FIRST_NAMES.length)];
+      var last = LAST_NAMES[random.nextInt(LAST_NAMES.length)];
+      var email = "%s.%s%d@%s".formatted(first, last.replace(" ", ""), i, DOMAINS[i % DOMAINS.length])
+        .toLowerCase();
+      var phone = "+27%09d".formatted(random.nextInt(1_000_000_000));
+      people[i] = new Person(first + " " + last, email, phone);
+    }
+    return people;
+  }
+
+  /// Immutable snapshot of persons plus their indexes
+  private static final class Directory {
+    private final Person[] people;
+    private final PrefixIndex byName;
+    private final PrefixIndex byEmail;
+
+    private Directory(Person[] people) {
+      this.people = people;
+      this.byName = new PrefixIndex(people.length, row -> people[row].name());
+      this.byEmail = new PrefixIndex(people.length, row -> people[row].email());
+    }
+  }
+}
@@ -0,0 +1,244 @@
+package com.leanring.vaadin.flow.services.directory.control;
+
+import com.leanring.vaadin.flow.forms.Locality;
+import com.leanring.vaadin.flow.forms.PersonEntity;
+import com.vaadin.flow.shared.Registration;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/// Stores persons submitted from many concurrent sessions with group commit.
+///
+/// - `save()` only enqueues, so submit latency does not depend on database load
+/// - A single writer thread drains everything queued while the previous transaction
+///   committed (up to [#MAX_BATCH]) and writes it in one transaction; Hibernate sends
+///   the inserts as JDBC batches (`hibernate.jdbc.batch_size`)
+/// - City/postal code pairs are resolved to shared [Locality] rows through an in-memory
+///   lookup owned by the writer thread, so repeated values cost neither a query nor a row
+/// - A failing batch is retried row by row, so one bad entry only fails its own save
+/// - Emails are stored normalised (trimmed, lower case) under a unique index
+///
+/// Returned futures complete on the writer thread; callers touching a UI should continue
+/// with an async stage.
+@Slf4j
+@Repository
+public class PersonRepository {
+
+  /// Maximum number of saves committed in one transaction
+  static final int MAX_BATCH = 500;
+  private static final long POLL_MILLIS = 100;
+
+  private final EntityManager entityManager;
+  private final TransactionTemplate transactions;
+  private final BlockingQueue<PendingSave> queue;
+  private final Map<LocalityKey, Long> localityIds = new HashMap<>();
+  private final List<Consumer<PersonEntity>> saveListeners = new CopyOnWriteArrayList<>();
+  private final Thread writer = Thread.ofPlatform().name("person-writer").daemon().unstarted(this::drain);
+  private volatile boolean running = true;
+  // Owned by the writer thread
+  private boolean localitiesLoaded;
+
+  /// Constructor with dependency injection
+  /// @param entityManager Shared, transaction-bound entity manager
+  /// @param transactionManager Transaction manager for the writer's batches
+  /// @param capacity Maximum number of queued saves before new ones are rejected
+  public PersonRepository(
+    EntityManager entityManager,
+    PlatformTransactionManager transactionManager,
+    @Value("${directory.write-queue.capacity:10000}") int capacity
+  ) {
+    this.entityManager = entityManager;
+    this.transactions = new TransactionTemplate(transactionManager);
+    this.queue = new ArrayBlockingQueue<>(capacity);
+  }
+
+  /// Queues a new person for storage
+  /// @param person Validated person without ID; must not be modified afterwards
+  /// @return Future completed with the stored person (ID assigned) once committed,
+  ///   or failed if the queue is full or the insert fails
+  public CompletableFuture<PersonEntity> save(PersonEntity person) {
+    if (person.getId() != null) {
+      throw new IllegalArgumentException("Person is already stored: " + person.getId());
+    }
+    person.setEmail(normalizeEmail(person.getEmail()));
+    var pending = new PendingSave(person, new CompletableFuture<>());
+    if (!running || !queue.offer(pending)) {
+      return CompletableFuture.failedFuture(new IllegalStateException("Save queue is full, try again"));
+    }
+    return pending.result();
+  }
+
+  /// @return Number of stored persons
+  public long count() {
+    return entityManager.createQuery("select count(p) from PersonEntity p", Long.class).getSingleResult();
+  }
+
+  /// Checks the unique email index
+  /// @param email Email in any case
+  /// @return true if a stored person has this email
+  public boolean existsByEmail(String email) {
+    return !entityManager.createQuery("select p.id from PersonEntity p where p.email = :email", Long.class)
+      .setParameter("email", normalizeEmail(email))
+      .setMaxResults(1)
+      .getResultList()
+      .isEmpty();
+  }
+
+  /// Streams all stored emails without loading the persons
+  /// @param consumer Receives each normalised email
+  public void forEachEmail(Consumer<String> consumer) {
+    transactions.executeWithoutResult(status ->
+      entityManager.createQuery("select p.email from PersonEntity p", String.class)
+        .getResultStream()
+        .forEach(consumer));
+  }
+
+  /// Adds a listener called on the writer thread for every committed person
+  /// @param listener Consumer receiving the stored person (keep it short)
+  /// @return Registration removing the listener
+  public Registration addSaveListener(Consumer<PersonEntity> listener) {
+    saveListeners.add(listener);
+    return () -> saveListeners.remove(listener);
+  }
+
+  /// Normalises an email for storage and lookups
+  /// @param email Raw email, may be null
+  /// @return Trimmed, lower-cased email, or null
+  public static String normalizeEmail(String email) {
+    return email == null ? null : email.strip().toLowerCase(Locale.ROOT);
+  }
+
+  /// @return Number of saves waiting for the writer
+  public int getQueuedCount() {
+    return queue.size();
+  }
+
+  @PostConstruct
+  void start() {
+    writer.start();
+  }
+
+  /// Stops accepting saves and waits for the queued ones to be written
+  @PreDestroy
+  void stop() throws InterruptedException {
+    running = false;
+    writer.join(TimeUnit.SECONDS.toMillis(10));
+  }
+
+  /// Writer loop: one transaction per drained group. Whatever fails, every save of the
+  /// group is completed, so no caller waits forever.
+  private void drain() {
+    var batch = new ArrayList<PendingSave>(MAX_BATCH);
+    while (running || !queue.isEmpty()) {
+      try {
+        var first = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        queue.drainTo(batch, MAX_BATCH - 1);
+        if (!localitiesLoaded) {
+          // Retried with the next group if the database is not reachable yet
+          transactions.executeWithoutResult(status -> loadLocalities());
+          localitiesLoaded = true;
+        }
+        write(batch);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      } catch (RuntimeException e) {
+        log.error("Person writer failed", e);
+        batch.forEach(pending -> pending.result().completeExceptionally(e));
+      } finally {
+        batch.clear();
+      }
+    }
+  }
+
+  /// Writes a group in one transaction, falling back to one transaction per save
+  private void write(List<PendingSave> batch) {
+    var created = new HashMap<LocalityKey, Locality>();
+    try {
+      transactions.executeWithoutResult(status -> {
+        for (var pending : batch) {
+          var address = pending.person().getAddress();
+          if (address != null) {
+            address.setLocality(resolveLocality(address.getCity(), address.getPostalCode(), created));
+          }
+          entityManager.persist(pending.person());
+        }
+        entityManager.flush();
+        entityManager.clear();
+      });
+    } catch (RuntimeException e) {
+      // IDs handed out by the rolled-back transaction must not be reused
+      batch.forEach(pending -> pending.person().setId(null));
+      if (batch.size() == 1) {
+        batch.getFirst().result().completeExceptionally(e);
+      } else {
+        log.warn("Batch of {} persons failed, retrying individually: {}", batch.size(), e.getMessage());
+        batch.forEach(pending -> write(List.of(pending)));
+      }
+      return;
+    }
+    created.forEach((key, locality) -> localityIds.put(key, locality.getId()));
+    // The group is committed: its futures complete before any listener can fail
+    batch.forEach(pending -> pending.result().complete(pending.person()));
+    for (var pending : batch) {
+      for (var listener : saveListeners) {
+        try {
+          listener.accept(pending.person());
+        } catch (RuntimeException e) {
+          log.warn("Save listener failed for person {}", pending.person().getId(), e);
+        }
+      }
+    }
+  }
+
+  /// Finds or creates the shared row for a city/postal code pair
+  private Locality resolveLocality(String city, String postalCode, Map<LocalityKey, Locality> created) {
+    if (city == null || city.isBlank()) {
+      return null;
+    }
+    var key = new LocalityKey(city.strip(), postalCode == null || postalCode.isBlank() ? null : postalCode.strip());
+    var id = localityIds.get(key);
+    if (id != null) {
+      return entityManager.getReference(Locality.class, id);
+    }
+    return created.computeIfAbsent(key, k -> {
+      var locality = new Locality(k.city(), k.postalCode());
+      entityManager.persist(locality);
+      return locality;
+    });
+  }
+
+  /// Warms the lookup with localities stored before this instance started
+  private void loadLocalities() {
+    entityManager.createQuery("select l from Locality l", Locality.class)
+      .getResultStream()
+      .forEach(locality -> localityIds.put(
+        new LocalityKey(locality.getCity(), locality.getPostalCode()), locality.getId()));
+  }
+
+  private record LocalityKey(String city, String postalCode) {
+  }
+
+  private record PendingSave(PersonEntity person, CompletableFuture<PersonEntity> result) {
+  }
+}
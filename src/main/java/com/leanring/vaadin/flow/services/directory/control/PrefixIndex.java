@@ -0,0 +1,189 @@
+package com.leanring.vaadin.flow.services.directory.control;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.function.IntFunction;
+import java.util.stream.IntStream;
+
+/// Case-insensitive sorted index over one string column, with prefix search.
+///
+/// - `rows` holds row numbers ordered by key, so any prefix matches a contiguous range
+///   that is already sorted; `rank` is the inverse (row to sorted position)
+/// - A shallow trie over the first [#TRIE_DEPTH] characters stores ranges into `rows`;
+///   short prefixes resolve by walking the trie, longer ones binary-search inside
+///   the node's range
+///
+/// Only primitive arrays are kept per row; keys are read from the backing column on demand.
+public final class PrefixIndex {
+
+  static final int TRIE_DEPTH = 3;
+
+  private final IntFunction<String> keys;
+  private final int[] rows;
+  private final int[] rank;
+  private final Node root;
+
+  /// Builds the index
+  /// @param size Number of rows
+  /// @param keys Key of each row
+  public PrefixIndex(int size, IntFunction<String> keys) {
+    this.keys = keys;
+    Comparator<Integer> byKey = (a, b) -> String.CASE_INSENSITIVE_ORDER.compare(keys.apply(a), keys.apply(b));
+    this.rows = IntStream.range(0, size).boxed().parallel().sorted(byKey).mapToInt(Integer::intValue).toArray();
+    this.rank = new int[size];
+    for (int position = 0; position < size; position++) {
+      rank[rows[position]] = position;
+    }
+    this.root = buildNode(0, size, 0);
+  }
+
+  /// @return Number of indexed rows
+  public int size() {
+    return rows.length;
+  }
+
+  /// Row at a sorted position
+  /// @param position Position in key order
+  /// @return Row number
+  public int rowAt(int position) {
+    return rows[position];
+  }
+
+  /// Sorted position of a row
+  /// @param row Row number
+  /// @return Position in key order
+  public int rankOf(int row) {
+    return rank[row];
+  }
+
+  /// Finds the range of sorted positions whose key starts with the prefix
+  /// @param prefix Prefix (case-insensitive)
+  /// @return `{from, to}` with `to` exclusive; empty when from == to
+  public int[] prefixRange(String prefix) {
+    var node = root;
+    var depth = 0;
+    while (depth < prefix.length() && depth < TRIE_DEPTH) {
+      node = node.child(fold(prefix.charAt(depth)));
+      if (node == null) {
+        return new int[] {0, 0};
+      }
+      depth++;
+    }
+    if (depth == prefix.length()) {
+      return new int[] {node.from, node.to};
+    }
+    return new int[] {
+      lowerBound(node.from, node.to, prefix),
+      upperBound(node.from, node.to, prefix)
+    };
+  }
+
+  /// Marks the sorted positions (in this index) of all rows in a range of another index
+  /// @param source Index the range refers to
+  /// @param from Range start (inclusive)
+  /// @param to Range end (exclusive)
+  /// @param target Bit set of positions in this index's order
+  public void markRanks(PrefixIndex source, int from, int to, BitSet target) {
+    for (int position = from; position < to; position++) {
+      target.set(rank[source.rows[position]]);
+    }
+  }
+
+  /// Recursively builds trie nodes for the sorted range
+  private Node buildNode(int from, int to, int depth) {
+    var node = new Node(from, to);
+    if (depth == TRIE_DEPTH || to - from <= 1) {
+      return node;
+    }
+    var start = from;
+    // Skip keys too short to have a character at this depth (they sort first)
+    while (start < to && keys.apply(rows[start]).length() <= depth) {
+      start++;
+    }
+    var labels = new char[8];
+    var children = new Node[8];
+    var count = 0;
+    while (start < to) {
+      var label = fold(keys.apply(rows[start]).charAt(depth));
+      var end = start + 1;
+      while (end < to && fold(keys.apply(rows[end]).charAt(depth)) == label) {
+        end++;
+      }
+      if (count == labels.length) {
+        labels = Arrays.copyOf(labels, count * 2);
+        children = Arrays.copyOf(children, count * 2);
+      }
+      labels[count] = label;
+      children[count] = buildNode(start, end, depth + 1);
+      count++;
+      start = end;
+    }
+    node.labels = Arrays.copyOf(labels, count);
+    node.children = Arrays.copyOf(children, count);
+    return node;
+  }
+
+  /// First position in [from, to) whose key is not less than the prefix
+  private int lowerBound(int from, int to, String prefix) {
+    while (from < to) {
+      var mid = (from + to) >>> 1;
+      if (comparePrefix(keys.apply(rows[mid]), prefix) < 0) {
+        from = mid + 1;
+      } else {
+        to = mid;
+      }
+    }
+    return from;
+  }
+
+  /// First position in [from, to) whose key sorts after every key with the prefix
+  private int upperBound(int from, int to, String prefix) {
+    while (from < to) {
+      var mid = (from + to) >>> 1;
+      if (comparePrefix(keys.apply(rows[mid]), prefix) <= 0) {
+        from = mid + 1;
+      } else {
+        to = mid;
+      }
+    }
+    return from;
+  }
+
+  /// Compares the key's leading characters with the prefix, case-insensitively;
+  /// 0 means the key starts with the prefix
+  private static int comparePrefix(String key, String prefix) {
+    var length = Math.min(key.length(), prefix.length());
+    for (int i = 0; i < length; i++) {
+      var a = fold(key.charAt(i));
+      var b = fold(prefix.charAt(i));
+      if (a != b) {
+        return a - b;
+      }
+    }
+    return key.length() < prefix.length() ? -1 : 0;
+  }
+
+  /// Case folding consistent with String.CASE_INSENSITIVE_ORDER
+  private static char fold(char c) {
+    return Character.toLowerCase(Character.toUpperCase(c));
+  }
+
+  /// Trie node: a range of sorted positions plus children keyed by the next character
+  private static final class Node {
+    private final int from;
+    private final int to;
+    private char[] labels = new char[0];
+    private Node[] children = new Node[0];
+
+    private Node(int from, int to) {
+      this.from = from;
+      this.to = to;
+    }
+
+    private Node child(char label) {
+      var index = Arrays.binarySearch(labels, label);
+      return index >= 0 ? children[index] : null;
+    }
+  }
+}
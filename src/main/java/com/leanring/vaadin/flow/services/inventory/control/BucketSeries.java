@@ -0,0 +1,126 @@
+package com.leanring.vaadin.flow.services.inventory.control;
+
+import com.leanring.vaadin.flow.services.inventory.entity.StockBucket;
+import java.time.Instant;
+import java.util.Arrays;
+
+/// Time-ordered stock buckets of one width, packed into a single `long[]`.
+///
+/// A bucket takes five longs: start, open and close stock, low and high stock, units in,
+/// units out. Buckets are added in time order; adding to the start of the last bucket
+/// merges into it, which is how movements and finer buckets are rolled up. Not thread-safe.
+final class BucketSeries {
+
+  private static final int STRIDE = 5;
+
+  private long[] data = new long[0];
+  private int size;
+
+  /// Adds a bucket, or merges it into the last one if that has the same start
+  /// @param start Bucket start (epoch millis), not before the last bucket's start
+  void add(long start, int open, int close, int low, int high, long unitsIn, long unitsOut) {
+    if (size > 0 && start(size - 1) == start) {
+      var at = (size - 1) * STRIDE;
+      data[at + 1] = pack(open(size - 1), close);
+      data[at + 2] = pack(Math.min(low(size - 1), low), Math.max(high(size - 1), high));
+      data[at + 3] += unitsIn;
+      data[at + 4] += unitsOut;
+      return;
+    }
+    if ((size + 1) * STRIDE > data.length) {
+      data = Arrays.copyOf(data, Math.max(4, size * 2) * STRIDE);
+    }
+    var at = size++ * STRIDE;
+    data[at] = start;
+    data[at + 1] = pack(open, close);
+    data[at + 2] = pack(low, high);
+    data[at + 3] = unitsIn;
+    data[at + 4] = unitsOut;
+  }
+
+  /// Adds a single movement to the bucket starting at `start`
+  void addMovement(long start, int before, int after) {
+    var change = (long) after - before;
+    add(start, before, after, Math.min(before, after), Math.max(before, after),
+      Math.max(change, 0), Math.max(-change, 0));
+  }
+
+  /// Adds bucket `index` of another series under a new (coarser) start
+  void addFrom(BucketSeries other, int index, long start) {
+    add(start, other.open(index), other.close(index), other.low(index), other.high(index),
+      other.unitsIn(index), other.unitsOut(index));
+  }
+
+  /// Drops the oldest buckets
+  /// @param count Number of buckets to drop
+  void removeFirst(int count) {
+    System.arraycopy(data, count * STRIDE, data, 0, (size - count) * STRIDE);
+    size -= count;
+    if (size * STRIDE * 4 < data.length) {
+      data = Arrays.copyOf(data, size * STRIDE * 2);
+    }
+  }
+
+  /// @param time Epoch millis
+  /// @return Index of the first bucket starting at or after `time`; [#size] if none
+  int indexOf(long time) {
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      var mid = (low + high) >>> 1;
+      if (start(mid) < time) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  int size() {
+    return size;
+  }
+
+  long start(int index) {
+    return data[index * STRIDE];
+  }
+
+  /// Converts a bucket to its public form
+  StockBucket toBucket(int index, long end) {
+    return new StockBucket(Instant.ofEpochMilli(start(index)), Instant.ofEpochMilli(end),
+      open(index), close(index), low(index), high(index), unitsIn(index), unitsOut(index));
+  }
+
+  /// @return Approximate heap size in bytes
+  long retainedBytes() {
+    return 32 + 16 + data.length * 8L;
+  }
+
+  private int open(int index) {
+    return (int) (data[index * STRIDE + 1] >> 32);
+  }
+
+  private int close(int index) {
+    return (int) data[index * STRIDE + 1];
+  }
+
+  private int low(int index) {
+    return (int) (data[index * STRIDE + 2] >> 32);
+  }
+
+  private int high(int index) {
+    return (int) data[index * STRIDE + 2];
+  }
+
+  private long unitsIn(int index) {
+    return data[index * STRIDE + 3];
+  }
+
+  private long unitsOut(int index) {
+    return data[index * STRIDE + 4];
+  }
+
+  private static long pack(int upper, int lower) {
+    return (long) upper << 32 | (lower & 0xFFFF_FFFFL);
+  }
+}
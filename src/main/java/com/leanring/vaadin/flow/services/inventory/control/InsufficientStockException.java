@@ -0,0 +1,30 @@
+package com.leanring.vaadin.flow.services.inventory.control;
+
+/// Thrown when a reservation asks for more units than are left.
+/// A sold-out product rejects requests at a high rate, so neither a stack trace
+/// nor the message is built up front.
+public class InsufficientStockException extends RuntimeException {
+
+  private final long productId;
+  private final int quantity;
+
+  /// Creates the exception for a rejected request
+  /// @param productId Requested product
+  /// @param quantity Requested units
+  public InsufficientStockException(long productId, int quantity) {
+    super(null, null, false, false);
+    this.productId = productId;
+    this.quantity = quantity;
+  }
+
+  /// Gets the requested product
+  /// @return Product ID
+  public long getProductId() {
+    return productId;
+  }
+
+  @Override
+  public String getMessage() {
+    return "Not enough stock to reserve %d of product %d".formatted(quantity, productId);
+  }
+}
@@ -0,0 +1,110 @@
+package com.leanring.vaadin.flow.services.inventory.control;
+
+import java.util.Arrays;
+
+/// Append-only run of one product's stock movements, delta-encoded.
+///
+/// Each movement is stored as the milliseconds since the previous movement and the
+/// stock change, as variable-length integers (the change zig-zag encoded), so a typical
+/// movement takes two to four bytes. Stock levels are rebuilt from the block's starting
+/// stock when the block is read. Not thread-safe.
+final class MovementBlock {
+
+  /// Movements per block before a new one is started
+  static final int CAPACITY = 512;
+
+  private final long startTime;
+  private final int startStock;
+  private byte[] bytes = new byte[32];
+  private int length;
+  private int count;
+  private long lastTime;
+
+  /// Receives decoded movements
+  @FunctionalInterface
+  interface Visitor {
+    void accept(long time, int before, int after);
+  }
+
+  /// Creates an empty block
+  /// @param startTime Time of the first movement (epoch millis)
+  /// @param startStock Stock before the first movement
+  MovementBlock(long startTime, int startStock) {
+    this.startTime = startTime;
+    this.startStock = startStock;
+    this.lastTime = startTime;
+  }
+
+  /// Appends a movement
+  /// @param time Epoch millis, not before the previous movement
+  /// @param delta Stock change
+  void append(long time, int delta) {
+    if (length + 15 > bytes.length) {
+      bytes = Arrays.copyOf(bytes, bytes.length * 2);
+    }
+    writeVarLong(time - lastTime);
+    writeVarLong(Integer.toUnsignedLong((delta << 1) ^ (delta >> 31)));
+    lastTime = time;
+    count++;
+  }
+
+  /// Releases the unused tail of the buffer once no more movements are appended
+  void seal() {
+    bytes = Arrays.copyOf(bytes, length);
+  }
+
+  /// Decodes all movements in order
+  /// @param visitor Receives time, stock before and stock after of each movement
+  void forEach(Visitor visitor) {
+    var time = startTime;
+    var stock = startStock;
+    var position = 0;
+    for (int i = 0; i < count; i++) {
+      var timeDelta = 0L;
+      for (int shift = 0; ; shift += 7) {
+        var b = bytes[position++];
+        timeDelta |= (long) (b & 0x7F) << shift;
+        if (b >= 0) {
+          break;
+        }
+      }
+      var zigzag = 0;
+      for (int shift = 0; ; shift += 7) {
+        var b = bytes[position++];
+        zigzag |= (b & 0x7F) << shift;
+        if (b >= 0) {
+          break;
+        }
+      }
+      time += timeDelta;
+      var after = stock + ((zigzag >>> 1) ^ -(zigzag & 1));
+      visitor.accept(time, stock, after);
+      stock = after;
+    }
+  }
+
+  boolean isFull() {
+    return count >= CAPACITY;
+  }
+
+  long startTime() {
+    return startTime;
+  }
+
+  long lastTime() {
+    return lastTime;
+  }
+
+  /// @return Approximate heap size in bytes
+  long retainedBytes() {
+    return 48 + 16 + bytes.length;
+  }
+
+  private void writeVarLong(long value) {
+    while ((value & ~0x7FL) != 0) {
+      bytes[length++] = (byte) ((value & 0x7F) | 0x80);
+      value >>>= 7;
+    }
+    bytes[length++] = (byte) value;
+  }
+}
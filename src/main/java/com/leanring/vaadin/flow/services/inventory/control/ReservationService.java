@@ -0,0 +1,317 @@
+package com.leanring.vaadin.flow.services.inventory.control;
+
+import com.leanring.vaadin.flow.services.catalog.control.ProductChange;
+import com.leanring.vaadin.flow.services.catalog.control.ListenerRegistration;
+import com.leanring.vaadin.flow.services.catalog.control.ProductService;
+import com.leanring.vaadin.flow.services.catalog.control.StockUnderflowException;
+import com.leanring.vaadin.flow.services.inventory.entity.Reservation;
+import com.leanring.vaadin.flow.services.inventory.entity.Reservation.Status;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongSupplier;
+
+/// Two-phase stock changes for checkouts: reserve units, then commit or release them.
+///
+/// Reserving only touches a per-product [StockCounter] of units left to reserve, so
+/// buyers racing for a hot product never oversell and never wait on the catalog's
+/// read-modify-write. Committing takes the units from catalog stock with
+/// [ProductService#adjustStock]; releasing, or letting the hold's TTL pass, hands them
+/// back. Abandoned holds are expired by a [TimerWheel] ticking every
+/// `inventory.reservation.tick-millis`, and a commit after the TTL fails even if the
+/// wheel has not caught up yet.
+///
+/// Every reservation carries an idempotency key. Retrying a reserve, commit or release
+/// with the same key has no further effect, and the key stays known for
+/// `inventory.reservation.retention-seconds` after the TTL.
+///
+/// Stock changes made elsewhere, e.g. a restock in the editor, are followed through
+/// catalog change listeners. Lowering stock below the open holds leaves the counter
+/// negative: new reservations are rejected and commits that no longer fit fail.
+@Slf4j
+@Service
+public class ReservationService {
+
+  private static final int HELD = 0;
+  private static final int COMMITTING = 1;
+  private static final int COMMITTED = 2;
+  private static final int RELEASED = 3;
+  private static final int EXPIRED = 4;
+
+  /// Hold whose stock change is being applied by the current thread
+  private static final ScopedValue<Hold> COMMITTING_HOLD = ScopedValue.newInstance();
+
+  private final ProductService productService;
+  private final LongSupplier clock;
+  private final Duration maxTtl;
+  private final long retentionMillis;
+  private final ConcurrentHashMap<Long, StockCounter> counters = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<String, Hold> holds = new ConcurrentHashMap<>();
+  private final TimerWheel<Hold> wheel;
+  private final ListenerRegistration catalogListener;
+  private final ScheduledExecutorService ticker;
+
+  /// Constructor with dependency injection; starts the expiry ticker
+  /// @param productService Catalog whose stock is reserved
+  /// @param tickMillis Expiry resolution in milliseconds
+  /// @param wheelSize Number of timer wheel slots
+  /// @param maxTtlSeconds Longest hold a caller may request
+  /// @param retentionSeconds How long keys stay known after their hold's TTL
+  public ReservationService(
+    ProductService productService,
+    @Value("${inventory.reservation.tick-millis:100}") long tickMillis,
+    @Value("${inventory.reservation.wheel-size:1024}") int wheelSize,
+    @Value("${inventory.reservation.max-ttl-seconds:900}") long maxTtlSeconds,
+    @Value("${inventory.reservation.retention-seconds:600}") long retentionSeconds
+  ) {
+    this(productService, System::currentTimeMillis, tickMillis, wheelSize,
+      Duration.ofSeconds(maxTtlSeconds), Duration.ofSeconds(retentionSeconds));
+    ticker.scheduleAtFixedRate(this::expireDue, tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /// Creates a service without expiry ticker; expiry runs when [#expireDue] is called
+  ReservationService(ProductService productService, LongSupplier clock, long tickMillis,
+                     int wheelSize, Duration maxTtl, Duration retention) {
+    this.productService = productService;
+    this.clock = clock;
+    this.maxTtl = maxTtl;
+    this.retentionMillis = retention.toMillis();
+    this.wheel = new TimerWheel<>(tickMillis, wheelSize, clock.getAsLong());
+    this.ticker = Executors.newSingleThreadScheduledExecutor(
+      Thread.ofPlatform().name("reservation-expiry").daemon().factory()
+    );
+    this.catalogListener = productService.addChangeListener(this::onCatalogChange);
+  }
+
+  /// Holds units of a product for a pending order.
+  /// Repeating the call with the same key returns the existing reservation.
+  /// @param key Idempotency key, unique per order line
+  /// @param productId Product to reserve
+  /// @param quantity Units to hold
+  /// @param ttl How long the hold lasts without commit
+  /// @return Reservation (with its current status if the key was used before)
+  /// @throws IllegalArgumentException if arguments are invalid, the product does not exist,
+  ///   or the key was used for a different product or quantity
+  /// @throws InsufficientStockException if fewer units are left
+  public Reservation reserve(String key, long productId, int quantity, Duration ttl) {
+    Objects.requireNonNull(key, "Idempotency key is required");
+    if (quantity < 1) {
+      throw new IllegalArgumentException("Quantity must be positive: " + quantity);
+    }
+    if (ttl.isNegative() || ttl.isZero() || ttl.compareTo(maxTtl) > 0) {
+      throw new IllegalArgumentException("TTL must be between 0 and %s: %s".formatted(maxTtl, ttl));
+    }
+    var existing = holds.get(key);
+    if (existing != null) {
+      return existing.matching(productId, quantity).snapshot();
+    }
+    var counter = counterFor(productId);
+    if (!counter.tryTake(quantity)) {
+      throw new InsufficientStockException(productId, quantity);
+    }
+    var hold = new Hold(key, productId, quantity, clock.getAsLong() + ttl.toMillis(), counter);
+    var raced = holds.putIfAbsent(key, hold);
+    if (raced != null) {
+      counter.give(quantity);
+      return raced.matching(productId, quantity).snapshot();
+    }
+    wheel.schedule(hold.expiresAtMillis, hold);
+    return hold.snapshot();
+  }
+
+  /// Takes the held units from catalog stock.
+  /// Committing an already committed reservation returns it unchanged.
+  /// @param key Idempotency key of the reservation
+  /// @return Committed reservation
+  /// @throws IllegalArgumentException if the key is unknown or the product was deleted
+  /// @throws IllegalStateException if the reservation was released or has expired
+  /// @throws InsufficientStockException if stock was lowered below the held units;
+  ///   the reservation is released
+  public Reservation commit(String key) {
+    var hold = require(key);
+    if (clock.getAsLong() >= hold.expiresAtMillis) {
+      expire(hold);
+    }
+    if (!hold.state.compareAndSet(HELD, COMMITTING)) {
+      if (hold.state.get() == COMMITTED) {
+        return hold.snapshot();
+      }
+      throw new IllegalStateException("Reservation %s is %s".formatted(key, hold.status()));
+    }
+    // adjustStock either takes the units or throws before writing (listener failures
+    // are contained by the catalog), so every exit leaves the hold committed or released
+    var committed = false;
+    try {
+      ScopedValue.where(COMMITTING_HOLD, hold)
+        .run(() -> productService.adjustStock(hold.productId, -hold.quantity));
+      committed = true;
+    } catch (StockUnderflowException e) {
+      throw new InsufficientStockException(hold.productId, hold.quantity);
+    } finally {
+      if (committed) {
+        hold.state.set(COMMITTED);
+      } else {
+        hold.counter.give(hold.quantity);
+        hold.state.set(RELEASED);
+      }
+    }
+    return hold.snapshot();
+  }
+
+  /// Hands held units back before the TTL passes
+  /// @param key Idempotency key of the reservation
+  /// @return true if this call released the hold; false if the key is unknown or the
+  ///   reservation was already committed, released or expired
+  public boolean release(String key) {
+    var hold = holds.get(key);
+    if (hold == null || !hold.state.compareAndSet(HELD, RELEASED)) {
+      return false;
+    }
+    hold.counter.give(hold.quantity);
+    return true;
+  }
+
+  /// Looks up a reservation
+  /// @param key Idempotency key
+  /// @return Current snapshot, or null if the key is unknown
+  public Reservation find(String key) {
+    var hold = holds.get(key);
+    return hold != null ? hold.snapshot() : null;
+  }
+
+  /// Gets the units that can still be reserved
+  /// @param productId Product ID
+  /// @return Stock minus open holds; 0 for unknown products
+  public long getAvailable(long productId) {
+    var counter = counters.get(productId);
+    if (counter != null) {
+      return counter.available();
+    }
+    return productService.findById(productId).map(p -> (long) p.stock()).orElse(0L);
+  }
+
+  /// Expires holds whose TTL has passed and forgets keys past their retention.
+  /// Runs on the ticker thread.
+  /// @return Number of wheel entries processed
+  int expireDue() {
+    try {
+      return wheel.advance(clock.getAsLong(), this::onDeadline);
+    } catch (RuntimeException e) {
+      log.warn("Reservation expiry failed", e);
+      return 0;
+    }
+  }
+
+  @PreDestroy
+  void shutdown() {
+    ticker.shutdownNow();
+    catalogListener.remove();
+  }
+
+  /// First deadline expires the hold, the second one forgets its key
+  private void onDeadline(Hold hold) {
+    if (hold.retained) {
+      holds.remove(hold.key, hold);
+      return;
+    }
+    expire(hold);
+    hold.retained = true;
+    wheel.schedule(hold.expiresAtMillis + retentionMillis, hold);
+  }
+
+  private void expire(Hold hold) {
+    if (hold.state.compareAndSet(HELD, EXPIRED)) {
+      hold.counter.give(hold.quantity);
+    }
+  }
+
+  private StockCounter counterFor(long productId) {
+    var counter = counters.get(productId);
+    if (counter != null) {
+      return counter;
+    }
+    counter = counters.computeIfAbsent(productId,
+      id -> productService.findById(id).map(StockCounter::new).orElse(null));
+    if (counter == null) {
+      throw new IllegalArgumentException("Product not found: " + productId);
+    }
+    return counter;
+  }
+
+  private Hold require(String key) {
+    var hold = holds.get(key);
+    if (hold == null) {
+      throw new IllegalArgumentException("Unknown reservation: " + key);
+    }
+    return hold;
+  }
+
+  /// Keeps counters in line with stock changes made outside this service.
+  /// computeIfPresent waits for a counter being created, so no change slips past it.
+  private void onCatalogChange(ProductChange change) {
+    if (change.isDeletion()) {
+      counters.remove(change.id());
+      return;
+    }
+    if (change.previous() == null || change.previous().stock() == change.current().stock()) {
+      return;
+    }
+    if (COMMITTING_HOLD.isBound() && COMMITTING_HOLD.get().productId == change.id()) {
+      return; // Units already left the counter when they were reserved
+    }
+    counters.computeIfPresent(change.id(), (id, counter) -> {
+      counter.apply(change);
+      return counter;
+    });
+  }
+
+  /// Mutable state of one reservation
+  private static final class Hold {
+    final String key;
+    final long productId;
+    final int quantity;
+    final long expiresAtMillis;
+    final StockCounter counter;
+    final AtomicInteger state = new AtomicInteger(HELD);
+    /// Set by the wheel thread once the TTL deadline has been handled
+    boolean retained;
+
+    Hold(String key, long productId, int quantity, long expiresAtMillis, StockCounter counter) {
+      this.key = key;
+      this.productId = productId;
+      this.quantity = quantity;
+      this.expiresAtMillis = expiresAtMillis;
+      this.counter = counter;
+    }
+
+    Hold matching(long productId, int quantity) {
+      if (this.productId != productId || this.quantity != quantity) {
+        throw new IllegalArgumentException(
+          "Idempotency key %s is already used for %d of product %d".formatted(key, this.quantity, this.productId));
+      }
+      return this;
+    }
+
+    Status status() {
+      return switch (state.get()) {
+        case HELD, COMMITTING -> Status.HELD;
+        case COMMITTED -> Status.COMMITTED;
+        case RELEASED -> Status.RELEASED;
+        default -> Status.EXPIRED;
+      };
+    }
+
+    Reservation snapshot() {
+      return new Reservation(key, productId, quantity, Instant.ofEpochMilli(expiresAtMillis), status());
+    }
+  }
+}
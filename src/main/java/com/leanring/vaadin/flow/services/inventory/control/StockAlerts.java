@@ -0,0 +1,271 @@
+package com.leanring.vaadin.flow.services.inventory.control;
+
+import com.leanring.vaadin.flow.services.catalog.control.ProductChange;
+import com.leanring.vaadin.flow.services.catalog.control.ListenerRegistration;
+import com.leanring.vaadin.flow.services.catalog.control.ProductService;
+import com.leanring.vaadin.flow.services.catalog.entity.Category;
+import com.leanring.vaadin.flow.services.catalog.entity.Product;
+import com.leanring.vaadin.flow.services.inventory.entity.StockAlert;
+import com.leanring.vaadin.flow.services.inventory.entity.StockAlert.Level;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/// Standing low-stock and out-of-stock alert rules, evaluated on every stock change.
+///
+/// Each product's threshold is its own rule, else its category's, else
+/// `inventory.alerts.default-threshold`. Catalog change listeners classify the new stock
+/// against the threshold ([Level]) in constant time; nothing scans the catalog except a
+/// one-off pass at startup and when a category rule changes. A level change is confirmed
+/// after `inventory.alerts.debounce-millis`: if the stock has moved back by then, as when
+/// a sale is cancelled right away, no alert is raised. Alerts reach listeners on the
+/// ticker thread; the products currently low or out of stock are kept for
+/// [#getActiveAlerts].
+@Slf4j
+@Service
+public class StockAlerts {
+
+  private static final long TICK_MILLIS = 100;
+
+  private final ProductService productService;
+  private final LongSupplier clock;
+  private final int defaultThreshold;
+  private final long debounceMillis;
+  private final ConcurrentHashMap<Long, Integer> productThresholds = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<Category, Integer> categoryThresholds = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<Long, AlertState> states = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<Long, StockAlert> active = new ConcurrentHashMap<>();
+  private final List<Consumer<StockAlert>> listeners = new CopyOnWriteArrayList<>();
+  private final TimerWheel<AlertState> wheel;
+  private final ListenerRegistration catalogListener;
+  private final ScheduledExecutorService ticker;
+
+  /// Constructor with dependency injection; starts the alert ticker
+  /// @param productService Catalog whose stock is watched
+  /// @param defaultThreshold Threshold for products without product or category rule
+  /// @param debounceMillis How long a new level must hold before it is reported
+  public StockAlerts(
+    ProductService productService,
+    @Value("${inventory.alerts.default-threshold:10}") int defaultThreshold,
+    @Value("${inventory.alerts.debounce-millis:2000}") long debounceMillis
+  ) {
+    this(productService, System::currentTimeMillis, defaultThreshold, debounceMillis);
+    ticker.scheduleAtFixedRate(this::fireDue, TICK_MILLIS, TICK_MILLIS, TimeUnit.MILLISECONDS);
+  }
+
+  /// Creates the engine without ticker; alerts are raised when [#fireDue] is called
+  StockAlerts(ProductService productService, LongSupplier clock, int defaultThreshold, long debounceMillis) {
+    requireThreshold(defaultThreshold);
+    this.productService = productService;
+    this.clock = clock;
+    this.defaultThreshold = defaultThreshold;
+    this.debounceMillis = debounceMillis;
+    this.wheel = new TimerWheel<>(TICK_MILLIS, 64, clock.getAsLong());
+    this.ticker = Executors.newSingleThreadScheduledExecutor(
+      Thread.ofPlatform().name("stock-alerts").daemon().factory()
+    );
+    this.catalogListener = productService.addChangeListener(this::onCatalogChange);
+    // No product or category thresholds exist yet, so only stock below the default can alert
+    productService.streamByStock(stock -> stock <= 0 || stock < defaultThreshold).forEach(product -> {
+      var threshold = getThreshold(product);
+      var level = Level.of(product.stock(), threshold);
+      if (level != Level.IN_STOCK && states.putIfAbsent(product.id(), new AlertState(product, level)) == null) {
+        active.put(product.id(), alertOf(product, threshold, level));
+      }
+    });
+  }
+
+  /// Sets or removes a product's own threshold
+  /// @param productId Product ID
+  /// @param threshold Units below which stock is low; null to fall back to the category rule
+  /// @throws IllegalArgumentException if the product does not exist or the threshold is negative
+  public void setProductThreshold(long productId, Integer threshold) {
+    var product = productService.findById(productId)
+      .orElseThrow(() -> new IllegalArgumentException("Product not found: " + productId));
+    var before = Level.of(product.stock(), getThreshold(product));
+    if (threshold == null) {
+      productThresholds.remove(productId);
+    } else {
+      productThresholds.put(productId, requireThreshold(threshold));
+    }
+    evaluate(product, before);
+  }
+
+  /// Sets or removes the threshold of a category
+  /// @param category Category
+  /// @param threshold Units below which stock is low; null to fall back to the default
+  /// @throws IllegalArgumentException if the threshold is negative
+  public void setCategoryThreshold(Category category, Integer threshold) {
+    var products = productService.findByCategory(category);
+    var before = products.stream().map(p -> Level.of(p.stock(), getThreshold(p))).toList();
+    if (threshold == null) {
+      categoryThresholds.remove(category);
+    } else {
+      categoryThresholds.put(category, requireThreshold(threshold));
+    }
+    for (int i = 0; i < products.size(); i++) {
+      evaluate(products.get(i), before.get(i));
+    }
+  }
+
+  /// Gets the threshold in effect for a product
+  /// @param product Product
+  /// @return Product rule, else category rule, else the default
+  public int getThreshold(Product product) {
+    var own = productThresholds.get(product.id());
+    if (own != null) {
+      return own;
+    }
+    return categoryThresholds.getOrDefault(product.category(), defaultThreshold);
+  }
+
+  /// Gets the latest alert of every product that is currently low or out of stock
+  /// @return Alerts, out of stock first, then by ascending stock
+  public List<StockAlert> getActiveAlerts() {
+    return getActiveAlerts(Integer.MAX_VALUE);
+  }
+
+  /// Gets the most urgent active alerts
+  /// @param limit Maximum number of alerts
+  /// @return At most `limit` alerts, out of stock first, then by ascending stock
+  public List<StockAlert> getActiveAlerts(int limit) {
+    return active.values().stream()
+      .sorted(Comparator.comparing(StockAlert::level).reversed().thenComparingInt(StockAlert::stock))
+      .limit(limit)
+      .toList();
+  }
+
+  /// @return Number of products currently low or out of stock
+  public int getActiveAlertCount() {
+    return active.size();
+  }
+
+  /// Registers a listener for raised alerts.
+  /// Listeners run on the alert ticker thread and must return quickly.
+  /// @param listener Listener receiving each alert
+  /// @return registration removing the listener
+  public ListenerRegistration addAlertListener(Consumer<StockAlert> listener) {
+    listeners.add(listener);
+    return () -> listeners.remove(listener);
+  }
+
+  /// Raises alerts whose debounce delay has passed. Runs on the ticker thread.
+  /// @return Number of products checked
+  int fireDue() {
+    try {
+      return wheel.advance(clock.getAsLong(), this::fire);
+    } catch (RuntimeException e) {
+      log.warn("Stock alert evaluation failed", e);
+      return 0;
+    }
+  }
+
+  @PreDestroy
+  void shutdown() {
+    ticker.shutdownNow();
+    catalogListener.remove();
+  }
+
+  private void onCatalogChange(ProductChange change) {
+    if (change.isDeletion()) {
+      states.remove(change.id());
+      active.remove(change.id());
+      return;
+    }
+    var previous = change.previous();
+    var current = change.current();
+    if (previous != null && previous.stock() == current.stock() && previous.category() == current.category()) {
+      return;
+    }
+    var before = previous != null ? Level.of(previous.stock(), getThreshold(previous)) : Level.IN_STOCK;
+    evaluate(current, before);
+  }
+
+  /// Classifies the product and schedules a confirmation if its level changed
+  /// @param product Product as stored
+  /// @param before Level the product had before the change
+  private void evaluate(Product product, Level before) {
+    var state = states.get(product.id());
+    if (state == null) {
+      if (Level.of(product.stock(), getThreshold(product)) == before) {
+        return;
+      }
+      state = states.computeIfAbsent(product.id(), id -> new AlertState(product, before));
+    }
+    synchronized (state) {
+      // Listeners may see concurrent changes out of order; keep the newest
+      if (product.version() >= state.product.version()) {
+        state.product = product;
+      }
+      state.threshold = getThreshold(state.product);
+      state.latest = Level.of(state.product.stock(), state.threshold);
+      if (state.latest != state.reported && !state.scheduled) {
+        state.scheduled = true;
+        wheel.schedule(clock.getAsLong() + debounceMillis, state);
+      }
+    }
+  }
+
+  /// Reports the product's level if it still differs from the last report
+  private void fire(AlertState state) {
+    StockAlert alert;
+    synchronized (state) {
+      state.scheduled = false;
+      if (state.latest == state.reported || states.get(state.product.id()) != state) {
+        return;
+      }
+      state.reported = state.latest;
+      alert = alertOf(state.product, state.threshold, state.latest);
+    }
+    if (alert.isResolved()) {
+      active.remove(alert.productId());
+    } else {
+      active.put(alert.productId(), alert);
+    }
+    for (var listener : listeners) {
+      try {
+        listener.accept(alert);
+      } catch (RuntimeException e) {
+        log.debug("Stock alert listener failed: {}", e.getMessage());
+      }
+    }
+  }
+
+  private StockAlert alertOf(Product product, int threshold, Level level) {
+    return new StockAlert(product.id(), product.name(), product.stock(), threshold, level,
+      Instant.ofEpochMilli(clock.getAsLong()));
+  }
+
+  private static int requireThreshold(int threshold) {
+    if (threshold < 0) {
+      throw new IllegalArgumentException("Threshold must not be negative: " + threshold);
+    }
+    return threshold;
+  }
+
+  /// Alert bookkeeping of one product, guarded by its own monitor
+  private static final class AlertState {
+    Product product;
+    int threshold;
+    Level latest;
+    Level reported;
+    boolean scheduled;
+
+    AlertState(Product product, Level reported) {
+      this.product = product;
+      this.latest = reported;
+      this.reported = reported;
+    }
+  }
+}
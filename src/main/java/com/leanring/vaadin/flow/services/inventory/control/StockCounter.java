@@ -0,0 +1,69 @@
+package com.leanring.vaadin.flow.services.inventory.control;
+
+import com.leanring.vaadin.flow.services.catalog.control.ProductChange;
+import com.leanring.vaadin.flow.services.catalog.entity.Product;
+import java.util.concurrent.atomic.AtomicLong;
+
+/// Units of one product that can still be reserved: stock minus open holds.
+///
+/// A flash sale hits one counter from every request thread, so taking units avoids
+/// compare-and-set retry storms. While plenty is left, one fetch-and-add claims the
+/// units and never retries; an overdraw is handed straight back. Within
+/// [#FAST_PATH_MARGIN] of zero, a compare-and-set loop hands out the last units exactly
+/// once, so concurrent overdraws cannot turn away buyers while stock remains. Once sold
+/// out, attempts only read the counter and its cache line stays shared between cores.
+final class StockCounter {
+
+  /// Remaining units below which units are taken with compare-and-set
+  static final long FAST_PATH_MARGIN = 1 << 16;
+
+  private final AtomicLong available;
+  private final long seedVersion;
+
+  /// Creates a counter starting from the product's stock
+  /// @param product Product as currently stored
+  StockCounter(Product product) {
+    this.available = new AtomicLong(product.stock());
+    this.seedVersion = product.version();
+  }
+
+  /// Takes units if enough are left
+  /// @param quantity Units to take (positive)
+  /// @return true if the units were taken
+  boolean tryTake(int quantity) {
+    var current = available.get();
+    if (current - quantity >= FAST_PATH_MARGIN) {
+      if (available.getAndAdd(-quantity) >= quantity) {
+        return true;
+      }
+      current = available.addAndGet(quantity);
+    }
+    while (current >= quantity) {
+      if (available.weakCompareAndSetVolatile(current, current - quantity)) {
+        return true;
+      }
+      current = available.get();
+    }
+    return false;
+  }
+
+  /// Returns units taken by [#tryTake]
+  /// @param quantity Units to return
+  void give(int quantity) {
+    available.getAndAdd(quantity);
+  }
+
+  /// Follows a stock change made outside this engine, e.g. a restock in the editor.
+  /// Changes already contained in the stock this counter started from are ignored.
+  /// @param change Catalog change of this counter's product
+  void apply(ProductChange change) {
+    if (change.current().version() > seedVersion) {
+      available.getAndAdd(change.current().stock() - change.previous().stock());
+    }
+  }
+
+  /// @return Units left to reserve; negative if stock was lowered below the open holds
+  long available() {
+    return available.get();
+  }
+}
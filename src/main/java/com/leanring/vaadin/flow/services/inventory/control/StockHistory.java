@@ -0,0 +1,403 @@
+package com.leanring.vaadin.flow.services.inventory.control;
+
+import com.leanring.vaadin.flow.services.catalog.control.ProductChange;
+import com.leanring.vaadin.flow.services.catalog.control.ListenerRegistration;
+import com.leanring.vaadin.flow.services.catalog.control.ProductService;
+import com.leanring.vaadin.flow.services.catalog.entity.Category;
+import com.leanring.vaadin.flow.services.inventory.entity.CategoryMovement;
+import com.leanring.vaadin.flow.services.inventory.entity.StockBucket;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/// Append-only history of stock movements, kept per product and rolled up as it ages.
+///
+/// Every stock change published by [ProductService] is appended to the product's series
+/// as a delta-encoded [MovementBlock] entry. A roll-up pass every minute moves aged data
+/// into coarser [BucketSeries] tiers:
+///
+/// | Tier    | Kept for (default)                           |
+/// |---------|----------------------------------------------|
+/// | Raw     | `inventory.history.raw-retention-minutes` (60) |
+/// | Minutes | `inventory.history.minute-retention-hours` (24) |
+/// | Hours   | `inventory.history.hour-retention-days` (30)  |
+/// | Days    | `inventory.history.day-retention-days` (730)  |
+///
+/// Memory therefore depends on the retention windows and the number of products that
+/// moved, not on the number of movements: a product holds at most an hour of raw
+/// movements and one bucket per minute, hour and day of its windows. Units moved per
+/// category and day are counted separately as movements arrive. Deleted products lose
+/// their history; days are calendar days in the server's time zone.
+///
+/// Concurrent writers may publish their changes out of order. A series therefore follows
+/// the absolute stock of the newest product version it has seen; a change older than that
+/// is already contained in it and only counts towards the category totals.
+@Slf4j
+@Service
+public class StockHistory {
+
+  private static final long MINUTE = 60_000;
+  private static final long HOUR = 3_600_000;
+  private static final Category[] CATEGORIES = Category.values();
+
+  private final LongSupplier clock;
+  private final ZoneId zone;
+  private final Duration rawRetention;
+  private final Duration minuteRetention;
+  private final Duration hourRetention;
+  private final Duration dayRetention;
+  private final ConcurrentHashMap<Long, Series> series = new ConcurrentHashMap<>();
+  private final ConcurrentHashMap<Long, AtomicLongArray> categoryDays = new ConcurrentHashMap<>();
+  private volatile Day recordingDay = new Day(0, 0, 0);
+  private final ListenerRegistration catalogListener;
+  private final ScheduledExecutorService ticker;
+
+  /// Constructor with dependency injection; starts the roll-up ticker
+  /// @param productService Catalog whose stock movements are recorded
+  /// @param rawRetentionMinutes How long single movements are kept
+  /// @param minuteRetentionHours How long minute buckets are kept
+  /// @param hourRetentionDays How long hour buckets are kept
+  /// @param dayRetentionDays How long day buckets and category totals are kept
+  public StockHistory(
+    ProductService productService,
+    @Value("${inventory.history.raw-retention-minutes:60}") long rawRetentionMinutes,
+    @Value("${inventory.history.minute-retention-hours:24}") long minuteRetentionHours,
+    @Value("${inventory.history.hour-retention-days:30}") long hourRetentionDays,
+    @Value("${inventory.history.day-retention-days:730}") long dayRetentionDays
+  ) {
+    this(productService, System::currentTimeMillis, ZoneId.systemDefault(),
+      Duration.ofMinutes(rawRetentionMinutes), Duration.ofHours(minuteRetentionHours),
+      Duration.ofDays(hourRetentionDays), Duration.ofDays(dayRetentionDays));
+    ticker.scheduleAtFixedRate(this::rollUp, 1, 1, TimeUnit.MINUTES);
+  }
+
+  /// Creates a history without roll-up ticker; roll-ups run when [#rollUp] is called
+  StockHistory(ProductService productService, LongSupplier clock, ZoneId zone, Duration rawRetention,
+               Duration minuteRetention, Duration hourRetention, Duration dayRetention) {
+    if (rawRetention.compareTo(minuteRetention) > 0 || minuteRetention.compareTo(hourRetention) > 0
+      || hourRetention.compareTo(dayRetention) > 0) {
+      throw new IllegalArgumentException("Coarser tiers must be kept at least as long as finer ones");
+    }
+    this.clock = clock;
+    this.zone = zone;
+    this.rawRetention = rawRetention;
+    this.minuteRetention = minuteRetention;
+    this.hourRetention = hourRetention;
+    this.dayRetention = dayRetention;
+    this.ticker = Executors.newSingleThreadScheduledExecutor(
+      Thread.ofPlatform().name("stock-history-rollup").daemon().factory()
+    );
+    this.catalogListener = productService.addChangeListener(this::onCatalogChange);
+  }
+
+  /// Gets the stock movements of a product over a time range.
+  /// Periods without movement have no bucket; stock stays at the previous bucket's close.
+  /// Data older than the finer tiers' retention comes in coarser buckets than requested.
+  /// @param productId Product ID
+  /// @param from Start of the range (inclusive)
+  /// @param to End of the range (exclusive)
+  /// @param resolution Bucket width: [ChronoUnit#MINUTES], [ChronoUnit#HOURS] or [ChronoUnit#DAYS]
+  /// @return Buckets overlapping the range, oldest first
+  /// @throws IllegalArgumentException if the range is empty or the resolution unsupported
+  public List<StockBucket> history(long productId, Instant from, Instant to, ChronoUnit resolution) {
+    if (resolution != ChronoUnit.MINUTES && resolution != ChronoUnit.HOURS && resolution != ChronoUnit.DAYS) {
+      throw new IllegalArgumentException("Unsupported resolution: " + resolution);
+    }
+    if (!from.isBefore(to)) {
+      throw new IllegalArgumentException("Empty range: %s to %s".formatted(from, to));
+    }
+    var productSeries = series.get(productId);
+    if (productSeries == null) {
+      return List.of();
+    }
+    return productSeries.history(from.toEpochMilli(), to.toEpochMilli(), resolution);
+  }
+
+  /// Gets the units moved per category and day
+  /// @param from First day (inclusive)
+  /// @param to Last day (inclusive)
+  /// @return One entry per day and category with movement, by day and category
+  /// @throws IllegalArgumentException if `to` is before `from`
+  public List<CategoryMovement> unitsMovedPerCategory(LocalDate from, LocalDate to) {
+    if (to.isBefore(from)) {
+      throw new IllegalArgumentException("Empty range: %s to %s".formatted(from, to));
+    }
+    var result = new ArrayList<CategoryMovement>();
+    var today = LocalDate.ofInstant(Instant.ofEpochMilli(clock.getAsLong()), zone).toEpochDay();
+    var first = Math.max(from.toEpochDay(), today - dayRetention.toDays());
+    var last = Math.min(to.toEpochDay(), today);
+    for (var day = first; day <= last; day++) {
+      var counts = categoryDays.get(day);
+      if (counts == null) {
+        continue;
+      }
+      for (var category : CATEGORIES) {
+        var unitsIn = counts.get(category.ordinal() * 2);
+        var unitsOut = counts.get(category.ordinal() * 2 + 1);
+        if (unitsIn != 0 || unitsOut != 0) {
+          result.add(new CategoryMovement(LocalDate.ofEpochDay(day), category, unitsIn, unitsOut));
+        }
+      }
+    }
+    return result;
+  }
+
+  /// Moves aged data into coarser tiers and drops what is past the day retention.
+  /// Runs on the ticker thread.
+  void rollUp() {
+    try {
+      var now = clock.getAsLong();
+      series.forEach((id, productSeries) -> {
+        productSeries.rollUp(now);
+        series.computeIfPresent(id, (key, current) -> current.isEmpty() ? null : current);
+      });
+      var oldestDay = LocalDate.ofInstant(Instant.ofEpochMilli(now), zone)
+        .minusDays(dayRetention.toDays()).toEpochDay();
+      categoryDays.keySet().removeIf(day -> day < oldestDay);
+    } catch (RuntimeException e) {
+      log.warn("Stock history roll-up failed", e);
+    }
+  }
+
+  /// @return Approximate heap size of all recorded history in bytes
+  long retainedBytes() {
+    var bytes = categoryDays.size() * (64L + CATEGORIES.length * 16L);
+    for (var productSeries : series.values()) {
+      bytes += productSeries.retainedBytes();
+    }
+    return bytes;
+  }
+
+  @PreDestroy
+  void shutdown() {
+    ticker.shutdownNow();
+    catalogListener.remove();
+  }
+
+  /// Records one published catalog change
+  void onCatalogChange(ProductChange change) {
+    if (change.isDeletion()) {
+      series.remove(change.id());
+      return;
+    }
+    var previous = change.previous();
+    var current = change.current();
+    if (previous == null || previous.stock() == current.stock()) {
+      return;
+    }
+    var now = clock.getAsLong();
+    var delta = current.stock() - previous.stock();
+    series.compute(change.id(), (id, productSeries) -> {
+      var target = productSeries != null ? productSeries : new Series(previous.stock(), previous.version());
+      target.record(now, current.stock(), current.version());
+      return target;
+    });
+
+    var day = recordingDay;
+    if (now < day.start || now >= day.end) {
+      day = Day.of(now, zone);
+      recordingDay = day;
+    }
+    var counts = categoryDays.computeIfAbsent(day.epochDay, key -> new AtomicLongArray(CATEGORIES.length * 2));
+    var slot = current.category().ordinal() * 2 + (delta > 0 ? 0 : 1);
+    counts.addAndGet(slot, Math.abs((long) delta));
+  }
+
+  /// All recorded movements of one product
+  private final class Series {
+
+    private final ArrayDeque<MovementBlock> blocks = new ArrayDeque<>();
+    private final BucketSeries minutes = new BucketSeries();
+    private final BucketSeries hours = new BucketSeries();
+    private final BucketSeries days = new BucketSeries();
+    private int stock;
+    private long version;
+    private long lastTime = Long.MIN_VALUE;
+
+    /// @param stock Stock before the first recorded movement
+    /// @param version Product version holding that stock
+    Series(int stock, long version) {
+      this.stock = stock;
+      this.version = version;
+    }
+
+    /// Moves the series to a newer product state; older states are ignored
+    /// @param time Epoch millis of the change
+    /// @param newStock Stock of the product at `newVersion`
+    /// @param newVersion Product version after the change
+    synchronized void record(long time, int newStock, long newVersion) {
+      if (newVersion <= version) {
+        return;
+      }
+      version = newVersion;
+      var delta = newStock - stock;
+      if (delta == 0) {
+        return;
+      }
+      // Movements are kept in order even if the clock steps back
+      time = Math.max(time, lastTime);
+      var block = blocks.peekLast();
+      if (block == null || block.isFull()) {
+        if (block != null) {
+          block.seal();
+        }
+        block = new MovementBlock(time, stock);
+        blocks.add(block);
+      }
+      block.append(time, delta);
+      stock += delta;
+      lastTime = time;
+    }
+
+    synchronized void rollUp(long now) {
+      var toMinute = new Aligner(ChronoUnit.MINUTES);
+      var rawCutoff = toMinute.start(now - rawRetention.toMillis());
+      while (!blocks.isEmpty() && blocks.peekFirst().lastTime() < rawCutoff) {
+        blocks.removeFirst().forEach((time, before, after) ->
+          minutes.addMovement(toMinute.start(time), before, after));
+      }
+      // Cutoffs are aligned to the coarser tier, so each of its buckets is rolled in one piece
+      var toHour = new Aligner(ChronoUnit.HOURS);
+      roll(minutes, hours, toHour, toHour.start(now - minuteRetention.toMillis()));
+      var toDay = new Aligner(ChronoUnit.DAYS);
+      roll(hours, days, toDay, toDay.start(now - hourRetention.toMillis()));
+      days.removeFirst(days.indexOf(toDay.start(now - dayRetention.toMillis())));
+    }
+
+    synchronized List<StockBucket> history(long from, long to, ChronoUnit resolution) {
+      var result = new ArrayList<StockBucket>();
+      var aligner = new Aligner(resolution);
+      collect(days, ChronoUnit.DAYS, from, to, aligner, result);
+      collect(hours, ChronoUnit.HOURS, from, to, aligner, result);
+      collect(minutes, ChronoUnit.MINUTES, from, to, aligner, result);
+
+      var recent = new BucketSeries();
+      var firstBucket = aligner.start(from);
+      for (var block : blocks) {
+        if (block.lastTime() < firstBucket || block.startTime() >= to) {
+          continue;
+        }
+        block.forEach((time, before, after) -> {
+          var start = aligner.start(time);
+          if (start < to && aligner.end(start) > from) {
+            recent.addMovement(start, before, after);
+          }
+        });
+      }
+      collect(recent, resolution, from, to, aligner, result);
+      return result;
+    }
+
+    synchronized boolean isEmpty() {
+      return blocks.isEmpty() && minutes.size() == 0 && hours.size() == 0 && days.size() == 0;
+    }
+
+    synchronized long retainedBytes() {
+      var bytes = 96 + minutes.retainedBytes() + hours.retainedBytes() + days.retainedBytes();
+      for (var block : blocks) {
+        bytes += block.retainedBytes();
+      }
+      return bytes;
+    }
+
+    /// Moves buckets starting before the cutoff into the coarser tier
+    private void roll(BucketSeries finer, BucketSeries coarser, Aligner toCoarser, long cutoff) {
+      var count = finer.indexOf(cutoff);
+      for (int i = 0; i < count; i++) {
+        coarser.addFrom(finer, i, toCoarser.start(finer.start(i)));
+      }
+      finer.removeFirst(count);
+    }
+
+    /// Appends the buckets of one tier overlapping the range, regrouped if finer than requested
+    private void collect(BucketSeries tier, ChronoUnit unit, long from, long to, Aligner resolution,
+                         List<StockBucket> result) {
+      var tierAligner = new Aligner(unit);
+      for (int i = Math.max(0, tier.indexOf(from) - 1); i < tier.size() && tier.start(i) < to; i++) {
+        var end = tierAligner.end(tier.start(i));
+        if (end <= from) {
+          continue;
+        }
+        var bucket = tier.toBucket(i, end);
+        if (unit.compareTo(resolution.unit) < 0) {
+          var start = resolution.start(tier.start(i));
+          bucket = new StockBucket(Instant.ofEpochMilli(start), Instant.ofEpochMilli(resolution.end(start)),
+            bucket.open(), bucket.close(), bucket.low(), bucket.high(), bucket.unitsIn(), bucket.unitsOut());
+        }
+        var last = result.isEmpty() ? null : result.getLast();
+        if (last != null && last.start().equals(bucket.start())) {
+          result.set(result.size() - 1, last.followedBy(bucket, bucket.end()));
+        } else {
+          result.add(bucket);
+        }
+      }
+    }
+  }
+
+  /// Finds bucket boundaries for one unit. Days follow the time zone, so the
+  /// last day looked up is cached to keep repeated lookups cheap. Not thread-safe.
+  private final class Aligner {
+
+    private final ChronoUnit unit;
+    private Day day = new Day(0, 0, 0);
+
+    Aligner(ChronoUnit unit) {
+      this.unit = unit;
+    }
+
+    /// @return Start of the bucket containing `time`
+    long start(long time) {
+      return switch (unit) {
+        case MINUTES -> Math.floorDiv(time, MINUTE) * MINUTE;
+        case HOURS -> Math.floorDiv(time, HOUR) * HOUR;
+        default -> {
+          day(time);
+          yield day.start;
+        }
+      };
+    }
+
+    /// @return End of the bucket starting at `start`
+    long end(long start) {
+      return switch (unit) {
+        case MINUTES -> start + MINUTE;
+        case HOURS -> start + HOUR;
+        default -> {
+          day(start);
+          yield day.end;
+        }
+      };
+    }
+
+    private void day(long time) {
+      if (time < day.start || time >= day.end) {
+        day = Day.of(time, zone);
+      }
+    }
+  }
+
+  /// Calendar day as epoch millis range
+  private record Day(long start, long end, long epochDay) {
+
+    static Day of(long time, ZoneId zone) {
+      var date = LocalDate.ofInstant(Instant.ofEpochMilli(time), zone);
+      return new Day(date.atStartOfDay(zone).toInstant().toEpochMilli(),
+        date.plusDays(1).atStartOfDay(zone).toInstant().toEpochMilli(), date.toEpochDay());
+    }
+  }
+}
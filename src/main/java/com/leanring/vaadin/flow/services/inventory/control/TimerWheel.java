@@ -0,0 +1,93 @@
+package com.leanring.vaadin.flow.services.inventory.control;
+
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/// Hashed timing wheel firing deadlines with a resolution of one tick.
+///
+/// Scheduling is an append to a lock-free queue, striped by thread so that request
+/// threads don't contend on one tail. Only [#advance] touches the wheel itself: it moves
+/// new entries into the slot of their tick and fires the slots it passes. Deadlines
+/// further out than one revolution stay in their slot until the wheel comes round to
+/// their tick. Deadlines in the past fire on the next advance.
+///
+/// @param <T> Scheduled value
+final class TimerWheel<T> {
+
+  private final long tickMillis;
+  private final ArrayDeque<Entry<T>>[] slots;
+  private final Queue<Entry<T>>[] incoming;
+  private long currentTick;
+
+  /// Creates a wheel
+  /// @param tickMillis Resolution in milliseconds
+  /// @param wheelSize Number of slots (rounded up to a power of two)
+  /// @param startMillis Current time; the first tick to fire
+  @SuppressWarnings("unchecked")
+  TimerWheel(long tickMillis, int wheelSize, long startMillis) {
+    if (tickMillis < 1 || wheelSize < 1) {
+      throw new IllegalArgumentException("Tick and wheel size must be positive");
+    }
+    this.tickMillis = tickMillis;
+    this.slots = new ArrayDeque[Integer.highestOneBit(Math.max(1, wheelSize - 1)) << 1];
+    for (int i = 0; i < slots.length; i++) {
+      slots[i] = new ArrayDeque<>();
+    }
+    var stripes = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1) << 1;
+    this.incoming = new Queue[stripes];
+    for (int i = 0; i < stripes; i++) {
+      incoming[i] = new ConcurrentLinkedQueue<>();
+    }
+    this.currentTick = Math.floorDiv(startMillis, tickMillis);
+  }
+
+  /// Schedules a value; safe to call from any thread
+  /// @param deadlineMillis Time at or after which the value fires
+  /// @param value Value passed to the [#advance] callback
+  void schedule(long deadlineMillis, T value) {
+    var stripe = (int) Thread.currentThread().threadId() & (incoming.length - 1);
+    incoming[stripe].add(new Entry<>(Math.ceilDiv(deadlineMillis, tickMillis), value));
+  }
+
+  /// Fires every value whose deadline tick has been reached.
+  /// Values scheduled by the callback are picked up in the same call if already due.
+  /// @param nowMillis Current time
+  /// @param callback Receives due values on the calling thread
+  /// @return Number of values fired
+  synchronized int advance(long nowMillis, Consumer<T> callback) {
+    var target = Math.floorDiv(nowMillis, tickMillis);
+    var fired = 0;
+    for (; currentTick <= target; currentTick++) {
+      transferIncoming();
+      var slot = slots[slotOf(currentTick)];
+      for (int n = slot.size(); n > 0; n--) {
+        var entry = slot.poll();
+        if (entry.tick() <= currentTick) {
+          callback.accept(entry.value());
+          fired++;
+        } else {
+          slot.add(entry);
+        }
+      }
+    }
+    return fired;
+  }
+
+  /// Moves newly scheduled entries into their slots; past deadlines go to the current slot
+  private void transferIncoming() {
+    for (var queue : incoming) {
+      for (var entry = queue.poll(); entry != null; entry = queue.poll()) {
+        slots[slotOf(Math.max(entry.tick(), currentTick))].add(entry);
+      }
+    }
+  }
+
+  private int slotOf(long tick) {
+    return (int) (tick & (slots.length - 1));
+  }
+
+  private record Entry<T>(long tick, T value) {
+  }
+}
@@ -0,0 +1,18 @@
+package com.leanring.vaadin.flow.services.inventory.entity;
+
+import com.leanring.vaadin.flow.services.catalog.entity.Category;
+import java.time.LocalDate;
+
+/// Units moved in one category on one day.
+///
+/// @param day Calendar day
+/// @param category Category of the moved products at the time of the movement
+/// @param unitsIn Units added
+/// @param unitsOut Units removed
+public record CategoryMovement(LocalDate day, Category category, long unitsIn, long unitsOut) {
+
+  /// @return Units moved in either direction
+  public long unitsMoved() {
+    return unitsIn + unitsOut;
+  }
+}
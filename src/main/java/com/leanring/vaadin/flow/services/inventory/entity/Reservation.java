@@ -0,0 +1,25 @@
+package com.leanring.vaadin.flow.services.inventory.entity;
+
+import java.time.Instant;
+
+/// Snapshot of a stock hold taken for a pending order.
+///
+/// @param key Idempotency key chosen by the caller, e.g. the checkout or order ID
+/// @param productId Reserved product
+/// @param quantity Reserved units
+/// @param expiresAt When an uncommitted hold is released automatically
+/// @param status State at the time of the snapshot
+public record Reservation(String key, long productId, int quantity, Instant expiresAt, Status status) {
+
+  /// Lifecycle of a reservation; every state but [#HELD] is final
+  public enum Status {
+    /// Units are held back from other buyers
+    HELD,
+    /// Units were taken from stock
+    COMMITTED,
+    /// Units were handed back by the caller
+    RELEASED,
+    /// Units were handed back because the hold timed out
+    EXPIRED
+  }
+}
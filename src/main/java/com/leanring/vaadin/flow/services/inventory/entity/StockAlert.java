@@ -0,0 +1,51 @@
+package com.leanring.vaadin.flow.services.inventory.entity;
+
+import java.time.Instant;
+
+/// Raised when a product's stock crosses its low-stock threshold or runs out,
+/// and again when it recovers.
+///
+/// @param productId Product ID
+/// @param productName Product name at the time of the alert
+/// @param stock Stock at the time of the alert
+/// @param threshold Low-stock threshold in effect
+/// @param level Level the stock moved to
+/// @param raisedAt When the level change was confirmed
+public record StockAlert(long productId, String productName, int stock, int threshold, Level level,
+                         Instant raisedAt) {
+
+  /// Stock level relative to the threshold
+  public enum Level {
+    /// At or above the threshold
+    IN_STOCK,
+    /// Below the threshold but not zero
+    LOW,
+    /// Zero
+    OUT_OF_STOCK;
+
+    /// Classifies a stock value
+    /// @param stock Units in stock
+    /// @param threshold Low-stock threshold
+    /// @return Level of the stock
+    public static Level of(int stock, int threshold) {
+      if (stock <= 0) {
+        return OUT_OF_STOCK;
+      }
+      return stock < threshold ? LOW : IN_STOCK;
+    }
+  }
+
+  /// @return true if the alert reports a recovery rather than a problem
+  public boolean isResolved() {
+    return level == Level.IN_STOCK;
+  }
+
+  /// @return Short description for notifications, e.g. `Dell XPS 15 Laptop: 3 left`
+  public String getMessage() {
+    return switch (level) {
+      case OUT_OF_STOCK -> productName + ": out of stock";
+      case LOW -> "%s: %d left".formatted(productName, stock);
+      case IN_STOCK -> "%s: back in stock (%d)".formatted(productName, stock);
+    };
+  }
+}
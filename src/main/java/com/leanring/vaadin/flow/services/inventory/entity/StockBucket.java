@@ -0,0 +1,33 @@
+package com.leanring.vaadin.flow.services.inventory.entity;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/// Stock movements of one product within a time bucket.
+///
+/// @param start Start of the bucket (inclusive)
+/// @param end End of the bucket (exclusive)
+/// @param open Stock before the first movement in the bucket
+/// @param close Stock after the last movement in the bucket
+/// @param low Lowest stock within the bucket
+/// @param high Highest stock within the bucket
+/// @param unitsIn Units added (restocks, released orders)
+/// @param unitsOut Units removed (sales)
+public record StockBucket(Instant start, Instant end, int open, int close, int low, int high,
+                          long unitsIn, long unitsOut) {
+
+  /// @return Length of the bucket
+  public Duration width() {
+    return Duration.between(start, end);
+  }
+
+  /// Combines this bucket with the one directly following it
+  /// @param later Bucket starting at or after this one
+  /// @param combinedEnd End of the combined bucket
+  /// @return Bucket covering both
+  public StockBucket followedBy(StockBucket later, Instant combinedEnd) {
+    return new StockBucket(start, combinedEnd, open, later.close,
+      Math.min(low, later.low), Math.max(high, later.high),
+      unitsIn + later.unitsIn, unitsOut + later.unitsOut);
+  }
+}
@@ -0,0 +1,263 @@
+package com.leanring.vaadin.flow.services.session.control;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.catalina.Session;
+import org.apache.catalina.session.StandardSession;
+import org.apache.catalina.session.StoreBase;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/// Tomcat session store writing one compressed file per passivated session.
+///
+/// File layout: a plain header (magic, last access time, max inactive interval) followed by
+/// the Deflate-compressed Java serialization of the session. The header lets expiry checks
+/// skip decompressing sessions that are still valid.
+///
+/// Serialization differs from Tomcat's `FileStore` in two ways:
+/// - Spring singletons reachable from the session (services injected into views) are
+///   written as references and resolved to the live beans on load, instead of being copied
+/// - It is strict: if anything in the session is not serializable, saving fails with
+///   [NotSerializableException] and no file is written, so the session stays in memory.
+///   Tomcat would otherwise drop the attribute and restore a broken session
+@Slf4j
+public class CompressedSessionStore extends StoreBase {
+
+  private static final int MAGIC = 0x53455353; // "SESS"
+  private static final String SUFFIX = ".session";
+  private static final Pattern SAFE_ID = Pattern.compile("[A-Za-z0-9._-]+");
+
+  private final Path directory;
+  private final ConfigurableListableBeanFactory beans;
+  private Map<Object, String> beanNames = Map.of();
+  private int beanCount = -1;
+
+  /// Creates a store
+  /// @param directory Directory holding the session files (created on first save)
+  /// @param beans Bean factory whose singletons are stored by reference
+  public CompressedSessionStore(Path directory, ConfigurableListableBeanFactory beans) {
+    this.directory = directory;
+    this.beans = beans;
+  }
+
+  @Override
+  public int getSize() throws IOException {
+    return keys().length;
+  }
+
+  @Override
+  public String[] keys() throws IOException {
+    if (!Files.isDirectory(directory)) {
+      return new String[0];
+    }
+    try (var files = Files.list(directory)) {
+      return files.map(file -> file.getFileName().toString())
+        .filter(name -> name.endsWith(SUFFIX))
+        .map(name -> name.substring(0, name.length() - SUFFIX.length()))
+        .toArray(String[]::new);
+    }
+  }
+
+  @Override
+  public Session load(String id) throws ClassNotFoundException, IOException {
+    try (var input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file(id))))) {
+      readHeader(input);
+      var session = (StandardSession) manager.createEmptySession();
+      try (var objects = new BeanResolvingInputStream(new InflaterInputStream(input))) {
+        session.readObjectData(objects);
+      }
+      session.setManager(manager);
+      return session;
+    } catch (NoSuchFileException e) {
+      return null;
+    }
+  }
+
+  @Override
+  public void save(Session session) throws IOException {
+    var target = file(session.getIdInternal());
+    Files.createDirectories(directory);
+    var temporary = Files.createTempFile(directory, "passivating", ".tmp");
+    try {
+      try (var output = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+        output.writeInt(MAGIC);
+        output.writeLong(session.getLastAccessedTimeInternal());
+        output.writeInt(session.getMaxInactiveInterval());
+        var deflater = new Deflater(Deflater.BEST_SPEED);
+        try (var objects = new BeanReplacingOutputStream(new DeflaterOutputStream(output, deflater))) {
+          ((StandardSession) session).writeObjectData(objects);
+          objects.flush();
+          if (objects.failure != null) {
+            throw new NotSerializableException(objects.failure.getName());
+          }
+        } finally {
+          deflater.end();
+        }
+      }
+      Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(temporary);
+    }
+  }
+
+  @Override
+  public void remove(String id) throws IOException {
+    Files.deleteIfExists(file(id));
+  }
+
+  @Override
+  public void clear() throws IOException {
+    for (var id : keys()) {
+      remove(id);
+    }
+  }
+
+  /// Expires stored sessions past their max inactive interval, reading only file headers
+  @Override
+  public void processExpires() {
+    var now = System.currentTimeMillis();
+    String[] ids;
+    try {
+      ids = keys();
+    } catch (IOException e) {
+      log.warn("Cannot list passivated sessions in {}", directory, e);
+      return;
+    }
+    for (var id : ids) {
+      try {
+        if (isExpired(id, now)) {
+          var session = load(id);
+          if (session != null) {
+            session.expire();
+          }
+          remove(id);
+        }
+      } catch (IOException | ClassNotFoundException | RuntimeException e) {
+        log.warn("Discarding unreadable passivated session {}: {}", id, e.toString());
+        try {
+          remove(id);
+        } catch (IOException ignored) {
+          // Retried on the next expiry run
+        }
+      }
+    }
+  }
+
+  /// Checks a stored session's expiry from its header
+  private boolean isExpired(String id, long now) throws IOException {
+    try (var input = new DataInputStream(new BufferedInputStream(Files.newInputStream(file(id)), 32))) {
+      var header = readHeader(input);
+      return header.maxInactiveSeconds() > 0 && now - header.lastAccessed() > header.maxInactiveSeconds() * 1000L;
+    } catch (NoSuchFileException e) {
+      return false;
+    }
+  }
+
+  private static Header readHeader(DataInputStream input) throws IOException {
+    if (input.readInt() != MAGIC) {
+      throw new IOException("Not a passivated session");
+    }
+    return new Header(input.readLong(), input.readInt());
+  }
+
+  private Path file(String id) throws IOException {
+    if (id == null || !SAFE_ID.matcher(id).matches()) {
+      throw new IOException("Invalid session ID");
+    }
+    return directory.resolve(id + SUFFIX);
+  }
+
+  /// Identity map of the current singletons, rebuilt when singletons were added
+  private synchronized Map<Object, String> beanNames() {
+    if (beans.getSingletonCount() != beanCount) {
+      var names = new IdentityHashMap<Object, String>();
+      for (var name : beans.getSingletonNames()) {
+        var bean = beans.getSingleton(name);
+        if (bean != null && !(bean instanceof String || bean instanceof Number || bean instanceof Boolean)) {
+          names.putIfAbsent(bean, name);
+        }
+      }
+      beanNames = names;
+      beanCount = beans.getSingletonCount();
+    }
+    return beanNames;
+  }
+
+  private record Header(long lastAccessed, int maxInactiveSeconds) {
+  }
+
+  /// Placeholder written instead of a Spring singleton
+  private record BeanReference(String name) implements Serializable {
+  }
+
+  /// Writes singletons as references and remembers the first non-serializable object
+  private final class BeanReplacingOutputStream extends ObjectOutputStream {
+    private final Map<Object, String> names = beanNames();
+    private Class<?> failure;
+
+    BeanReplacingOutputStream(OutputStream output) throws IOException {
+      super(output);
+      enableReplaceObject(true);
+    }
+
+    @Override
+    protected Object replaceObject(Object object) {
+      var name = names.get(object);
+      if (name != null) {
+        return new BeanReference(name);
+      }
+      if (!(object instanceof Serializable) && failure == null) {
+        // Tomcat catches the NotSerializableException per attribute; report it from save()
+        failure = object.getClass();
+      }
+      return object;
+    }
+  }
+
+  /// Resolves bean references and loads classes through the web application's loader
+  private final class BeanResolvingInputStream extends ObjectInputStream {
+
+    BeanResolvingInputStream(InputStream input) throws IOException {
+      super(input);
+      enableResolveObject(true);
+    }
+
+    @Override
+    protected Class<?> resolveClass(ObjectStreamClass description) throws IOException, ClassNotFoundException {
+      var loader = Thread.currentThread().getContextClassLoader();
+      if (loader != null) {
+        try {
+          return Class.forName(description.getName(), false, loader);
+        } catch (ClassNotFoundException e) {
+          // Fall back to the default resolution (primitives, JDK types)
+        }
+      }
+      return super.resolveClass(description);
+    }
+
+    @Override
+    protected Object resolveObject(Object object) {
+      return object instanceof BeanReference reference ? beans.getBean(reference.name()) : object;
+    }
+  }
+}
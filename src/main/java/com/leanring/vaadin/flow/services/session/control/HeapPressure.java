@@ -0,0 +1,60 @@
+package com.leanring.vaadin.flow.services.session.control;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+import java.util.function.IntSupplier;
+
+/// Memory pressure signal for session passivation.
+///
+/// Fires when either configured signal is reached:
+/// - Heap occupancy after the last garbage collection (the old generation for generational
+///   collectors) at or above a fraction of its maximum. Occupancy after GC ignores
+///   short-lived garbage, so it reflects what sessions actually retain
+/// - More sessions resident in memory than allowed (0 disables this signal)
+public final class HeapPressure implements BooleanSupplier {
+
+  private final double occupancyThreshold;
+  private final int maxResidentSessions;
+  private final IntSupplier residentSessions;
+  private final List<MemoryPoolMXBean> pools = ManagementFactory.getMemoryPoolMXBeans().stream()
+    .filter(pool -> pool.getType() == MemoryType.HEAP && pool.isCollectionUsageThresholdSupported())
+    .toList();
+
+  /// Creates the signal
+  /// @param occupancyThreshold Fraction of a heap pool's maximum, e.g. 0.75; 1 or more disables it
+  /// @param maxResidentSessions Maximum sessions kept in memory, 0 for no limit
+  /// @param residentSessions Current number of sessions in memory
+  public HeapPressure(double occupancyThreshold, int maxResidentSessions, IntSupplier residentSessions) {
+    if (occupancyThreshold <= 0) {
+      throw new IllegalArgumentException("Occupancy threshold must be positive: " + occupancyThreshold);
+    }
+    if (maxResidentSessions < 0) {
+      throw new IllegalArgumentException("Max resident sessions must not be negative: " + maxResidentSessions);
+    }
+    this.occupancyThreshold = occupancyThreshold;
+    this.maxResidentSessions = maxResidentSessions;
+    this.residentSessions = residentSessions;
+  }
+
+  @Override
+  public boolean getAsBoolean() {
+    return (maxResidentSessions > 0 && residentSessions.getAsInt() > maxResidentSessions)
+      || occupancy() >= occupancyThreshold;
+  }
+
+  /// @return Highest after-GC occupancy over the heap pools, 0 before the first collection
+  public double occupancy() {
+    var highest = 0.0;
+    for (var pool : pools) {
+      var usage = pool.getCollectionUsage();
+      var max = pool.getUsage().getMax();
+      if (usage != null && max > 0) {
+        highest = Math.max(highest, (double) usage.getUsed() / max);
+      }
+    }
+    return highest;
+  }
+}
@@ -0,0 +1,114 @@
+package com.leanring.vaadin.flow.services.session.control;
+
+import com.vaadin.flow.server.VaadinSession;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.catalina.Session;
+import org.apache.catalina.session.PersistentManager;
+import java.io.IOException;
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+/// Tomcat session manager that moves idle sessions to its store while the heap is under pressure.
+///
+/// Tomcat's own `maxIdleSwap` swaps by idle time alone. Here the periodic check does
+/// nothing until the pressure signal fires, then passivates every session idle for at
+/// least the threshold. A passivated session is restored transparently by the next
+/// request carrying its ID (for an open tab, its next heartbeat or push reconnect).
+/// Push is enabled app-wide, so idle tabs usually hold a push connection; it is closed
+/// before the swap, as the socket would otherwise keep the old UI reachable.
+/// Sessions are left in memory while:
+/// - a request holds their Vaadin session lock
+/// - a top-level attribute is not serializable (Tomcat would drop it from the live session)
+@Slf4j
+public class PassivatingSessionManager extends PersistentManager {
+
+  private final long idleMillis;
+  private final BooleanSupplier pressure;
+  private final LongAdder passivated = new LongAdder();
+
+  /// Creates the manager; call `setStore` before the context starts
+  /// @param idleMillis Minimum idle time before a session may be passivated
+  /// @param pressure Signal enabling passivation, checked on every background run
+  public PassivatingSessionManager(long idleMillis, BooleanSupplier pressure) {
+    if (idleMillis <= 0) {
+      throw new IllegalArgumentException("Idle time must be positive: " + idleMillis);
+    }
+    this.idleMillis = idleMillis;
+    this.pressure = pressure;
+    // Sessions do not survive restarts, as with the default manager
+    setSaveOnRestart(false);
+    // Check every background run (10 s) instead of every sixth
+    setProcessExpiresFrequency(1);
+  }
+
+  @Override
+  public void processPersistenceChecks() {
+    if (!getState().isAvailable() || getStore() == null || !pressure.getAsBoolean()) {
+      return;
+    }
+    var before = passivated.sum();
+    for (var session : findSessions()) {
+      if (session.getIdleTimeInternal() >= idleMillis) {
+        synchronized (session) {
+          passivate(session);
+        }
+      }
+    }
+    if (passivated.sum() > before) {
+      log.info("Heap pressure: passivated {} idle sessions, {} remain in memory",
+        passivated.sum() - before, getActiveSessions());
+    }
+  }
+
+  /// @return Number of sessions passivated since startup
+  public long getPassivatedCount() {
+    return passivated.sum();
+  }
+
+  /// Writes one session to the store and evicts it, unless it is busy or not serializable
+  private void passivate(Session session) {
+    if (!session.isValid()) {
+      return;
+    }
+    var attributes = Collections.list(session.getSession().getAttributeNames()).stream()
+      .map(name -> session.getSession().getAttribute(name))
+      .toList();
+    if (attributes.stream().anyMatch(value -> value != null && !(value instanceof Serializable))) {
+      return;
+    }
+    var vaadin = attributes.stream()
+      .filter(VaadinSession.class::isInstance)
+      .map(VaadinSession.class::cast)
+      .findFirst()
+      .orElse(null);
+    var lock = vaadin == null ? null : vaadin.getLockInstance();
+    if (lock != null && !lock.tryLock()) {
+      return;
+    }
+    try {
+      if (vaadin != null) {
+        disconnectPush(vaadin);
+      }
+      swapOut(session);
+      passivated.increment();
+    } catch (IOException e) {
+      log.debug("Session {} stays in memory: {}", session.getIdInternal(), e.toString());
+    } finally {
+      if (lock != null) {
+        lock.unlock();
+      }
+    }
+  }
+
+  /// Closes the push connections of all UIs; must hold the Vaadin session lock
+  private static void disconnectPush(VaadinSession session) {
+    for (var ui : session.getUIs()) {
+      var push = ui.getInternals().getPushConnection();
+      if (push != null && push.isConnected()) {
+        push.disconnect();
+      }
+    }
+  }
+}
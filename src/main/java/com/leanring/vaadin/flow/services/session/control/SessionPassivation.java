@@ -0,0 +1,76 @@
+package com.leanring.vaadin.flow.services.session.control;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.web.embedded.tomcat.TomcatServletWebServerFactory;
+import org.springframework.boot.web.server.WebServerFactoryCustomizer;
+import org.springframework.stereotype.Component;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/// Installs [PassivatingSessionManager] with a [CompressedSessionStore] in the embedded Tomcat.
+/// Opt-in: set `session.passivation.enabled=true`.
+///
+/// Under heap pressure ([HeapPressure]), sessions idle for `session.passivation.idle-seconds`
+/// are written to `session.passivation.directory` and evicted; their next request restores them.
+/// Vaadin only serializes UIs in production mode (or with
+/// `vaadin.devmode.sessionSerialization.enabled`); otherwise restored sessions start fresh UIs.
+/// Open tabs send a heartbeat every `vaadin.heartbeatInterval` (300 s by default), which
+/// resets their idle time, so the idle threshold must stay below it; otherwise only
+/// abandoned sessions would ever qualify. Startup fails if it does not.
+@Slf4j
+@Component
+public class SessionPassivation implements WebServerFactoryCustomizer<TomcatServletWebServerFactory> {
+
+  private final ConfigurableListableBeanFactory beans;
+  private final boolean enabled;
+  private final Path directory;
+  private final long idleSeconds;
+  private final double heapThreshold;
+  private final int maxResidentSessions;
+
+  /// Constructor with dependency injection
+  /// @param beans Bean factory whose singletons are stored by reference
+  /// @param enabled Whether idle sessions may be passivated at all
+  /// @param directory Directory for passivated sessions
+  /// @param idleSeconds Minimum idle time before a session may be passivated
+  /// @param heapThreshold After-GC heap occupancy (fraction) that triggers passivation
+  /// @param maxResidentSessions Session count in memory that triggers passivation (0 = none)
+  /// @param heartbeatSeconds Vaadin heartbeat interval (0 or less = no heartbeat)
+  /// @throws IllegalArgumentException if enabled and the idle threshold is not below the heartbeat interval
+  public SessionPassivation(
+    ConfigurableListableBeanFactory beans,
+    @Value("${session.passivation.enabled:false}") boolean enabled,
+    @Value("${session.passivation.directory:${java.io.tmpdir}/flow-sessions}") Path directory,
+    @Value("${session.passivation.idle-seconds:120}") long idleSeconds,
+    @Value("${session.passivation.heap-threshold:0.75}") double heapThreshold,
+    @Value("${session.passivation.max-resident-sessions:0}") int maxResidentSessions,
+    @Value("${vaadin.heartbeatInterval:300}") long heartbeatSeconds
+  ) {
+    if (enabled && heartbeatSeconds > 0 && idleSeconds >= heartbeatSeconds) {
+      throw new IllegalArgumentException("session.passivation.idle-seconds (%d) must be below the heartbeat interval (%d s)"
+        .formatted(idleSeconds, heartbeatSeconds));
+    }
+    this.beans = beans;
+    this.enabled = enabled;
+    this.directory = directory;
+    this.idleSeconds = idleSeconds;
+    this.heapThreshold = heapThreshold;
+    this.maxResidentSessions = maxResidentSessions;
+  }
+
+  @Override
+  public void customize(TomcatServletWebServerFactory factory) {
+    if (!enabled) {
+      return;
+    }
+    factory.addContextCustomizers(context -> {
+      var manager = new PassivatingSessionManager(TimeUnit.SECONDS.toMillis(idleSeconds),
+        new HeapPressure(heapThreshold, maxResidentSessions, () -> context.getManager().getActiveSessions()));
+      manager.setStore(new CompressedSessionStore(directory, beans));
+      context.setManager(manager);
+      log.info("Idle sessions are passivated to {} under heap pressure", directory);
+    });
+  }
+}
@@ -7,26 +7,66 @@ import com.leanring.vaadin.flow.dialog.DialogView;
 import com.leanring.vaadin.flow.forms.FormView;
 import com.leanring.vaadin.flow.grid.GridView;
 import com.leanring.vaadin.flow.layouts.LayoutsView;
+import com.leanring.vaadin.flow.services.catalog.control.ListenerRegistration;
+import com.leanring.vaadin.flow.services.inventory.control.StockAlerts;
+import com.leanring.vaadin.flow.services.inventory.entity.StockAlert;
+import com.vaadin.flow.component.AttachEvent;
+import com.vaadin.flow.component.DetachEvent;
 import com.vaadin.flow.component.applayout.AppLayout;
 import com.vaadin.flow.component.applayout.DrawerToggle;
+import com.vaadin.flow.component.button.Button;
+import com.vaadin.flow.component.button.ButtonVariant;
 import com.vaadin.flow.component.html.H1;
 import com.vaadin.flow.component.html.Span;
+import com.vaadin.flow.component.icon.VaadinIcon;
+import com.vaadin.flow.component.notification.Notification;
+import com.vaadin.flow.component.notification.NotificationVariant;
 import com.vaadin.flow.component.orderedlayout.FlexComponent;
 import com.vaadin.flow.component.orderedlayout.HorizontalLayout;
 import com.vaadin.flow.component.orderedlayout.VerticalLayout;
+import com.vaadin.flow.component.popover.Popover;
 import com.vaadin.flow.router.RouterLink;
 import com.vaadin.flow.theme.lumo.LumoUtility;
 
 /// Main application layout providing navigation shell.
 /// Uses AppLayout with drawer for navigation between demo views.
+/// The header carries a stock alert bell fed by [StockAlerts] over server push.
 public class MainLayout extends AppLayout {
 
+  /// Most alerts listed in the popover; the rest are only counted
+  private static final int MAX_LISTED_ALERTS = 20;
+
+  private final StockAlerts stockAlerts;
+  private final Span alertCount = new Span();
+  private final VerticalLayout alertList = new VerticalLayout();
+  private final Popover alertPopover = new Popover();
+  private transient ListenerRegistration alertSubscription;
+
   /// Constructor initializes the app layout with navigation
-  public MainLayout() {
+  /// @param stockAlerts Source of low-stock alerts for the bell
+  public MainLayout(StockAlerts stockAlerts) {
+    this.stockAlerts = stockAlerts;
     createHeader();
     createDrawer();
   }
 
+  @Override
+  protected void onAttach(AttachEvent event) {
+    super.onAttach(event);
+    var ui = event.getUI();
+    updateAlertCount();
+    alertSubscription = stockAlerts.addAlertListener(alert -> ui.access(() -> showAlert(alert)));
+  }
+
+  @Override
+  protected void onDetach(DetachEvent event) {
+    if (alertSubscription != null) {
+      alertSubscription.remove();
+      alertSubscription = null;
+    }
+    super.onDetach(event);
+  }
+
   /// Creates the application header with logo and toggle
   private void createHeader() {
     var toggle = new DrawerToggle();
@@ -39,9 +79,10 @@ public class MainLayout extends AppLayout {
       "app-logo"
     );
 
-    var header = new HorizontalLayout(toggle, logo);
+    var header = new HorizontalLayout(toggle, logo, createAlertBell());
     header.setDefaultVerticalComponentAlignment(FlexComponent.Alignment.CENTER);
     header.setWidthFull();
+    header.expand(logo);
     header.addClassNames(
       LumoUtility.Padding.Vertical.NONE,
       LumoUtility.Padding.Horizontal.MEDIUM,
@@ -51,6 +92,81 @@ public class MainLayout extends AppLayout {
     addToNavbar(header);
   }
 
+  /// Creates the stock alert bell: a badge counting products that are low or out of
+  /// stock, and a popover listing the most urgent ones. The list is only built while
+  /// the popover is open, so pushed alerts cost every other UI just a badge update.
+  /// @return Bell with its badge
+  private HorizontalLayout createAlertBell() {
+    var bell = new Button(VaadinIcon.BELL.create());
+    bell.addThemeVariants(ButtonVariant.LUMO_TERTIARY, ButtonVariant.LUMO_ICON);
+    bell.setAriaLabel("Stock alerts");
+
+    alertCount.getElement().setAttribute("theme", "badge error pill small");
+    alertList.setPadding(false);
+    alertList.setSpacing(false);
+
+    alertPopover.setTarget(bell);
+    alertPopover.add(alertList);
+    alertPopover.addOpenedChangeListener(e -> {
+      if (e.isOpened()) {
+        listAlerts();
+      } else {
+        alertList.removeAll();
+      }
+    });
+
+    var bellWithCount = new HorizontalLayout(bell, alertCount);
+    bellWithCount.setDefaultVerticalComponentAlignment(FlexComponent.Alignment.CENTER);
+    bellWithCount.setSpacing(false);
+    return bellWithCount;
+  }
+
+  /// Shows a pushed alert and refreshes the bell
+  /// @param alert Alert raised by StockAlerts
+  private void showAlert(StockAlert alert) {
+    updateAlertCount();
+    if (alertPopover.isOpened()) {
+      listAlerts();
+    }
+    var notification = Notification.show(label(alert), 4000, Notification.Position.TOP_END);
+    notification.addThemeVariants(switch (alert.level()) {
+      case OUT_OF_STOCK -> NotificationVariant.LUMO_ERROR;
+      case LOW -> NotificationVariant.LUMO_WARNING;
+      case IN_STOCK -> NotificationVariant.LUMO_SUCCESS;
+    });
+  }
+
+  /// Updates the badge with the number of active alerts
+  private void updateAlertCount() {
+    var count = stockAlerts.getActiveAlertCount();
+    alertCount.setText(String.valueOf(count));
+    alertCount.setVisible(count > 0);
+  }
+
+  /// Fills the popover with the most urgent active alerts
+  private void listAlerts() {
+    alertList.removeAll();
+    var count = stockAlerts.getActiveAlertCount();
+    var listed = stockAlerts.getActiveAlerts(MAX_LISTED_ALERTS);
+    if (listed.isEmpty()) {
+      alertList.add(new Span("✅ No stock alerts"));
+    }
+    listed.forEach(alert -> alertList.add(new Span(label(alert))));
+    if (count > listed.size()) {
+      alertList.add(new Span("… and %d more".formatted(count - listed.size())));
+    }
+    alertList.add(createNavLink("🛒 Open catalog", ProductView.class));
+  }
+
+  /// @return Alert message with the catalog's stock status emoji
+  private static String label(StockAlert alert) {
+    return switch (alert.level()) {
+      case OUT_OF_STOCK -> "❌ " + alert.getMessage();
+      case LOW -> "⚠️ " + alert.getMessage();
+      case IN_STOCK -> "✅ " + alert.getMessage();
+    };
+  }
+
   /// Creates the navigation drawer with links to all views
   private void createDrawer() {
     var menu = new VerticalLayout(
@@ -0,0 +1,128 @@
+package com.leanring.vaadin.flow;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// Smoke test for the native executable built with `mvn -Pproduction,native native:compile`.
+/// Excluded from the default build; run with `mvn -Pnative-smoke test`.
+/// Budgets can be overridden with `-Dnative.startup-budget-ms` and `-Dnative.rss-budget-mb`.
+@Tag("native-smoke")
+class NativeSmokeTest {
+
+  private static final Path BINARY = Path.of("target", "flow");
+  private static final long STARTUP_BUDGET_MS = Long.getLong("native.startup-budget-ms", 1_000);
+  private static final long RSS_BUDGET_MB = Long.getLong("native.rss-budget-mb", 256);
+
+  private final HttpClient client = HttpClient.newBuilder()
+    .connectTimeout(Duration.ofMillis(200))
+    .build();
+  private Process process;
+  private int port;
+  private Duration startupTime;
+
+  @AfterEach
+  void tearDown() {
+    if (process != null) {
+      process.destroy();
+    }
+  }
+
+  @Test
+  @DisplayName("Native binary should serve its first request within the startup budget")
+  void shouldStartWithinBudget(TestReporter reporter) throws Exception {
+    start();
+
+    assertTrue(startupTime.toMillis() <= STARTUP_BUDGET_MS,
+      "Native startup took %d ms, budget %d ms".formatted(startupTime.toMillis(), STARTUP_BUDGET_MS));
+
+    var rssMb = residentSetMb(process.pid());
+    reporter.publishEntry("startup-ms", Long.toString(startupTime.toMillis()));
+    reporter.publishEntry("rss-mb", Long.toString(rssMb));
+    assertTrue(rssMb <= RSS_BUDGET_MB, "RSS %d MB exceeds budget %d MB".formatted(rssMb, RSS_BUDGET_MB));
+  }
+
+  @Test
+  @DisplayName("Native binary should stream the catalog through ProductService")
+  void shouldServeCatalog() throws Exception {
+    start();
+
+    var response = get("/api/products?limit=5");
+
+    assertEquals(200, response.statusCode());
+    assertEquals(5, response.body().lines().count());
+  }
+
+  @ParameterizedTest
+  @ValueSource(strings = {"", "hello-world", "basic", "dialog", "layouts", "form", "grid", "products", "three-demo"})
+  @DisplayName("Native binary should serve every route")
+  void shouldServeRoute(String route) throws Exception {
+    start();
+
+    assertEquals(200, get("/" + route).statusCode(), "Route '/" + route + "' failed");
+  }
+
+  /// Launches the binary on a free port and waits for the first successful request
+  private void start() throws Exception {
+    assertTrue(Files.isExecutable(BINARY), "Build the native binary first: " + BINARY);
+    try (var socket = new ServerSocket(0)) {
+      port = socket.getLocalPort();
+    }
+
+    var started = System.nanoTime();
+    process = new ProcessBuilder(BINARY.toString(), "--server.port=" + port, "--vaadin.launch-browser=false")
+      .inheritIO()
+      .start();
+
+    var deadline = started + Duration.ofSeconds(30).toNanos();
+    while (System.nanoTime() < deadline) {
+      assertTrue(process.isAlive(), () -> "Native binary exited with " + process.exitValue());
+      try {
+        if (get("/actuator/health").statusCode() == 200) {
+          startupTime = Duration.ofNanos(System.nanoTime() - started);
+          return;
+        }
+      } catch (IOException notReadyYet) {
+        // Port not bound yet
+      }
+      Thread.sleep(10);
+    }
+    fail("Native binary did not answer within 30 s");
+  }
+
+  private HttpResponse<String> get(String path) throws IOException, InterruptedException {
+    var request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build();
+    return client.send(request, HttpResponse.BodyHandlers.ofString());
+  }
+
+  /// Reads the resident set size from /proc (Linux only; 0 elsewhere)
+  private static long residentSetMb(long pid) throws IOException {
+    var status = Path.of("/proc", Long.toString(pid), "status");
+    if (!Files.exists(status)) {
+      return 0;
+    }
+    return Files.readAllLines(status).stream()
+      .filter(line -> line.startsWith("VmRSS:"))
+      .map(line -> line.replaceAll("\\D", ""))
+      .mapToLong(Long::parseLong)
+      .map(kb -> kb / 1024)
+      .findFirst()
+      .orElse(0);
+  }
+}
@@ -0,0 +1,75 @@
+package com.leanring.vaadin.flow;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestReporter;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// Startup regression gate measuring time-to-first-request.
+/// The application is started in a fresh JVM on the test classpath, so nothing is
+/// warmed up by the test run itself. Excluded from the default build; run with
+/// `mvn -Pstartup-benchmark test`, optionally overriding `-Dstartup.budget-ms`.
+@Tag("benchmark")
+class StartupBenchmarkTest {
+
+  private static final long BUDGET_MS = Long.getLong("startup.budget-ms", 20_000);
+
+  private final HttpClient client = HttpClient.newBuilder()
+    .connectTimeout(Duration.ofMillis(200))
+    .build();
+  private Process process;
+
+  @AfterEach
+  void tearDown() {
+    if (process != null) {
+      process.destroy();
+    }
+  }
+
+  @Test
+  @DisplayName("Time to first served request should stay within budget")
+  void timeToFirstRequestShouldStayWithinBudget(TestReporter reporter) throws Exception {
+    int port;
+    try (var socket = new ServerSocket(0)) {
+      port = socket.getLocalPort();
+    }
+    var java = Path.of(System.getProperty("java.home"), "bin", "java").toString();
+    var request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/products?limit=1")).build();
+
+    var started = System.nanoTime();
+    process = new ProcessBuilder(java, "--enable-preview", "-cp", System.getProperty("java.class.path"),
+      FlowApplication.class.getName(), "--server.port=" + port, "--vaadin.launch-browser=false")
+      .inheritIO()
+      .start();
+
+    var deadline = started + Duration.ofMillis(BUDGET_MS).toNanos();
+    HttpResponse<String> response = null;
+    while (response == null && System.nanoTime() < deadline) {
+      assertTrue(process.isAlive(), () -> "Application exited with " + process.exitValue());
+      try {
+        response = client.send(request, HttpResponse.BodyHandlers.ofString());
+      } catch (IOException notReadyYet) {
+        Thread.sleep(10);
+      }
+    }
+    var elapsed = Duration.ofNanos(System.nanoTime() - started);
+
+    assertNotNull(response, "Startup regressed: no answer within the budget of %d ms".formatted(BUDGET_MS));
+    assertEquals(200, response.statusCode());
+    reporter.publishEntry("time-to-first-request-ms", Long.toString(elapsed.toMillis()));
+    assertTrue(elapsed.toMillis() <= BUDGET_MS,
+      "Startup regressed: %d ms exceeds budget of %d ms".formatted(elapsed.toMillis(), BUDGET_MS));
+  }
+}
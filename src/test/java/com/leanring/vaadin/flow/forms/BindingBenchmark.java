@@ -0,0 +1,112 @@
+package com.leanring.vaadin.flow.forms;
+
+import com.vaadin.flow.component.textfield.EmailField;
+import com.vaadin.flow.component.textfield.TextField;
+import com.vaadin.flow.data.binder.BeanValidationBinder;
+import com.vaadin.flow.data.binder.BeanValidator;
+import com.vaadin.flow.data.binder.Binder;
+import com.vaadin.flow.data.binder.ValidationResult;
+import com.vaadin.flow.data.binder.Validator;
+import com.vaadin.flow.data.binder.ValueContext;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// JMH comparison of `BeanValidationBinder` against binders using [ConstraintPlan].
+/// Excluded from the default build; run with `mvn -Pjmh test`.
+///
+/// - `*FormBinder`: binder construction and binding of the three Person fields
+/// - `*Keystroke`: validating one email value, as done on every value change
+@Tag("jmh")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class BindingBenchmark {
+
+  private static final String EMAIL = "tebogo.nkwane@example.co.za";
+
+  private BeanValidator beanValidator;
+  private Validator<String> plannedValidator;
+  private ValueContext context;
+
+  @Setup
+  public void setUp() {
+    beanValidator = new BeanValidator(Person.class, "email");
+    plannedValidator = ConstraintPlan.of(Person.class).validator("email");
+    context = new ValueContext(new Binder<>(), Locale.ENGLISH);
+  }
+
+  @Benchmark
+  public Binder<Person> beanValidationFormBinder() {
+    var binder = new BeanValidationBinder<>(Person.class);
+    binder.bindInstanceFields(new PersonFields());
+    return binder;
+  }
+
+  @Benchmark
+  public Binder<Person> plannedFormBinder() {
+    var fields = new PersonFields();
+    var plan = ConstraintPlan.of(Person.class);
+    var binder = new Binder<Person>();
+    binder.forField(fields.name).withValidator(plan.validator("name")).bind(Person::name, null);
+    binder.forField(fields.email).withValidator(plan.validator("email")).bind(Person::email, null);
+    binder.forField(fields.phone).withValidator(plan.validator("phone")).bind(Person::phone, null);
+    return binder;
+  }
+
+  @Benchmark
+  public ValidationResult beanValidationKeystroke() {
+    return beanValidator.apply(EMAIL, context);
+  }
+
+  @Benchmark
+  public ValidationResult plannedKeystroke() {
+    return plannedValidator.apply(EMAIL, context);
+  }
+
+  @Test
+  @DisplayName("Planned binders should beat BeanValidationBinder")
+  void plannedBindingShouldBeFaster() throws Exception {
+    var options = new OptionsBuilder()
+      .include(BindingBenchmark.class.getName())
+      .build();
+    var scores = new HashMap<String, Double>();
+    for (var result : new Runner(options).run()) {
+      var label = result.getParams().getBenchmark();
+      scores.put(label.substring(label.lastIndexOf('.') + 1), result.getPrimaryResult().getScore());
+    }
+
+    assertTrue(scores.get("plannedKeystroke") < scores.get("beanValidationKeystroke"),
+      "Planned validation should be faster: " + scores);
+    assertTrue(scores.get("plannedFormBinder") < scores.get("beanValidationFormBinder"),
+      "Planned binder construction should be faster: " + scores);
+  }
+
+  /// Field holder matching Person's components, as bindInstanceFields expects
+  static final class PersonFields {
+    private final TextField name = new TextField("Name");
+    private final EmailField email = new EmailField("Email");
+    private final TextField phone = new TextField("Phone");
+  }
+}
@@ -0,0 +1,62 @@
+package com.leanring.vaadin.flow.forms;
+
+import com.leanring.vaadin.flow.services.catalog.entity.Money;
+import com.leanring.vaadin.flow.services.catalog.entity.Product;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// Unit tests for ConstraintPlan.
+/// Compiled validators must accept and reject exactly what Hibernate Validator does.
+class ConstraintPlanTest {
+
+  private static Validator beanValidator;
+
+  @BeforeAll
+  static void setUp() {
+    beanValidator = Validation.buildDefaultValidatorFactory().getValidator();
+  }
+
+  @Test
+  @DisplayName("Person record constraints should match Bean Validation")
+  void personConstraintsShouldMatchBeanValidation() {
+    assertSameVerdicts(Person.class, "name", Arrays.asList(null, "", "  ", "A", "Ab", "x".repeat(50), "x".repeat(51)));
+    assertSameVerdicts(Person.class, "email", Arrays.asList(null, "", "a@b", "tebogo@example.co.za",
+      "a b@c.com", "a@", "@b.com", "a.@b.com", "a..b@c.com", "first.last+tag@sub.example.com"));
+    assertSameVerdicts(Person.class, "phone", Arrays.asList(null, "", "+2712345678", "1".repeat(16)));
+  }
+
+  @Test
+  @DisplayName("Nested and numeric constraints should match Bean Validation")
+  void nestedAndNumericConstraintsShouldMatchBeanValidation() {
+    assertSameVerdicts(Address.class, "city", Arrays.asList(null, "", " ", "Cape Town"));
+    assertSameVerdicts(Product.class, "price", List.of(Money.zar("0.00"), Money.zar("0.01"), Money.zar("-5")));
+    assertSameVerdicts(Product.class, "stock", List.of(-1, 0, 10));
+
+    var nested = ConstraintPlan.of(PersonEntity.class).<String>validator("address.city");
+    assertTrue(nested.apply("", null).isError());
+    assertFalse(nested.apply("Durban", null).isError());
+  }
+
+  @Test
+  @DisplayName("Unknown properties should be rejected when the plan is compiled")
+  void unknownPropertyShouldFail() {
+    assertThrows(IllegalArgumentException.class, () -> ConstraintPlan.of(Person.class).validator("age"));
+  }
+
+  private static <T> void assertSameVerdicts(Class<T> type, String property, List<?> values) {
+    var validator = ConstraintPlan.of(type).<Object>validator(property);
+    for (var value : values) {
+      var expected = beanValidator.validateValue(type, property, value).isEmpty();
+      assertEquals(expected, !validator.apply(value, null).isError(),
+        "%s.%s = '%s'".formatted(type.getSimpleName(), property, value));
+    }
+  }
+}
@@ -0,0 +1,59 @@
+package com.leanring.vaadin.flow.js;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// Unit tests for Decimation.
+/// Verifies output sizes follow the viewport, not the dataset.
+class DecimationTest {
+
+  @Test
+  @DisplayName("LTTB should keep threshold samples including first and last")
+  void lttbShouldKeepEndpoints() {
+    var xy = new float[200_000];
+    for (int i = 0; i < 100_000; i++) {
+      xy[i * 2] = i;
+      xy[i * 2 + 1] = (float) Math.sin(i / 500.0);
+    }
+
+    var result = Decimation.lttb(xy, 800);
+
+    assertEquals(800, result.elements());
+    assertEquals(0f, result.values()[0]);
+    assertEquals(99_999f, result.values()[result.length() - 2]);
+  }
+
+  @Test
+  @DisplayName("LTTB should keep a series shorter than the threshold unchanged")
+  void lttbShouldNotUpsample() {
+    var xy = new float[] {0, 1, 1, 2, 2, 3};
+
+    assertArrayEquals(xy, Decimation.lttb(xy, 800).values());
+  }
+
+  @Test
+  @DisplayName("Voxel grid should fit the budget and stay inside the camera bounds")
+  void voxelGridShouldRespectBudgetAndBounds() {
+    var cloud = new SceneDataService().getPointCloud();
+    var bounds = new Decimation.Bounds(-0.5f, -1f, -0.5f, 0.5f, 1f, 0.5f);
+
+    var result = Decimation.voxelGrid(cloud.values(), bounds, 10_000);
+    var values = result.values();
+
+    assertTrue(result.elements() <= 10_000);
+    assertTrue(result.elements() > 5_000, "Sparse bounds should still use most of the budget");
+    for (int i = 0; i < values.length; i += 3) {
+      assertTrue(bounds.contains(values[i], values[i + 1], values[i + 2]));
+    }
+  }
+
+  @Test
+  @DisplayName("Point budget should scale with viewport pixels within limits")
+  void pointBudgetShouldScaleWithViewport() {
+    assertEquals(120_000, Decimation.pointBudget(1200, 400));
+    assertEquals(Decimation.MIN_BUDGET, Decimation.pointBudget(10, 10));
+    assertEquals(Decimation.MAX_BUDGET, Decimation.pointBudget(10_000, 10_000));
+  }
+}
@@ -0,0 +1,55 @@
+package com.leanring.vaadin.flow.js;
+
+import com.leanring.vaadin.flow.services.catalog.control.ProductChange;
+import com.leanring.vaadin.flow.services.catalog.entity.Category;
+import com.leanring.vaadin.flow.services.catalog.entity.Money;
+import com.leanring.vaadin.flow.services.catalog.entity.Product;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// Unit tests for the scene model of LiveSceneService.
+/// Frames are checked for what the client would end up showing.
+class LiveSceneServiceTest {
+
+  @Test
+  @DisplayName("A product deleted and re-created within one frame should only be upserted")
+  void recreatedProductShouldStayVisible() {
+    var scene = new LiveSceneService.Scene();
+    var lamp = product(1, 5);
+    scene.put(lamp);
+    scene.drain();
+
+    scene.apply(new ProductChange(lamp, null));
+    scene.apply(new ProductChange(null, product(1, 7)));
+    var frame = scene.drain();
+
+    assertEquals(0, frame.getArray("remove").length());
+    assertEquals(5, frame.getArray("upsert").length());
+    assertEquals(1.0, frame.getArray("upsert").getNumber(0));
+    assertNull(scene.drain());
+  }
+
+  @Test
+  @DisplayName("A deleted product should free its slot for the next product")
+  void deletedSlotShouldBeReused() {
+    var scene = new LiveSceneService.Scene();
+    var first = product(1, 5);
+    scene.put(first);
+    scene.put(product(2, 5));
+    scene.drain();
+
+    scene.apply(new ProductChange(first, null));
+    scene.put(product(3, 5));
+    var frame = scene.drain();
+
+    assertEquals(1.0, frame.getArray("remove").getNumber(0));
+    // Third value of an upsert is the slot position; product 3 takes product 1's slot 0
+    assertEquals(0.0, frame.getArray("upsert").getNumber(2));
+  }
+
+  private static Product product(long id, int stock) {
+    return new Product(id, "Lamp " + id, Category.HOME, Money.zar(100), stock, null, null);
+  }
+}
@@ -0,0 +1,112 @@
+package com.leanring.vaadin.flow.load;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/// Thread-safe latency, payload and error bookkeeping for a load run, per operation.
+final class LoadStatistics {
+
+  private final Map<String, Operation> operations = new ConcurrentHashMap<>();
+
+  /// Records one round-trip
+  /// @param operation Operation name, e.g. `search`
+  /// @param nanos Latency as seen by the client
+  /// @param responseChars Response body length
+  /// @param success false for transport, HTTP or application errors
+  void record(String operation, long nanos, long responseChars, boolean success) {
+    operations.computeIfAbsent(operation, name -> new Operation()).add(nanos, responseChars, success);
+  }
+
+  /// @return Number of recorded round-trips
+  long requests() {
+    return operations.values().stream().mapToLong(Operation::count).sum();
+  }
+
+  /// @return Number of failed round-trips
+  long errors() {
+    return operations.values().stream().mapToLong(Operation::errors).sum();
+  }
+
+  /// @return Failed share of all round-trips, 0 if none were made
+  double errorRate() {
+    var requests = requests();
+    return requests == 0 ? 0 : (double) errors() / requests;
+  }
+
+  /// Latency percentile over all successful round-trips of one operation
+  /// @param operation Operation name
+  /// @param percentile Percentile in (0, 100]
+  /// @return Latency in milliseconds, 0 if the operation was never recorded
+  double percentileMillis(String operation, double percentile) {
+    var recorded = operations.get(operation);
+    return recorded == null ? 0 : recorded.percentileMillis(percentile);
+  }
+
+  /// Formats a report table: one row per operation plus totals
+  /// @param elapsed Wall-clock duration of the run
+  /// @param sessions Number of simulated sessions
+  /// @param heapPerSession Heap growth per session in bytes, negative if not measured
+  /// @return Multi-line report
+  String report(Duration elapsed, int sessions, long heapPerSession) {
+    var seconds = Math.max(elapsed.toMillis(), 1) / 1000.0;
+    var report = new StringBuilder();
+    report.append("%-22s %8s %7s %9s %9s %9s %9s %10s%n".formatted(
+      "operation", "requests", "errors", "p50 ms", "p95 ms", "p99 ms", "max ms", "avg chars"));
+    new TreeMap<>(operations).forEach((name, operation) -> report.append(
+      "%-22s %8d %7d %9.1f %9.1f %9.1f %9.1f %10d%n".formatted(
+        name, operation.count(), operation.errors(),
+        operation.percentileMillis(50), operation.percentileMillis(95), operation.percentileMillis(99),
+        operation.percentileMillis(100), operation.averageChars())));
+    report.append("%d sessions, %d requests in %.1f s: %.0f req/s, error rate %.2f%%%n".formatted(
+      sessions, requests(), seconds, requests() / seconds, errorRate() * 100));
+    if (heapPerSession >= 0) {
+      report.append("Heap growth per session: %d KB%n".formatted(heapPerSession / 1024));
+    }
+    return report.toString();
+  }
+
+  /// Samples of one operation; latencies are kept in full to compute exact percentiles
+  private static final class Operation {
+    private long[] latencies = new long[1024];
+    private int successes;
+    private long errors;
+    private long chars;
+
+    synchronized void add(long nanos, long responseChars, boolean success) {
+      if (!success) {
+        errors++;
+        return;
+      }
+      if (successes == latencies.length) {
+        latencies = Arrays.copyOf(latencies, successes * 2);
+      }
+      latencies[successes++] = nanos;
+      chars += responseChars;
+    }
+
+    synchronized long count() {
+      return successes + errors;
+    }
+
+    synchronized long errors() {
+      return errors;
+    }
+
+    synchronized long averageChars() {
+      return successes == 0 ? 0 : chars / successes;
+    }
+
+    synchronized double percentileMillis(double percentile) {
+      if (successes == 0) {
+        return 0;
+      }
+      var sorted = Arrays.copyOf(latencies, successes);
+      Arrays.sort(sorted);
+      var index = (int) Math.ceil(percentile / 100 * successes) - 1;
+      return sorted[Math.clamp(index, 0, successes - 1)] / 1_000_000.0;
+    }
+  }
+}
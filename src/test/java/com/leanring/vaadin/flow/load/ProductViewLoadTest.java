@@ -0,0 +1,164 @@
+package com.leanring.vaadin.flow.load;
+
+import com.leanring.vaadin.flow.FlowApplication;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// Load harness: N concurrent sessions working in the product catalog over HTTP/UIDL.
+/// Excluded from the default build; run with `mvn -Pload test`.
+///
+/// Boots the application on a random port (or targets `-Dload.url`), then every simulated
+/// client opens `products`, loads grid rows, types searches, opens the editor and saves,
+/// and adjusts stock through the editor. Reports throughput, latency percentiles per
+/// operation, heap growth per session (in-process runs only) and the error rate.
+/// Fails if any session aborts, or if the request error rate exceeds its budget.
+///
+/// Tuning: `-Dload.clients` (default 100), `-Dload.iterations` (5), `-Dload.think-ms` (200),
+/// `-Dload.ramp-up-ms` (5000), `-Dload.max-error-rate` (0.01).
+@Tag("load")
+class ProductViewLoadTest {
+
+  private static final int CLIENTS = Integer.getInteger("load.clients", 100);
+  private static final int ITERATIONS = Integer.getInteger("load.iterations", 5);
+  private static final long THINK_MS = Long.getLong("load.think-ms", 200);
+  private static final long RAMP_UP_MS = Long.getLong("load.ramp-up-ms", 5_000);
+  private static final double MAX_ERROR_RATE = Double.parseDouble(System.getProperty("load.max-error-rate", "0.01"));
+  private static final String URL = System.getProperty("load.url");
+  private static final List<String> SEARCHES = List.of("laptop", "code", "smart", "nike", "coffee");
+
+  private final HttpClient http = HttpClient.newBuilder()
+    .connectTimeout(Duration.ofSeconds(5))
+    .executor(Executors.newVirtualThreadPerTaskExecutor())
+    .build();
+  private final LoadStatistics statistics = new LoadStatistics();
+
+  @Test
+  @DisplayName("Product view should serve concurrent sessions within the error budget")
+  void productViewShouldSustainConcurrentSessions() throws Exception {
+    if (URL != null) {
+      run(URI.create(URL.endsWith("/") ? URL : URL + "/"), false);
+      return;
+    }
+    try (var context = new SpringApplicationBuilder(FlowApplication.class)
+      .run("--server.port=0", "--vaadin.launch-browser=false")) {
+      var port = context.getEnvironment().getProperty("local.server.port");
+      run(URI.create("http://localhost:" + port + "/"), true);
+    }
+  }
+
+  private void run(URI base, boolean measureHeap) throws Exception {
+    // Warm-up session: view classes, caches and first-request initialisation are not per-session cost
+    new UidlClient(http, base, new LoadStatistics()).open("products");
+    var heapBefore = measureHeap ? usedHeapAfterGc() : 0;
+
+    var failedSessions = new AtomicInteger();
+    var started = System.nanoTime();
+    try (var clients = Executors.newVirtualThreadPerTaskExecutor()) {
+      for (int i = 0; i < CLIENTS; i++) {
+        var delay = RAMP_UP_MS * i / CLIENTS;
+        clients.submit(() -> {
+          try {
+            Thread.sleep(delay);
+            scenario(new UidlClient(http, base, statistics));
+          } catch (InterruptedException e) {
+            failedSessions.incrementAndGet();
+            Thread.currentThread().interrupt();
+          } catch (IOException | RuntimeException e) {
+            failedSessions.incrementAndGet();
+            System.err.println("Session failed: " + e.getMessage());
+          }
+        });
+      }
+    }
+    var elapsed = Duration.ofNanos(System.nanoTime() - started);
+    // Sessions stay open on the server until they time out, so their heap is still retained
+    var heapPerSession = measureHeap ? Math.max(0, usedHeapAfterGc() - heapBefore) / CLIENTS : -1;
+
+    System.out.print(statistics.report(elapsed, CLIENTS, heapPerSession));
+    assertTrue(statistics.requests() > 0, "No requests were made");
+    // An aborted session skips the rest of its scenario, so its errors never reach the error rate
+    assertEquals(0, failedSessions.get(), "Sessions aborted before finishing their scenario");
+    assertTrue(statistics.errorRate() <= MAX_ERROR_RATE,
+      "Error rate %.2f%% exceeds %.2f%%".formatted(statistics.errorRate() * 100, MAX_ERROR_RATE * 100));
+  }
+
+  /// One user: open the catalog, then search, edit and adjust stock repeatedly
+  private static void scenario(UidlClient client) throws IOException, InterruptedException {
+    var random = ThreadLocalRandom.current();
+    client.open("products");
+    var grid = client.find("vaadin-grid", node -> true)
+      .orElseThrow(() -> new IOException("No grid in products view"));
+    client.call("load rows", grid, "setViewportRange", 0, 50);
+
+    for (int i = 0; i < ITERATIONS; i++) {
+      var search = client.find("vaadin-text-field", node -> node.property("placeholder").contains("Search"))
+        .orElseThrow(() -> new IOException("No search field"));
+      var term = SEARCHES.get(random.nextInt(SEARCHES.size()));
+      for (int length = 2; length <= term.length(); length++) {
+        client.sync("search", search, "value", term.substring(0, length));
+        think();
+      }
+      client.sync("search", search, "value", "");
+      think();
+
+      openEditor(client);
+      client.click("save", button(client, "Save"));
+      think();
+
+      openEditor(client);
+      var stock = client.find("vaadin-integer-field", node -> "Stock Quantity".equals(node.property("label")))
+        .orElseThrow(() -> new IOException("No stock field in editor"));
+      client.sync("adjust stock", stock, "value", String.valueOf(random.nextInt(1, 500)));
+      client.click("save", button(client, "Save"));
+      think();
+    }
+  }
+
+  /// Clicks a random row's Edit button
+  private static void openEditor(UidlClient client) throws IOException, InterruptedException {
+    var edits = client.buttons("Edit");
+    if (edits.isEmpty()) {
+      throw new IOException("No Edit buttons rendered in the grid");
+    }
+    client.click("open editor", edits.get(ThreadLocalRandom.current().nextInt(edits.size())));
+    think();
+  }
+
+  private static int button(UidlClient client, String text) throws IOException {
+    var buttons = client.buttons(text);
+    if (buttons.isEmpty()) {
+      throw new IOException("No '" + text + "' button");
+    }
+    return buttons.getFirst();
+  }
+
+  private static void think() throws InterruptedException {
+    if (THINK_MS > 0) {
+      TimeUnit.MILLISECONDS.sleep(ThreadLocalRandom.current().nextLong(THINK_MS / 2, THINK_MS * 3 / 2 + 1));
+    }
+  }
+
+  private static long usedHeapAfterGc() throws InterruptedException {
+    var memory = ManagementFactory.getMemoryMXBean();
+    for (int i = 0; i < 3; i++) {
+      System.gc();
+      Thread.sleep(100);
+    }
+    return memory.getHeapMemoryUsage().getUsed();
+  }
+}
@@ -0,0 +1,327 @@
+package com.leanring.vaadin.flow.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.vaadin.flow.internal.nodefeature.NodeFeatures;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/// One simulated browser tab speaking Vaadin's HTTP/UIDL protocol.
+///
+/// Keeps what a real client keeps between round-trips: the session cookie, CSRF token,
+/// sync IDs and a mirror of the server's state tree (tags, properties, text, listeners,
+/// children). Scenarios find components in the mirror and send the same RPCs the
+/// browser would: property syncs, DOM events and `@ClientCallable` invocations.
+/// Push, heartbeats and executed JavaScript are ignored.
+///
+/// Every round-trip is recorded in [LoadStatistics] under the caller's operation name;
+/// HTTP errors, application errors and resynchronisation requests count as failures.
+final class UidlClient {
+
+  private static final ObjectMapper JSON = new ObjectMapper();
+  private static final String UIDL_PREFIX = "for(;;);";
+
+  private final HttpClient http;
+  private final URI base;
+  private final LoadStatistics statistics;
+  private final Map<Integer, Node> nodes = new HashMap<>();
+  private String cookie;
+  private String uiId;
+  private String csrfToken;
+  private int syncId = -1;
+  private int clientId;
+  private int promise;
+
+  /// Creates a client without opening a session
+  /// @param http Shared HTTP client (cookies are kept per instance)
+  /// @param base Application root, e.g. `http://localhost:8080/`
+  /// @param statistics Statistics receiving each round-trip
+  UidlClient(HttpClient http, URI base, LoadStatistics statistics) {
+    this.http = http;
+    this.base = base;
+    this.statistics = statistics;
+  }
+
+  /// Opens a new UI on a route, as the bootstrap page does
+  /// @param route Route path without leading slash
+  /// @throws IOException if the request fails or returns no UIDL
+  void open(String route) throws IOException {
+    var query = "v-r=init&location=" + encode(route) + "&query="
+      + "&v-sw=1920&v-sh=1080&v-bw=1280&v-bh=800&v-tzo=0&v-rtzo=0&v-dstd=0&v-dston=false"
+      + "&v-tzid=UTC&v-curdate=" + System.currentTimeMillis() + "&v-td=false&v-pr=1"
+      + "&v-wn=" + UUID.randomUUID();
+    var request = HttpRequest.newBuilder(base.resolve("?" + query)).GET();
+    var json = send("open " + route, request);
+    var config = json.path("appConfig");
+    uiId = config.path("v-uiId").asText();
+    apply(config.path("uidl"));
+    if (uiId.isEmpty() || csrfToken == null) {
+      throw new IOException("Init response for " + route + " has no UI");
+    }
+  }
+
+  /// Sends a property change, as a field does when its value is committed
+  /// @param operation Statistics name
+  /// @param node Element node
+  /// @param property Property name, e.g. `value`
+  /// @param value New value
+  void sync(String operation, int node, String property, Object value) throws IOException {
+    var rpc = JSON.createObjectNode()
+      .put("type", "mSync")
+      .put("node", node)
+      .put("feature", NodeFeatures.ELEMENT_PROPERTIES)
+      .put("property", property);
+    rpc.set("value", JSON.valueToTree(value));
+    roundTrip(operation, rpc);
+  }
+
+  /// Fires a DOM event; event data expressions the server listens for are filled with defaults
+  /// @param operation Statistics name
+  /// @param node Element node
+  /// @param event DOM event type, e.g. `click`
+  void fire(String operation, int node, String event) throws IOException {
+    var data = JSON.createObjectNode();
+    var expressions = node(node).listeners.get(event);
+    if (expressions != null) {
+      expressions.fieldNames().forEachRemaining(expression -> {
+        if (expression.endsWith("Key")) {
+          data.put(expression, false);
+        } else if (expression.startsWith("event.")) {
+          data.put(expression, expression.equals("event.detail") ? 1 : 0);
+        }
+      });
+    }
+    var rpc = JSON.createObjectNode()
+      .put("type", "event")
+      .put("node", node)
+      .put("event", event);
+    rpc.set("data", data);
+    roundTrip(operation, rpc);
+  }
+
+  /// Clicks an element
+  /// @param operation Statistics name
+  /// @param node Element node
+  void click(String operation, int node) throws IOException {
+    fire(operation, node, "click");
+  }
+
+  /// Invokes a `@ClientCallable` method, as a web component's connector does
+  /// @param operation Statistics name
+  /// @param node Component's element node
+  /// @param method Method name
+  /// @param arguments JSON-compatible arguments
+  void call(String operation, int node, String method, Object... arguments) throws IOException {
+    var rpc = JSON.createObjectNode()
+      .put("type", "publishedEventHandler")
+      .put("node", node)
+      .put("templateEventMethodName", method)
+      .put("promise", promise++);
+    rpc.set("templateEventMethodArgs", JSON.valueToTree(arguments));
+    roundTrip(operation, rpc);
+  }
+
+  /// Finds an element by tag
+  /// @param tag Element tag, e.g. `vaadin-grid`
+  /// @param filter Additional condition
+  /// @return Node ID of the first match
+  Optional<Integer> find(String tag, Predicate<Node> filter) {
+    return findAll(tag, filter).stream().findFirst();
+  }
+
+  /// Finds all elements with a tag
+  /// @param tag Element tag
+  /// @param filter Additional condition
+  /// @return Node IDs in ascending order
+  List<Integer> findAll(String tag, Predicate<Node> filter) {
+    return nodes.values().stream()
+      .filter(node -> tag.equals(node.tag) && filter.test(node))
+      .map(node -> node.id)
+      .sorted()
+      .toList();
+  }
+
+  /// Finds a button by its text
+  /// @param text Button text
+  /// @return Node IDs of all matching buttons
+  List<Integer> buttons(String text) {
+    return findAll("vaadin-button", node -> text.equals(text(node)));
+  }
+
+  /// Text content of an element: its text node children, concatenated
+  /// @param node Element
+  /// @return Text, empty if none
+  String text(Node node) {
+    var text = new StringBuilder();
+    for (var child : node.children) {
+      var childNode = nodes.get(child);
+      if (childNode != null && childNode.text != null) {
+        text.append(childNode.text);
+      }
+    }
+    return text.toString().strip();
+  }
+
+  /// @return Number of state nodes mirrored from the server
+  int nodeCount() {
+    return nodes.size();
+  }
+
+  /// Posts one RPC invocation and applies the response
+  private void roundTrip(String operation, ObjectNode rpc) throws IOException {
+    var body = JSON.createObjectNode()
+      .put("csrfToken", csrfToken)
+      .put("syncId", syncId)
+      .put("clientId", clientId);
+    body.putArray("rpc").add(rpc);
+    var request = HttpRequest.newBuilder(base.resolve("?v-r=uidl&v-uiId=" + uiId))
+      .header("Content-Type", "application/json; charset=UTF-8")
+      .POST(HttpRequest.BodyPublishers.ofString(body.toString()));
+    clientId++;
+    apply(send(operation, request));
+  }
+
+  /// Sends a request with the session cookie, records it and parses the JSON response
+  private JsonNode send(String operation, HttpRequest.Builder builder) throws IOException {
+    if (cookie != null) {
+      builder.header("Cookie", cookie);
+    }
+    var start = System.nanoTime();
+    try {
+      var response = http.send(builder.build(), HttpResponse.BodyHandlers.ofString());
+      response.headers().firstValue("Set-Cookie").ifPresent(value -> cookie = value.split(";", 2)[0]);
+      var json = parse(response);
+      statistics.record(operation, System.nanoTime() - start, response.body().length(), true);
+      return json;
+    } catch (IOException | RuntimeException e) {
+      statistics.record(operation, System.nanoTime() - start, 0, false);
+      throw e instanceof IOException io ? io : new IOException(operation + " failed", e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException(operation + " interrupted", e);
+    }
+  }
+
+  private static JsonNode parse(HttpResponse<String> response) throws IOException {
+    if (response.statusCode() != 200) {
+      throw new IOException("HTTP " + response.statusCode());
+    }
+    var body = response.body();
+    var json = JSON.readTree(body.startsWith(UIDL_PREFIX) ? body.substring(UIDL_PREFIX.length()) : body);
+    json = json.isArray() ? json.path(0) : json;
+    var meta = json.path("meta");
+    if (meta.has("appError") || meta.path("sessionExpired").asBoolean() || json.has("resynchronize")) {
+      throw new IOException("Application error: " + meta);
+    }
+    return json;
+  }
+
+  /// Applies a UIDL message: ids, token and state tree changes
+  private void apply(JsonNode uidl) {
+    if (uidl.has("Vaadin-Security-Key")) {
+      csrfToken = uidl.get("Vaadin-Security-Key").asText();
+    }
+    if (uidl.has("syncId")) {
+      syncId = uidl.get("syncId").asInt();
+    }
+    if (uidl.has("clientId")) {
+      clientId = uidl.get("clientId").asInt();
+    }
+    for (var change : uidl.path("changes")) {
+      applyChange(change);
+    }
+  }
+
+  private void applyChange(JsonNode change) {
+    var id = change.path("node").asInt();
+    var type = change.path("type").asText();
+    if ("detach".equals(type)) {
+      nodes.remove(id);
+      return;
+    }
+    var node = node(id);
+    var feature = change.path("feat").asInt(-1);
+    var key = change.path("key").asText();
+    switch (type) {
+      case "put" -> {
+        var value = change.has("nodeValue") ? change.get("nodeValue") : change.path("value");
+        if (feature == NodeFeatures.ELEMENT_DATA && "tag".equals(key)) {
+          node.tag = value.asText();
+        } else if (feature == NodeFeatures.ELEMENT_PROPERTIES) {
+          node.properties.put(key, value);
+        } else if (feature == NodeFeatures.TEXT_NODE) {
+          node.text = value.asText();
+        } else if (feature == NodeFeatures.ELEMENT_LISTENERS) {
+          node.listeners.put(key, value);
+        }
+      }
+      case "remove" -> {
+        node.properties.remove(key);
+        node.listeners.remove(key);
+      }
+      case "splice" -> {
+        if (feature == NodeFeatures.ELEMENT_CHILDREN || feature == NodeFeatures.VIRTUAL_CHILDREN) {
+          var index = change.path("index").asInt();
+          var removed = change.path("remove").asInt();
+          for (int i = 0; i < removed && index < node.children.size(); i++) {
+            node.children.remove(index);
+          }
+          var added = new ArrayList<Integer>();
+          change.path("addNodes").forEach(child -> added.add(child.asInt()));
+          node.children.addAll(Math.min(index, node.children.size()), added);
+        }
+      }
+      case "clear" -> {
+        if (feature == NodeFeatures.ELEMENT_CHILDREN || feature == NodeFeatures.VIRTUAL_CHILDREN) {
+          node.children.clear();
+        }
+      }
+      default -> {
+        // attach: node created above
+      }
+    }
+  }
+
+  private Node node(int id) {
+    return nodes.computeIfAbsent(id, Node::new);
+  }
+
+  private static String encode(String value) {
+    return URLEncoder.encode(value, StandardCharsets.UTF_8);
+  }
+
+  /// Client-side mirror of one state node
+  static final class Node {
+    final int id;
+    String tag;
+    String text;
+    final Map<String, JsonNode> properties = new HashMap<>();
+    final Map<String, JsonNode> listeners = new HashMap<>();
+    final List<Integer> children = new ArrayList<>();
+
+    Node(int id) {
+      this.id = id;
+    }
+
+    /// @param property Property name
+    /// @return Property value as text, empty if unset
+    String property(String property) {
+      var value = properties.get(property);
+      return value == null ? "" : value.asText();
+    }
+  }
+}
@@ -0,0 +1,75 @@
+package com.leanring.vaadin.flow.services.address.control;
+
+import com.leanring.vaadin.flow.services.address.entity.PostalArea;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// Unit tests for PostalCodeService.
+/// Compiles the bundled sample dataset into a temporary index file.
+class PostalCodeServiceTest {
+
+  @TempDir
+  private Path tempDir;
+
+  private PostalCodeService service;
+
+  @BeforeEach
+  void setUp() {
+    service = new PostalCodeService(new ClassPathResource("postal-codes.csv"), tempDir.resolve("postal.idx"));
+  }
+
+  @AfterEach
+  void tearDown() {
+    service.close();
+  }
+
+  @Test
+  @DisplayName("Index should be compiled lazily on the first lookup")
+  void indexShouldBeBuiltOnFirstUse() {
+    assertFalse(Files.exists(tempDir.resolve("postal.idx")));
+
+    service.suggestCities("c", 0, 10);
+
+    assertTrue(Files.exists(tempDir.resolve("postal.idx")));
+  }
+
+  @Test
+  @DisplayName("Prefix suggestions should be distinct, sorted and paged")
+  void suggestionsShouldBeDistinctAndPaged() {
+    assertEquals(List.of("Cape Town", "Centurion", "Claremont"), service.suggestCities("c", 0, 10));
+    assertEquals(List.of("Centurion"), service.suggestCities("C", 1, 1));
+    assertEquals(List.of("8000", "8001", "8005"), service.suggestPostalCodes("80", 0, 10));
+    assertEquals(List.of(), service.suggestPostalCodes("99", 0, 10));
+  }
+
+  @Test
+  @DisplayName("City and postal code should be cross-checked when the code is known")
+  void cityShouldMatchPostalCode() {
+    assertEquals(List.of(new PostalArea("8005", "Cape Town"), new PostalArea("8005", "Sea Point")),
+      service.findByPostalCode("8005"));
+    assertTrue(service.isConsistent("8001", "cape town"));
+    assertFalse(service.isConsistent("8001", "Durban"));
+    assertTrue(service.isConsistent("1234", "Anywhere"), "Unknown codes cannot be contradicted");
+  }
+
+  @Test
+  @DisplayName("A broken dataset should disable lookups instead of failing")
+  void brokenDatasetShouldDisableLookups() {
+    var broken = new PostalCodeService(
+      new FileSystemResource(tempDir.resolve("absent.csv")), tempDir.resolve("absent.idx"));
+
+    assertEquals(List.of(), broken.suggestCities("c", 0, 10));
+    assertTrue(broken.isConsistent("8001", "Durban"));
+  }
+}
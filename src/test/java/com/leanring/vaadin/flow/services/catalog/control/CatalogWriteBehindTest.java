@@ -0,0 +1,327 @@
+package com.leanring.vaadin.flow.services.catalog.control;
+
+import com.leanring.vaadin.flow.services.catalog.entity.Category;
+import com.leanring.vaadin.flow.services.catalog.entity.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// Unit tests for CatalogWriteBehind and ProductJournal.
+/// The store is an in-memory map applying writes with the same rules as JdbcProductStore.
+class CatalogWriteBehindTest {
+
+  private Path directory;
+  private ProductService service;
+  private MemoryStore store;
+  private SimpleMeterRegistry meters;
+  private CatalogWriteBehind writeBehind;
+  private Product product;
+
+  @BeforeEach
+  void setUp() throws IOException {
+    directory = Files.createTempDirectory("catalog-journal");
+    service = new ProductService();
+    store = new MemoryStore();
+    meters = new SimpleMeterRegistry();
+    writeBehind = new CatalogWriteBehind(service, store, meters, directory, 1_000);
+    product = service.findAll().getFirst();
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    writeBehind.shutdown();
+    try (var files = Files.list(directory)) {
+      for (var file : files.toList()) {
+        Files.delete(file);
+      }
+    }
+    Files.delete(directory);
+  }
+
+  @Test
+  @DisplayName("Changes should be coalesced per product: latest fields, summed stock")
+  void changesShouldBeCoalesced() {
+    assertEquals(service.findAll().size(), writeBehind.flush());
+    assertEquals(catalog(), store.products());
+
+    for (int i = 0; i < 5; i++) {
+      service.adjustStock(product.id(), -1);
+    }
+    var moved = service.update(service.findById(product.id()).orElseThrow().withCategory(Category.HOME));
+    service.adjustStock(product.id(), 3);
+    assertEquals(1, writeBehind.getPendingCount());
+
+    assertEquals(1, writeBehind.flush());
+    var stored = store.rows.get(product.id());
+    assertEquals(moved.category(), stored.category());
+    assertEquals(product.stock() - 2, stored.stock());
+    assertEquals(catalog(), store.products());
+    assertEquals(0, writeBehind.flush());
+  }
+
+  @Test
+  @DisplayName("Durable changes should be replayed exactly once after a crash")
+  void journalShouldBeReplayedAfterCrash() throws IOException {
+    writeBehind.flush();
+    service.adjustStock(product.id(), 7);
+    service.adjustStock(product.id(), -2);
+    var deleted = service.findAll().getLast().id();
+    service.delete(deleted);
+    var expected = catalog();
+    var crashed = Files.createTempFile("journal", ".log");
+    try (var files = Files.list(directory)) {
+      Files.copy(files.findFirst().orElseThrow(), crashed, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    // Replay happens on construction, before the catalog is restored from the store
+    var restarted = new ProductService();
+    var restart = new CatalogWriteBehind(restarted, store, new SimpleMeterRegistry(), directory, 1_000);
+    assertEquals(expected, store.products());
+    assertEquals(expected, restarted.findAll().stream().map(MemoryStore::unversioned).toList());
+    assertEquals(product.stock() + 5, restarted.findById(product.id()).orElseThrow().stock());
+    restart.shutdown();
+    var mirrored = store.products();
+
+    Files.move(crashed, directory.resolve("journal-1.log"), StandardCopyOption.REPLACE_EXISTING);
+    var again = new CatalogWriteBehind(restarted, store, new SimpleMeterRegistry(), directory, 1_000);
+    assertEquals(mirrored, store.products(), "Applied writes should be skipped");
+    again.shutdown();
+  }
+
+  @Test
+  @DisplayName("A failed flush should keep its writes and journal segments for the next flush")
+  void failedFlushShouldBeRetried() throws IOException {
+    writeBehind.flush();
+    service.adjustStock(product.id(), -4);
+    store.failing = true;
+
+    assertEquals(0, writeBehind.flush());
+    service.adjustStock(product.id(), 1);
+    assertEquals(1, writeBehind.getPendingCount());
+    assertEquals(1, meters.get("catalog.write-behind.flush").tag("outcome", "failed").timer().count());
+
+    store.failing = false;
+    assertEquals(1, writeBehind.flush());
+    assertEquals(product.stock() - 3, store.rows.get(product.id()).stock());
+    try (var files = Files.list(directory)) {
+      assertEquals(1L, files.count(), "Only the open segment should be left");
+    }
+  }
+
+  @Test
+  @DisplayName("Concurrent writers should each be acknowledged once durable")
+  void concurrentWritersShouldBeAcknowledged() throws InterruptedException {
+    var threads = new ArrayList<Thread>();
+    var start = new CountDownLatch(1);
+    for (int t = 0; t < 8; t++) {
+      threads.add(Thread.ofPlatform().start(() -> {
+        await(start);
+        for (int i = 0; i < 250; i++) {
+          service.adjustStock(product.id(), 1);
+        }
+      }));
+    }
+    start.countDown();
+    for (var thread : threads) {
+      thread.join();
+    }
+
+    var records = meters.get("catalog.write-behind.journal.records").functionCounter().count();
+    var syncs = meters.get("catalog.write-behind.journal.syncs").functionCounter().count();
+    assertEquals(2_000, records);
+    assertTrue(syncs <= records, syncs + " syncs");
+    writeBehind.flush();
+    assertEquals(product.stock() + 2_000, store.rows.get(product.id()).stock());
+  }
+
+  @Test
+  @DisplayName("One sync should make every buffered record durable")
+  void syncShouldCommitGroup() throws IOException {
+    var segments = directory.resolve("group");
+    try (var journal = new ProductJournal(segments)) {
+      var write = ProductWrite.of(1, new ProductChange(product, product.withStock(1).nextVersion()));
+      journal.append(write);
+      var second = journal.append(write);
+      var third = journal.append(write);
+      assertEquals(3, journal.getBufferedRecords());
+
+      journal.sync(second);
+      journal.sync(third);
+      assertEquals(1, journal.getSyncCount());
+      assertEquals(3, journal.getSyncedRecords());
+
+      var sealed = journal.roll();
+      assertEquals(List.of(write, write, write), ProductJournal.read(sealed));
+      Files.delete(sealed);
+    }
+    try (var files = Files.list(segments)) {
+      for (var file : files.toList()) {
+        Files.delete(file);
+      }
+    }
+    Files.delete(segments);
+  }
+
+  @Test
+  @DisplayName("A change published while the startup snapshot is taken should not be counted twice")
+  void snapshotShouldNotRepeatRacingChange() throws InterruptedException {
+    writeBehind.shutdown();
+    // Only an empty store is seeded from the catalog
+    store = new MemoryStore();
+    var racing = new Thread[1];
+    var racingService = new ProductService() {
+      @Override
+      public List<Product> findAll() {
+        if (racing[0] == null) {
+          // Applied before the snapshot reads the catalog, published once the snapshot is taken
+          var id = super.findAll().getFirst().id();
+          racing[0] = Thread.ofPlatform().start(() -> adjustStock(id, 5));
+          while (racing[0].getState() != Thread.State.WAITING && racing[0].isAlive()) {
+            Thread.onSpinWait();
+          }
+        }
+        return super.findAll();
+      }
+    };
+    writeBehind = new CatalogWriteBehind(racingService, store, meters, directory, 1_000);
+    racing[0].join();
+
+    var raced = racingService.findAll().getFirst();
+    assertEquals(product.stock() + 5, raced.stock());
+
+    writeBehind.flush();
+    assertEquals(raced.stock(), store.rows.get(raced.id()).stock());
+    racingService.adjustStock(raced.id(), 1);
+    writeBehind.flush();
+    assertEquals(raced.stock() + 1, store.rows.get(raced.id()).stock());
+  }
+
+  @Test
+  @DisplayName("Changes should survive a restart instead of being replaced by the initial catalog")
+  void changesShouldSurviveRestart() {
+    service.adjustStock(product.id(), -3);
+    var renamed = service.update(service.findById(product.id()).orElseThrow().withCategory(Category.HOME));
+    var removed = service.findAll().getLast().id();
+    service.delete(removed);
+    var expected = catalog();
+    writeBehind.shutdown();
+
+    // A new instance starts from the initial catalog, with other IDs
+    service = new ProductService();
+    writeBehind = new CatalogWriteBehind(service, store, meters, directory, 1_000);
+    assertEquals(expected, catalog());
+    assertEquals(renamed, service.findById(product.id()).orElseThrow());
+    assertTrue(service.findById(removed).isEmpty());
+    assertEquals(0, writeBehind.getPendingCount());
+
+    var created = service.save(new Product(null, "Desk Lamp", Category.HOME, product.price(), 4, null, null));
+    assertTrue(created.id() > expected.getLast().id());
+    writeBehind.flush();
+    assertEquals(catalog(), store.products());
+  }
+
+  @Test
+  @DisplayName("A journal failure should mark the write-behind unhealthy but keep storing changes")
+  void journalFailureShouldNotStopWrites() throws IOException {
+    // The next segment already exists, so the journal can't roll over to it
+    var blocker = Files.createFile(directory.resolve("journal-2.log"));
+    service.adjustStock(product.id(), -1);
+
+    assertEquals(service.findAll().size(), writeBehind.flush());
+    assertFalse(writeBehind.isHealthy());
+    assertEquals(0, meters.get("catalog.write-behind.healthy").gauge().value());
+    assertEquals(product.stock() - 1, store.rows.get(product.id()).stock());
+
+    Files.delete(blocker);
+    service.adjustStock(product.id(), -1);
+    assertTrue(writeBehind.isHealthy());
+    assertEquals(1, writeBehind.flush());
+    assertEquals(product.stock() - 2, store.rows.get(product.id()).stock());
+    try (var files = Files.list(directory)) {
+      assertEquals(1L, files.count(), "Segments should be deleted once the journal rolls again");
+    }
+  }
+
+  /// @return Catalog in ID order, versions ignored
+  private List<Product> catalog() {
+    return service.findAll().stream().map(MemoryStore::unversioned).toList();
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /// Applies batches to a map of products, skipping writes it has already applied
+  private static final class MemoryStore implements ProductStore {
+    final Map<Long, Product> rows = new HashMap<>();
+    final Map<Long, Long> sequences = new HashMap<>();
+    boolean failing;
+
+    @Override
+    public synchronized void write(List<ProductWrite> batch) {
+      if (failing) {
+        throw new IllegalStateException("Store unavailable");
+      }
+      for (var write : batch) {
+        var id = write.productId();
+        if (sequences.getOrDefault(id, 0L) >= write.firstSequence()) {
+          continue;
+        }
+        if (write.deleted()) {
+          rows.remove(id);
+          sequences.remove(id);
+          continue;
+        }
+        var row = rows.get(id);
+        if (write.created()) {
+          row = write.product().withStock(write.stockDelta());
+        } else if (row != null) {
+          var fields = write.product() != null && write.product().version() > row.version() ? write.product() : row;
+          row = fields.withStock(row.stock() + write.stockDelta());
+        }
+        if (row != null) {
+          rows.put(id, row);
+          sequences.put(id, write.lastSequence());
+        }
+      }
+    }
+
+    @Override
+    public synchronized long lastSequence() {
+      return sequences.values().stream().mapToLong(Long::longValue).max().orElse(0);
+    }
+
+    @Override
+    public synchronized List<Product> loadAll() {
+      return rows.values().stream().sorted(Comparator.comparing(Product::id)).toList();
+    }
+
+    /// @return Stored products in ID order, versions ignored
+    synchronized List<Product> products() {
+      return rows.values().stream().map(MemoryStore::unversioned).sorted(Comparator.comparing(Product::id)).toList();
+    }
+
+    private static Product unversioned(Product p) {
+      return new Product(p.id(), p.name(), p.category(), p.price(), p.stock(), p.launchDate(), p.description());
+    }
+  }
+}
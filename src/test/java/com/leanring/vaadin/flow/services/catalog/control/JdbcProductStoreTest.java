@@ -0,0 +1,94 @@
+package com.leanring.vaadin.flow.services.catalog.control;
+
+import com.leanring.vaadin.flow.services.catalog.entity.Category;
+import com.leanring.vaadin.flow.services.catalog.entity.Money;
+import com.leanring.vaadin.flow.services.catalog.entity.Product;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// Unit tests for JdbcProductStore against an in-memory H2 database.
+class JdbcProductStoreTest {
+
+  private JdbcTemplate jdbc;
+  private JdbcProductStore store;
+  private Product laptop;
+
+  @BeforeEach
+  void setUp() {
+    var dataSource = new DriverManagerDataSource("jdbc:h2:mem:" + UUID.randomUUID() + ";DB_CLOSE_DELAY=-1");
+    jdbc = new JdbcTemplate(dataSource);
+    store = new JdbcProductStore(jdbc, new DataSourceTransactionManager(dataSource));
+    laptop = new Product(1L, "Gaming Laptop", Category.ELECTRONICS, Money.zar("25999.99"), 10,
+      LocalDate.of(2024, 1, 15), "High-performance laptop", 1);
+  }
+
+  @AfterEach
+  void tearDown() {
+    jdbc.execute("SHUTDOWN");
+  }
+
+  @Test
+  @DisplayName("Created products should be inserted and stock deltas added in place")
+  void writesShouldBeApplied() {
+    store.write(List.of(ProductWrite.of(1, new ProductChange(null, laptop))));
+    var sold = laptop.withStock(7).nextVersion();
+    store.write(List.of(ProductWrite.of(2, new ProductChange(laptop, sold))));
+
+    assertEquals(7, stock(laptop.id()));
+    assertEquals(2L, store.lastSequence());
+    assertEquals(List.of(laptop.withStock(7)), store.loadAll());
+  }
+
+  @Test
+  @DisplayName("Writes already applied should be skipped when a journal is replayed")
+  void replayedWritesShouldBeSkipped() {
+    var created = ProductWrite.of(1, new ProductChange(null, laptop));
+    var sold = ProductWrite.of(2, new ProductChange(laptop, laptop.withStock(7).nextVersion()));
+    store.write(List.of(created));
+    store.write(List.of(sold));
+
+    store.write(List.of(created.then(sold)));
+    store.write(List.of(sold));
+    assertEquals(7, stock(laptop.id()));
+  }
+
+  @Test
+  @DisplayName("Field updates should only replace older versions")
+  void olderFieldsShouldNotWin() {
+    var renamed = new Product(laptop.id(), "Laptop Pro", laptop.category(), laptop.price(), laptop.stock(),
+      laptop.launchDate(), laptop.description(), 3);
+    store.write(List.of(new ProductWrite(laptop.id(), 1, 1, renamed, true, renamed.stock(), false)));
+    var moved = laptop.withCategory(Category.HOME).nextVersion();
+    store.write(List.of(ProductWrite.of(2, new ProductChange(laptop, moved))));
+
+    assertEquals("Laptop Pro", jdbc.queryForObject("SELECT name FROM catalog_product WHERE id = ?", String.class,
+      laptop.id()));
+    assertEquals(Category.ELECTRONICS.name(), jdbc.queryForObject("SELECT category FROM catalog_product WHERE id = ?",
+      String.class, laptop.id()));
+  }
+
+  @Test
+  @DisplayName("Deleted products should be removed")
+  void deletesShouldRemoveRows() {
+    store.write(List.of(ProductWrite.of(1, new ProductChange(null, laptop))));
+    store.write(List.of(ProductWrite.of(2, new ProductChange(laptop, null))));
+
+    assertTrue(store.loadAll().isEmpty());
+    assertEquals(0L, store.lastSequence());
+  }
+
+  private int stock(long id) {
+    return jdbc.queryForObject("SELECT stock FROM catalog_product WHERE id = ?", Integer.class, id);
+  }
+}
@@ -0,0 +1,117 @@
+package com.leanring.vaadin.flow.services.catalog.control;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// Unit tests for NearCache.
+/// Loaders count their calls per key, so a second load reveals that an entry was dropped.
+class NearCacheTest {
+
+  private final ConcurrentHashMap<Object, Integer> loads = new ConcurrentHashMap<>();
+  private final AtomicLong nanos = new AtomicLong();
+
+  @Test
+  @DisplayName("Frequently read keys should survive a scan of one-off keys")
+  void admissionShouldProtectHotKeys() {
+    // An LRU cache of 100 would miss every time: 60 hot and 60 one-off keys come between two reads of a hot key
+    var cache = cache(100, Duration.ZERO, key -> "value " + key);
+    for (int i = 0; i < 120; i++) {
+      cache.get(i % 60);
+    }
+    for (int i = 0; i < 12_000; i++) {
+      assertEquals("value " + i % 60, cache.get(i % 60));
+      cache.get(-i - 1);
+    }
+
+    var reloaded = loads.entrySet().stream().filter(e -> (int) e.getKey() >= 0 && e.getValue() > 1).count();
+    assertEquals(0, reloaded);
+    assertEquals(12_000 + 60, cache.hitCount());
+    assertTrue(cache.size() <= 100);
+    assertTrue(cache.evictionCount() >= 12_000 - 100);
+  }
+
+  @Test
+  @DisplayName("Entries should be bounded by weight, and values heavier than the maximum not kept")
+  void weightShouldStayWithinMaximum() {
+    NearCache<Integer, String> cache = new NearCache<>(100, 100, String::length, Duration.ZERO, Runnable::run,
+      nanos::get, key -> { loads.merge(key, 1, Integer::sum); return "x".repeat(key); });
+
+    for (int key = 1; key <= 30; key++) {
+      cache.get(key);
+      assertTrue(cache.weight() <= 100, "Weight " + cache.weight());
+    }
+    cache.get(101);
+    cache.get(101);
+
+    assertEquals(2, (int) loads.get(101));
+    assertTrue(cache.weight() <= 100);
+  }
+
+  @Test
+  @DisplayName("A load overlapping a predicate invalidation should not be cached")
+  void invalidationShouldDiscardLoadInProgress() throws InterruptedException {
+    var loading = new CountDownLatch(1);
+    var release = new CountDownLatch(1);
+    var cache = cache(100, Duration.ZERO, key -> {
+      if (loads.get(key) == 1) {
+        loading.countDown();
+        await(release);
+        return "stale";
+      }
+      return "fresh";
+    });
+    var reader = Thread.ofPlatform().start(() -> cache.get("key"));
+    loading.await();
+
+    cache.invalidateIf(key -> true);
+    release.countDown();
+    reader.join();
+
+    assertEquals("fresh", cache.get("key"));
+    assertEquals("fresh", cache.get("key"));
+    assertEquals(2, (int) loads.get("key"));
+  }
+
+  @Test
+  @DisplayName("Aged hot entries should be reloaded ahead of time, cold ones left alone")
+  void refreshShouldReloadHotEntries() {
+    var cache = cache(100, Duration.ofSeconds(1), key -> key + " v" + loads.get(key));
+    cache.get("cold");
+    for (int i = 0; i < 10; i++) {
+      cache.get("hot");
+    }
+
+    nanos.addAndGet(Duration.ofSeconds(2).toNanos());
+    cache.get("cold");
+    for (int i = 0; i < 40; i++) {
+      cache.get("hot");
+    }
+
+    assertEquals("hot v2", cache.get("hot"));
+    assertEquals("cold v1", cache.get("cold"));
+    assertEquals(1, cache.refreshCount());
+  }
+
+  private NearCache<Object, String> cache(long maximum, Duration refreshAfter, Function<Object, String> loader) {
+    return new NearCache<>(maximum, maximum, value -> 1, refreshAfter, Runnable::run, nanos::get, key -> {
+      loads.merge(key, 1, Integer::sum);
+      return loader.apply(key);
+    });
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
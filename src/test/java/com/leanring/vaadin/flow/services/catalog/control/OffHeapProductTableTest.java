@@ -0,0 +1,217 @@
+package com.leanring.vaadin.flow.services.catalog.control;
+
+import com.leanring.vaadin.flow.services.catalog.entity.Category;
+import com.leanring.vaadin.flow.services.catalog.entity.Money;
+import com.leanring.vaadin.flow.services.catalog.entity.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Currency;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// Unit tests for OffHeapProductTable
+class OffHeapProductTableTest {
+
+  private OffHeapProductTable table;
+
+  @BeforeEach
+  void setUp() {
+    table = new OffHeapProductTable();
+  }
+
+  @Test
+  @DisplayName("Products should read back exactly as written, including nulls")
+  void productsShouldRoundTrip() {
+    var full = new Product(1L, "Kaffeemühle ☕", Category.HOME, new Money(12_345, Currency.getInstance("EUR")),
+      7, LocalDate.of(1999, 12, 31), "Mahlt fein", 4);
+    var sparse = new Product(2L, "Bare", null, null, 0, null, null, 0);
+    table.append(() -> full);
+    table.append(() -> sparse);
+
+    assertEquals(full, table.get(1));
+    assertEquals(sparse, table.get(2));
+    assertNull(table.get(3));
+    assertEquals(2L, table.size());
+  }
+
+  @Test
+  @DisplayName("Equal names and descriptions should be stored once")
+  void stringsShouldBeDictionaryEncoded() {
+    table.append(() -> product(1, "Garden Tool Set"));
+    var before = table.stringBytes();
+    for (long id = 2; id <= 1_000; id++) {
+      var next = id;
+      table.append(() -> product(next, "Garden Tool Set"));
+    }
+
+    assertEquals(before, table.stringBytes());
+    assertEquals("Garden Tool Set", table.get(1_000).name());
+  }
+
+  @Test
+  @DisplayName("Rows, index and strings should grow past their first chunk")
+  void tableShouldGrow() {
+    for (long id = 1; id <= 50_000; id++) {
+      var next = id;
+      table.append(() -> product(next, "Product " + next));
+    }
+
+    assertEquals(50_000L, table.size());
+    assertEquals("Product 12345", table.get(12_345).name());
+    assertEquals(50_000L * 50_001 / 2, table.streamAfter(null, null).mapToLong(Product::id).sum());
+    assertEquals(49_990L, table.streamAfter(10L, null).count());
+  }
+
+  @Test
+  @DisplayName("Cursors and category filters should skip deleted products")
+  void streamAfterShouldSkipDeleted() {
+    for (long id = 1; id <= 10; id++) {
+      var next = id;
+      table.append(() -> product(next, "P" + next).withCategory(next % 2 == 0 ? Category.BOOKS : Category.FOOD));
+    }
+    assertEquals(5L, (long) table.remove(5).id());
+    assertNull(table.remove(5));
+    assertNull(table.get(5));
+
+    assertEquals(LongStream.of(6, 7, 8, 9, 10).boxed().toList(),
+      table.streamAfter(4L, null).map(Product::id).toList());
+    assertEquals(LongStream.of(7, 9).boxed().toList(),
+      table.streamAfter(4L, Category.FOOD).map(Product::id).toList());
+    assertEquals(9L, table.size());
+  }
+
+  @Test
+  @DisplayName("Search terms and stock conditions should be checked on the row")
+  void filtersShouldBeCheckedOnRows() {
+    table.append(() -> product(1, "Garden HOSE").withStock(0));
+    table.append(() -> new Product(2L, "Kaffeemühle", Category.HOME, Money.zar(100), 3, null, "Grinds GARDEN herbs"));
+    table.append(() -> new Product(3L, "Mühlstein", Category.FOOD, Money.zar(100), 12, null, null));
+    table.append(() -> product(4, "Lamp").withStock(5));
+
+    assertEquals(List.of(1L, 2L), table.streamAfter(null, null, "garden").map(Product::id).toList());
+    assertEquals(List.of(2L), table.streamAfter(1L, null, "garden").map(Product::id).toList());
+    assertEquals(List.of(2L, 3L), table.streamAfter(null, null, "mühl").map(Product::id).toList());
+    assertEquals(List.of(3L), table.streamAfter(null, Category.FOOD, "mühl").map(Product::id).toList());
+    assertEquals(List.of(), table.streamAfter(null, null, "hosepipe").toList());
+    assertEquals(4L, table.streamAfter(null, null, "").count());
+
+    assertEquals(List.of(2L, 4L), table.streamByStock(stock -> stock > 0 && stock < 10).map(Product::id).toList());
+    table.remove(4);
+    assertEquals(List.of(2L), table.streamByStock(stock -> stock > 0 && stock < 10).map(Product::id).toList());
+  }
+
+  @Test
+  @DisplayName("Concurrent writers of different and shared rows should not lose updates")
+  void concurrentWritersShouldNotLoseUpdates() throws InterruptedException {
+    for (long id = 1; id <= 9; id++) {
+      var next = id;
+      table.append(() -> product(next, "P" + next).withStock(0));
+    }
+    var writers = new ArrayList<Thread>();
+    for (long w = 1; w <= 8; w++) {
+      var own = w;
+      writers.add(Thread.ofPlatform().start(() -> {
+        for (int i = 0; i < 10_000; i++) {
+          table.computeIfPresent(own, p -> p.withStock(p.stock() + 1));
+          table.computeAllPresent(List.of(9L, own), p -> p.withStock(p.stock() + 1));
+        }
+      }));
+    }
+    for (var writer : writers) {
+      writer.join();
+    }
+
+    for (long id = 1; id <= 8; id++) {
+      assertEquals(20_000, table.get(id).stock());
+    }
+    assertEquals(80_000, table.get(9).stock());
+  }
+
+  @Test
+  @DisplayName("IDs must ascend and a failing update must leave the row unchanged")
+  void writesShouldBeChecked() {
+    var original = product(10, "Original");
+    table.append(() -> original);
+
+    assertThrows(IllegalArgumentException.class, () -> table.append(() -> product(10, "Duplicate")));
+    assertThrows(IllegalStateException.class, () -> table.computeIfPresent(10, p -> {
+      throw new IllegalStateException("rejected");
+    }));
+    assertEquals(original, table.get(10));
+    assertNull(table.computeIfPresent(11, p -> p));
+  }
+
+  @Test
+  @DisplayName("A batch should be written completely or not at all")
+  void batchShouldBeAllOrNothing() {
+    table.append(() -> product(1, "A").withStock(5));
+    table.append(() -> product(2, "B").withStock(1));
+
+    assertThrows(IllegalArgumentException.class, () -> table.computeAllPresent(List.of(1L, 2L), p -> {
+      if (p.stock() < 2) {
+        throw new IllegalArgumentException("Insufficient stock");
+      }
+      return p.withStock(p.stock() - 2);
+    }));
+    assertEquals(5, table.get(1).stock());
+
+    var changes = table.computeAllPresent(List.of(2L, 3L, 2L, 1L), p -> p.withStock(p.stock() + 1));
+    assertEquals(List.of(2L, 1L), changes.stream().map(ProductChange::id).toList());
+    assertEquals(2, table.get(2).stock());
+    assertEquals(6, table.get(1).stock());
+  }
+
+  @Test
+  @DisplayName("Inventory value should be summed from the row columns")
+  void inventoryValueShouldBeExact() {
+    table.append(() -> product(1, "A").withStock(3));
+    table.append(() -> product(2, "B").withStock(2));
+    table.remove(2);
+    assertEquals(300L, table.inventoryValue(Money.ZAR));
+
+    table.append(() -> new Product(3L, "C", Category.FOOD, new Money(1, Currency.getInstance("USD")), 1, null, null));
+    assertThrows(IllegalStateException.class, () -> table.inventoryValue(Money.ZAR));
+  }
+
+  @Test
+  @DisplayName("Readers should never see a row half written")
+  void readersShouldSeeConsistentRows() throws InterruptedException {
+    table.append(() -> product(1, "Counter").withStock(0));
+    var done = new AtomicBoolean();
+    var torn = new AtomicReference<Product>();
+    var readers = new ArrayList<Thread>();
+    for (int r = 0; r < 3; r++) {
+      readers.add(Thread.ofPlatform().start(() -> {
+        while (!done.get()) {
+          var product = table.get(1);
+          if (product.price().minorUnits() != 100L + product.stock() || product.version() != product.stock()) {
+            torn.set(product);
+          }
+        }
+      }));
+    }
+    for (int i = 1; i <= 100_000; i++) {
+      table.computeIfPresent(1, p -> new Product(p.id(), p.name(), p.category(),
+        Money.zar(100L + p.stock() + 1), p.stock() + 1, p.launchDate(), p.description(), p.version() + 1));
+    }
+    done.set(true);
+    for (var reader : readers) {
+      reader.join();
+    }
+
+    assertNull(torn.get());
+    assertEquals(100_000, table.get(1).stock());
+  }
+
+  private static Product product(long id, String name) {
+    return new Product(id, name, Category.HOME, Money.zar(100), 1, LocalDate.of(2024, 1, 1), "Sample");
+  }
+}
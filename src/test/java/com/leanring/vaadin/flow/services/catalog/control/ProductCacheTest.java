@@ -0,0 +1,97 @@
+package com.leanring.vaadin.flow.services.catalog.control;
+
+import com.leanring.vaadin.flow.services.catalog.entity.Category;
+import com.leanring.vaadin.flow.services.catalog.entity.Money;
+import com.leanring.vaadin.flow.services.catalog.entity.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// Unit tests for ProductCache.
+/// Every read is checked against the service, so a missed invalidation shows up as a difference.
+class ProductCacheTest {
+
+  private ProductService service;
+  private SimpleMeterRegistry meters;
+  private ProductCache cache;
+
+  @BeforeEach
+  void setUp() {
+    service = new ProductService();
+    meters = new SimpleMeterRegistry();
+    cache = new ProductCache(service, meters, 100, 1_000, 60);
+  }
+
+  @AfterEach
+  void tearDown() {
+    cache.shutdown();
+  }
+
+  @Test
+  @DisplayName("Writes should invalidate cached lookups, listings and searches")
+  void writesShouldInvalidate() {
+    var laptop = service.search("laptop").getFirst();
+    assertEquals(service.findById(laptop.id()), cache.findById(laptop.id()));
+    assertEquals(service.findByCategory(Category.ELECTRONICS), cache.findByCategory(Category.ELECTRONICS));
+    assertEquals(List.of(laptop), cache.search(" Laptop"));
+    assertEquals(List.of(), cache.search("tablet"));
+
+    service.adjustStock(laptop.id(), -1);
+    var tablet = service.save(new Product(null, "Android Tablet", Category.ELECTRONICS,
+      Money.zar("4999.00"), 3, LocalDate.of(2024, 4, 1), "Tablet with 11-inch screen"));
+    service.changeCategory(List.of(laptop.id()), Category.HOME);
+
+    assertEquals(service.findById(laptop.id()), cache.findById(laptop.id()));
+    assertEquals(service.findByCategory(Category.ELECTRONICS), cache.findByCategory(Category.ELECTRONICS));
+    assertEquals(service.findByCategory(Category.HOME), cache.findByCategory(Category.HOME));
+    assertEquals(service.search("laptop"), cache.search("laptop"));
+    assertEquals(List.of(tablet), cache.search("tablet"));
+
+    service.delete(tablet.id());
+    assertEquals(List.of(), cache.search("tablet"));
+    assertTrue(cache.findById(tablet.id()).isEmpty());
+  }
+
+  @Test
+  @DisplayName("Repeated reads should be answered from the cache and counted")
+  void repeatedReadsShouldHit() {
+    var product = service.findAll().getFirst();
+    for (int i = 0; i < 10; i++) {
+      cache.findById(product.id());
+      cache.search("coffee");
+    }
+
+    assertEquals(9, meters.get("catalog.cache.gets").tag("cache", "products").tag("result", "hit")
+      .functionCounter().count());
+    assertEquals(1, meters.get("catalog.cache.gets").tag("cache", "products").tag("result", "miss")
+      .functionCounter().count());
+    assertEquals(9, meters.get("catalog.cache.gets").tag("cache", "searches").tag("result", "hit")
+      .functionCounter().count());
+    assertEquals(2, meters.get("catalog.cache.weight").tag("cache", "searches").gauge().value());
+  }
+
+  @Test
+  @DisplayName("Filtered pages should match the service and resume after the cursor")
+  void filteredPagesShouldMatchService() {
+    var electronics = service.findByCategory(Category.ELECTRONICS);
+    var cursor = electronics.getFirst();
+    assertEquals(service.streamAfter(cursor.id(), Category.ELECTRONICS, null).toList(),
+      cache.streamAfter(cursor.id(), Category.ELECTRONICS, null).toList());
+    assertEquals(service.streamAfter(null, Category.HOME, "laptop").toList(),
+      cache.streamAfter(null, Category.HOME, "laptop").toList());
+
+    var byPrice = Comparator.comparing(Product::price);
+    assertEquals(service.pageAfter(cursor, Category.ELECTRONICS, null, byPrice, 2),
+      cache.pageAfter(cursor, Category.ELECTRONICS, null, byPrice, 2));
+    assertEquals(1, meters.get("catalog.cache.gets").tag("cache", "categories").tag("result", "hit")
+      .functionCounter().count());
+  }
+}
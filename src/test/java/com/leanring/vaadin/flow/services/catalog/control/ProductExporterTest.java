@@ -0,0 +1,142 @@
+package com.leanring.vaadin.flow.services.catalog.control;
+
+import com.leanring.vaadin.flow.services.catalog.entity.Category;
+import com.leanring.vaadin.flow.services.catalog.entity.Money;
+import com.leanring.vaadin.flow.services.catalog.entity.Product;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.ZipInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// Unit tests for ProductExporter and its table writers.
+/// Uses page sizes of 3 and 4 so the sample catalog spans several pages.
+class ProductExporterTest {
+
+  private ProductService service;
+  private SimpleMeterRegistry meters;
+  private ProductExporter exporter;
+
+  @BeforeEach
+  void setUp() {
+    service = new ProductService();
+    meters = new SimpleMeterRegistry();
+    exporter = new ProductExporter(service, meters, 3, 4);
+  }
+
+  @Test
+  @DisplayName("CSV export should contain every matching product in sort order")
+  void csvShouldFollowFilterAndOrder() throws IOException {
+    var out = new ByteArrayOutputStream();
+    var byName = Comparator.comparing(Product::name);
+
+    var rows = exporter.export(ProductExporter.Format.CSV, null, null, byName, out);
+
+    var lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+    var expected = service.findAll().stream().sorted(byName).toList();
+    assertEquals(expected.size(), rows);
+    assertEquals("\uFEFFID,Product Name,Category,Price (ZAR),Stock,Launch Date", lines[0]);
+    assertEquals(expected.size() + 1, lines.length);
+    for (int i = 0; i < expected.size(); i++) {
+      assertTrue(lines[i + 1].startsWith(expected.get(i).id() + ","), lines[i + 1]);
+    }
+  }
+
+  @Test
+  @DisplayName("CSV export should apply category and search filters")
+  void csvShouldFilter() throws IOException {
+    var out = new ByteArrayOutputStream();
+
+    var rows = exporter.export(ProductExporter.Format.CSV, Category.BOOKS, "code", null, out);
+
+    var lines = out.toString(StandardCharsets.UTF_8).split("\r\n");
+    assertEquals(1, rows);
+    assertTrue(lines[1].endsWith(",Clean Code by Robert Martin,%s,549.00,25,2023-08-12"
+      .formatted(Category.BOOKS.getDisplayName())), lines[1]);
+  }
+
+  @Test
+  @DisplayName("CSV cells should be quoted and guarded against formulas")
+  void csvShouldQuoteAndGuard() throws IOException {
+    service.save(new Product(null, "=HYPERLINK(\"x\"), now", Category.HOME,
+      Money.zar("10.00"), 1, null, null));
+    var out = new ByteArrayOutputStream();
+
+    exporter.export(ProductExporter.Format.CSV, null, "hyperlink", null, out);
+
+    var row = out.toString(StandardCharsets.UTF_8).split("\r\n")[1];
+    assertTrue(row.endsWith(",\"'=HYPERLINK(\"\"x\"\"), now\",%s,10.00,1,"
+      .formatted(Category.HOME.getDisplayName())), row);
+  }
+
+  @Test
+  @DisplayName("XLSX export should be a workbook with one row per product")
+  void xlsxShouldContainWorkbook() throws IOException {
+    var out = new ByteArrayOutputStream();
+
+    var rows = exporter.export(ProductExporter.Format.XLSX, null, null, null, out);
+
+    var entries = unzip(out.toByteArray());
+    assertTrue(entries.keySet().containsAll(List.of(
+      "[Content_Types].xml", "_rels/.rels", "xl/workbook.xml", "xl/_rels/workbook.xml.rels",
+      "xl/worksheets/sheet1.xml")), entries.keySet().toString());
+    var sheet = entries.get("xl/worksheets/sheet1.xml");
+    assertEquals(rows + 1, sheet.split("<row>", -1).length - 1);
+    assertTrue(sheet.contains("<t xml:space=\"preserve\">Levi's Jeans - Classic Fit</t>"));
+    assertTrue(sheet.contains("<c><v>25999.99</v></c>"));
+  }
+
+  @Test
+  @DisplayName("XLSX writer should continue on a new sheet when a sheet is full")
+  void xlsxShouldRollOverSheets() throws IOException {
+    var out = new ByteArrayOutputStream();
+    var writer = new XlsxTableWriter(out, List.of("A"), 3);
+    for (int i = 0; i < 5; i++) {
+      writer.startRow();
+      writer.text("<" + i + "&>");
+      writer.endRow();
+    }
+    writer.finish();
+
+    var entries = unzip(out.toByteArray());
+    assertTrue(entries.get("xl/worksheets/sheet3.xml").contains("&lt;4&amp;&gt;"));
+    assertFalse(entries.containsKey("xl/worksheets/sheet4.xml"));
+    assertTrue(entries.get("xl/workbook.xml").contains("<sheet name=\"Products 3\" sheetId=\"3\" r:id=\"rId3\"/>"));
+    assertEquals(3, entries.get("xl/worksheets/sheet1.xml").split("<row>", -1).length - 1);
+  }
+
+  @Test
+  @DisplayName("Exports should be reported as rows, bytes, duration and throughput")
+  void exportShouldRecordMetrics() throws IOException {
+    var out = new ByteArrayOutputStream();
+
+    var rows = exporter.export(ProductExporter.Format.CSV, null, null, null, out);
+
+    assertEquals(rows, meters.get("catalog.export.rows").tag("format", "csv").counter().count());
+    assertEquals(out.size(), meters.get("catalog.export.bytes").tag("format", "csv").counter().count());
+    assertEquals(1, meters.get("catalog.export.duration")
+      .tags("format", "csv", "outcome", "success").timer().count());
+    assertEquals(1, meters.get("catalog.export.throughput").tag("format", "csv").summary().count());
+  }
+
+  private static Map<String, String> unzip(byte[] bytes) throws IOException {
+    var entries = new LinkedHashMap<String, String>();
+    try (var zip = new ZipInputStream(new ByteArrayInputStream(bytes))) {
+      for (var entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+        entries.put(entry.getName(), new String(zip.readAllBytes(), StandardCharsets.UTF_8));
+      }
+    }
+    return entries;
+  }
+}
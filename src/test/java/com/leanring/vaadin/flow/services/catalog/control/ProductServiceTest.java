@@ -0,0 +1,188 @@
+package com.leanring.vaadin.flow.services.catalog.control;
+
+import com.leanring.vaadin.flow.services.catalog.entity.Category;
+import com.leanring.vaadin.flow.services.catalog.entity.Money;
+import com.leanring.vaadin.flow.services.catalog.entity.Product;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// Unit tests for ProductService.
+/// Runs against the in-memory sample catalog without Spring context.
+class ProductServiceTest {
+
+  private ProductService service;
+
+  @BeforeEach
+  void setUp() {
+    service = new ProductService();
+  }
+
+  @Test
+  @DisplayName("Keyset pages should continue after the cursor in ID order")
+  void streamAfterShouldResumeFromCursor() {
+    var firstPage = service.streamAfter(null, null, null).limit(4).toList();
+    var cursor = firstPage.getLast().id();
+    var secondPage = service.streamAfter(cursor, null, null).limit(4).toList();
+
+    assertEquals(4, firstPage.size());
+    assertTrue(secondPage.getFirst().id() > cursor, "Second page must start after the cursor");
+    assertEquals(
+      service.findAll().size(),
+      firstPage.size() + service.streamAfter(cursor, null, null).count()
+    );
+  }
+
+  @Test
+  @DisplayName("Keyset stream should apply category and search filters")
+  void streamAfterShouldFilter() {
+    var books = service.streamAfter(null, Category.BOOKS, null).toList();
+    var coffee = service.streamAfter(null, null, "COFFEE").toList();
+
+    assertFalse(books.isEmpty());
+    assertTrue(books.stream().allMatch(p -> p.category() == Category.BOOKS));
+    assertEquals(1, coffee.size());
+  }
+
+  @Test
+  @DisplayName("Sorted pages should continue after the cursor without gaps or repeats")
+  void pageAfterShouldResumeInSortOrder() {
+    var byPrice = Comparator.comparing(Product::price).reversed();
+    var expected = service.findAll().stream().sorted(byPrice.thenComparing(Product::id)).toList();
+
+    var pages = new ArrayList<Product>();
+    Product cursor = null;
+    for (var page = service.pageAfter(null, null, null, byPrice, 3); !page.isEmpty();
+         page = service.pageAfter(cursor, null, null, byPrice, 3)) {
+      assertTrue(page.size() <= 3);
+      pages.addAll(page);
+      cursor = page.getLast();
+    }
+
+    assertEquals(expected, pages);
+    assertEquals(List.of(), service.pageAfter(null, Category.BOOKS, "no such product", byPrice, 3));
+    assertThrows(IllegalArgumentException.class, () -> service.pageAfter(null, null, null, null, 0));
+  }
+
+  @Test
+  @DisplayName("Catalog version should change on mutations only")
+  void catalogVersionShouldTrackMutations() {
+    var initial = service.getCatalogVersion();
+    service.findAll();
+    assertEquals(initial, service.getCatalogVersion());
+
+    var saved = service.save(new Product(null, "Test Product", Category.HOME,
+      Money.zar("10.00"), 1, LocalDate.now(), null));
+    assertTrue(service.getCatalogVersion() > initial);
+
+    var afterSave = service.getCatalogVersion();
+    assertFalse(service.delete(-1L));
+    assertEquals(afterSave, service.getCatalogVersion());
+    assertTrue(service.delete(saved.id()));
+    assertTrue(service.getCatalogVersion() > afterSave);
+  }
+
+  @Test
+  @DisplayName("Bulk delete listeners should already see the new catalog version")
+  void deleteAllShouldBumpVersionBeforeNotifying() {
+    var ids = service.findByCategory(Category.BOOKS).stream().map(Product::id).toList();
+    var before = service.getCatalogVersion();
+    var seen = new ArrayList<Long>();
+    service.addChangeListener(change -> seen.add(service.getCatalogVersion()));
+
+    assertEquals(ids.size(), service.deleteAll(ids));
+    assertEquals(before + 1, service.getCatalogVersion());
+    assertEquals(ids.size(), seen.size());
+    assertTrue(seen.stream().allMatch(version -> version == before + 1), seen.toString());
+  }
+
+  @Test
+  @DisplayName("A failing journal should fail the write after every listener saw the change")
+  void journalFailureShouldFailWrite() {
+    var ids = service.findByCategory(Category.BOOKS).stream().map(Product::id).toList();
+    var seen = new ArrayList<Long>();
+    service.addJournal(change -> {
+      throw new UncheckedIOException(new IOException("Disk full"));
+    });
+    service.addChangeListener(change -> seen.add(change.id()));
+
+    assertThrows(UncheckedIOException.class, () -> service.deleteAll(ids));
+    assertEquals(ids, seen);
+    assertTrue(service.findByCategory(Category.BOOKS).isEmpty());
+  }
+
+  @Test
+  @DisplayName("Restoring should replace the catalog and report the difference to listeners")
+  void restoreShouldReplaceCatalog() {
+    var replaced = service.findAll().size();
+    var kept = service.findAll().getFirst().withStock(99).nextVersion();
+    var seen = new ArrayList<ProductChange>();
+    service.addChangeListener(seen::add);
+    var before = service.getCatalogVersion();
+
+    service.restore(List.of(kept));
+    assertEquals(List.of(kept), service.findAll());
+    assertTrue(service.getCatalogVersion() > before);
+    // One update for the kept product, one delete for every other
+    assertEquals(replaced, seen.size());
+    assertTrue(service.save(kept).id() > kept.id());
+  }
+
+  @Test
+  @DisplayName("Bulk repricing should update all products with one version bump")
+  void adjustPricesShouldUpdateBatch() {
+    var ids = service.findByCategory(Category.BOOKS).stream().map(Product::id).toList();
+    var before = service.getCatalogVersion();
+
+    var updated = service.adjustPrices(ids, new BigDecimal("10"));
+
+    assertEquals(ids.size(), updated.size());
+    assertEquals(before + 1, service.getCatalogVersion());
+    assertEquals(Money.zar("658.90"), service.findById(ids.getFirst()).orElseThrow().price());
+  }
+
+  @Test
+  @DisplayName("Inventory value should sum price times stock in whole cents")
+  void totalInventoryValueShouldBeExact() {
+    var expected = service.findAll().stream()
+      .map(p -> p.price().toBigDecimal().multiply(BigDecimal.valueOf(p.stock())))
+      .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+    assertEquals(expected, service.getTotalInventoryValue().toBigDecimal());
+  }
+
+  @Test
+  @DisplayName("Failing bulk stock change should leave the catalog untouched")
+  void adjustStockAllShouldBeAllOrNothing() {
+    var ids = service.findAll().stream().map(Product::id).toList();
+    var before = service.findAll();
+
+    assertThrows(IllegalArgumentException.class, () -> service.adjustStockAll(ids, -10));
+    assertEquals(before.size(), service.findAll().size());
+    assertTrue(service.findAll().containsAll(before));
+  }
+
+  @Test
+  @DisplayName("Update with a stale version should fail with the current state")
+  void updateShouldRejectStaleVersion() {
+    var original = service.findAll().getFirst();
+    var first = service.update(original.withStock(original.stock() + 1));
+
+    var conflict = assertThrows(StaleProductException.class,
+      () -> service.update(original.withStock(99)));
+
+    assertEquals(original.version() + 1, first.version());
+    assertEquals(first, conflict.getCurrent());
+    assertEquals(first, service.findById(original.id()).orElseThrow());
+  }
+}
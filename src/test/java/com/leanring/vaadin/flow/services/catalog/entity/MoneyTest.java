@@ -0,0 +1,81 @@
+package com.leanring.vaadin.flow.services.catalog.entity;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.Currency;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// Unit tests for Money.
+class MoneyTest {
+
+  @Test
+  @DisplayName("Parsing should be exact and reject more decimals than the currency has")
+  void parseShouldBeExact() {
+    assertEquals(2_599_999, Money.zar("25999.99").minorUnits());
+    assertEquals(50, Money.zar(".5").minorUnits());
+    assertEquals(-1_200, Money.zar("-12").minorUnits());
+    assertEquals(1_000, Money.parse("1000", Currency.getInstance("JPY")).minorUnits());
+
+    assertThrows(IllegalArgumentException.class, () -> Money.zar("0.005"));
+    assertThrows(IllegalArgumentException.class, () -> Money.zar("1,00"));
+    assertThrows(IllegalArgumentException.class, () -> Money.zar("-"));
+    assertThrows(IllegalArgumentException.class, () -> Money.zar("99999999999999999999"));
+  }
+
+  @Test
+  @DisplayName("Decimal conversion should round-trip without rounding")
+  void bigDecimalShouldRoundTrip() {
+    var price = Money.of(new BigDecimal("1899.90"), Money.ZAR);
+
+    assertEquals(Money.zar(189_990), price);
+    assertEquals(new BigDecimal("1899.90"), price.toBigDecimal());
+    assertThrows(IllegalArgumentException.class, () -> Money.of(new BigDecimal("0.001"), Money.ZAR));
+  }
+
+  @Test
+  @DisplayName("Arithmetic should be exact and fail on overflow")
+  void arithmeticShouldBeExact() {
+    var price = Money.zar("0.10");
+
+    assertEquals(Money.zar("0.30"), price.plus(price).plus(price));
+    assertEquals(Money.zar("-0.20"), price.minus(Money.zar("0.30")));
+    assertEquals(Money.zar("2.50"), price.times(25));
+    assertThrows(ArithmeticException.class, () -> Money.zar(Long.MAX_VALUE).plus(Money.zar(1)));
+    assertThrows(ArithmeticException.class, () -> Money.zar(Long.MAX_VALUE / 2).times(3));
+  }
+
+  @Test
+  @DisplayName("Percentage changes should round half up to whole cents")
+  void adjustedByShouldRoundHalfUp() {
+    assertEquals(Money.zar("658.90"), Money.zar("599.00").adjustedBy(1_000));
+    assertEquals(Money.zar("0.09"), Money.zar("0.17").adjustedBy(-5_000)); // 0.085
+    assertEquals(Money.zar("-0.09"), Money.zar("-0.17").adjustedBy(-5_000));
+    assertEquals(Money.zar("0.00"), Money.zar("10.00").adjustedBy(-10_000));
+  }
+
+  @Test
+  @DisplayName("Formatting should pad fractions and keep the sign")
+  void formatShouldPadFractions() {
+    assertEquals("R 25999.99", Money.zar("25999.99").format());
+    assertEquals("R 1.05", Money.zar("1.05").format());
+    assertEquals("0.00", Money.zar(0).toPlainString());
+    assertEquals("-0.50", Money.zar("-0.5").toPlainString());
+    assertEquals("-92233720368547758.08", Money.zar(Long.MIN_VALUE).toPlainString());
+    assertEquals("1000", Money.parse("1000", Currency.getInstance("JPY")).toPlainString());
+  }
+
+  @Test
+  @DisplayName("Different currencies should never be combined or compared")
+  void currenciesShouldNotMix() {
+    var rand = Money.zar("1.00");
+    var dollar = Money.parse("1.00", Currency.getInstance("USD"));
+
+    assertThrows(IllegalArgumentException.class, () -> rand.plus(dollar));
+    assertThrows(IllegalArgumentException.class, () -> rand.compareTo(dollar));
+    assertNotEquals(rand, dollar);
+    assertTrue(Money.zar("0.01").compareTo(Money.zar("0.10")) < 0);
+  }
+}
@@ -0,0 +1,80 @@
+package com.leanring.vaadin.flow.services.diagnostics.control;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// Unit tests for RetainedSizeEstimator.
+class RetainedSizeEstimatorTest {
+
+  private final RetainedSizeEstimator estimator = new RetainedSizeEstimator(object -> object instanceof Shared, 10_000);
+
+  @Test
+  @DisplayName("Object and array sizes should follow the compressed-reference layout")
+  void shouldUseCompressedLayout() {
+    assertEquals(16, estimator.estimate(new Leaf(1)));
+    assertEquals(16, estimator.estimate(new Object[0]));
+    assertEquals(56, estimator.estimate(new long[5]));
+    assertEquals(0, estimator.estimate(null));
+  }
+
+  @Test
+  @DisplayName("Children, collections and map entries should be counted once")
+  void shouldCountReachableObjectsOnce() {
+    var leaf = new Leaf(7);
+    var single = estimator.estimate(new Node(leaf, null, List.of()));
+    var shared = estimator.estimate(new Node(leaf, leaf, List.of(leaf, leaf)));
+    var distinct = estimator.estimate(new Node(new Leaf(1), new Leaf(2), List.of(new Leaf(3), new Leaf(4))));
+
+    assertTrue(single > 16, "Leaf not counted: " + single);
+    assertEquals(3 * 16, distinct - shared, "Three more leaves");
+
+    var map = new HashMap<String, Leaf>();
+    for (int i = 0; i < 100; i++) {
+      map.put("key" + i, new Leaf(i));
+    }
+    assertTrue(estimator.estimate(new Node(null, null, List.of(map))) > 100 * 16, "Map values not counted");
+  }
+
+  @Test
+  @DisplayName("Shared objects should be neither counted nor traversed")
+  void shouldSkipSharedObjects() {
+    var big = new ArrayList<Leaf>();
+    for (int i = 0; i < 1_000; i++) {
+      big.add(new Leaf(i));
+    }
+    var withShared = estimator.estimate(new Node(new Shared(big), null, List.of()));
+    var without = estimator.estimate(new Node(null, null, List.of()));
+
+    assertEquals(without, withShared);
+  }
+
+  @Test
+  @DisplayName("Cycles should terminate and large graphs should stop at the object limit")
+  void shouldTerminate() {
+    var cyclic = new ArrayList<Object>();
+    cyclic.add(cyclic);
+    assertTrue(estimator.estimate(cyclic) > 0);
+
+    var limited = new RetainedSizeEstimator(object -> false, 100);
+    var chain = new Object[] {null};
+    for (int i = 0; i < 10_000; i++) {
+      chain = new Object[] {chain};
+    }
+    assertTrue(limited.estimate(chain) <= 101 * 24, "Walk should stop after 100 objects");
+  }
+
+  record Leaf(int value) {
+  }
+
+  record Node(Object left, Object right, List<Object> children) {
+  }
+
+  record Shared(Object payload) {
+  }
+}
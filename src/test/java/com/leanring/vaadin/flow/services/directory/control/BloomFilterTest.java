@@ -0,0 +1,41 @@
+package com.leanring.vaadin.flow.services.directory.control;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// Unit tests for BloomFilter.
+class BloomFilterTest {
+
+  private static final int KEYS = 100_000;
+
+  @Test
+  @DisplayName("Added keys should always be reported as possibly present")
+  void shouldHaveNoFalseNegatives() {
+    var filter = new BloomFilter(KEYS, 0.01);
+    IntStream.range(0, KEYS).parallel().forEach(i -> filter.add("person" + i + "@example.co.za"));
+
+    for (int i = 0; i < KEYS; i++) {
+      assertTrue(filter.mightContain("person" + i + "@example.co.za"), "Missing key " + i);
+    }
+  }
+
+  @Test
+  @DisplayName("False-positive rate should stay near the configured target")
+  void falsePositiveRateShouldMatchSizing() {
+    var filter = new BloomFilter(KEYS, 0.01);
+    for (int i = 0; i < KEYS; i++) {
+      filter.add("person" + i + "@example.co.za");
+    }
+
+    var falsePositives = IntStream.range(0, KEYS)
+      .filter(i -> filter.mightContain("other" + i + "@example.com"))
+      .count();
+
+    assertEquals(7, filter.hashCount());
+    assertTrue(falsePositives < KEYS * 0.02, "False positives: " + falsePositives);
+  }
+}
@@ -0,0 +1,65 @@
+package com.leanring.vaadin.flow.services.directory.control;
+
+import com.leanring.vaadin.flow.forms.Person;
+import com.leanring.vaadin.flow.services.directory.control.PersonDirectoryService.SortField;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// Unit tests for PersonDirectoryService.
+/// Compares indexed results with a brute-force scan over a generated directory.
+class PersonDirectoryServiceTest {
+
+  private static final int SIZE = 20_000;
+
+  private PersonDirectoryService service;
+  private List<Person> all;
+
+  @BeforeEach
+  void setUp() {
+    service = new PersonDirectoryService(SIZE);
+    all = service.fetch("", SortField.NAME, false, 0, SIZE);
+  }
+
+  @Test
+  @DisplayName("Prefix filter should match name or email case-insensitively")
+  void countShouldMatchBruteForce() {
+    for (var prefix : List.of("th", "Th", "SIPHO", "nandi.", "tebogo@", "zz")) {
+      var expected = all.stream().filter(p -> startsWith(p, prefix)).count();
+      assertEquals(expected, service.count(prefix), "Prefix " + prefix);
+    }
+  }
+
+  @Test
+  @DisplayName("Pages should be sorted and contiguous in both directions")
+  void fetchShouldPageInSortOrder() {
+    var byEmail = Comparator.comparing(Person::email, String.CASE_INSENSITIVE_ORDER);
+    var first = service.fetch("th", SortField.EMAIL, false, 0, 50);
+    var second = service.fetch("th", SortField.EMAIL, false, 50, 50);
+    var descending = service.fetch("th", SortField.EMAIL, true, 0, 1);
+
+    assertEquals(50, first.size());
+    assertTrue(byEmail.compare(first.getLast(), second.getFirst()) <= 0);
+    assertEquals(all.stream().filter(p -> startsWith(p, "th")).max(byEmail).orElseThrow().email(),
+      descending.getFirst().email());
+  }
+
+  @Test
+  @DisplayName("Original sample persons should be part of the directory")
+  void samplesShouldBeIndexed() {
+    var result = service.fetch("tebogo@", SortField.NAME, false, 0, 10);
+
+    assertEquals(1, result.size());
+    assertEquals("Tebogo Nkwane", result.getFirst().name());
+  }
+
+  private static boolean startsWith(Person person, String prefix) {
+    return person.name().regionMatches(true, 0, prefix, 0, prefix.length())
+      || person.email().regionMatches(true, 0, prefix, 0, prefix.length());
+  }
+}
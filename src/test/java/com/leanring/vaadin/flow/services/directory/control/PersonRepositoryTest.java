@@ -0,0 +1,88 @@
+package com.leanring.vaadin.flow.services.directory.control;
+
+import com.leanring.vaadin.flow.forms.Address;
+import com.leanring.vaadin.flow.forms.PersonEntity;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// Integration tests for PersonRepository against the embedded database.
+/// Not transactional: the writer thread commits its own transactions.
+@DataJpaTest
+@Import(PersonRepository.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class PersonRepositoryTest {
+
+  @Autowired
+  private PersonRepository repository;
+
+  @Autowired
+  private EntityManager entityManager;
+
+  @Test
+  @DisplayName("Concurrent saves should all be stored with shared localities")
+  void concurrentSavesShouldBeGroupCommitted() {
+    var before = repository.count();
+    var saves = IntStream.range(0, 300).parallel()
+      .mapToObj(i -> repository.save(person(i, i % 3 == 0 ? "Cape Town" : "Durban", i % 3 == 0 ? "8001" : "4001")))
+      .toArray(CompletableFuture[]::new);
+    CompletableFuture.allOf(saves).join();
+
+    assertEquals(before + 300, repository.count());
+    var localities = entityManager
+      .createQuery("select count(l) from Locality l where l.city in ('Cape Town', 'Durban')", Long.class)
+      .getSingleResult();
+    assertEquals(2, localities, "Repeated city/postal pairs must share one row");
+  }
+
+  @Test
+  @DisplayName("Stored persons should read city and postal code through the locality")
+  void storedPersonShouldExposeLocality() {
+    var saved = repository.save(person(1_000, "Pretoria", "0002")).join();
+    var loaded = entityManager.find(PersonEntity.class, saved.getId());
+
+    assertEquals("Pretoria", loaded.getAddress().getCity());
+    assertEquals("0002", loaded.getAddress().getPostalCode());
+  }
+
+  @Test
+  @DisplayName("A failing save listener should neither fail nor hold up the committed saves")
+  void failingListenerShouldNotBlockSaves() throws Exception {
+    var registration = repository.addSaveListener(person -> {
+      throw new IllegalStateException("Listener failed");
+    });
+    try {
+      var saves = IntStream.range(2_000, 2_020)
+        .mapToObj(i -> repository.save(person(i, "Durban", "4001")))
+        .toArray(CompletableFuture[]::new);
+      CompletableFuture.allOf(saves).get(10, TimeUnit.SECONDS);
+    } finally {
+      registration.remove();
+    }
+  }
+
+  @Test
+  @DisplayName("Saving an already stored person should be rejected")
+  void saveShouldRejectStoredPerson() {
+    var saved = repository.save(person(2_000, "Polokwane", "0700")).join();
+
+    assertThrows(IllegalArgumentException.class, () -> repository.save(saved));
+  }
+
+  private static PersonEntity person(int i, String city, String postalCode) {
+    var person = new PersonEntity("Person " + i, "person" + i + "@example.co.za", "+27123456789");
+    person.setAddress(new Address(i + " Main Street", city, postalCode));
+    return person;
+  }
+}
@@ -0,0 +1,119 @@
+package com.leanring.vaadin.flow.services.inventory.control;
+
+import com.leanring.vaadin.flow.services.catalog.control.ProductService;
+import com.leanring.vaadin.flow.services.catalog.entity.Product;
+import com.leanring.vaadin.flow.services.inventory.entity.Reservation;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// JMH contention benchmark: every thread hits the same product, as in a flash sale.
+/// Excluded from the default build; run with `mvn -Pjmh test -Dtest=ReservationBenchmark`.
+///
+/// - `reserveAndRelease`: a hold and its release on a product with plenty of stock
+/// - `reserveSoldOut`: a rejected hold on a product with no stock left
+/// - `adjustStockRoundTrip`: the immediate decrement and restock this engine replaces
+@Tag("jmh")
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(Threads.MAX)
+@Fork(value = 1, jvmArgsAppend = "--enable-preview")
+public class ReservationBenchmark {
+
+  private static final Duration TTL = Duration.ofSeconds(1);
+
+  private ProductService productService;
+  private ReservationService reservations;
+  private long hotProduct;
+  private long soldOutProduct;
+
+  @Setup
+  public void setUp() {
+    productService = new ProductService();
+    var all = productService.findAll();
+    hotProduct = productService.update(all.get(0).withStock(Integer.MAX_VALUE / 2)).id();
+    soldOutProduct = productService.update(all.get(1).withStock(0)).id();
+    reservations = new ReservationService(productService, 10, 1024, 60, 1);
+  }
+
+  @TearDown
+  public void tearDown() {
+    reservations.shutdown();
+  }
+
+  /// Per-thread key sequence, so keys never collide between threads
+  @State(Scope.Thread)
+  public static class Keys {
+    private static final AtomicInteger THREADS = new AtomicInteger();
+    private final String prefix = THREADS.incrementAndGet() + ":";
+    private long next;
+
+    String next() {
+      return prefix + next++;
+    }
+  }
+
+  @Benchmark
+  public boolean reserveAndRelease(Keys keys) {
+    var key = keys.next();
+    reservations.reserve(key, hotProduct, 1, TTL);
+    return reservations.release(key);
+  }
+
+  @Benchmark
+  public Reservation reserveSoldOut(Keys keys) {
+    try {
+      return reservations.reserve(keys.next(), soldOutProduct, 1, TTL);
+    } catch (InsufficientStockException e) {
+      return null;
+    }
+  }
+
+  @Benchmark
+  public Product adjustStockRoundTrip() {
+    productService.adjustStock(hotProduct, -1);
+    return productService.adjustStock(hotProduct, 1);
+  }
+
+  @Test
+  @DisplayName("One hot product should take hundreds of thousands of reservations per second")
+  void hotProductShouldSustainFlashSale() throws Exception {
+    var options = new OptionsBuilder()
+      .include(ReservationBenchmark.class.getName())
+      .build();
+    var scores = new HashMap<String, Double>();
+    for (var result : new Runner(options).run()) {
+      var label = result.getParams().getBenchmark();
+      scores.put(label.substring(label.lastIndexOf('.') + 1), result.getPrimaryResult().getScore());
+    }
+
+    assertTrue(scores.get("reserveAndRelease") > 200_000,
+      "Reserve and release should exceed 200k pairs/s: " + scores);
+    assertTrue(scores.get("reserveSoldOut") > scores.get("reserveAndRelease"),
+      "Rejecting on a sold-out product should be cheaper than holding: " + scores);
+  }
+}
@@ -0,0 +1,185 @@
+package com.leanring.vaadin.flow.services.inventory.control;
+
+import com.leanring.vaadin.flow.services.catalog.control.ProductService;
+import com.leanring.vaadin.flow.services.catalog.entity.Product;
+import com.leanring.vaadin.flow.services.inventory.entity.Reservation.Status;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// Unit tests for ReservationService.
+/// Expiry is driven by hand through a fake clock instead of the ticker thread.
+class ReservationServiceTest {
+
+  private static final Duration TTL = Duration.ofSeconds(30);
+  private static final Duration RETENTION = Duration.ofMinutes(5);
+
+  private final AtomicLong now = new AtomicLong(1_000_000);
+  private ProductService products;
+  private ReservationService reservations;
+  private Product product;
+
+  @BeforeEach
+  void setUp() {
+    products = new ProductService();
+    reservations = new ReservationService(products, now::get, 100, 64, Duration.ofMinutes(15), RETENTION);
+    product = products.findAll().getFirst();
+  }
+
+  @AfterEach
+  void tearDown() {
+    reservations.shutdown();
+  }
+
+  @Test
+  @DisplayName("Racing buyers should get exactly the stock near zero")
+  void concurrentReservationsShouldNotOversell() throws Exception {
+    withStock(1_000);
+
+    var reserved = race(8, 500, 1);
+
+    assertEquals(1_000, reserved.size());
+    assertEquals(0, reservations.getAvailable(product.id()));
+    reserved.forEach(reservations::commit);
+    assertEquals(0, products.findById(product.id()).orElseThrow().stock());
+  }
+
+  @Test
+  @DisplayName("Racing buyers should get exactly the stock on the fetch-and-add path")
+  void fastPathShouldNotOversell() throws Exception {
+    var stock = (int) StockCounter.FAST_PATH_MARGIN + 10_000;
+    withStock(stock);
+
+    var reserved = race(8, stock / 8 / 3 + 1_000, 3);
+
+    assertEquals(stock / 3, reserved.size());
+    assertEquals(stock % 3, reservations.getAvailable(product.id()));
+  }
+
+  @Test
+  @DisplayName("Repeated calls with one key should take stock once")
+  void keysShouldBeIdempotent() {
+    withStock(10);
+
+    var first = reservations.reserve("order-1", product.id(), 4, TTL);
+    var retry = reservations.reserve("order-1", product.id(), 4, TTL);
+
+    assertEquals(first, retry);
+    assertEquals(6, reservations.getAvailable(product.id()));
+    assertThrows(IllegalArgumentException.class,
+      () -> reservations.reserve("order-1", product.id(), 5, TTL));
+
+    assertEquals(Status.COMMITTED, reservations.commit("order-1").status());
+    assertEquals(Status.COMMITTED, reservations.commit("order-1").status());
+    assertFalse(reservations.release("order-1"));
+    assertEquals(6, products.findById(product.id()).orElseThrow().stock());
+    assertEquals(6, reservations.getAvailable(product.id()));
+  }
+
+  @Test
+  @DisplayName("Abandoned holds should expire and hand their units back")
+  void holdsShouldExpire() {
+    withStock(10);
+    reservations.reserve("abandoned", product.id(), 3, TTL);
+    reservations.reserve("late", product.id(), 2, TTL);
+    reservations.reserve("released", product.id(), 1, TTL);
+    assertTrue(reservations.release("released"));
+    assertEquals(5, reservations.getAvailable(product.id()));
+
+    now.addAndGet(TTL.toMillis());
+    assertThrows(IllegalStateException.class, () -> reservations.commit("late"));
+    reservations.expireDue();
+
+    assertEquals(Status.EXPIRED, reservations.find("abandoned").status());
+    assertEquals(Status.RELEASED, reservations.find("released").status());
+    assertEquals(10, reservations.getAvailable(product.id()));
+    assertEquals(10, products.findById(product.id()).orElseThrow().stock());
+
+    now.addAndGet(RETENTION.toMillis());
+    reservations.expireDue();
+    assertNull(reservations.find("abandoned"));
+    assertThrows(IllegalArgumentException.class, () -> reservations.commit("abandoned"));
+  }
+
+  @Test
+  @DisplayName("Stock changes made elsewhere should move the available units")
+  void catalogChangesShouldBeFollowed() {
+    withStock(5);
+    reservations.reserve("a", product.id(), 4, TTL);
+    reservations.reserve("b", product.id(), 1, TTL);
+
+    products.adjustStock(product.id(), 3);
+    assertEquals(3, reservations.getAvailable(product.id()));
+
+    reservations.commit("a");
+    assertEquals(4, products.findById(product.id()).orElseThrow().stock());
+    assertEquals(3, reservations.getAvailable(product.id()));
+
+    var current = products.findById(product.id()).orElseThrow();
+    products.update(current.withStock(0));
+    assertThrows(InsufficientStockException.class, () -> reservations.reserve("c", product.id(), 1, TTL));
+    assertThrows(InsufficientStockException.class, () -> reservations.commit("b"));
+    assertEquals(Status.RELEASED, reservations.find("b").status());
+    assertEquals(0, reservations.getAvailable(product.id()));
+  }
+
+  @Test
+  @DisplayName("A failing change listener should not undo a commit")
+  void listenerFailureShouldNotReleaseCommittedHold() {
+    withStock(5);
+    products.addChangeListener(change -> {
+      throw new IllegalArgumentException("listener failed");
+    });
+    reservations.reserve("a", product.id(), 2, TTL);
+
+    assertEquals(Status.COMMITTED, reservations.commit("a").status());
+    assertEquals(3, products.findById(product.id()).orElseThrow().stock());
+    assertEquals(3, reservations.getAvailable(product.id()));
+  }
+
+  /// Lets threads reserve until each has made its attempts
+  /// @return Keys of the successful reservations
+  private List<String> race(int threads, int attemptsPerThread, int quantity) throws InterruptedException {
+    var reserved = new ConcurrentLinkedQueue<String>();
+    var start = new CountDownLatch(1);
+    var workers = new ArrayList<Thread>();
+    for (int t = 0; t < threads; t++) {
+      var thread = t;
+      workers.add(Thread.ofPlatform().start(() -> {
+        try {
+          start.await();
+        } catch (InterruptedException e) {
+          return;
+        }
+        for (int i = 0; i < attemptsPerThread; i++) {
+          var key = thread + "-" + i;
+          try {
+            reservations.reserve(key, product.id(), quantity, TTL);
+            reserved.add(key);
+          } catch (InsufficientStockException e) {
+            // Sold out for this buyer
+          }
+        }
+      }));
+    }
+    start.countDown();
+    for (var worker : workers) {
+      worker.join();
+    }
+    return List.copyOf(reserved);
+  }
+
+  private void withStock(int stock) {
+    product = products.update(products.findById(product.id()).orElseThrow().withStock(stock));
+  }
+}
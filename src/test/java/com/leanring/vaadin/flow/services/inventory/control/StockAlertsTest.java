@@ -0,0 +1,129 @@
+package com.leanring.vaadin.flow.services.inventory.control;
+
+import com.leanring.vaadin.flow.services.catalog.control.ProductService;
+import com.leanring.vaadin.flow.services.catalog.entity.Category;
+import com.leanring.vaadin.flow.services.catalog.entity.Product;
+import com.leanring.vaadin.flow.services.inventory.entity.StockAlert;
+import com.leanring.vaadin.flow.services.inventory.entity.StockAlert.Level;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// Unit tests for StockAlerts.
+/// The debounce delay elapses on a fake clock; alerts are fired by hand.
+class StockAlertsTest {
+
+  private static final long DEBOUNCE = 2_000;
+
+  private final AtomicLong now = new AtomicLong(1_000_000);
+  private final List<StockAlert> raised = new ArrayList<>();
+  private ProductService products;
+  private StockAlerts alerts;
+  private Product product;
+
+  @BeforeEach
+  void setUp() {
+    products = new ProductService();
+    product = products.findAll().getFirst();
+    product = products.update(product.withStock(12));
+    alerts = new StockAlerts(products, now::get, 10, DEBOUNCE);
+    alerts.addAlertListener(raised::add);
+  }
+
+  @AfterEach
+  void tearDown() {
+    alerts.shutdown();
+  }
+
+  @Test
+  @DisplayName("Crossing the threshold should raise one alert per level change")
+  void crossingShouldRaiseAlerts() {
+    products.adjustStock(product.id(), -3);
+    products.adjustStock(product.id(), -1);
+    elapse();
+
+    products.adjustStock(product.id(), -8);
+    elapse();
+
+    products.adjustStock(product.id(), 20);
+    elapse();
+
+    assertEquals(List.of(Level.LOW, Level.OUT_OF_STOCK, Level.IN_STOCK), levels());
+    assertEquals(8, raised.getFirst().stock());
+    assertTrue(alerts.getActiveAlerts().stream().noneMatch(a -> a.productId() == product.id()));
+  }
+
+  @Test
+  @DisplayName("A level that does not hold for the debounce delay should not raise an alert")
+  void flappingShouldBeDebounced() {
+    products.adjustStock(product.id(), -3);
+    now.addAndGet(DEBOUNCE / 2);
+    products.adjustStock(product.id(), 3);
+    elapse();
+
+    assertEquals(List.of(), raised);
+
+    products.adjustStock(product.id(), -4);
+    now.addAndGet(DEBOUNCE / 2);
+    products.adjustStock(product.id(), 1);
+    elapse();
+
+    assertEquals(List.of(Level.LOW), levels());
+    assertEquals(9, raised.getFirst().stock());
+  }
+
+  @Test
+  @DisplayName("Product rules should override category rules, which override the default")
+  void rulesShouldApplyMostSpecificThreshold() {
+    alerts.setCategoryThreshold(product.category(), 20);
+    elapse();
+    assertEquals(List.of(Level.LOW), levels());
+    assertEquals(20, raised.getFirst().threshold());
+
+    alerts.setProductThreshold(product.id(), 5);
+    elapse();
+    assertEquals(List.of(Level.LOW, Level.IN_STOCK), levels());
+    assertEquals(5, alerts.getThreshold(products.findById(product.id()).orElseThrow()));
+
+    alerts.setProductThreshold(product.id(), null);
+    alerts.setCategoryThreshold(product.category(), null);
+    elapse();
+    assertEquals(List.of(Level.LOW, Level.IN_STOCK), levels());
+    assertThrows(IllegalArgumentException.class, () -> alerts.setCategoryThreshold(Category.BOOKS, -1));
+  }
+
+  @Test
+  @DisplayName("Active alerts should list low and empty products, worst first")
+  void activeAlertsShouldTrackCurrentLevels() {
+    var before = alerts.getActiveAlerts().size();
+    products.adjustStock(product.id(), -12);
+    elapse();
+
+    var active = alerts.getActiveAlerts();
+    assertEquals(before + 1, active.size());
+    assertTrue(active.stream().anyMatch(a -> a.productId() == product.id() && a.level() == Level.OUT_OF_STOCK));
+    for (int i = 1; i < active.size(); i++) {
+      assertTrue(active.get(i - 1).level().compareTo(active.get(i).level()) >= 0, "Worst first: " + active);
+    }
+    assertEquals(active.subList(0, 1), alerts.getActiveAlerts(1));
+
+    products.delete(product.id());
+    assertEquals(before, alerts.getActiveAlerts().size());
+  }
+
+  private void elapse() {
+    now.addAndGet(DEBOUNCE + 100);
+    alerts.fireDue();
+  }
+
+  private List<Level> levels() {
+    return raised.stream().map(StockAlert::level).toList();
+  }
+}
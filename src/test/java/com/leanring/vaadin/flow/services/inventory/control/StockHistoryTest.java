@@ -0,0 +1,156 @@
+package com.leanring.vaadin.flow.services.inventory.control;
+
+import com.leanring.vaadin.flow.services.catalog.control.ProductChange;
+import com.leanring.vaadin.flow.services.catalog.control.ProductService;
+import com.leanring.vaadin.flow.services.catalog.entity.Category;
+import com.leanring.vaadin.flow.services.catalog.entity.Product;
+import com.leanring.vaadin.flow.services.inventory.entity.CategoryMovement;
+import com.leanring.vaadin.flow.services.inventory.entity.StockBucket;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// Unit tests for StockHistory.
+/// Time is driven by a fake clock; roll-ups are triggered by hand.
+class StockHistoryTest {
+
+  private static final Instant START = Instant.parse("2026-03-02T08:00:00Z");
+
+  private final AtomicLong now = new AtomicLong(START.toEpochMilli());
+  private ProductService products;
+  private StockHistory history;
+  private Product product;
+
+  @BeforeEach
+  void setUp() {
+    products = new ProductService();
+    product = products.findAll().getFirst();
+    product = products.update(product.withStock(100));
+    history = new StockHistory(products, now::get, ZoneOffset.UTC, Duration.ofHours(1),
+      Duration.ofDays(1), Duration.ofDays(30), Duration.ofDays(365));
+  }
+
+  @AfterEach
+  void tearDown() {
+    history.shutdown();
+  }
+
+  @Test
+  @DisplayName("Movements should be answered at the requested resolution")
+  void historyShouldBucketMovements() {
+    move(-5, 0);
+    move(-3, 30);
+    move(10, 120);
+
+    var minutes = history.history(product.id(), START, START.plus(1, ChronoUnit.HOURS), ChronoUnit.MINUTES);
+    var hours = history.history(product.id(), START, START.plus(1, ChronoUnit.HOURS), ChronoUnit.HOURS);
+
+    assertEquals(List.of(
+      new StockBucket(START, START.plusSeconds(60), 100, 92, 92, 100, 0, 8),
+      new StockBucket(START.plusSeconds(120), START.plusSeconds(180), 92, 102, 92, 102, 10, 0)
+    ), minutes);
+    assertEquals(List.of(
+      new StockBucket(START, START.plus(1, ChronoUnit.HOURS), 100, 102, 92, 102, 10, 8)
+    ), hours);
+    assertEquals(List.of(), history.history(product.id(), START.plusSeconds(60), START.plusSeconds(120),
+      ChronoUnit.MINUTES));
+  }
+
+  @Test
+  @DisplayName("Aged movements should survive in coarser buckets until past retention")
+  void rollUpShouldKeepTotals() {
+    move(-5, 0);
+    move(-3, 30);
+    move(10, 120);
+    var expected = new StockBucket(START, START.plus(1, ChronoUnit.HOURS), 100, 102, 92, 102, 10, 8);
+    var from = START.minus(1, ChronoUnit.DAYS);
+    var to = START.plus(1, ChronoUnit.DAYS);
+
+    now.addAndGet(Duration.ofDays(2).toMillis());
+    history.rollUp();
+    assertEquals(List.of(expected), history.history(product.id(), from, to, ChronoUnit.MINUTES));
+
+    now.addAndGet(Duration.ofDays(40).toMillis());
+    history.rollUp();
+    var day = history.history(product.id(), from, to, ChronoUnit.MINUTES);
+    assertEquals(1, day.size());
+    assertEquals(Duration.ofDays(1), day.getFirst().width());
+    assertEquals(expected.unitsOut(), day.getFirst().unitsOut());
+    assertEquals(expected.close(), day.getFirst().close());
+
+    now.addAndGet(Duration.ofDays(365).toMillis());
+    history.rollUp();
+    assertEquals(List.of(), history.history(product.id(), from, to, ChronoUnit.DAYS));
+    assertEquals(List.of(), history.unitsMovedPerCategory(LocalDate.MIN, LocalDate.MAX));
+  }
+
+  @Test
+  @DisplayName("Units moved should be totalled per category and day")
+  void unitsMovedShouldGroupByCategoryAndDay() {
+    var laptop = products.findByCategory(Category.ELECTRONICS).getFirst();
+    var book = products.findByCategory(Category.BOOKS).getFirst();
+    products.adjustStock(book.id(), 7);
+    products.adjustStock(laptop.id(), -4);
+    products.adjustStock(laptop.id(), 1);
+    now.addAndGet(Duration.ofDays(1).toMillis());
+    products.adjustStock(book.id(), -2);
+
+    var day = LocalDate.ofInstant(START, ZoneOffset.UTC);
+    assertEquals(List.of(
+      new CategoryMovement(day, Category.ELECTRONICS, 1, 4),
+      new CategoryMovement(day, Category.BOOKS, 7, 0),
+      new CategoryMovement(day.plusDays(1), Category.BOOKS, 0, 2)
+    ), history.unitsMovedPerCategory(day, day.plusDays(1)));
+    assertEquals(5, history.unitsMovedPerCategory(day, day).getFirst().unitsMoved());
+  }
+
+  @Test
+  @DisplayName("Changes published out of order should not shift the stock")
+  void outOfOrderChangesShouldKeepStock() {
+    var first = product.withStock(95).nextVersion();
+    var second = first.withStock(90).nextVersion();
+    history.onCatalogChange(new ProductChange(first, second));
+    history.onCatalogChange(new ProductChange(product, first));
+    now.addAndGet(1_000);
+    history.onCatalogChange(new ProductChange(second, second.withStock(93).nextVersion()));
+
+    var minute = history.history(product.id(), START, START.plusSeconds(60), ChronoUnit.MINUTES).getFirst();
+    assertEquals(90, minute.low());
+    assertEquals(93, minute.close());
+  }
+
+  @Test
+  @DisplayName("Memory should stay bounded however many movements are recorded")
+  void memoryShouldStayBounded() {
+    var seconds = (int) Duration.ofDays(3).toSeconds();
+    for (int second = 0; second < seconds; second++) {
+      products.adjustStock(product.id(), second % 2 == 0 ? -1 : 1);
+      now.addAndGet(1_000);
+      if (second % 60 == 0) {
+        history.rollUp();
+      }
+    }
+
+    var all = history.history(product.id(), START, Instant.ofEpochMilli(now.get()), ChronoUnit.DAYS);
+    assertEquals(seconds / 2, all.stream().mapToLong(StockBucket::unitsOut).sum());
+    assertEquals(seconds / 2, all.stream().mapToLong(StockBucket::unitsIn).sum());
+    assertEquals(100, all.getLast().close());
+    assertTrue(history.retainedBytes() < 256 * 1024, "Retained " + history.retainedBytes() + " bytes");
+  }
+
+  private void move(int adjustment, int secondsAfterStart) {
+    now.set(START.plusSeconds(secondsAfterStart).toEpochMilli());
+    products.adjustStock(product.id(), adjustment);
+  }
+}
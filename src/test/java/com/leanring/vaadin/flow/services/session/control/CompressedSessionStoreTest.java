@@ -0,0 +1,101 @@
+package com.leanring.vaadin.flow.services.session.control;
+
+import org.apache.catalina.core.StandardContext;
+import org.apache.catalina.session.StandardSession;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.io.IOException;
+import java.io.NotSerializableException;
+import java.io.Serializable;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// Unit tests for CompressedSessionStore.
+class CompressedSessionStoreTest {
+
+  @TempDir
+  Path directory;
+
+  private final DefaultListableBeanFactory beans = new DefaultListableBeanFactory();
+  private PassivatingSessionManager manager;
+  private CompressedSessionStore store;
+
+  @BeforeEach
+  void setUp() {
+    beans.registerSingleton("catalog", new Catalog());
+    manager = new PassivatingSessionManager(1_000, () -> false);
+    manager.setContext(new StandardContext());
+    store = new CompressedSessionStore(directory, beans);
+    manager.setStore(store);
+  }
+
+  @Test
+  @DisplayName("Saved sessions should load with attributes and live bean references")
+  void shouldRoundTripSessions() throws Exception {
+    var session = session("a1", System.currentTimeMillis(), 1800);
+    session.setAttribute("text", "hello");
+    session.setAttribute("view", new ViewState(List.of("laptop", "coffee"), beans.getBean("catalog")));
+
+    store.save(session);
+    var restored = store.load("a1");
+
+    assertNotNull(restored);
+    assertEquals("a1", restored.getId());
+    assertEquals(1800, restored.getMaxInactiveInterval());
+    assertEquals("hello", restored.getSession().getAttribute("text"));
+    var view = (ViewState) restored.getSession().getAttribute("view");
+    assertEquals(List.of("laptop", "coffee"), view.searches());
+    assertSame(beans.getBean("catalog"), view.service(), "Singletons must be restored by reference");
+    assertArrayEquals(new String[] {"a1"}, store.keys());
+  }
+
+  @Test
+  @DisplayName("Sessions holding non-serializable state should not be written")
+  void shouldRejectNonSerializableSessions() throws Exception {
+    var session = session("b2", System.currentTimeMillis(), 1800);
+    session.setAttribute("view", new ViewState(List.of(), new Object()));
+
+    assertThrows(NotSerializableException.class, () -> store.save(session));
+    assertEquals(0, store.getSize());
+    assertNull(store.load("b2"));
+  }
+
+  @Test
+  @DisplayName("Expired sessions should be removed, valid ones kept")
+  void shouldExpireFromHeader() throws Exception {
+    store.save(session("old", System.currentTimeMillis() - 10_000, 1));
+    store.save(session("new", System.currentTimeMillis(), 1800));
+
+    store.processExpires();
+
+    assertArrayEquals(new String[] {"new"}, store.keys());
+  }
+
+  @Test
+  @DisplayName("Session IDs must not escape the store directory")
+  void shouldRejectUnsafeIds() {
+    assertThrows(IOException.class, () -> store.load("../etc/passwd"));
+  }
+
+  private StandardSession session(String id, long lastAccessed, int maxInactiveSeconds) {
+    var session = (StandardSession) manager.createEmptySession();
+    session.setValid(true);
+    session.setCreationTime(lastAccessed);
+    session.setMaxInactiveInterval(maxInactiveSeconds);
+    session.setId(id, false);
+    return session;
+  }
+
+  /// Stand-in for a Spring service: not serializable, must travel by reference
+  static final class Catalog {
+  }
+
+  record ViewState(List<String> searches, Object service) implements Serializable {
+  }
+}
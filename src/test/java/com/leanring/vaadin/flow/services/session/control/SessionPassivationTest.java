@@ -0,0 +1,34 @@
+package com.leanring.vaadin.flow.services.session.control;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.DefaultListableBeanFactory;
+
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/// Unit tests for SessionPassivation.
+class SessionPassivationTest {
+
+  private final DefaultListableBeanFactory beans = new DefaultListableBeanFactory();
+
+  @Test
+  @DisplayName("Idle threshold should have to stay below the heartbeat interval")
+  void idleThresholdShouldStayBelowHeartbeat() {
+    assertDoesNotThrow(() -> passivation(true, 120, 300));
+    assertThrows(IllegalArgumentException.class, () -> passivation(true, 300, 300));
+    assertThrows(IllegalArgumentException.class, () -> passivation(true, 600, 300));
+  }
+
+  @Test
+  @DisplayName("Threshold should be unchecked without heartbeats or when disabled")
+  void thresholdShouldBeUncheckedWhenIrrelevant() {
+    assertDoesNotThrow(() -> passivation(true, 600, -1));
+    assertDoesNotThrow(() -> passivation(false, 600, 300));
+  }
+
+  private SessionPassivation passivation(boolean enabled, long idleSeconds, long heartbeatSeconds) {
+    return new SessionPassivation(beans, enabled, Path.of("sessions"), idleSeconds, 0.75, 0, heartbeatSeconds);
+  }
+}